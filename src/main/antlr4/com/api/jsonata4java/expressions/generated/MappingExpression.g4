@@ -63,6 +63,7 @@ expr:
  | expr 'or' expr                                         # logor
  | expr '?' expr ':' expr                                 # conditional
  | expr CHAIN expr                                        # fct_chain
+ | '|' expr '|' expr (',' expr)? '|'                      # object_transform
  | '(' expr (';' expr)* ')'                               # parens
  | VAR_ID                                                 # var_recall
  | NUMBER                                                 # number
@@ -135,6 +136,7 @@ LE  : '<=' ;
 GT  : '>' ;
 GE  : '>=' ;
 CONCAT : '&';
+PIPE : '|';
 
 EACH : '$each' ;
 SIFT : '$sift' ;
@@ -0,0 +1,130 @@
+/**
+ * (c) Copyright 2018, 2019 IBM Corporation
+ * 1 New Orchard Road,
+ * Armonk, New York, 10504-1722
+ * United States
+ * +1 914 499 1900
+ * support: Nathaniel Mills wnm3@us.ibm.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.api.jsonata4java.expressions.metrics;
+
+import java.util.Map;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * MetricsListener emitting Java Flight Recorder events: one
+ * com.api.jsonata4java.Evaluation event per evaluation and one
+ * com.api.jsonata4java.FunctionCalls event per function called by it. Metrics
+ * are only collected while a recording has the evaluation event enabled.
+ * Requires a JVM providing the jdk.jfr module (Java 11 or 8u262 and later), so
+ * it is only built by the jfr profile; use {@link Metrics#newJfrListener()} to
+ * create it without depending on it at compile time.
+ */
+public class JfrMetricsListener implements MetricsListener {
+
+   @Name("com.api.jsonata4java.Evaluation")
+   @Label("JSONata Evaluation")
+   @Category("JSONata")
+   @Description("Evaluation of a compiled JSONata expression")
+   @StackTrace(false)
+   static class EvaluationEvent extends Event {
+      @Label("Expression")
+      String expression;
+
+      @Label("Latency")
+      @Timespan(Timespan.NANOSECONDS)
+      long latency;
+
+      @Label("Node Visits")
+      long nodeVisits;
+
+      @Label("Allocated")
+      @DataAmount
+      long allocated;
+
+      @Label("Failed")
+      boolean failed;
+
+      @Label("Error")
+      String error;
+   }
+
+   @Name("com.api.jsonata4java.FunctionCalls")
+   @Label("JSONata Function Calls")
+   @Category("JSONata")
+   @Description("Calls of one function made by a JSONata evaluation")
+   @StackTrace(false)
+   static class FunctionCallsEvent extends Event {
+      @Label("Expression")
+      String expression;
+
+      @Label("Function")
+      String function;
+
+      @Label("Calls")
+      long count;
+
+      @Label("Time")
+      @Timespan(Timespan.NANOSECONDS)
+      long time;
+   }
+
+   static final EventType EVALUATION_TYPE = EventType.getEventType(EvaluationEvent.class);
+
+   @Override
+   public boolean isEnabled() {
+      return EVALUATION_TYPE.isEnabled();
+   }
+
+   @Override
+   public void evaluationCompleted(EvaluationMetrics metrics) {
+      commit(metrics, null);
+   }
+
+   @Override
+   public void evaluationFailed(EvaluationMetrics metrics, Throwable error) {
+      commit(metrics, error);
+   }
+
+   void commit(EvaluationMetrics metrics, Throwable error) {
+      EvaluationEvent event = new EvaluationEvent();
+      event.expression = metrics.getExpressionName();
+      event.latency = metrics.getLatencyNanos();
+      event.nodeVisits = metrics.getNodeVisits();
+      event.allocated = metrics.getAllocatedBytes();
+      event.failed = error != null;
+      event.error = error == null ? null : error.getMessage();
+      event.commit();
+      for (Map.Entry<String, EvaluationMetrics.FunctionCalls> entry : metrics.getFunctionCalls().entrySet()) {
+         FunctionCallsEvent fctEvent = new FunctionCallsEvent();
+         fctEvent.expression = metrics.getExpressionName();
+         fctEvent.function = entry.getKey();
+         fctEvent.count = entry.getValue().getCount();
+         fctEvent.time = entry.getValue().getNanos();
+         fctEvent.commit();
+      }
+   }
+}
@@ -14,6 +14,7 @@ import com.api.jsonata4java.expressions.functions.DeclaredFunction;
 import com.api.jsonata4java.expressions.generated.MappingExpressionParser;
 import com.api.jsonata4java.expressions.generated.MappingExpressionParser.ExprContext;
 import com.api.jsonata4java.expressions.generated.MappingExpressionParser.ExprListContext;
+import com.fasterxml.jackson.databind.JsonNode;
 
 /**
  * Class mapping a variable name to a variable or function declaration
@@ -23,6 +24,7 @@ public class Binding {
    String _varname = null;
    ExprContext _expr = null;
    DeclaredFunction _fct = null;
+   JsonNode _value = null;
    BindingType _type;
 
    /**
@@ -91,6 +93,25 @@ public class Binding {
       }
    }
 
+   /**
+    * Constructor using a variable name and an already evaluated value. The value
+    * is bound as is, so no parsing or evaluation is needed when the binding is
+    * used.
+    * 
+    * @param varName
+    *                name of the variable
+    * @param value
+    *                the JSON value assigned to the variable
+    */
+   public Binding(String varName, JsonNode value) {
+      if (varName.startsWith("$") == false) {
+         varName = "$" + varName;
+      }
+      _varname = varName;
+      _value = value;
+      _type = BindingType.VALUE;
+   }
+
    /**
     * @return the name of the variable or function declaration
     */
@@ -114,9 +135,17 @@ public class Binding {
       return _expr;
    }
 
+   /**
+    * @return the value assigned to the variable if the type is
+    *         BindingType.VALUE, otherwise returns null
+    */
+   public JsonNode getValue() {
+      return _value;
+   }
+
    /**
     * 
-    * @return the type of binding (either BindingType.VARIABLE or
+    * @return the type of binding (BindingType.VARIABLE, BindingType.VALUE or
     *         BindingType.FUNCTION)
     */
    public BindingType getType() {
@@ -135,6 +164,12 @@ public class Binding {
          sb.append(_expr.getText());
          break;
       }
+      case VALUE: {
+         sb.append(_varname);
+         sb.append("=");
+         sb.append(_value == null ? "undefined" : _value.toString());
+         break;
+      }
       case FUNCTION: {
          sb.append("function(");
          List<TerminalNode> varList = _fct.getVariables();
@@ -176,8 +211,8 @@ public class Binding {
 }
 
 /**
- * Enumeration for types of Bindings -- VARIABLE or FUNCTION
+ * Enumeration for types of Bindings -- VARIABLE, VALUE or FUNCTION
  */
 enum BindingType {
-   VARIABLE, FUNCTION;
+   VARIABLE, VALUE, FUNCTION;
 }
\ No newline at end of file
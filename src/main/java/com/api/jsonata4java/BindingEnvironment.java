@@ -0,0 +1,298 @@
+/**
+ *
+ */
+package com.api.jsonata4java;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.api.jsonata4java.expressions.EvaluateException;
+import com.api.jsonata4java.expressions.EvaluateRuntimeException;
+import com.api.jsonata4java.expressions.ExpressionsVisitor;
+import com.api.jsonata4java.expressions.ParseException;
+import com.api.jsonata4java.expressions.functions.DeclaredFunction;
+import com.api.jsonata4java.expressions.functions.JavaFunction;
+import com.api.jsonata4java.expressions.functions.NativeFunction;
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Immutable set of variable values and function declarations that is built
+ * once and reused across evaluations. Variable expressions are evaluated when
+ * the environment is created (without a root context), so evaluating an
+ * Expression with an environment only copies references to the precomputed
+ * values.
+ * <p>
+ * JSON values bound by the caller are held by reference rather than copied,
+ * as the environment is meant to avoid per evaluation work. Callers must not
+ * modify a value once it is bound, since evaluations sharing the environment
+ * (possibly concurrently) would see the change.
+ */
+public final class BindingEnvironment {
+
+   /**
+    * Environment with no bindings
+    */
+   public static final BindingEnvironment EMPTY = new BindingEnvironment(new HashMap<String, JsonNode>(),
+         new HashMap<String, DeclaredFunction>());
+
+   final Map<String, JsonNode> _values;
+   final Map<String, DeclaredFunction> _functions;
+   final Map<String, NativeFunction> _nativeFunctions;
+
+   BindingEnvironment(Map<String, JsonNode> values, Map<String, DeclaredFunction> functions) {
+      this(values, functions, new HashMap<String, NativeFunction>());
+   }
+
+   BindingEnvironment(Map<String, JsonNode> values, Map<String, DeclaredFunction> functions,
+         Map<String, NativeFunction> nativeFunctions) {
+      _values = Collections.unmodifiableMap(values);
+      _functions = Collections.unmodifiableMap(functions);
+      _nativeFunctions = Collections.unmodifiableMap(nativeFunctions);
+   }
+
+   /**
+    * Create an environment from a list of bindings. Variable expressions are
+    * evaluated in list order, so a binding may refer to variables bound before
+    * it.
+    *
+    * @param bindings
+    *                 assignments of variable names to values, variable
+    *                 expressions or function declarations
+    * @return the new environment
+    * @throws EvaluateException
+    *                           if a variable expression can not be evaluated
+    */
+   public static BindingEnvironment of(List<Binding> bindings) throws EvaluateException {
+      return of(bindings, null);
+   }
+
+   /**
+    * Create an environment from a list of bindings, evaluating the variable
+    * expressions against the root context of the evaluation it is created for
+    */
+   static BindingEnvironment of(List<Binding> bindings, JsonNode rootContext) throws EvaluateException {
+      ExpressionsVisitor eval = new ExpressionsVisitor(rootContext);
+      Map<String, JsonNode> varMap = eval.getVariableMap();
+      Map<String, JsonNode> values = new HashMap<String, JsonNode>();
+      Map<String, DeclaredFunction> functions = new HashMap<String, DeclaredFunction>();
+      for (Binding binding : bindings) {
+         String name = binding.getVarName();
+         switch (binding.getType()) {
+         case FUNCTION: {
+            functions.put(name, binding.getFunction());
+            eval.getFunctionMap().put(name, binding.getFunction());
+            break;
+         }
+         case VALUE: {
+            values.put(name, binding.getValue());
+            varMap.put(name, binding.getValue());
+            break;
+         }
+         case VARIABLE: {
+            JsonNode value = null;
+            try {
+               value = eval.visit(binding.getExpression());
+            } catch (EvaluateRuntimeException e) {
+               throw new EvaluateException(e.getMessage(), e);
+            }
+            values.put(name, value);
+            varMap.put(name, value);
+            break;
+         }
+         }
+      }
+      return new BindingEnvironment(values, functions);
+   }
+
+   /**
+    * Create an environment from a JSON object. Text values are parsed as
+    * variable expressions or function declarations (as with
+    * {@link Expression#evaluate(JsonNode, JsonNode)}); all other values are bound
+    * as is without being parsed.
+    *
+    * @param bindingObj
+    *                   a JSON object containing the assignments of variable
+    *                   names to values, variable expressions or function
+    *                   declarations
+    * @return the new environment
+    * @throws ParseException
+    *                           if a text value can not be parsed
+    * @throws EvaluateException
+    *                           if a variable expression can not be evaluated
+    */
+   public static BindingEnvironment of(JsonNode bindingObj) throws ParseException, EvaluateException {
+      return of(Expression.toBindings(bindingObj));
+   }
+
+   /**
+    * Create an environment binding the supplied JSON values directly. The
+    * values are not copied and must not be modified afterwards.
+    *
+    * @param values
+    *               map of variable names to values
+    * @return the new environment
+    */
+   public static BindingEnvironment ofValues(Map<String, JsonNode> values) {
+      Map<String, JsonNode> copy = new HashMap<String, JsonNode>();
+      for (Iterator<String> it = values.keySet().iterator(); it.hasNext();) {
+         String key = it.next();
+         copy.put(key.startsWith("$") ? key : "$" + key, values.get(key));
+      }
+      return new BindingEnvironment(copy, new HashMap<String, DeclaredFunction>());
+   }
+
+   /**
+    * Create a new environment with the additional (or replaced) variable value.
+    * This environment is not changed.
+    *
+    * @param varName
+    *                name of the variable
+    * @param value
+    *                the JSON value assigned to the variable. It is not copied
+    *                and must not be modified afterwards.
+    * @return the new environment
+    */
+   public BindingEnvironment with(String varName, JsonNode value) {
+      if (varName.startsWith("$") == false) {
+         varName = "$" + varName;
+      }
+      Map<String, JsonNode> values = new HashMap<String, JsonNode>(_values);
+      values.put(varName, value);
+      return new BindingEnvironment(values, new HashMap<String, DeclaredFunction>(_functions),
+            new HashMap<String, NativeFunction>(_nativeFunctions));
+   }
+
+   /**
+    * Create a new environment with the additional (or replaced) Java function.
+    * The function replaces a built in function or function declaration of the
+    * same name in the Expressions evaluated with the environment, and the
+    * number of arguments of its calls is checked when they are made. This
+    * environment is not changed.
+    *
+    * @param fctName
+    *                       name of the function
+    * @param signature
+    *                       the signature of the function, e.g. {@code <nn:s>}
+    * @param implementation
+    *                       the Java implementation, e.g. a lambda
+    * @return the new environment
+    * @throws ParseException
+    *                        if the signature is not well formed
+    */
+   public BindingEnvironment withFunction(String fctName, String signature, JavaFunction implementation)
+         throws ParseException {
+      NativeFunction function = new NativeFunction(fctName, signature, implementation);
+      Map<String, DeclaredFunction> functions = new HashMap<String, DeclaredFunction>(_functions);
+      functions.remove(function.getName());
+      Map<String, NativeFunction> nativeFunctions = new HashMap<String, NativeFunction>(_nativeFunctions);
+      nativeFunctions.put(function.getName(), function);
+      return new BindingEnvironment(new HashMap<String, JsonNode>(_values), functions, nativeFunctions);
+   }
+
+   /**
+    * @param varName
+    *                name of the variable
+    * @return the value bound to the variable, or null if it is not bound
+    */
+   public JsonNode getValue(String varName) {
+      if (varName.startsWith("$") == false) {
+         varName = "$" + varName;
+      }
+      return _values.get(varName);
+   }
+
+   /**
+    * @param varName
+    *                name of the function
+    * @return the function declaration bound to the name, or null if it is not
+    *         bound
+    */
+   public DeclaredFunction getFunction(String varName) {
+      if (varName.startsWith("$") == false) {
+         varName = "$" + varName;
+      }
+      return _functions.get(varName);
+   }
+
+   /**
+    * @return the names of the bound variables
+    */
+   public Set<String> getVariableNames() {
+      return _values.keySet();
+   }
+
+   /**
+    * @return the names of the bound functions
+    */
+   public Set<String> getFunctionNames() {
+      return _functions.keySet();
+   }
+
+   /**
+    * @param fctName
+    *                name of the function
+    * @return the Java function bound to the name, or null if it is not bound
+    */
+   public NativeFunction getNativeFunction(String fctName) {
+      if (fctName.startsWith("$") == false) {
+         fctName = "$" + fctName;
+      }
+      return _nativeFunctions.get(fctName);
+   }
+
+   /**
+    * Copy the bindings into the variable and function maps of the evaluator
+    *
+    * @param eval
+    *             the evaluator about to be used
+    */
+   void applyTo(ExpressionsVisitor eval) {
+      eval.getVariableMap().putAll(_values);
+      eval.getFunctionMap().putAll(_functions);
+      // a binding replaces a function of the same name bound by the Expression
+      eval.getNativeFunctions().keySet().removeAll(_functions.keySet());
+      if (_nativeFunctions.isEmpty() == false) {
+         eval.getFunctionMap().keySet().removeAll(_nativeFunctions.keySet());
+         eval.getNativeFunctions().putAll(_nativeFunctions);
+      }
+   }
+
+   /**
+    * @return the string representation of the bindings
+    */
+   public String toString() {
+      StringBuffer sb = new StringBuffer();
+      for (Iterator<String> it = _values.keySet().iterator(); it.hasNext();) {
+         String key = it.next();
+         if (sb.length() > 0) {
+            sb.append(", ");
+         }
+         JsonNode value = _values.get(key);
+         sb.append(key);
+         sb.append("=");
+         sb.append(value == null ? "undefined" : value.toString());
+      }
+      for (Iterator<String> it = _functions.keySet().iterator(); it.hasNext();) {
+         String key = it.next();
+         if (sb.length() > 0) {
+            sb.append(", ");
+         }
+         sb.append(key);
+         sb.append("=function");
+      }
+      for (Iterator<String> it = _nativeFunctions.keySet().iterator(); it.hasNext();) {
+         String key = it.next();
+         if (sb.length() > 0) {
+            sb.append(", ");
+         }
+         sb.append(key);
+         sb.append("=");
+         sb.append(_nativeFunctions.get(key).getSignature());
+      }
+      return sb.toString();
+   }
+}
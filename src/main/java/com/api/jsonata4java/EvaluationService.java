@@ -0,0 +1,437 @@
+/**
+ *
+ */
+package com.api.jsonata4java;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.api.jsonata4java.expressions.EvaluateException;
+import com.api.jsonata4java.expressions.EvaluateRuntimeException;
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Class owning a bounded executor used to evaluate Expressions asynchronously.
+ * Evaluations are queued up to the configured queue capacity; once the queue
+ * is full further submissions are rejected (the returned future completes with
+ * a RejectedExecutionException) so callers can apply backpressure rather than
+ * accumulating unbounded work. Each submission may carry a deadline that is
+ * measured from the time of submission and handed to the evaluation timebox as
+ * the time remaining when the evaluation starts.
+ * <p>
+ * With platform threads the evaluations run on a fixed pool of threads in front
+ * of a bounded queue. With virtual threads each evaluation runs on its own
+ * virtual thread and a semaphore bounds the number accepted at once to the
+ * number of threads plus the queue capacity.
+ */
+public class EvaluationService implements AutoCloseable {
+
+   public static final int DEFAULT_MAX_DEPTH = 10000;
+
+   static final String TIMEOUT_MSG_PREFIX = "Expression evaluation timeout";
+
+   ExecutorService _executor = null;
+   // platform threads only
+   ThreadPoolExecutor _pool = null;
+   // virtual threads only, one permit per evaluation accepted
+   Semaphore _permits = null;
+   int _capacity = 0;
+   boolean _virtualThreads = false;
+   int _maxDepth = DEFAULT_MAX_DEPTH;
+   long _defaultTimeoutMS = 0L;
+
+   AtomicLong _submitted = new AtomicLong();
+   AtomicLong _completed = new AtomicLong();
+   AtomicLong _failed = new AtomicLong();
+   AtomicLong _rejected = new AtomicLong();
+   AtomicLong _timedOut = new AtomicLong();
+   AtomicInteger _inFlight = new AtomicInteger();
+   AtomicLong _totalLatencyNanos = new AtomicLong();
+   AtomicLong _maxLatencyNanos = new AtomicLong();
+
+   /**
+    * Constructor for an EvaluationService using platform threads
+    *
+    * @param threads
+    *                      the number of evaluations allowed to run concurrently
+    * @param queueCapacity
+    *                      the number of evaluations allowed to wait for a thread
+    *                      before submissions are rejected
+    */
+   public EvaluationService(int threads, int queueCapacity) {
+      this(threads, queueCapacity, false);
+   }
+
+   /**
+    * Constructor for an EvaluationService
+    *
+    * @param threads
+    *                          the number of evaluations allowed to run
+    *                          concurrently on platform threads
+    * @param queueCapacity
+    *                          the number of evaluations allowed to wait for a
+    *                          thread before submissions are rejected
+    * @param useVirtualThreads
+    *                          when true and the running JVM supports virtual
+    *                          threads each evaluation runs on its own virtual
+    *                          thread, up to threads + queueCapacity at once.
+    *                          Otherwise platform daemon threads are used.
+    */
+   public EvaluationService(int threads, int queueCapacity, boolean useVirtualThreads) {
+      if (threads <= 0) {
+         throw new IllegalArgumentException("The threads must be a positive number. Received " + threads);
+      }
+      if (queueCapacity <= 0) {
+         throw new IllegalArgumentException("The queueCapacity must be a positive number. Received " + queueCapacity);
+      }
+      if (useVirtualThreads) {
+         _executor = getVirtualThreadExecutor();
+      }
+      _virtualThreads = _executor != null;
+      if (_virtualThreads) {
+         // pooling virtual threads would cap their concurrency, so they are
+         // created per evaluation and only the number accepted is bounded
+         _capacity = threads + queueCapacity < 0 ? Integer.MAX_VALUE : threads + queueCapacity;
+         _permits = new Semaphore(_capacity);
+      } else {
+         _pool = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+               new ArrayBlockingQueue<Runnable>(queueCapacity), new DaemonThreadFactory(),
+               new ThreadPoolExecutor.AbortPolicy());
+         _executor = _pool;
+      }
+   }
+
+   /**
+    * Submit an Expression for evaluation using the service's default timeout
+    *
+    * @param expression
+    *                    the expression to be evaluated
+    * @param rootContext
+    *                    JSON object specifying the content used to evaluate the
+    *                    expression
+    * @return a future completed with the result of the evaluation
+    */
+   public CompletableFuture<JsonNode> submit(Expression expression, JsonNode rootContext) {
+      return submit(expression, rootContext, _defaultTimeoutMS);
+   }
+
+   /**
+    * Submit an Expression for evaluation that must complete within the supplied
+    * number of milliseconds of this call. Time spent waiting in the queue counts
+    * against the deadline.
+    *
+    * @param expression
+    *                    the expression to be evaluated
+    * @param rootContext
+    *                    JSON object specifying the content used to evaluate the
+    *                    expression
+    * @param timeoutMS
+    *                    milliseconds allowed from submission until the evaluation
+    *                    completes. A value of zero or less means no deadline.
+    * @return a future completed with the result of the evaluation, or completed
+    *         exceptionally with a RejectedExecutionException when the queue is
+    *         full or an EvaluateException when the deadline passes
+    */
+   public CompletableFuture<JsonNode> submit(Expression expression, JsonNode rootContext, long timeoutMS) {
+      return submit(expression, rootContext, null, timeoutMS);
+   }
+
+   /**
+    * Submit an Expression for evaluation with precomputed bindings that must
+    * complete within the supplied number of milliseconds of this call
+    *
+    * @param expression
+    *                    the expression to be evaluated
+    * @param rootContext
+    *                    JSON object specifying the content used to evaluate the
+    *                    expression
+    * @param environment
+    *                    the bindings used for this evaluation only. May be null.
+    * @param timeoutMS
+    *                    milliseconds allowed from submission until the evaluation
+    *                    completes. A value of zero or less means no deadline.
+    * @return a future completed with the result of the evaluation
+    */
+   public CompletableFuture<JsonNode> submit(Expression expression, JsonNode rootContext,
+         BindingEnvironment environment, long timeoutMS) {
+      CompletableFuture<JsonNode> future = new CompletableFuture<JsonNode>();
+      long submitTime = System.nanoTime();
+      long deadline = timeoutMS > 0L ? submitTime + TimeUnit.MILLISECONDS.toNanos(timeoutMS) : 0L;
+      _submitted.incrementAndGet();
+      if (_permits != null && _permits.tryAcquire() == false) {
+         _rejected.incrementAndGet();
+         future.completeExceptionally(new RejectedExecutionException(
+               "The EvaluationService already has " + _capacity + " evaluations in flight"));
+         return future;
+      }
+      _inFlight.incrementAndGet();
+      try {
+         _executor.execute(() -> {
+            try {
+               run(expression, rootContext, environment, submitTime, deadline, future);
+            } finally {
+               if (_permits != null) {
+                  _permits.release();
+               }
+            }
+         });
+      } catch (RejectedExecutionException e) {
+         if (_permits != null) {
+            _permits.release();
+         }
+         _inFlight.decrementAndGet();
+         _rejected.incrementAndGet();
+         future.completeExceptionally(e);
+      }
+      return future;
+   }
+
+   void run(Expression expression, JsonNode rootContext, BindingEnvironment environment, long submitTime,
+         long deadline, CompletableFuture<JsonNode> future) {
+      if (future.isDone()) {
+         // cancelled by the caller while queued
+         _inFlight.decrementAndGet();
+         return;
+      }
+      JsonNode result = null;
+      Throwable failure = null;
+      try {
+         long timeoutMS = 0L;
+         if (deadline != 0L) {
+            timeoutMS = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (timeoutMS <= 0L) {
+               throw new EvaluateException(TIMEOUT_MSG_PREFIX + ": deadline passed before evaluation started");
+            }
+         }
+         result = expression.evaluate(rootContext, environment, timeoutMS, _maxDepth);
+         _completed.incrementAndGet();
+      } catch (Throwable t) {
+         String msg = t.getMessage();
+         if ((t instanceof EvaluateException || t instanceof EvaluateRuntimeException) && msg != null
+               && msg.startsWith(TIMEOUT_MSG_PREFIX)) {
+            _timedOut.incrementAndGet();
+         }
+         _failed.incrementAndGet();
+         failure = t;
+      }
+      // the statistics include the evaluation once its future is completed
+      _inFlight.decrementAndGet();
+      long latency = System.nanoTime() - submitTime;
+      _totalLatencyNanos.addAndGet(latency);
+      long max = _maxLatencyNanos.get();
+      while (latency > max && !_maxLatencyNanos.compareAndSet(max, latency)) {
+         max = _maxLatencyNanos.get();
+      }
+      if (failure == null) {
+         future.complete(result);
+      } else {
+         future.completeExceptionally(failure);
+      }
+   }
+
+   /**
+    * @return true if evaluations are run on virtual threads
+    */
+   public boolean isUsingVirtualThreads() {
+      return _virtualThreads;
+   }
+
+   /**
+    * @return the maximum call stack depth allowed for timeboxed evaluations
+    */
+   public int getMaxDepth() {
+      return _maxDepth;
+   }
+
+   /**
+    * @param maxDepth
+    *                 the maximum call stack depth allowed for timeboxed
+    *                 evaluations. Must be a positive number.
+    */
+   public void setMaxDepth(int maxDepth) {
+      if (maxDepth <= 0) {
+         throw new IllegalArgumentException("The maxDepth must be a positive number. Received " + maxDepth);
+      }
+      _maxDepth = maxDepth;
+   }
+
+   /**
+    * @return the timeout applied by {@link #submit(Expression, JsonNode)}
+    */
+   public long getDefaultTimeoutMS() {
+      return _defaultTimeoutMS;
+   }
+
+   /**
+    * @param timeoutMS
+    *                  the timeout applied by
+    *                  {@link #submit(Expression, JsonNode)}. A value of zero or
+    *                  less means no deadline.
+    */
+   public void setDefaultTimeoutMS(long timeoutMS) {
+      _defaultTimeoutMS = timeoutMS;
+   }
+
+   /**
+    * @return the number of evaluations submitted, including rejected ones
+    */
+   public long getSubmittedCount() {
+      return _submitted.get();
+   }
+
+   /**
+    * @return the number of evaluations that completed with a result
+    */
+   public long getCompletedCount() {
+      return _completed.get();
+   }
+
+   /**
+    * @return the number of evaluations that completed with an exception
+    */
+   public long getFailedCount() {
+      return _failed.get();
+   }
+
+   /**
+    * @return the number of submissions rejected because the queue was full
+    */
+   public long getRejectedCount() {
+      return _rejected.get();
+   }
+
+   /**
+    * @return the number of failed evaluations that exceeded their deadline
+    */
+   public long getTimedOutCount() {
+      return _timedOut.get();
+   }
+
+   /**
+    * @return the number of evaluations queued or running
+    */
+   public int getInFlightCount() {
+      return _inFlight.get();
+   }
+
+   /**
+    * @return the number of evaluations waiting for a thread (always 0 with
+    *         virtual threads)
+    */
+   public int getQueueDepth() {
+      return _pool == null ? 0 : _pool.getQueue().size();
+   }
+
+   /**
+    * @return the number of additional evaluations that can be queued (or with
+    *         virtual threads, accepted) before submissions are rejected
+    */
+   public int getRemainingCapacity() {
+      return _pool == null ? _permits.availablePermits() : _pool.getQueue().remainingCapacity();
+   }
+
+   /**
+    * @return the mean time in nanoseconds from submission to completion of
+    *         evaluations that were accepted
+    */
+   public long getAverageLatencyNanos() {
+      long count = _completed.get() + _failed.get();
+      return count == 0L ? 0L : _totalLatencyNanos.get() / count;
+   }
+
+   /**
+    * @return the longest time in nanoseconds from submission to completion
+    */
+   public long getMaxLatencyNanos() {
+      return _maxLatencyNanos.get();
+   }
+
+   /**
+    * Stop accepting submissions; queued evaluations are still run
+    */
+   public void shutdown() {
+      _executor.shutdown();
+   }
+
+   /**
+    * Wait for queued and running evaluations to finish after a shutdown
+    *
+    * @param timeout
+    *                the maximum time to wait
+    * @param unit
+    *                the unit of the timeout
+    * @return true if all evaluations finished
+    * @throws InterruptedException
+    */
+   public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+      return _executor.awaitTermination(timeout, unit);
+   }
+
+   @Override
+   public void close() {
+      shutdown();
+   }
+
+   /**
+    * Use Thread.ofVirtual().factory() when the running JVM provides it. Resolved
+    * reflectively so the library still runs on Java 8.
+    *
+    * @return the virtual thread factory or null if not available
+    */
+   static ThreadFactory getVirtualThreadFactory() {
+      try {
+         Method ofVirtual = Thread.class.getMethod("ofVirtual");
+         Object builder = ofVirtual.invoke(null);
+         Method factory = Class.forName("java.lang.Thread$Builder").getMethod("factory");
+         return (ThreadFactory) factory.invoke(builder);
+      } catch (Exception e) {
+         return null;
+      }
+   }
+
+   /**
+    * Use Executors.newThreadPerTaskExecutor() with the virtual thread factory
+    * when the running JVM provides them. Resolved reflectively so the library
+    * still runs on Java 8.
+    *
+    * @return an executor starting a virtual thread per task or null if not
+    *         available
+    */
+   static ExecutorService getVirtualThreadExecutor() {
+      ThreadFactory factory = getVirtualThreadFactory();
+      if (factory == null) {
+         return null;
+      }
+      try {
+         Method perTask = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+         return (ExecutorService) perTask.invoke(null, factory);
+      } catch (Exception e) {
+         return null;
+      }
+   }
+
+   static class DaemonThreadFactory implements ThreadFactory {
+      static final AtomicInteger POOL_NUMBER = new AtomicInteger();
+      final int _pool = POOL_NUMBER.incrementAndGet();
+      final AtomicInteger _thread = new AtomicInteger();
+      final ThreadFactory _delegate = Executors.defaultThreadFactory();
+
+      @Override
+      public Thread newThread(Runnable r) {
+         Thread t = _delegate.newThread(r);
+         t.setName("jsonata-eval-" + _pool + "-" + _thread.incrementAndGet());
+         t.setDaemon(true);
+         return t;
+      }
+   }
+}
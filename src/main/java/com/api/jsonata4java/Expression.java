@@ -4,19 +4,43 @@
 package com.api.jsonata4java;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import org.antlr.v4.runtime.tree.ParseTree;
 
+import com.api.jsonata4java.expressions.CompiledExpression;
+import com.api.jsonata4java.expressions.CompiledPath;
 import com.api.jsonata4java.expressions.EvaluateException;
 import com.api.jsonata4java.expressions.EvaluateRuntimeException;
+import com.api.jsonata4java.expressions.ExplainPlan;
 import com.api.jsonata4java.expressions.Expressions;
 import com.api.jsonata4java.expressions.ExpressionsVisitor;
 import com.api.jsonata4java.expressions.ParseException;
+import com.api.jsonata4java.expressions.ResultWriter;
 import com.api.jsonata4java.expressions.functions.DeclaredFunction;
+import com.api.jsonata4java.expressions.functions.FunctionMemo;
+import com.api.jsonata4java.expressions.functions.FunctionSignature;
+import com.api.jsonata4java.expressions.functions.JavaFunction;
+import com.api.jsonata4java.expressions.functions.NativeFunction;
 import com.api.jsonata4java.expressions.generated.MappingExpressionParser.ExprContext;
+import com.api.jsonata4java.expressions.generated.MappingExpressionParser.Function_callContext;
+import com.api.jsonata4java.expressions.metrics.EvaluationMetrics;
+import com.api.jsonata4java.expressions.metrics.EvaluationProfile;
+import com.api.jsonata4java.expressions.metrics.Metrics;
+import com.api.jsonata4java.expressions.metrics.MetricsListener;
+import com.api.jsonata4java.expressions.utils.Constants;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
@@ -91,10 +115,23 @@ public class Expression {
       }
    }
 
+   static final JsonFactory JSON_FACTORY = new JsonFactory().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
    ExpressionsVisitor _eval = null;
    Expressions _expr = null;
    Map<String, DeclaredFunction> _functionMap = new HashMap<String, DeclaredFunction>();
+   Map<String, NativeFunction> _nativeFunctions = new HashMap<String, NativeFunction>();
    Map<String, ExprContext> _variableMap = new HashMap<String, ExprContext>();
+   Map<String, JsonNode> _valueMap = new HashMap<String, JsonNode>();
+   String _name = null;
+   MetricsListener _metricsListener = null;
+   FunctionMemo.Scope _memoScope = null;
+   int _memoMaxEntries = 0;
+   FunctionMemo _memo = null;
+   FunctionMemo.Statistics _memoStatistics = new FunctionMemo.Statistics();
+   int _compileThreshold = -1;
+   AtomicLong _evaluations = new AtomicLong();
+   volatile CompiledExpression _compiled = null;
 
    /**
     * Constructor for Expression
@@ -109,19 +146,81 @@ public class Expression {
       _eval = _expr.getExpr();
    }
 
+   Expression(Expressions expr) {
+      _expr = expr;
+      _eval = _expr.getExpr();
+   }
+
+   /**
+    * Read an Expression written by {@link #writeTo(OutputStream)} without
+    * parsing it
+    * 
+    * @param input
+    *              the stream holding the record, e.g. one of a bundle of
+    *              records written one after the other
+    * @return the Expression, or null at the end of the stream
+    * @throws IOException
+    *                        if the record is truncated, corrupted or of an
+    *                        unsupported format version
+    * @throws ParseException
+    *                        if the record was written by a different version
+    *                        of the grammar and its expression no longer parses
+    */
+   public static Expression readFrom(InputStream input) throws IOException, ParseException {
+      Expressions expr = Expressions.readFrom(input);
+      return expr == null ? null : new Expression(expr);
+   }
+
+   /**
+    * Write the binary form of the parsed expression, for loading it with
+    * {@link #readFrom(InputStream)} without parsing. Assigned variables and
+    * registered functions are not written.
+    * 
+    * @param output
+    *               the stream receiving the record
+    * @throws IOException
+    */
+   public void writeTo(OutputStream output) throws IOException {
+      _expr.writeTo(output);
+   }
+
    /**
     * Assign the binding to the environment preparing for evaluation
     * 
     * @param binding
     */
    public void assign(Binding binding) {
-      if (binding.getType() == BindingType.VARIABLE) {
+      switch (binding.getType()) {
+      case VARIABLE: {
+         _valueMap.remove(binding.getVarName());
          _variableMap.put(binding.getVarName(), binding.getExpression());
-      } else {
+         break;
+      }
+      case VALUE: {
+         _variableMap.remove(binding.getVarName());
+         _valueMap.put(binding.getVarName(), binding.getValue());
+         break;
+      }
+      case FUNCTION: {
          _functionMap.put(binding.getVarName(), binding.getFunction());
+         break;
+      }
       }
    }
 
+   /**
+    * Assign the JSON value to the variable name supplied. The value is bound as
+    * is and is not parsed or evaluated.
+    * 
+    * @param varname
+    *                name of the variable
+    * @param value
+    *                the JSON value assigned to the variable
+    */
+   public void assign(String varname, JsonNode value) {
+      assign(new Binding(varname, value));
+   }
+
    /**
     * Assign the expression (variable or function declaration) to the variable name
     * supplied
@@ -151,7 +250,291 @@ public class Expression {
     * @throws ParseException
     */
    public JsonNode evaluate(JsonNode rootContext) throws EvaluateException, ParseException {
+      return evaluate(rootContext, 0L, 0);
+   }
+
+   /**
+    * Generate a result form the Expression's parsed expression and variable
+    * assignments or registered functions, limiting the time and call stack depth
+    * allowed for the evaluation
+    * 
+    * @param rootContext
+    *                    JSON object specifying the content used to evaluate the
+    *                    expression
+    * @param timeoutMS
+    *                    milliseconds allowed for the evaluation to occur. If it
+    *                    takes longer an exception is thrown. A value of zero or
+    *                    less disables the timebox.
+    * @param maxDepth
+    *                    the maximum call stack depth allowed before an exception
+    *                    is thrown. Only used when timeoutMS is positive.
+    * @return the result from executing the Expression's parsed expression and
+    *         variable assignments or registered functions
+    * @throws EvaluateException
+    * @throws ParseException
+    */
+   public JsonNode evaluate(JsonNode rootContext, long timeoutMS, int maxDepth)
+         throws EvaluateException, ParseException {
+      return evaluate(rootContext, null, timeoutMS, maxDepth);
+   }
+
+   /**
+    * Generate a result form the Expression's parsed expression using the
+    * precomputed bindings in the environment in addition to the Expression's
+    * own variable assignments and registered functions. The environment's
+    * bindings take precedence and are not added to the Expression.
+    * 
+    * @param rootContext
+    *                    JSON object specifying the content used to evaluate the
+    *                    expression
+    * @param environment
+    *                    the bindings used for this evaluation only
+    * @return the result from executing the Expression's parsed expression
+    * @throws EvaluateException
+    * @throws ParseException
+    */
+   public JsonNode evaluate(JsonNode rootContext, BindingEnvironment environment)
+         throws EvaluateException, ParseException {
+      return evaluate(rootContext, environment, 0L, 0);
+   }
+
+   /**
+    * Generate a result form the Expression's parsed expression using the
+    * precomputed bindings in the environment, limiting the time and call stack
+    * depth allowed for the evaluation
+    * 
+    * @param rootContext
+    *                    JSON object specifying the content used to evaluate the
+    *                    expression
+    * @param environment
+    *                    the bindings used for this evaluation only. May be null.
+    * @param timeoutMS
+    *                    milliseconds allowed for the evaluation to occur. A value
+    *                    of zero or less disables the timebox.
+    * @param maxDepth
+    *                    the maximum call stack depth allowed before an exception
+    *                    is thrown. Only used when timeoutMS is positive.
+    * @return the result from executing the Expression's parsed expression
+    * @throws EvaluateException
+    * @throws ParseException
+    */
+   public JsonNode evaluate(JsonNode rootContext, BindingEnvironment environment, long timeoutMS, int maxDepth)
+         throws EvaluateException, ParseException {
+      MetricsListener listener = getMetricsListener();
+      if (listener.isEnabled() == false) {
+         CompiledPath path = _expr.getCompiledPath();
+         if (path != null && timeoutMS <= 0L && _variableMap.isEmpty()) {
+            // a plain path reads no bindings. Bound expressions are still
+            // evaluated by the visitor below, as they may fail.
+            return path.evaluate(rootContext);
+         }
+         ExpressionsVisitor eval = prepareVisitor(rootContext, environment, timeoutMS, maxDepth);
+         CompiledExpression compiled = timeoutMS > 0L ? null : getCompiled();
+         return compiled == null ? eval.visit(_expr.getTree()) : compiled.evaluate(eval);
+      }
+      EvaluationMetrics metrics = new EvaluationMetrics(getName());
+      metrics.start();
+      JsonNode result = null;
+      try {
+         ExpressionsVisitor eval = prepareVisitor(rootContext, environment, timeoutMS, maxDepth);
+         eval.setMetrics(metrics);
+         result = eval.visit(_expr.getTree());
+      } catch (EvaluateException | RuntimeException e) {
+         metrics.stop();
+         listener.evaluationFailed(metrics, e);
+         throw e;
+      }
+      metrics.stop();
+      listener.evaluationCompleted(metrics);
+      return result;
+   }
+
+   /**
+    * Evaluate the Expression recording the invocation count, inclusive and
+    * exclusive time and result cardinality of every node of the parse tree
+    * 
+    * @param rootContext
+    *                    JSON object specifying the content used to evaluate the
+    *                    expression
+    * @return the profile holding the result and the annotated parse tree
+    * @throws EvaluateException
+    * @throws ParseException
+    */
+   public EvaluationProfile profile(JsonNode rootContext) throws EvaluateException, ParseException {
+      return profile(rootContext, null);
+   }
+
+   /**
+    * Evaluate the Expression using the precomputed bindings in the environment,
+    * recording the invocation count, inclusive and exclusive time and result
+    * cardinality of every node of the parse tree
+    * 
+    * @param rootContext
+    *                    JSON object specifying the content used to evaluate the
+    *                    expression
+    * @param environment
+    *                    the bindings used for this evaluation only. May be null.
+    * @return the profile holding the result and the annotated parse tree
+    * @throws EvaluateException
+    * @throws ParseException
+    */
+   public EvaluationProfile profile(JsonNode rootContext, BindingEnvironment environment)
+         throws EvaluateException, ParseException {
+      EvaluationProfile profile = new EvaluationProfile();
+      ExpressionsVisitor eval = prepareVisitor(rootContext, environment, 0L, 0);
+      eval.setProfile(profile);
+      profile.setResult(eval.visit(_expr.getTree()));
+      return profile;
+   }
+
+   /**
+    * @return the explain plan of the Expression's parsed expression, estimated
+    *         with every field holding a single value
+    */
+   public ExplainPlan explain() {
+      return _expr.explain(null);
+   }
+
+   /**
+    * @param sizes
+    *              the average number of values of fields keyed by their dotted
+    *              path from the root (e.g. "orders" or "orders.lines"), of
+    *              variables keyed by name (e.g. "$rates"), and the
+    *              {@link ExplainPlan#DOCUMENT_SIZE} and
+    *              {@link ExplainPlan#RANGE_SIZE}
+    * @return the explain plan of the Expression's parsed expression with its
+    *         estimated cost and any expensive patterns found
+    */
+   public ExplainPlan explain(Map<String, Long> sizes) {
+      return _expr.explain(sizes);
+   }
+
+   /**
+    * Memoize the results of the pure functions declared by the expression, so
+    * repeated calls with the same arguments are only evaluated once. Functions
+    * that call $now, $millis, $random or $shuffle, assign variables used
+    * outside of their body or read the context are not memoized.
+    * 
+    * @param scope
+    *                   {@link FunctionMemo.Scope#EVALUATION} to keep results for
+    *                   one evaluation, {@link FunctionMemo.Scope#EXPRESSION} to
+    *                   keep them across evaluations, or null to stop memoizing
+    * @param maxEntries
+    *                   the maximum number of results kept, least recently used
+    *                   first evicted. Zero or less means unbounded, which is
+    *                   only advisable for the EVALUATION scope.
+    */
+   public void setMemoization(FunctionMemo.Scope scope, int maxEntries) {
+      _memoScope = scope;
+      _memoMaxEntries = maxEntries;
+      _memo = scope == FunctionMemo.Scope.EXPRESSION ? new FunctionMemo(scope, maxEntries, _memoStatistics) : null;
+   }
+
+   /**
+    * @return the memoization hit and miss counts of all evaluations
+    */
+   public FunctionMemo.Statistics getMemoStatistics() {
+      return _memoStatistics;
+   }
+
+   /**
+    * Evaluate this Expression with the interpreter for the given number of
+    * evaluations, then compile it (see {@link CompiledExpression}) and use the
+    * compiled form for later evaluations. Evaluations that are timeboxed,
+    * profiled or report metrics always use the interpreter.
+    * 
+    * @param evaluations
+    *                    the number of interpreted evaluations before compiling.
+    *                    Zero compiles on the first evaluation, a negative number
+    *                    (the default) never compiles.
+    */
+   public void setCompileThreshold(int evaluations) {
+      _compileThreshold = evaluations;
+      _evaluations.set(0L);
+      _compiled = null;
+   }
+
+   /**
+    * @return whether later evaluations use the compiled form of this Expression
+    */
+   public boolean isCompiled() {
+      return _compiled != null;
+   }
+
+   /**
+    * @return the compiled form of this Expression, compiling it once its
+    *         threshold is reached, or null while it is interpreted
+    */
+   CompiledExpression getCompiled() {
+      CompiledExpression compiled = _compiled;
+      if (compiled != null || _compileThreshold < 0) {
+         return compiled;
+      }
+      if (_evaluations.incrementAndGet() <= _compileThreshold) {
+         return null;
+      }
+      synchronized (this) {
+         if (_compiled == null) {
+            _compiled = CompiledExpression.compile(_expr.getTree());
+         }
+         return _compiled;
+      }
+   }
+
+   /**
+    * @return the name used to report this Expression's metrics, by default the
+    *         expression text
+    */
+   public String getName() {
+      return _name == null ? _expr.toString() : _name;
+   }
+
+   /**
+    * @param name
+    *             the name used to report this Expression's metrics (e.g. a tenant
+    *             or rule identifier)
+    */
+   public void setName(String name) {
+      _name = name;
+   }
+
+   /**
+    * @return the listener receiving this Expression's metrics. Defaults to
+    *         {@link Metrics#getDefaultListener()}
+    */
+   public MetricsListener getMetricsListener() {
+      return _metricsListener == null ? Metrics.getDefaultListener() : _metricsListener;
+   }
+
+   /**
+    * @param listener
+    *                 the listener receiving this Expression's metrics, or null
+    *                 to use {@link Metrics#getDefaultListener()}
+    */
+   public void setMetricsListener(MetricsListener listener) {
+      _metricsListener = listener;
+   }
+
+   /**
+    * Create the visitor used to evaluate this Expression with its stored
+    * bindings and the bindings in the environment applied
+    */
+   ExpressionsVisitor prepareVisitor(JsonNode rootContext, BindingEnvironment environment, long timeoutMS,
+         int maxDepth) throws EvaluateException {
       ExpressionsVisitor eval = new ExpressionsVisitor(rootContext);
+      eval.setLiterals(_expr.getLiterals());
+      eval.setCallShapes(_expr.getCallShapes());
+      if (_memoScope == FunctionMemo.Scope.EXPRESSION) {
+         eval.setMemo(_memo);
+      } else if (_memoScope == FunctionMemo.Scope.EVALUATION) {
+         eval.setMemo(new FunctionMemo(_memoScope, _memoMaxEntries, _memoStatistics));
+      }
+      if (timeoutMS > 0L) {
+         if (maxDepth <= 0) {
+            throw new EvaluateException("The maxDepth must be a positive number. Received " + maxDepth);
+         }
+         eval.timeboxExpression(timeoutMS, maxDepth);
+      }
       Map<String, JsonNode> varMap = eval.getVariableMap();
       Map<String, DeclaredFunction> fctMap = eval.getFunctionMap();
       // process any stored bindings
@@ -165,16 +548,119 @@ public class Expression {
          DeclaredFunction fct = _functionMap.get(key);
          fctMap.put(key, fct);
       }
-      return eval.visit(_expr.getTree());
+      eval.getNativeFunctions().putAll(_nativeFunctions);
+      varMap.putAll(_valueMap);
+      if (environment != null) {
+         environment.applyTo(eval);
+      }
+      return eval;
    }
 
    /**
-    * Generate a result form the Expression's parsed expression and variable
-    * assignments or registered functions specified in the list of bindings
+    * Write the result of the Expression's parsed expression to the generator
+    * as it is produced, rather than building it before it is written: the
+    * members of arrays produced by $map, paths over arrays and array
+    * constructors are written one at a time (see {@link ResultWriter})
     * 
     * @param rootContext
     *                    JSON object specifying the content used to evaluate the
     *                    expression
+    * @param generator
+    *                    the generator receiving the result. It is flushed but
+    *                    not closed.
+    * @return whether the expression had a result. Nothing is written if it was
+    *         undefined.
+    * @throws EvaluateException
+    * @throws ParseException
+    * @throws IOException
+    *                     if the generator fails
+    */
+   public boolean evaluate(JsonNode rootContext, JsonGenerator generator)
+         throws EvaluateException, ParseException, IOException {
+      return evaluate(rootContext, (BindingEnvironment) null, generator);
+   }
+
+   /**
+    * Write the result of the Expression's parsed expression to the generator
+    * as it is produced, using the precomputed bindings in the environment (see
+    * {@link #evaluate(JsonNode, JsonGenerator)})
+    * 
+    * @param rootContext
+    *                    JSON object specifying the content used to evaluate the
+    *                    expression
+    * @param environment
+    *                    the bindings used for this evaluation only. May be null.
+    * @param generator
+    *                    the generator receiving the result. It is flushed but
+    *                    not closed.
+    * @return whether the expression had a result. Nothing is written if it was
+    *         undefined.
+    * @throws EvaluateException
+    * @throws ParseException
+    * @throws IOException
+    *                     if the generator fails
+    */
+   public boolean evaluate(JsonNode rootContext, BindingEnvironment environment, JsonGenerator generator)
+         throws EvaluateException, ParseException, IOException {
+      MetricsListener listener = getMetricsListener();
+      boolean written;
+      if (listener.isEnabled() == false) {
+         ExpressionsVisitor eval = prepareVisitor(rootContext, environment, 0L, 0);
+         written = new ResultWriter(eval, generator).write(_expr.getTree());
+      } else {
+         EvaluationMetrics metrics = new EvaluationMetrics(getName());
+         metrics.start();
+         try {
+            ExpressionsVisitor eval = prepareVisitor(rootContext, environment, 0L, 0);
+            eval.setMetrics(metrics);
+            written = new ResultWriter(eval, generator).write(_expr.getTree());
+         } catch (EvaluateException | IOException | RuntimeException e) {
+            metrics.stop();
+            listener.evaluationFailed(metrics, e);
+            throw e;
+         }
+         metrics.stop();
+         listener.evaluationCompleted(metrics);
+      }
+      generator.flush();
+      return written;
+   }
+
+   /**
+    * Write the result of the Expression's parsed expression to the stream as
+    * UTF-8 JSON as it is produced (see
+    * {@link #evaluate(JsonNode, JsonGenerator)})
+    * 
+    * @param rootContext
+    *                    JSON object specifying the content used to evaluate the
+    *                    expression
+    * @param output
+    *                    the stream receiving the result. It is flushed but not
+    *                    closed.
+    * @return whether the expression had a result. Nothing is written if it was
+    *         undefined.
+    * @throws EvaluateException
+    * @throws ParseException
+    * @throws IOException
+    *                     if the stream fails
+    */
+   public boolean evaluate(JsonNode rootContext, OutputStream output)
+         throws EvaluateException, ParseException, IOException {
+      try (JsonGenerator generator = JSON_FACTORY.createGenerator(output)) {
+         return evaluate(rootContext, generator);
+      }
+   }
+
+   /**
+    * Generate a result form the Expression's parsed expression and variable
+    * assignments or registered functions specified in the list of bindings. The
+    * bindings are used for this evaluation only and are not assigned to the
+    * Expression, so it may be shared by concurrent evaluations with different
+    * bindings.
+    * 
+    * @param rootContext
+    *                    JSON object specifying the content used to evaluate the
+    *                    expression and the variable expressions
     * @param bindings
     *                    assignments of variable names to variable expressions or
     *                    function declarations
@@ -185,18 +671,13 @@ public class Expression {
     * @throws ParseException
     */
    public JsonNode evaluate(JsonNode rootContext, List<Binding> bindings) throws EvaluateException, ParseException {
-      JsonNode result = null;
-      // first do variables
-      for (Binding binding : bindings) {
-         assign(binding);
-      }
-      result = evaluate(rootContext);
-      return result;
+      return evaluate(rootContext, BindingEnvironment.of(bindings, rootContext));
    }
 
    /**
     * Generate a result form the Expression's parsed expression and variable
-    * assignments or registered functions specified in the bindings object
+    * assignments or registered functions specified in the bindings object. The
+    * bindings are used for this evaluation only.
     * 
     * @param rootContext
     *                    JSON object specifying the content used to evaluate the
@@ -211,20 +692,90 @@ public class Expression {
     * @throws ParseException
     */
    public JsonNode evaluate(JsonNode rootContext, JsonNode bindingObj) throws EvaluateException, ParseException {
+      return evaluate(rootContext, toBindings(bindingObj));
+   }
+
+   /**
+    * Convert a bindings object to a list of bindings. Text values are parsed as
+    * variable expressions or function declarations, all other values are bound
+    * directly without being parsed.
+    * 
+    * @param bindingObj
+    *                   a JSON object containing the assignments of variable names
+    *                   to values, variable expressions or function declarations
+    * @return the list of bindings
+    * @throws ParseException
+    */
+   static List<Binding> toBindings(JsonNode bindingObj) throws ParseException {
       List<Binding> bindings = new ArrayList<Binding>();
       for (Iterator<String> it = bindingObj.fieldNames(); it.hasNext();) {
          String key = it.next();
-         Object testObj = bindingObj.get(key);
-         String expression = "";
+         JsonNode testObj = bindingObj.get(key);
+         Binding binding = null;
          if (testObj instanceof TextNode == false) {
-            expression = testObj.toString();
+            binding = new Binding(key, testObj);
          } else {
-            expression = ((TextNode) testObj).asText();
+            binding = new Binding(key, ((TextNode) testObj).asText());
          }
-         Binding binding = new Binding(key, expression);
          bindings.add(binding);
       }
-      return evaluate(rootContext, bindings);
+      return bindings;
+   }
+
+   /**
+    * Generate a result from the Expression's parsed expression without blocking
+    * the calling thread. The evaluation runs on the common fork join pool; use
+    * {@link #evaluateAsync(JsonNode, Executor)} or an {@link EvaluationService}
+    * to control where and how many evaluations run.
+    * 
+    * @param rootContext
+    *                    JSON object specifying the content used to evaluate the
+    *                    expression
+    * @return a future completed with the result, or completed exceptionally with
+    *         the EvaluateException, ParseException or EvaluateRuntimeException
+    *         raised by the evaluation
+    */
+   public CompletableFuture<JsonNode> evaluateAsync(JsonNode rootContext) {
+      return evaluateAsync(rootContext, ForkJoinPool.commonPool());
+   }
+
+   /**
+    * Generate a result from the Expression's parsed expression on the supplied
+    * executor
+    * 
+    * @param rootContext
+    *                    JSON object specifying the content used to evaluate the
+    *                    expression
+    * @param executor
+    *                    the executor used to run the evaluation
+    * @return a future completed with the result of the evaluation
+    */
+   public CompletableFuture<JsonNode> evaluateAsync(JsonNode rootContext, Executor executor) {
+      return evaluateAsync(rootContext, null, executor);
+   }
+
+   /**
+    * Generate a result from the Expression's parsed expression and the
+    * precomputed bindings on the supplied executor
+    * 
+    * @param rootContext
+    *                    JSON object specifying the content used to evaluate the
+    *                    expression
+    * @param environment
+    *                    the bindings used for this evaluation only. May be null.
+    * @param executor
+    *                    the executor used to run the evaluation
+    * @return a future completed with the result of the evaluation
+    */
+   public CompletableFuture<JsonNode> evaluateAsync(JsonNode rootContext, BindingEnvironment environment,
+         Executor executor) {
+      return CompletableFuture.supplyAsync(() -> {
+         try {
+            return evaluate(rootContext, environment);
+         } catch (EvaluateException | ParseException e) {
+            throw new CompletionException(e);
+         }
+      }, executor);
    }
 
    /**
@@ -238,6 +789,51 @@ public class Expression {
     */
    public void registerFunction(String fctName, String implementation) throws ParseException {
       Binding fctBinding = new Binding(fctName, implementation);
+      _nativeFunctions.remove(fctBinding.getVarName());
       _functionMap.put(fctBinding.getVarName(), fctBinding.getFunction());
    }
+
+   /**
+    * Registers a Java implementation of a function by name for this Expression.
+    * It is called with the evaluated arguments and replaces a built in function
+    * or function declaration of the same name. The calls already in this
+    * Expression are checked against the signature now.
+    * 
+    * @param fctName
+    *                       the name of the function
+    * @param signature
+    *                       the signature of the function, e.g. {@code <nn:s>}
+    *                       (see {@link FunctionSignature})
+    * @param implementation
+    *                       the Java implementation, e.g. a lambda
+    * @throws ParseException
+    *                        if the signature is not well formed or a call in
+    *                        this Expression has a number of arguments the
+    *                        signature does not accept
+    */
+   public void registerFunction(String fctName, String signature, JavaFunction implementation)
+         throws ParseException {
+      NativeFunction function = new NativeFunction(fctName, signature, implementation);
+      checkCalls(_expr.getTree(), function);
+      _functionMap.remove(function.getName());
+      _nativeFunctions.put(function.getName(), function);
+   }
+
+   static void checkCalls(ParseTree tree, NativeFunction function) throws ParseException {
+      if (tree instanceof Function_callContext) {
+         Function_callContext ctx = (Function_callContext) tree;
+         if (ctx.VAR_ID().getText().equals(function.getName())) {
+            int count = ctx.exprValues() == null || ctx.exprValues().exprList() == null ? 0
+                  : ctx.exprValues().exprList().expr().size();
+            if (function.acceptsCallArgumentCount(count) == false) {
+               throw new ParseException(String.format(Constants.ERR_MSG_ARG_COUNT, function.getName(),
+                     function.getFunctionSignature().describeArity(), count) + " at line "
+                     + ctx.getStart().getLine() + " column " + ctx.getStart().getCharPositionInLine());
+            }
+         }
+      }
+      for (int i = 0; i < tree.getChildCount(); i++) {
+         checkCalls(tree.getChild(i), function);
+      }
+   }
 }
@@ -0,0 +1,253 @@
+/**
+ *
+ */
+package com.api.jsonata4java;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.TerminalNode;
+
+import com.api.jsonata4java.expressions.EvaluateException;
+import com.api.jsonata4java.expressions.ExpressionsVisitor;
+import com.api.jsonata4java.expressions.ParseException;
+import com.api.jsonata4java.expressions.generated.MappingExpressionParser;
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Class evaluating a set of named Expressions against the same input document.
+ * When the set is compiled the subexpressions that only depend on the context
+ * (paths, predicates and operators over them, but no variables or function
+ * calls) are identified, and those that occur more than once across the set
+ * (for example the common prefix payload.device.metadata of
+ * payload.device.metadata.name and payload.device.metadata.type) are evaluated
+ * once per document and the result shared by every expression that uses them
+ * against the root context.
+ */
+public class ExpressionSet {
+
+   Map<String, Expression> _expressions = new LinkedHashMap<String, Expression>();
+   Map<ParseTree, String> _sharedKeys = null;
+
+   /**
+    * Add a named expression to the set
+    *
+    * @param name
+    *                   name used to return the expression's result
+    * @param expression
+    *                   the logic to be parsed for later evaluation
+    * @return this set
+    * @throws ParseException
+    */
+   public ExpressionSet add(String name, String expression) throws ParseException {
+      return add(name, Expression.jsonata(expression));
+   }
+
+   /**
+    * Add a named expression to the set. Any variable assignments or registered
+    * functions of the Expression are used when the set is evaluated.
+    *
+    * @param name
+    *                   name used to return the expression's result
+    * @param expression
+    *                   the parsed expression
+    * @return this set
+    */
+   public synchronized ExpressionSet add(String name, Expression expression) {
+      _expressions.put(name, expression);
+      _sharedKeys = null;
+      return this;
+   }
+
+   /**
+    * @return the names of the expressions in the order they were added
+    */
+   public Set<String> getNames() {
+      return Collections.unmodifiableSet(_expressions.keySet());
+   }
+
+   /**
+    * @return the text (without whitespace) of the subexpressions evaluated
+    *         once per document and shared across the set
+    */
+   public Set<String> getSharedSubexpressions() {
+      Set<String> texts = new TreeSet<String>();
+      for (ParseTree node : compile().keySet()) {
+         texts.add(node.getText());
+      }
+      return Collections.unmodifiableSet(texts);
+   }
+
+   /**
+    * Evaluate all expressions in the set against the supplied document
+    *
+    * @param rootContext
+    *                    JSON object specifying the content used to evaluate the
+    *                    expressions
+    * @return map of expression names to their results (in the order the
+    *         expressions were added). Expressions evaluating to undefined map to
+    *         null.
+    * @throws EvaluateException
+    * @throws ParseException
+    */
+   public Map<String, JsonNode> evaluate(JsonNode rootContext) throws EvaluateException, ParseException {
+      return evaluate(rootContext, null);
+   }
+
+   /**
+    * Evaluate all expressions in the set against the supplied document using
+    * the precomputed bindings
+    *
+    * @param rootContext
+    *                    JSON object specifying the content used to evaluate the
+    *                    expressions
+    * @param environment
+    *                    the bindings used for this evaluation only. May be null.
+    * @return map of expression names to their results (in the order the
+    *         expressions were added)
+    * @throws EvaluateException
+    * @throws ParseException
+    */
+   public Map<String, JsonNode> evaluate(JsonNode rootContext, BindingEnvironment environment)
+         throws EvaluateException, ParseException {
+      Map<ParseTree, String> sharedKeys = compile();
+      Map<String, JsonNode> sharedValues = new HashMap<String, JsonNode>();
+      Map<String, JsonNode> results = new LinkedHashMap<String, JsonNode>();
+      for (Iterator<String> it = _expressions.keySet().iterator(); it.hasNext();) {
+         String name = it.next();
+         Expression expression = _expressions.get(name);
+         ExpressionsVisitor eval = expression.prepareVisitor(rootContext, environment, 0L, 0);
+         if (sharedKeys.isEmpty() == false) {
+            eval.shareSubexpressions(sharedKeys, sharedValues);
+         }
+         results.put(name, eval.visit(expression._expr.getTree()));
+      }
+      return results;
+   }
+
+   /**
+    * Identify the shareable subexpressions occurring more than once across the
+    * set
+    *
+    * @return map of shared parse tree nodes to their structural keys
+    */
+   synchronized Map<ParseTree, String> compile() {
+      if (_sharedKeys == null) {
+         Map<ParseTree, String> candidates = new IdentityHashMap<ParseTree, String>();
+         for (Expression expression : _expressions.values()) {
+            collect(expression._expr.getTree(), candidates);
+         }
+         Map<String, Integer> counts = new HashMap<String, Integer>();
+         for (String text : candidates.values()) {
+            Integer count = counts.get(text);
+            counts.put(text, count == null ? 1 : count + 1);
+         }
+         Map<ParseTree, String> sharedKeys = new IdentityHashMap<ParseTree, String>();
+         for (Map.Entry<ParseTree, String> entry : candidates.entrySet()) {
+            if (counts.get(entry.getValue()) > 1) {
+               sharedKeys.put(entry.getKey(), entry.getValue());
+            }
+         }
+         _sharedKeys = sharedKeys;
+      }
+      return _sharedKeys;
+   }
+
+   /**
+    * Walk the tree collecting the subexpressions whose value only depends on the
+    * context they are evaluated against. Subexpressions are keyed on their
+    * structure (the rule alternative of each node and the type and text of each
+    * token) rather than their text, which drops whitespace between tokens: x.a
+    * and b has the text x.aandb of a different path.
+    *
+    * @param tree
+    *                   the parse tree to walk
+    * @param candidates
+    *                   map receiving the shareable subexpressions and their keys
+    * @return the structural key of the tree, or null if it does not only depend
+    *         on its context
+    */
+   static String collect(ParseTree tree, Map<ParseTree, String> candidates) {
+      if (tree instanceof TerminalNode) {
+         Token token = ((TerminalNode) tree).getSymbol();
+         String text = token.getText();
+         return token.getType() + ":" + text.length() + ":" + text;
+      }
+      boolean pure = isContextOnly(tree);
+      StringBuilder key = new StringBuilder();
+      key.append('(').append(tree.getClass().getSimpleName());
+      for (int i = 0; i < tree.getChildCount(); i++) {
+         String childKey = collect(tree.getChild(i), candidates);
+         if (childKey == null) {
+            pure = false;
+         } else if (pure) {
+            key.append(' ').append(childKey);
+         }
+      }
+      if (pure == false) {
+         return null;
+      }
+      key.append(')');
+      if (isWorthSharing(tree)) {
+         candidates.put(tree, key.toString());
+      }
+      return key.toString();
+   }
+
+   /**
+    * Variables, function calls, assignments and context references ($) may
+    * depend on more than the context (or, for $, are rewritten during
+    * evaluation) so they are never shared
+    */
+   static boolean isContextOnly(ParseTree tree) {
+      if (tree instanceof MappingExpressionParser.ExprContext) {
+         return tree instanceof MappingExpressionParser.IdContext
+               || tree instanceof MappingExpressionParser.PathContext
+               || tree instanceof MappingExpressionParser.ArrayContext
+               || tree instanceof MappingExpressionParser.To_arrayContext
+               || tree instanceof MappingExpressionParser.Field_valuesContext
+               || tree instanceof MappingExpressionParser.DescendantContext
+               || tree instanceof MappingExpressionParser.Array_constructorContext
+               || tree instanceof MappingExpressionParser.Object_constructorContext
+               || tree instanceof MappingExpressionParser.Unary_opContext
+               || tree instanceof MappingExpressionParser.Muldiv_opContext
+               || tree instanceof MappingExpressionParser.Addsub_opContext
+               || tree instanceof MappingExpressionParser.Concat_opContext
+               || tree instanceof MappingExpressionParser.Comp_opContext
+               || tree instanceof MappingExpressionParser.MembershipContext
+               || tree instanceof MappingExpressionParser.LogandContext
+               || tree instanceof MappingExpressionParser.LogorContext
+               || tree instanceof MappingExpressionParser.ConditionalContext
+               || tree instanceof MappingExpressionParser.ParensContext
+               || tree instanceof MappingExpressionParser.BooleanContext
+               || tree instanceof MappingExpressionParser.NumberContext
+               || tree instanceof MappingExpressionParser.StringContext
+               || tree instanceof MappingExpressionParser.NullContext;
+      }
+      return tree instanceof MappingExpressionParser.FieldListContext
+            || tree instanceof MappingExpressionParser.ExprOrSeqListContext
+            || tree instanceof MappingExpressionParser.ExprOrSeqContext
+            || tree instanceof MappingExpressionParser.SeqContext;
+   }
+
+   /**
+    * Literals and single field references are cheaper to evaluate than to
+    * share
+    */
+   static boolean isWorthSharing(ParseTree tree) {
+      return tree instanceof MappingExpressionParser.ExprContext
+            && (tree instanceof MappingExpressionParser.IdContext
+                  || tree instanceof MappingExpressionParser.BooleanContext
+                  || tree instanceof MappingExpressionParser.NumberContext
+                  || tree instanceof MappingExpressionParser.StringContext
+                  || tree instanceof MappingExpressionParser.NullContext) == false;
+   }
+}
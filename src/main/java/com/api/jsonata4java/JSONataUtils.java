@@ -77,18 +77,16 @@ public class JSONataUtils implements Serializable {
 	 */
 	static public Random SEED_RANDOM = new Random();
 
+	/**
+	 * Created and seeded by the first call of {@link #getUniqueID()}, as seeding
+	 * can block while the system gathers entropy (e.g. in a freshly booted
+	 * container)
+	 */
 	static public SecureRandom SEED_SECURE_RANDOM = null;
 
-	static final public Charset UTF8_CHARSET = Charset.forName("UTF-8");
+	static private boolean s_secureRandomInitialized = false;
 
-	static {
-		try {
-			SEED_SECURE_RANDOM = SecureRandom.getInstance("SHA1PRNG");
-			SEED_SECURE_RANDOM.setSeed(new VMID().toString().getBytes());
-		} catch (NoSuchAlgorithmException nsae) {
-			System.out.println("Unable to retrieve algorithm SHA1PRNG for unique id generation.");
-		}
-	}
+	static final public Charset UTF8_CHARSET = Charset.forName("UTF-8");
 
 	/**
 	 * Close a buffered reader opened using {@link #openTextFile(String)}
@@ -139,6 +137,15 @@ public class JSONataUtils implements Serializable {
 	 *         com.ibm.crypto.fips.provider.SecureRandom class.
 	 */
 	static public synchronized String getUniqueID() {
+		if (s_secureRandomInitialized == false) {
+			s_secureRandomInitialized = true;
+			try {
+				SEED_SECURE_RANDOM = SecureRandom.getInstance("SHA1PRNG");
+				SEED_SECURE_RANDOM.setSeed(new VMID().toString().getBytes());
+			} catch (NoSuchAlgorithmException nsae) {
+				System.out.println("Unable to retrieve algorithm SHA1PRNG for unique id generation.");
+			}
+		}
 		byte[] byteID = new byte[20];
 		if (SEED_SECURE_RANDOM != null) {
 			SEED_SECURE_RANDOM.nextBytes(byteID);
@@ -0,0 +1,745 @@
+/**
+ *
+ */
+package com.api.jsonata4java;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.antlr.v4.runtime.tree.ParseTree;
+
+import com.api.jsonata4java.expressions.EvaluateException;
+import com.api.jsonata4java.expressions.EvaluateRuntimeException;
+import com.api.jsonata4java.expressions.ExpressionsVisitor;
+import com.api.jsonata4java.expressions.ParseException;
+import com.api.jsonata4java.expressions.generated.MappingExpressionParser;
+import com.api.jsonata4java.expressions.generated.MappingExpressionParser.ExprContext;
+import com.api.jsonata4java.expressions.utils.BooleanUtils;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.MissingNode;
+
+/**
+ * Class matching a document against a set of boolean rule expressions. When the
+ * set is compiled each rule is split into its top level conjuncts (the operands
+ * of and). Conjuncts comparing a path with a constant (path = "a", path in
+ * ["a","b"], path &gt;= 3, ...) are extracted into a per path discrimination
+ * index: equality and membership constants are hashed, numeric ranges are held
+ * in an interval tree. Matching a document evaluates each indexed path once,
+ * looks up the candidate rules and only evaluates the remaining (residual)
+ * conjuncts of the candidates. Rules with no indexable conjunct are always
+ * evaluated.
+ *
+ * A rule matches when its expression evaluates to a value that casts to true.
+ * A rule whose evaluation raises an error does not match. When a document
+ * value has a type the index can not compare exactly with JSONata semantics
+ * (e.g. an array or a numeric string) the affected rules are evaluated in
+ * full instead.
+ */
+public class RuleSet {
+
+   /** numbers beyond this magnitude are not compared through the index */
+   static final double MAX_EXACT_DOUBLE = 9007199254740992.0; // 2^53
+
+   /** value of a path whose evaluation failed */
+   static final JsonNode UNKNOWN = MissingNode.getInstance();
+
+   List<Rule> _rules = new ArrayList<Rule>();
+   Map<String, Rule> _ruleIds = new HashMap<String, Rule>();
+   Map<String, PathIndex> _indexes = null;
+   List<Rule> _unindexed = null;
+
+   /**
+    * Add a rule to the set
+    *
+    * @param ruleId
+    *                   identifier returned when the rule matches
+    * @param expression
+    *                   the boolean expression defining the rule
+    * @return this set
+    * @throws ParseException
+    */
+   public RuleSet add(String ruleId, String expression) throws ParseException {
+      return add(ruleId, Expression.jsonata(expression));
+   }
+
+   /**
+    * Add a rule to the set. Any variable assignments or registered functions of
+    * the Expression are used when the rule is evaluated.
+    *
+    * @param ruleId
+    *                   identifier returned when the rule matches
+    * @param expression
+    *                   the parsed boolean expression defining the rule
+    * @return this set
+    */
+   public synchronized RuleSet add(String ruleId, Expression expression) {
+      if (_ruleIds.containsKey(ruleId)) {
+         throw new IllegalArgumentException("A rule with id " + ruleId + " has already been added");
+      }
+      Rule rule = new Rule(_rules.size(), ruleId, expression);
+      _rules.add(rule);
+      _ruleIds.put(ruleId, rule);
+      _indexes = null;
+      return this;
+   }
+
+   /**
+    * @return the number of rules in the set
+    */
+   public int size() {
+      return _rules.size();
+   }
+
+   /**
+    * @return the number of rules located through the discrimination index
+    */
+   public int getIndexedRuleCount() {
+      compile();
+      return _rules.size() - _unindexed.size();
+   }
+
+   /**
+    * Find the rules matching the document
+    *
+    * @param rootContext
+    *                    JSON object the rules are evaluated against
+    * @return the identifiers of the matching rules, in the order the rules were
+    *         added
+    */
+   public Set<String> match(JsonNode rootContext) {
+      return match(rootContext, null);
+   }
+
+   /**
+    * Find the rules matching the document using the precomputed bindings
+    *
+    * @param rootContext
+    *                    JSON object the rules are evaluated against
+    * @param environment
+    *                    the bindings used for this evaluation only. May be null.
+    * @return the identifiers of the matching rules, in the order the rules were
+    *         added
+    */
+   public Set<String> match(JsonNode rootContext, BindingEnvironment environment) {
+      compile();
+      Matcher matcher = new Matcher(rootContext, environment);
+      BitSet candidates = new BitSet(_rules.size());
+      BitSet full = new BitSet(_rules.size());
+      for (PathIndex index : _indexes.values()) {
+         index.lookup(matcher.valueOf(index._pathKey, index._pathCtx), candidates, full);
+      }
+      for (Rule rule : _unindexed) {
+         candidates.set(rule._index);
+         full.set(rule._index);
+      }
+      Set<String> result = new LinkedHashSet<String>();
+      for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+         Rule rule = _rules.get(i);
+         if (matcher.matches(rule, full.get(i))) {
+            result.add(rule._id);
+         }
+      }
+      return result;
+   }
+
+   /**
+    * Split the rules into indexed tests and residual conjuncts and build the
+    * per path indexes
+    */
+   synchronized void compile() {
+      if (_indexes != null) {
+         return;
+      }
+      Map<String, PathIndex> indexes = new LinkedHashMap<String, PathIndex>();
+      List<Rule> unindexed = new ArrayList<Rule>();
+      for (Rule rule : _rules) {
+         rule.analyze();
+         if (rule._primary == null) {
+            unindexed.add(rule);
+         } else {
+            PathIndex index = indexes.get(rule._primary._pathKey);
+            if (index == null) {
+               index = new PathIndex(rule._primary._pathKey, rule._primary._pathCtx);
+               indexes.put(index._pathKey, index);
+            }
+            index.add(rule);
+         }
+      }
+      for (PathIndex index : indexes.values()) {
+         index.build();
+      }
+      _unindexed = unindexed;
+      _indexes = indexes;
+   }
+
+   /**
+    * Key used to compare a value with equality and membership constants, or
+    * null when the value can not be compared exactly through the index (the
+    * interpreter's "=" coerces across some types)
+    */
+   static Object equalityKey(JsonNode value) {
+      if (value == null) {
+         return null;
+      }
+      if (value.isTextual()) {
+         return value.asText();
+      }
+      if (value.isBoolean()) {
+         return Boolean.valueOf(value.asBoolean());
+      }
+      if (value.isNumber()) {
+         if (value.isIntegralNumber() && value.canConvertToLong() == false) {
+            return null;
+         }
+         double d = value.asDouble();
+         if (Double.isNaN(d) || Math.abs(d) > MAX_EXACT_DOUBLE) {
+            return null;
+         }
+         return Double.valueOf(d == 0.0 ? 0.0 : d);
+      }
+      return null;
+   }
+
+   /**
+    * @return the numeric value used to compare with range constants, or null if
+    *         the value can not be compared through the index
+    */
+   static Double rangeKey(JsonNode value) {
+      Object key = equalityKey(value);
+      return key instanceof Double ? (Double) key : null;
+   }
+
+   /**
+    * A rule and its decomposition into indexed tests and residual conjuncts
+    */
+   static class Rule {
+      final int _index;
+      final String _id;
+      final Expression _expression;
+      List<Test> _tests = new ArrayList<Test>();
+      List<ExprContext> _residual = new ArrayList<ExprContext>();
+      Test _primary = null;
+
+      Rule(int index, String id, Expression expression) {
+         _index = index;
+         _id = id;
+         _expression = expression;
+      }
+
+      void analyze() {
+         _tests.clear();
+         _residual.clear();
+         _primary = null;
+         List<ExprContext> conjuncts = new ArrayList<ExprContext>();
+         ParseTree tree = _expression._expr.getTree();
+         if (tree instanceof ExprContext) {
+            addConjuncts((ExprContext) tree, conjuncts);
+         } else {
+            return;
+         }
+         Map<String, Test> ranges = new HashMap<String, Test>();
+         for (ExprContext conjunct : conjuncts) {
+            Test test = Test.extract(conjunct);
+            if (test == null) {
+               _residual.add(conjunct);
+            } else if (test._kind == Test.RANGE && ranges.containsKey(test._pathKey)) {
+               // a >= 1 and a < 5 share one interval
+               ranges.get(test._pathKey).intersect(test);
+            } else {
+               if (test._kind == Test.RANGE) {
+                  ranges.put(test._pathKey, test);
+               }
+               _tests.add(test);
+            }
+         }
+         // prefer the most selective kind of test to locate the rule
+         for (Test test : _tests) {
+            if (_primary == null || test._kind < _primary._kind) {
+               _primary = test;
+            }
+         }
+      }
+
+      static void addConjuncts(ExprContext ctx, List<ExprContext> conjuncts) {
+         if (ctx instanceof MappingExpressionParser.LogandContext) {
+            MappingExpressionParser.LogandContext and = (MappingExpressionParser.LogandContext) ctx;
+            addConjuncts(and.expr(0), conjuncts);
+            addConjuncts(and.expr(1), conjuncts);
+         } else if (ctx instanceof MappingExpressionParser.ParensContext
+               && ((MappingExpressionParser.ParensContext) ctx).expr().size() == 1) {
+            addConjuncts(((MappingExpressionParser.ParensContext) ctx).expr(0), conjuncts);
+         } else {
+            conjuncts.add(ctx);
+         }
+      }
+   }
+
+   /**
+    * A conjunct comparing the value of a path with constants
+    */
+   static class Test {
+      // ordered by preference when choosing a rule's primary test
+      static final int EQUALS = 0;
+      static final int MEMBER = 1;
+      static final int RANGE = 2;
+
+      int _kind;
+      String _pathKey;
+      ExprContext _pathCtx;
+      Set<Object> _keys = null;
+      // "=" compares floating point numbers with any type through asDouble()
+      boolean _floatLiteral = false;
+      boolean _nonNumericLiteral = false;
+      double _lo = Double.NEGATIVE_INFINITY;
+      boolean _loInclusive = false;
+      double _hi = Double.POSITIVE_INFINITY;
+      boolean _hiInclusive = false;
+
+      /**
+       * @return the test described by the conjunct or null if it is not an
+       *         indexable comparison
+       */
+      static Test extract(ExprContext conjunct) {
+         if (conjunct instanceof MappingExpressionParser.Comp_opContext) {
+            MappingExpressionParser.Comp_opContext comp = (MappingExpressionParser.Comp_opContext) conjunct;
+            int op = comp.op.getType();
+            ExprContext path = comp.expr(0);
+            ExprContext literal = comp.expr(1);
+            if (isSimplePath(path) == false) {
+               path = comp.expr(1);
+               literal = comp.expr(0);
+               op = flip(op);
+            }
+            if (isSimplePath(path) == false || isLiteral(literal) == false) {
+               return null;
+            }
+            JsonNode value = evaluateLiteral(literal);
+            Test test = new Test();
+            test._pathKey = path.getText();
+            test._pathCtx = path;
+            switch (op) {
+            case MappingExpressionParser.EQ: {
+               Object key = equalityKey(value);
+               if (key == null) {
+                  return null;
+               }
+               test._kind = EQUALS;
+               test._keys = Collections.singleton(key);
+               test.noteLiteral(value);
+               return test;
+            }
+            case MappingExpressionParser.LT:
+            case MappingExpressionParser.LE:
+            case MappingExpressionParser.GT:
+            case MappingExpressionParser.GE: {
+               Double bound = rangeKey(value);
+               if (bound == null) {
+                  return null;
+               }
+               test._kind = RANGE;
+               if (op == MappingExpressionParser.LT || op == MappingExpressionParser.LE) {
+                  test._hi = bound;
+                  test._hiInclusive = op == MappingExpressionParser.LE;
+               } else {
+                  test._lo = bound;
+                  test._loInclusive = op == MappingExpressionParser.GE;
+               }
+               return test;
+            }
+            default:
+               return null;
+            }
+         } else if (conjunct instanceof MappingExpressionParser.MembershipContext) {
+            MappingExpressionParser.MembershipContext member = (MappingExpressionParser.MembershipContext) conjunct;
+            ExprContext path = member.expr(0);
+            ExprContext literals = member.expr(1);
+            if (isSimplePath(path) == false || isLiteralArray(literals) == false) {
+               return null;
+            }
+            JsonNode values = evaluateLiteral(literals);
+            Test test = new Test();
+            Set<Object> keys = new HashSet<Object>();
+            for (JsonNode value : values.isArray() ? values : Collections.singletonList(values)) {
+               Object key = equalityKey(value);
+               if (key == null) {
+                  return null;
+               }
+               keys.add(key);
+               test.noteLiteral(value);
+            }
+            test._kind = MEMBER;
+            test._pathKey = path.getText();
+            test._pathCtx = path;
+            test._keys = keys;
+            return test;
+         }
+         return null;
+      }
+
+      void noteLiteral(JsonNode literal) {
+         _floatLiteral |= literal.isFloatingPointNumber();
+         _nonNumericLiteral |= literal.isNumber() == false;
+      }
+
+      /**
+       * @return true if "=" between the value and one of the literals may
+       *         coerce across types, so the hashed keys can not decide it
+       */
+      boolean isCoercing(JsonNode value) {
+         return (value.isFloatingPointNumber() && _nonNumericLiteral)
+               || (value.isNumber() == false && _floatLiteral);
+      }
+
+      void intersect(Test other) {
+         if (other._lo > _lo || (other._lo == _lo && other._loInclusive == false)) {
+            _lo = other._lo;
+            _loInclusive = other._loInclusive;
+         }
+         if (other._hi < _hi || (other._hi == _hi && other._hiInclusive == false)) {
+            _hi = other._hi;
+            _hiInclusive = other._hiInclusive;
+         }
+      }
+
+      boolean contains(double value) {
+         return (value > _lo || (_loInclusive && value == _lo)) && (value < _hi || (_hiInclusive && value == _hi));
+      }
+
+      /**
+       * @param value
+       *              the value of the test's path (null if undefined)
+       * @return whether the conjunct is true, or null if the index can not
+       *         decide it exactly
+       */
+      Boolean matches(JsonNode value) {
+         if (value == null) {
+            // undefined = x is false, undefined in [...] is undefined and
+            // undefined < x raises an error
+            return Boolean.FALSE;
+         }
+         if (_kind == RANGE) {
+            Double key = rangeKey(value);
+            return key == null ? null : Boolean.valueOf(contains(key));
+         }
+         Object key = equalityKey(value);
+         return key == null || isCoercing(value) ? null : Boolean.valueOf(_keys.contains(key));
+      }
+
+      static int flip(int op) {
+         switch (op) {
+         case MappingExpressionParser.LT:
+            return MappingExpressionParser.GT;
+         case MappingExpressionParser.LE:
+            return MappingExpressionParser.GE;
+         case MappingExpressionParser.GT:
+            return MappingExpressionParser.LT;
+         case MappingExpressionParser.GE:
+            return MappingExpressionParser.LE;
+         default:
+            return op;
+         }
+      }
+
+      static boolean isSimplePath(ExprContext ctx) {
+         if (ctx instanceof MappingExpressionParser.IdContext) {
+            return true;
+         }
+         if (ctx instanceof MappingExpressionParser.PathContext) {
+            MappingExpressionParser.PathContext path = (MappingExpressionParser.PathContext) ctx;
+            return isSimplePath(path.expr(0)) && isSimplePath(path.expr(1));
+         }
+         return false;
+      }
+
+      static boolean isLiteral(ExprContext ctx) {
+         if (ctx instanceof MappingExpressionParser.Unary_opContext) {
+            return ((MappingExpressionParser.Unary_opContext) ctx).expr() instanceof MappingExpressionParser.NumberContext;
+         }
+         return ctx instanceof MappingExpressionParser.NumberContext
+               || ctx instanceof MappingExpressionParser.StringContext
+               || ctx instanceof MappingExpressionParser.BooleanContext;
+      }
+
+      static boolean isLiteralArray(ExprContext ctx) {
+         if (isLiteral(ctx)) {
+            return true;
+         }
+         if (ctx instanceof MappingExpressionParser.Array_constructorContext == false) {
+            return false;
+         }
+         MappingExpressionParser.ExprOrSeqListContext list = ((MappingExpressionParser.Array_constructorContext) ctx)
+               .exprOrSeqList();
+         if (list == null) {
+            return false;
+         }
+         for (MappingExpressionParser.ExprOrSeqContext item : list.exprOrSeq()) {
+            if (item.expr() == null || isLiteral(item.expr()) == false) {
+               return false;
+            }
+         }
+         return true;
+      }
+
+      static JsonNode evaluateLiteral(ExprContext ctx) {
+         return new ExpressionsVisitor(null).visit(ctx);
+      }
+   }
+
+   /**
+    * The rules whose primary test is on the same path
+    */
+   static class PathIndex {
+      final String _pathKey;
+      final ExprContext _pathCtx;
+      Map<Object, List<Rule>> _equality = new HashMap<Object, List<Rule>>();
+      List<Rule> _equalityRules = new ArrayList<Rule>();
+      Test _literalTypes = new Test();
+      List<Rule> _rangeRules = new ArrayList<Rule>();
+      IntervalTree _ranges = null;
+
+      PathIndex(String pathKey, ExprContext pathCtx) {
+         _pathKey = pathKey;
+         _pathCtx = pathCtx;
+      }
+
+      void add(Rule rule) {
+         Test test = rule._primary;
+         if (test._kind == Test.RANGE) {
+            _rangeRules.add(rule);
+         } else {
+            _equalityRules.add(rule);
+            _literalTypes._floatLiteral |= test._floatLiteral;
+            _literalTypes._nonNumericLiteral |= test._nonNumericLiteral;
+            for (Object key : test._keys) {
+               List<Rule> rules = _equality.get(key);
+               if (rules == null) {
+                  rules = new ArrayList<Rule>(1);
+                  _equality.put(key, rules);
+               }
+               rules.add(rule);
+            }
+         }
+      }
+
+      void build() {
+         // empty intervals (e.g. a > 5 and a < 2) never contain a number and are
+         // only evaluated for values the index can not compare
+         List<Rule> intervals = new ArrayList<Rule>();
+         for (Rule rule : _rangeRules) {
+            Test test = rule._primary;
+            if (test._lo < test._hi || (test._lo == test._hi && test._loInclusive && test._hiInclusive)) {
+               intervals.add(rule);
+            }
+         }
+         _ranges = IntervalTree.build(intervals);
+      }
+
+      /**
+       * Mark the rules whose primary test may be true for the value
+       */
+      void lookup(JsonNode value, BitSet candidates, BitSet full) {
+         if (value == null) {
+            // every indexed test is false for undefined
+            return;
+         }
+         if (value == UNKNOWN) {
+            markAll(_equalityRules, candidates, full);
+            markAll(_rangeRules, candidates, full);
+            return;
+         }
+         Object key = equalityKey(value);
+         if (key == null || _literalTypes.isCoercing(value)) {
+            markAll(_equalityRules, candidates, full);
+         } else {
+            List<Rule> rules = _equality.get(key);
+            if (rules != null) {
+               for (Rule rule : rules) {
+                  candidates.set(rule._index);
+               }
+            }
+         }
+         if (_rangeRules.isEmpty() == false) {
+            Double number = rangeKey(value);
+            if (number == null) {
+               markAll(_rangeRules, candidates, full);
+            } else if (_ranges != null) {
+               _ranges.stab(number, candidates);
+            }
+         }
+      }
+
+      static void markAll(List<Rule> rules, BitSet candidates, BitSet full) {
+         for (Rule rule : rules) {
+            candidates.set(rule._index);
+            full.set(rule._index);
+         }
+      }
+   }
+
+   /**
+    * Centered interval tree over the rules' primary range tests answering which
+    * intervals contain a value
+    */
+   static class IntervalTree {
+      double _center;
+      List<Rule> _byLo;
+      List<Rule> _byHi;
+      IntervalTree _left;
+      IntervalTree _right;
+
+      static IntervalTree build(List<Rule> rules) {
+         if (rules.isEmpty()) {
+            return null;
+         }
+         List<Double> endpoints = new ArrayList<Double>();
+         for (Rule rule : rules) {
+            if (Double.isInfinite(rule._primary._lo) == false) {
+               endpoints.add(rule._primary._lo);
+            }
+            if (Double.isInfinite(rule._primary._hi) == false) {
+               endpoints.add(rule._primary._hi);
+            }
+         }
+         Collections.sort(endpoints);
+         IntervalTree node = new IntervalTree();
+         node._center = endpoints.get(endpoints.size() / 2);
+         List<Rule> left = new ArrayList<Rule>();
+         List<Rule> right = new ArrayList<Rule>();
+         node._byLo = new ArrayList<Rule>();
+         for (Rule rule : rules) {
+            if (rule._primary._hi < node._center) {
+               left.add(rule);
+            } else if (rule._primary._lo > node._center) {
+               right.add(rule);
+            } else {
+               node._byLo.add(rule);
+            }
+         }
+         node._byHi = new ArrayList<Rule>(node._byLo);
+         Collections.sort(node._byLo, new Comparator<Rule>() {
+            @Override
+            public int compare(Rule r1, Rule r2) {
+               return Double.compare(r1._primary._lo, r2._primary._lo);
+            }
+         });
+         Collections.sort(node._byHi, new Comparator<Rule>() {
+            @Override
+            public int compare(Rule r1, Rule r2) {
+               return Double.compare(r2._primary._hi, r1._primary._hi);
+            }
+         });
+         node._left = build(left);
+         node._right = build(right);
+         return node;
+      }
+
+      void stab(double value, BitSet out) {
+         if (value < _center) {
+            for (Rule rule : _byLo) {
+               if (rule._primary._lo > value) {
+                  break;
+               }
+               if (rule._primary.contains(value)) {
+                  out.set(rule._index);
+               }
+            }
+            if (_left != null) {
+               _left.stab(value, out);
+            }
+         } else if (value > _center) {
+            for (Rule rule : _byHi) {
+               if (rule._primary._hi < value) {
+                  break;
+               }
+               if (rule._primary.contains(value)) {
+                  out.set(rule._index);
+               }
+            }
+            if (_right != null) {
+               _right.stab(value, out);
+            }
+         } else {
+            for (Rule rule : _byLo) {
+               if (rule._primary.contains(value)) {
+                  out.set(rule._index);
+               }
+            }
+         }
+      }
+   }
+
+   /**
+    * Per document state: the values of the indexed paths and the evaluation of
+    * candidate rules
+    */
+   class Matcher {
+      final JsonNode _rootContext;
+      final BindingEnvironment _environment;
+      final Map<String, JsonNode> _values = new HashMap<String, JsonNode>();
+      ExpressionsVisitor _pathEval = null;
+
+      Matcher(JsonNode rootContext, BindingEnvironment environment) {
+         _rootContext = rootContext;
+         _environment = environment;
+      }
+
+      JsonNode valueOf(String pathKey, ExprContext pathCtx) {
+         if (_values.containsKey(pathKey)) {
+            return _values.get(pathKey);
+         }
+         JsonNode value = null;
+         try {
+            if (_pathEval == null) {
+               _pathEval = new ExpressionsVisitor(_rootContext);
+            }
+            value = _pathEval.visit(pathCtx);
+         } catch (RuntimeException e) {
+            value = UNKNOWN;
+         }
+         _values.put(pathKey, value);
+         return value;
+      }
+
+      boolean matches(Rule rule, boolean full) {
+         try {
+            if (full == false) {
+               for (Test test : rule._tests) {
+                  JsonNode value = valueOf(test._pathKey, test._pathCtx);
+                  Boolean result = value == UNKNOWN ? null : test.matches(value);
+                  if (result == null) {
+                     full = true;
+                     break;
+                  }
+                  if (result.booleanValue() == false) {
+                     return false;
+                  }
+               }
+            }
+            if (full) {
+               return BooleanUtils.convertJsonNodeToBoolean(rule._expression.evaluate(_rootContext, _environment));
+            }
+            if (rule._residual.isEmpty()) {
+               return true;
+            }
+            ExpressionsVisitor eval = rule._expression.prepareVisitor(_rootContext, _environment, 0L, 0);
+            for (ExprContext conjunct : rule._residual) {
+               if (BooleanUtils.convertJsonNodeToBoolean(eval.visit(conjunct)) == false) {
+                  return false;
+               }
+            }
+            return true;
+         } catch (EvaluateRuntimeException | EvaluateException | ParseException e) {
+            return false;
+         }
+      }
+   }
+}
@@ -0,0 +1,793 @@
+/**
+ * (c) Copyright 2018, 2019 IBM Corporation
+ * 1 New Orchard Road,
+ * Armonk, New York, 10504-1722
+ * United States
+ * +1 914 499 1900
+ * support: Nathaniel Mills wnm3@us.ibm.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.api.jsonata4java.expressions;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Stack;
+import java.util.function.DoublePredicate;
+
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.tree.ParseTree;
+
+import com.api.jsonata4java.expressions.ExpressionsVisitor.SelectorArrayNode;
+import com.api.jsonata4java.expressions.functions.Function;
+import com.api.jsonata4java.expressions.functions.FunctionSignature;
+import com.api.jsonata4java.expressions.functions.TypedFunction;
+import com.api.jsonata4java.expressions.generated.MappingExpressionParser;
+import com.api.jsonata4java.expressions.generated.MappingExpressionParser.ExprContext;
+import com.api.jsonata4java.expressions.shaped.Column;
+import com.api.jsonata4java.expressions.shaped.ColumnarArrayNode;
+import com.api.jsonata4java.expressions.shaped.FieldAccessor;
+import com.api.jsonata4java.expressions.utils.BooleanUtils;
+import com.api.jsonata4java.expressions.utils.Constants;
+import com.api.jsonata4java.expressions.utils.FunctionUtils;
+import com.api.jsonata4java.expressions.utils.NumberUtils;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.BooleanNode;
+import com.fasterxml.jackson.databind.node.DoubleNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.LongNode;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+
+/**
+ * A parsed expression compiled to a tree of Java objects, one per node of the
+ * parse tree, that evaluate the node directly instead of dispatching through
+ * the visitor. Literals are converted once, field names are unescaped once
+ * and field lookups of paths are made without pushing the context, so the
+ * evaluation of hot expressions is left to code the JIT can inline.
+ * <p>
+ * Literals, field names, paths, variables, arithmetic, comparison, boolean,
+ * concatenation and conditional operators, blocks and calls of typed functions
+ * are compiled. Paths and aggregates ($sum, $average, $max, $min, $count)
+ * over a field of a {@link ColumnarArrayNode}, with predicates comparing its
+ * fields to literals, loop over its columns. Any other node (e.g. calls of declared functions, predicates,
+ * constructors) is evaluated by the
+ * {@link ExpressionsVisitor} with the same context and variables, so a
+ * compiled expression always returns what the interpreter returns.
+ */
+public class CompiledExpression {
+
+   /**
+    * A compiled node of the parse tree
+    */
+   interface Node {
+      JsonNode evaluate(ExpressionsVisitor visitor);
+   }
+
+   /**
+    * Selects a field of the context, with an inline cache of the field's
+    * position in shaped objects (see {@link FieldAccessor})
+    */
+   static class FieldNode implements Node {
+      final FieldAccessor _field;
+
+      FieldNode(String field) {
+         _field = new FieldAccessor(field);
+      }
+
+      @Override
+      public JsonNode evaluate(ExpressionsVisitor visitor) {
+         Stack<JsonNode> stack = visitor.getStack();
+         return stack.isEmpty() ? null : select(stack.peek());
+      }
+
+      JsonNode select(JsonNode context) {
+         return context == null ? null : ExpressionsVisitor.unwrapArray(_field.get(context));
+      }
+
+      /**
+       * @return the values of the field of each member of the columnar array
+       *         (the same as selecting it from each member)
+       */
+      JsonNode select(ColumnarArrayNode context) {
+         SelectorArrayNode arr = new SelectorArrayNode(JsonNodeFactory.instance);
+         Column column = context.getColumn(_field.getName());
+         if (column != null) {
+            for (int row = 0; row < column.size(); row++) {
+               arr.addAsSelectionGroup(column.get(row));
+            }
+         }
+         return arr;
+      }
+   }
+
+   /**
+    * Evaluates the right hand side of a path for each value of its left hand
+    * side
+    */
+   static class PathNode implements Node {
+      final Node _lhs;
+      final Node _rhs;
+
+      PathNode(Node lhs, Node rhs) {
+         _lhs = lhs;
+         _rhs = rhs;
+      }
+
+      @Override
+      public JsonNode evaluate(ExpressionsVisitor visitor) {
+         JsonNode lhs = ExpressionsVisitor.pathEntry(_lhs.evaluate(visitor));
+         if (lhs == null) {
+            return null;
+         }
+         return ExpressionsVisitor.pathResult(resolve(visitor, lhs));
+      }
+
+      JsonNode resolve(ExpressionsVisitor visitor, JsonNode lhs) {
+         if (lhs instanceof ColumnarArrayNode && _rhs instanceof FieldNode
+               && ((ColumnarArrayNode) lhs).getShape() != null) {
+            return ((FieldNode) _rhs).select((ColumnarArrayNode) lhs);
+         }
+         if (lhs.isArray()) {
+            SelectorArrayNode arr = new SelectorArrayNode(JsonNodeFactory.instance);
+            for (JsonNode lhsE : lhs) {
+               JsonNode rhsE = resolve(visitor, lhsE);
+               if (rhsE != null) {
+                  arr.addAsSelectionGroup(rhsE);
+               }
+            }
+            return arr;
+         }
+         if (_rhs instanceof FieldNode) {
+            return ((FieldNode) _rhs).select(lhs);
+         }
+         Stack<JsonNode> stack = visitor.getStack();
+         stack.push(lhs);
+         JsonNode result = _rhs.evaluate(visitor);
+         stack.pop();
+         return result;
+      }
+   }
+
+   final ParseTree _tree;
+   final Node _root;
+   int _compiledNodes = 0;
+   int _interpretedNodes = 0;
+
+   CompiledExpression(ParseTree tree) {
+      _tree = tree;
+      _root = compileTree(tree);
+   }
+
+   /**
+    * @param tree
+    *             the parse tree of the expression
+    * @return the compiled expression
+    */
+   public static CompiledExpression compile(ParseTree tree) {
+      return new CompiledExpression(tree);
+   }
+
+   /**
+    * Evaluate the compiled expression
+    * 
+    * @param visitor
+    *                the visitor holding the context and the variable and
+    *                function bindings of the evaluation
+    * @return the result of the expression
+    */
+   public JsonNode evaluate(ExpressionsVisitor visitor) {
+      return _root.evaluate(visitor);
+   }
+
+   /**
+    * @return the parse tree of the expression
+    */
+   public ParseTree getTree() {
+      return _tree;
+   }
+
+   /**
+    * @return the number of parse tree nodes compiled
+    */
+   public int getCompiledNodes() {
+      return _compiledNodes;
+   }
+
+   /**
+    * @return the number of parse tree nodes (with their descendants) left to
+    *         the interpreter
+    */
+   public int getInterpretedNodes() {
+      return _interpretedNodes;
+   }
+
+   Node compileTree(ParseTree tree) {
+      Node node = null;
+      try {
+         node = compileNode(tree);
+      } catch (RuntimeException e) {
+         // e.g. a number out of range is reported when evaluated
+         node = null;
+      }
+      if (node == null) {
+         _interpretedNodes++;
+         return visitor -> visitor.visit(tree);
+      }
+      _compiledNodes++;
+      return node;
+   }
+
+   Node compileNode(ParseTree tree) {
+      if (tree instanceof MappingExpressionParser.NumberContext) {
+         return constant(NumberUtils
+               .convertNumberToValueNode(((MappingExpressionParser.NumberContext) tree).NUMBER().getText()));
+      }
+      if (tree instanceof MappingExpressionParser.StringContext) {
+         return constant(TextNode.valueOf(ExpressionsVisitor.sanitise(tree.getText())));
+      }
+      if (tree instanceof MappingExpressionParser.BooleanContext) {
+         return constant(((MappingExpressionParser.BooleanContext) tree).op.getType() == MappingExpressionParser.TRUE
+               ? BooleanNode.TRUE
+               : BooleanNode.FALSE);
+      }
+      if (tree instanceof MappingExpressionParser.NullContext) {
+         return constant(NullNode.getInstance());
+      }
+      if (tree instanceof MappingExpressionParser.IdContext) {
+         return new FieldNode(ExpressionsVisitor.sanitise(((MappingExpressionParser.IdContext) tree).ID().getText()));
+      }
+      if (tree instanceof MappingExpressionParser.PathContext) {
+         MappingExpressionParser.PathContext ctx = (MappingExpressionParser.PathContext) tree;
+         return new PathNode(compileTree(ctx.expr(0)), compileTree(ctx.expr(1)));
+      }
+      if (tree instanceof MappingExpressionParser.Var_recallContext) {
+         final String varName = tree.getText();
+         return visitor -> {
+            JsonNode result = visitor.getVariableMap().get(varName);
+            if (result == null && visitor.getVariableMap().containsKey(varName) == false) {
+               throw new EvaluateRuntimeException(varName + " is unknown (e.g., unassigned variable)");
+            }
+            return result;
+         };
+      }
+      if (tree instanceof MappingExpressionParser.Var_assignContext) {
+         MappingExpressionParser.Var_assignContext ctx = (MappingExpressionParser.Var_assignContext) tree;
+         if (ctx.expr() == null || ctx.expr() instanceof MappingExpressionParser.Function_declContext) {
+            return null;
+         }
+         final String varName = ctx.VAR_ID().getText();
+         final Node value = compileTree(ctx.expr());
+         return visitor -> {
+            JsonNode result = value.evaluate(visitor);
+            visitor.assignLocal(varName, result);
+            return result;
+         };
+      }
+      if (tree instanceof MappingExpressionParser.ParensContext) {
+         List<ExprContext> expressions = ((MappingExpressionParser.ParensContext) tree).expr();
+         final Node[] nodes = new Node[expressions.size()];
+         for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = compileTree(expressions.get(i));
+         }
+         return visitor -> {
+            JsonNode result = null;
+            for (Node node : nodes) {
+               result = node.evaluate(visitor);
+            }
+            // drop out of selection mode (see visitParens)
+            if (result instanceof SelectorArrayNode) {
+               ArrayNode newResult = JsonNodeFactory.instance.arrayNode();
+               newResult.addAll((SelectorArrayNode) result);
+               result = newResult;
+            }
+            return result;
+         };
+      }
+      if (tree instanceof MappingExpressionParser.Addsub_opContext) {
+         MappingExpressionParser.Addsub_opContext ctx = (MappingExpressionParser.Addsub_opContext) tree;
+         return arithmetic(ctx.op, compileTree(ctx.expr(0)), compileTree(ctx.expr(1)));
+      }
+      if (tree instanceof MappingExpressionParser.Muldiv_opContext) {
+         MappingExpressionParser.Muldiv_opContext ctx = (MappingExpressionParser.Muldiv_opContext) tree;
+         return arithmetic(ctx.op, compileTree(ctx.expr(0)), compileTree(ctx.expr(1)));
+      }
+      if (tree instanceof MappingExpressionParser.Unary_opContext) {
+         MappingExpressionParser.Unary_opContext ctx = (MappingExpressionParser.Unary_opContext) tree;
+         if (ctx.op.getType() != MappingExpressionParser.SUB) {
+            return null;
+         }
+         final Node operand = compileTree(ctx.expr());
+         return visitor -> ExpressionsVisitor.negate(operand.evaluate(visitor));
+      }
+      if (tree instanceof MappingExpressionParser.Comp_opContext) {
+         MappingExpressionParser.Comp_opContext ctx = (MappingExpressionParser.Comp_opContext) tree;
+         final Token op = ctx.op;
+         final Node left = compileTree(ctx.expr(0));
+         final Node right = compileTree(ctx.expr(1));
+         return visitor -> {
+            JsonNode leftValue = left.evaluate(visitor);
+            return ExpressionsVisitor.compare(op, leftValue, right.evaluate(visitor));
+         };
+      }
+      if (tree instanceof MappingExpressionParser.Concat_opContext) {
+         MappingExpressionParser.Concat_opContext ctx = (MappingExpressionParser.Concat_opContext) tree;
+         final Node left = compileTree(ctx.expr(0));
+         final Node right = compileTree(ctx.expr(1));
+         return visitor -> {
+            JsonNode leftValue = left.evaluate(visitor);
+            return ExpressionsVisitor.concat(leftValue, right.evaluate(visitor));
+         };
+      }
+      if (tree instanceof MappingExpressionParser.LogandContext) {
+         MappingExpressionParser.LogandContext ctx = (MappingExpressionParser.LogandContext) tree;
+         return logical(true, compileTree(ctx.expr(0)), compileTree(ctx.expr(1)));
+      }
+      if (tree instanceof MappingExpressionParser.LogorContext) {
+         MappingExpressionParser.LogorContext ctx = (MappingExpressionParser.LogorContext) tree;
+         return logical(false, compileTree(ctx.expr(0)), compileTree(ctx.expr(1)));
+      }
+      if (tree instanceof MappingExpressionParser.Function_callContext) {
+         return functionCall((MappingExpressionParser.Function_callContext) tree);
+      }
+      if (tree instanceof MappingExpressionParser.ConditionalContext) {
+         MappingExpressionParser.ConditionalContext ctx = (MappingExpressionParser.ConditionalContext) tree;
+         final Node condition = compileTree(ctx.expr(0));
+         final Node then = compileTree(ctx.expr(1));
+         final Node otherwise = compileTree(ctx.expr(2));
+         return visitor -> BooleanUtils.convertJsonNodeToBoolean(condition.evaluate(visitor)) ? then.evaluate(visitor)
+               : otherwise.evaluate(visitor);
+      }
+      return null;
+   }
+
+   /**
+    * A call of a typed function (see {@link TypedFunction}), i.e. a built in
+    * function using the shared argument layer or a registered Java function.
+    * Its arguments are evaluated by their compiled nodes and passed to the
+    * function after being checked against its signature. Whether the call takes
+    * the context value is decided when the call is compiled for the function
+    * the name resolves to then, and again only if a different function is bound
+    * to the name when the call is made (e.g. a Java function replacing a built
+    * in one). Calls of other functions are made by the interpreter.
+    */
+   static class CallNode implements Node {
+      final MappingExpressionParser.Function_callContext _ctx;
+      final String _name;
+      final Node[] _args;
+      final boolean _inPath;
+      final TypedFunction _resolved;
+      final boolean _useContext;
+
+      CallNode(MappingExpressionParser.Function_callContext ctx, Node[] args, TypedFunction resolved) {
+         _ctx = ctx;
+         _name = ctx.VAR_ID().getText();
+         _args = args;
+         _inPath = ctx.getParent() instanceof MappingExpressionParser.PathContext;
+         _resolved = resolved;
+         _useContext = resolved != null && useContext(resolved.getFunctionSignature());
+      }
+
+      boolean useContext(FunctionSignature signature) {
+         return signature.acceptsContext() && (_inPath || _args.length < signature.getMinArity());
+      }
+
+      @Override
+      public JsonNode evaluate(ExpressionsVisitor visitor) {
+         Function function = visitor.getFunction(_name);
+         if (function instanceof TypedFunction == false) {
+            return visitor.visit(_ctx);
+         }
+         TypedFunction typed = (TypedFunction) function;
+         boolean useContext = typed == _resolved ? _useContext : useContext(typed.getFunctionSignature());
+         JsonNode[] values = new JsonNode[useContext ? _args.length + 1 : _args.length];
+         int offset = 0;
+         if (useContext) {
+            values[offset++] = FunctionUtils.getContextVariable(visitor);
+         }
+         for (int i = 0; i < _args.length; i++) {
+            values[offset + i] = _args[i].evaluate(visitor);
+         }
+         return typed.call(typed.getFunctionSignature().coerce(_name, values, useContext));
+      }
+   }
+
+   /**
+    * Selects the rows of a columnar array matching a predicate, or returns null
+    * if the predicate can not be evaluated over its columns
+    */
+   interface ColumnFilter {
+      BitSet select(ColumnarArrayNode source);
+   }
+
+   /**
+    * A call of $sum, $average, $max, $min or $count whose argument selects a
+    * field of the members of an array, optionally filtered by comparisons of
+    * their fields with literals, e.g. $average(readings[sensor="t1"].value).
+    * When the array is a {@link ColumnarArrayNode} the predicate and the
+    * aggregate are loops over its columns. The call is made by the interpreter
+    * when the array is not columnar, when fewer than two values are selected or
+    * any is null, when the function needs numbers and the field does not hold
+    * numbers (so errors are reported as usual) and when the built in function
+    * is not the one bound to the name.
+    */
+   static class AggregateNode implements Node {
+      final MappingExpressionParser.Function_callContext _ctx;
+      final String _name;
+      final Function _builtIn;
+      final Node _source;
+      final ColumnFilter _filter;
+      final String _field;
+
+      AggregateNode(MappingExpressionParser.Function_callContext ctx, Node source, ColumnFilter filter,
+            String field) {
+         _ctx = ctx;
+         _name = ctx.VAR_ID().getText();
+         _builtIn = Constants.FUNCTIONS.get(_name);
+         _source = source;
+         _filter = filter;
+         _field = field;
+      }
+
+      @Override
+      public JsonNode evaluate(ExpressionsVisitor visitor) {
+         if (visitor.getFunction(_name) == _builtIn) {
+            JsonNode source = _source.evaluate(visitor);
+            if (source instanceof ColumnarArrayNode) {
+               JsonNode result = aggregate((ColumnarArrayNode) source);
+               if (result != null) {
+                  return result;
+               }
+            }
+         }
+         return visitor.visit(_ctx);
+      }
+
+      JsonNode aggregate(ColumnarArrayNode source) {
+         Column column = source.getColumn(_field);
+         if (column == null) {
+            return null;
+         }
+         BitSet rows = null;
+         if (_filter != null) {
+            try {
+               rows = _filter.select(source);
+            } catch (EvaluateRuntimeException e) {
+               // left to the interpreter to report
+               return null;
+            }
+            if (rows == null) {
+               return null;
+            }
+         }
+         int size = column.size();
+         int count = rows == null ? size : rows.cardinality();
+         if (count < 2 || column.anyNull(rows)) {
+            return null;
+         }
+         if (Constants.FUNCTION_COUNT.equals(_name)) {
+            return new LongNode(count);
+         }
+         if (column.getType() != Column.Type.NUMBER) {
+            return null;
+         }
+         switch (_name) {
+         case Constants.FUNCTION_SUM: {
+            boolean integral = true;
+            for (int row = next(rows, 0, size); row >= 0 && integral; row = next(rows, row + 1, size)) {
+               integral = column.isIntegral(row);
+            }
+            if (integral) {
+               long sum = 0L;
+               for (int row = next(rows, 0, size); row >= 0; row = next(rows, row + 1, size)) {
+                  sum += (long) column.getDouble(row);
+               }
+               return new LongNode(sum);
+            }
+            double sum = 0.0;
+            for (int row = next(rows, 0, size); row >= 0; row = next(rows, row + 1, size)) {
+               sum += column.getDouble(row);
+            }
+            return new DoubleNode(sum);
+         }
+         case Constants.FUNCTION_AVERAGE: {
+            double sum = 0.0;
+            for (int row = next(rows, 0, size); row >= 0; row = next(rows, row + 1, size)) {
+               sum += column.getDouble(row);
+            }
+            return new DoubleNode(sum / count);
+         }
+         case Constants.FUNCTION_MAX:
+         case Constants.FUNCTION_MIN: {
+            // the first of equal values is returned, as by the functions
+            boolean max = Constants.FUNCTION_MAX.equals(_name);
+            int best = next(rows, 0, size);
+            double bestValue = column.getDouble(best);
+            for (int row = next(rows, best + 1, size); row >= 0; row = next(rows, row + 1, size)) {
+               double value = column.getDouble(row);
+               if (max ? value > bestValue : value < bestValue) {
+                  best = row;
+                  bestValue = value;
+               }
+            }
+            return column.get(best);
+         }
+         default:
+            return null;
+         }
+      }
+
+      static int next(BitSet rows, int from, int size) {
+         return rows == null ? (from < size ? from : -1) : rows.nextSetBit(from);
+      }
+   }
+
+   /**
+    * @return the aggregate call over the columns of its argument, or null if
+    *         the call is not an aggregate of a field (see
+    *         {@link AggregateNode})
+    */
+   Node aggregate(MappingExpressionParser.Function_callContext ctx) {
+      String name = ctx.VAR_ID().getText();
+      if (Constants.FUNCTION_SUM.equals(name) == false && Constants.FUNCTION_AVERAGE.equals(name) == false
+            && Constants.FUNCTION_MAX.equals(name) == false && Constants.FUNCTION_MIN.equals(name) == false
+            && Constants.FUNCTION_COUNT.equals(name) == false) {
+         return null;
+      }
+      if (ctx.exprValues() == null || ctx.exprValues().exprList() == null
+            || ctx.exprValues().exprList().expr().size() != 1
+            || ctx.exprValues().exprList().expr(0) instanceof MappingExpressionParser.PathContext == false) {
+         return null;
+      }
+      MappingExpressionParser.PathContext path = (MappingExpressionParser.PathContext) ctx.exprValues().exprList()
+            .expr(0);
+      if (path.expr(1) instanceof MappingExpressionParser.IdContext == false) {
+         return null;
+      }
+      String field = ExpressionsVisitor.sanitise(((MappingExpressionParser.IdContext) path.expr(1)).ID().getText());
+      ExprContext source = path.expr(0);
+      ColumnFilter filter = null;
+      if (source instanceof MappingExpressionParser.ArrayContext) {
+         MappingExpressionParser.ArrayContext array = (MappingExpressionParser.ArrayContext) source;
+         filter = columnFilter(array.expr(1));
+         if (filter == null) {
+            return null;
+         }
+         source = array.expr(0);
+      }
+      if (isFieldPath(source) == false) {
+         return null;
+      }
+      return new AggregateNode(ctx, compileTree(source), filter, field);
+   }
+
+   /**
+    * @return whether the expression only selects fields or recalls a variable,
+    *         so evaluating it again (by the interpreter) is cheap and has the
+    *         same result
+    */
+   static boolean isFieldPath(ParseTree tree) {
+      if (tree instanceof MappingExpressionParser.IdContext
+            || tree instanceof MappingExpressionParser.Var_recallContext) {
+         return true;
+      }
+      if (tree instanceof MappingExpressionParser.PathContext) {
+         MappingExpressionParser.PathContext path = (MappingExpressionParser.PathContext) tree;
+         return path.expr(1) instanceof MappingExpressionParser.IdContext && isFieldPath(path.expr(0));
+      }
+      return false;
+   }
+
+   /**
+    * @return the predicate as a filter of columns, or null if it is not made of
+    *         comparisons of fields with literals combined by and, or and
+    *         parentheses
+    */
+   static ColumnFilter columnFilter(ParseTree tree) {
+      if (tree instanceof MappingExpressionParser.ParensContext
+            && ((MappingExpressionParser.ParensContext) tree).expr().size() == 1) {
+         return columnFilter(((MappingExpressionParser.ParensContext) tree).expr(0));
+      }
+      if (tree instanceof MappingExpressionParser.LogandContext
+            || tree instanceof MappingExpressionParser.LogorContext) {
+         final boolean and = tree instanceof MappingExpressionParser.LogandContext;
+         final ColumnFilter left = columnFilter(tree.getChild(0));
+         final ColumnFilter right = columnFilter(tree.getChild(2));
+         if (left == null || right == null) {
+            return null;
+         }
+         return source -> {
+            BitSet rows = left.select(source);
+            BitSet other = rows == null ? null : right.select(source);
+            if (other == null) {
+               return null;
+            }
+            if (and) {
+               rows.and(other);
+            } else {
+               rows.or(other);
+            }
+            return rows;
+         };
+      }
+      if (tree instanceof MappingExpressionParser.Comp_opContext) {
+         MappingExpressionParser.Comp_opContext ctx = (MappingExpressionParser.Comp_opContext) tree;
+         boolean literalFirst = ctx.expr(0) instanceof MappingExpressionParser.IdContext == false;
+         ParseTree id = ctx.expr(literalFirst ? 1 : 0);
+         JsonNode literal = literal(ctx.expr(literalFirst ? 0 : 1));
+         if (id instanceof MappingExpressionParser.IdContext && literal != null) {
+            return compareFilter(ctx.op, (MappingExpressionParser.IdContext) id, literal, literalFirst);
+         }
+      }
+      return null;
+   }
+
+   /**
+    * Compares a field with a literal, like the interpreter: the comparison is
+    * made once per distinct string or boolean value of the field and, when the
+    * literal is a number, as a comparison of doubles for numbers
+    */
+   static ColumnFilter compareFilter(final Token op, MappingExpressionParser.IdContext id, final JsonNode literal,
+         final boolean literalFirst) {
+      final String field = ExpressionsVisitor.sanitise(id.ID().getText());
+      final DoublePredicate numberTest = exactNumber(literal)
+            ? comparison(op.getType(), literalFirst, literal.asDouble())
+            : null;
+      return source -> {
+         Column column = source.getColumn(field);
+         if (column == null) {
+            return null;
+         }
+         return column.select(value -> (literalFirst ? ExpressionsVisitor.compare(op, literal, value)
+               : ExpressionsVisitor.compare(op, value, literal)) == BooleanNode.TRUE, numberTest);
+      };
+   }
+
+   /**
+    * @return whether the comparison of a number with the literal is the
+    *         comparison of their doubles (see ExpressionsVisitor.compare)
+    */
+   static boolean exactNumber(JsonNode literal) {
+      if (literal.isDouble() || literal.isInt()) {
+         return true;
+      }
+      return literal.isLong() && Math.abs(literal.asLong()) <= (1L << 53);
+   }
+
+   static DoublePredicate comparison(int op, boolean literalFirst, final double literal) {
+      if (literalFirst) {
+         // literal < x is x > literal
+         switch (op) {
+         case MappingExpressionParser.LT:
+            op = MappingExpressionParser.GT;
+            break;
+         case MappingExpressionParser.LE:
+            op = MappingExpressionParser.GE;
+            break;
+         case MappingExpressionParser.GT:
+            op = MappingExpressionParser.LT;
+            break;
+         case MappingExpressionParser.GE:
+            op = MappingExpressionParser.LE;
+            break;
+         default:
+            break;
+         }
+      }
+      switch (op) {
+      case MappingExpressionParser.EQ:
+         return x -> x == literal;
+      case MappingExpressionParser.NOT_EQ:
+         return x -> x != literal;
+      case MappingExpressionParser.LT:
+         return x -> x < literal;
+      case MappingExpressionParser.LE:
+         return x -> x <= literal;
+      case MappingExpressionParser.GT:
+         return x -> x > literal;
+      case MappingExpressionParser.GE:
+         return x -> x >= literal;
+      default:
+         return null;
+      }
+   }
+
+   /**
+    * @return the value of a literal, or null if the expression is not one
+    */
+   static JsonNode literal(ParseTree tree) {
+      if (tree instanceof MappingExpressionParser.NumberContext) {
+         try {
+            return NumberUtils
+                  .convertNumberToValueNode(((MappingExpressionParser.NumberContext) tree).NUMBER().getText());
+         } catch (RuntimeException e) {
+            return null;
+         }
+      }
+      if (tree instanceof MappingExpressionParser.StringContext) {
+         return TextNode.valueOf(ExpressionsVisitor.sanitise(tree.getText()));
+      }
+      if (tree instanceof MappingExpressionParser.BooleanContext) {
+         return ((MappingExpressionParser.BooleanContext) tree).op.getType() == MappingExpressionParser.TRUE
+               ? BooleanNode.TRUE
+               : BooleanNode.FALSE;
+      }
+      if (tree instanceof MappingExpressionParser.NullContext) {
+         return NullNode.getInstance();
+      }
+      return null;
+   }
+
+   /**
+    * Calls at the end of a function chain (that pass the chained value) and
+    * calls of built in functions that check their own arguments are left to the
+    * interpreter
+    */
+   Node functionCall(final MappingExpressionParser.Function_callContext ctx) {
+      if (ctx.getParent() instanceof MappingExpressionParser.Fct_chainContext) {
+         return null;
+      }
+      Node aggregate = aggregate(ctx);
+      if (aggregate != null) {
+         return aggregate;
+      }
+      TypedFunction resolved = null;
+      String name = ctx.VAR_ID().getText();
+      if (Constants.FUNCTIONS.containsKey(name)) {
+         Function builtIn = Constants.FUNCTIONS.get(name);
+         if (builtIn instanceof TypedFunction == false) {
+            return null;
+         }
+         resolved = (TypedFunction) builtIn;
+      }
+      List<ExprContext> expressions = ctx.exprValues() == null || ctx.exprValues().exprList() == null ? null
+            : ctx.exprValues().exprList().expr();
+      Node[] args = new Node[expressions == null ? 0 : expressions.size()];
+      for (int i = 0; i < args.length; i++) {
+         args[i] = compileTree(expressions.get(i));
+      }
+      return new CallNode(ctx, args, resolved);
+   }
+
+   static Node constant(final JsonNode value) {
+      return visitor -> value;
+   }
+
+   static Node arithmetic(final Token op, final Node left, final Node right) {
+      return visitor -> {
+         JsonNode leftValue = left.evaluate(visitor);
+         return ExpressionsVisitor.arithmetic(op, leftValue, right.evaluate(visitor));
+      };
+   }
+
+   /**
+    * Like the interpreter, both operands are evaluated before the operator is
+    * applied
+    */
+   static Node logical(final boolean and, final Node left, final Node right) {
+      return visitor -> {
+         JsonNode leftValue = left.evaluate(visitor);
+         JsonNode rightValue = right.evaluate(visitor);
+         if (leftValue == null || rightValue == null) {
+            return null;
+         }
+         boolean result = and
+               ? BooleanUtils.convertJsonNodeToBoolean(leftValue) && BooleanUtils.convertJsonNodeToBoolean(rightValue)
+               : BooleanUtils.convertJsonNodeToBoolean(leftValue) || BooleanUtils.convertJsonNodeToBoolean(rightValue);
+         return result ? BooleanNode.TRUE : BooleanNode.FALSE;
+      };
+   }
+}
@@ -0,0 +1,261 @@
+/**
+ * (c) Copyright 2018, 2019 IBM Corporation
+ * 1 New Orchard Road,
+ * Armonk, New York, 10504-1722
+ * United States
+ * +1 914 499 1900
+ * support: Nathaniel Mills wnm3@us.ibm.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.api.jsonata4java.expressions;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.antlr.v4.runtime.tree.ParseTree;
+
+import com.api.jsonata4java.expressions.CompiledExpression.FieldNode;
+import com.api.jsonata4java.expressions.ExpressionsVisitor.SelectorArrayNode;
+import com.api.jsonata4java.expressions.generated.MappingExpressionParser;
+import com.api.jsonata4java.expressions.shaped.ColumnarArrayNode;
+import com.api.jsonata4java.expressions.utils.Constants;
+import com.api.jsonata4java.expressions.utils.NumberUtils;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+
+/**
+ * An expression that is a plain path of field names and integer index
+ * literals (e.g. payload.device.id, meta.tags[0], `a b`.c[-1]) compiled to an
+ * array of steps evaluated in a loop, without the visitor, its context stack
+ * or its dispatch. Arrays are mapped over and indexed with the semantics of
+ * the interpreter (see {@link ExpressionsVisitor#visitPath} and
+ * {@link ExpressionsVisitor#visitArray}), so the result is always the one the
+ * interpreter returns.
+ */
+public class CompiledPath {
+
+   // one step per field or index, in evaluation order. _fields[i] is null for
+   // an index step.
+   final FieldNode[] _fields;
+   final int[] _indexes;
+   final String _text;
+
+   CompiledPath(List<FieldNode> fields, List<Integer> indexes, String text) {
+      _fields = fields.toArray(new FieldNode[fields.size()]);
+      _indexes = new int[indexes.size()];
+      for (int i = 0; i < _indexes.length; i++) {
+         _indexes[i] = indexes.get(i);
+      }
+      _text = text;
+   }
+
+   /**
+    * @param tree
+    *             the parse tree of an expression
+    * @return the compiled path, or null if the expression is not a plain path
+    *         of field names and integer index literals
+    */
+   public static CompiledPath compile(ParseTree tree) {
+      List<FieldNode> fields = new ArrayList<FieldNode>();
+      List<Integer> indexes = new ArrayList<Integer>();
+      if (tree == null || addSteps(tree, fields, indexes) == false) {
+         return null;
+      }
+      return new CompiledPath(fields, indexes, tree.getText());
+   }
+
+   /**
+    * Add the steps of the path to the lists, first step first
+    * 
+    * @return whether the tree is a plain path
+    */
+   static boolean addSteps(ParseTree tree, List<FieldNode> fields, List<Integer> indexes) {
+      if (tree instanceof MappingExpressionParser.IdContext) {
+         // only the first step of a path is a bare field name
+         if (fields.isEmpty() == false) {
+            return false;
+         }
+         fields.add(
+               new FieldNode(ExpressionsVisitor.sanitise(((MappingExpressionParser.IdContext) tree).ID().getText())));
+         indexes.add(0);
+         return true;
+      }
+      if (tree instanceof MappingExpressionParser.PathContext) {
+         MappingExpressionParser.PathContext ctx = (MappingExpressionParser.PathContext) tree;
+         if (addSteps(ctx.expr(0), fields, indexes) == false
+               || ctx.expr(1) instanceof MappingExpressionParser.IdContext == false) {
+            return false;
+         }
+         fields.add(new FieldNode(
+               ExpressionsVisitor.sanitise(((MappingExpressionParser.IdContext) ctx.expr(1)).ID().getText())));
+         indexes.add(0);
+         return true;
+      }
+      if (tree instanceof MappingExpressionParser.ArrayContext) {
+         MappingExpressionParser.ArrayContext ctx = (MappingExpressionParser.ArrayContext) tree;
+         Integer index = indexLiteral(ctx.expr(1));
+         if (index == null || addSteps(ctx.expr(0), fields, indexes) == false) {
+            return false;
+         }
+         fields.add(null);
+         indexes.add(index);
+         return true;
+      }
+      return false;
+   }
+
+   /**
+    * @return the value of an index that is an integer literal (or its
+    *         negation), or null for any other index
+    */
+   static Integer indexLiteral(ParseTree tree) {
+      boolean negate = false;
+      if (tree instanceof MappingExpressionParser.Unary_opContext
+            && ((MappingExpressionParser.Unary_opContext) tree).op.getType() == MappingExpressionParser.SUB) {
+         negate = true;
+         tree = ((MappingExpressionParser.Unary_opContext) tree).expr();
+      }
+      if (tree instanceof MappingExpressionParser.NumberContext == false) {
+         return null;
+      }
+      JsonNode number;
+      try {
+         number = NumberUtils
+               .convertNumberToValueNode(((MappingExpressionParser.NumberContext) tree).NUMBER().getText());
+      } catch (RuntimeException e) {
+         return null;
+      }
+      if (number == null || number.isIntegralNumber() == false || number.canConvertToInt() == false) {
+         return null;
+      }
+      return negate ? -number.intValue() : number.intValue();
+   }
+
+   /**
+    * Evaluate the path
+    * 
+    * @param rootContext
+    *                    the input of the expression. May be null.
+    * @return the value of the path, or null if it has no match
+    */
+   public JsonNode evaluate(JsonNode rootContext) {
+      if (rootContext == null) {
+         return null;
+      }
+      JsonNode value = _fields[0].select(rootContext);
+      for (int i = 1; i < _fields.length && value != null; i++) {
+         value = _fields[i] == null ? index(value, _indexes[i]) : field(_fields[i], value);
+      }
+      return value;
+   }
+
+   /**
+    * @return the values of the field selected from the value (see
+    *         {@link ExpressionsVisitor#visitPath})
+    */
+   static JsonNode field(FieldNode field, JsonNode lhs) {
+      switch (lhs.getNodeType()) {
+      case NULL:
+         return null;
+      case NUMBER:
+         // numbers are selected from as strings, which have no fields
+         return null;
+      case BOOLEAN:
+         throw new EvaluateRuntimeException(String.format(Constants.ERR_MSG_INVALID_PATH_ENTRY, lhs.toString()));
+      default:
+         return ExpressionsVisitor.pathResult(resolve(field, lhs));
+      }
+   }
+
+   static JsonNode resolve(FieldNode field, JsonNode lhs) {
+      if (lhs instanceof ColumnarArrayNode && ((ColumnarArrayNode) lhs).getShape() != null) {
+         return field.select((ColumnarArrayNode) lhs);
+      }
+      if (lhs.isArray()) {
+         SelectorArrayNode arr = new SelectorArrayNode(JsonNodeFactory.instance);
+         for (JsonNode lhsE : lhs) {
+            JsonNode rhsE = resolve(field, lhsE);
+            if (rhsE != null) {
+               arr.addAsSelectionGroup(rhsE);
+            }
+         }
+         return arr;
+      }
+      return field.select(lhs);
+   }
+
+   /**
+    * @return the members at the index of the value (see
+    *         {@link ExpressionsVisitor#visitArray}). The index of the result of
+    *         a selection is applied to each of its groups.
+    */
+   static JsonNode index(JsonNode lhs, int index) {
+      if (lhs.isArray() == false) {
+         // a single value is an array of one
+         return index == 0 || index == -1 ? lhs : null;
+      }
+      if (lhs instanceof SelectorArrayNode == false) {
+         int resolved = index < 0 ? lhs.size() + index : index;
+         // ArrayNode.get returns null when out of bounds
+         return ExpressionsVisitor.unwrapArray(lhs.get(resolved));
+      }
+      if (lhs.size() == 0) {
+         return null;
+      }
+      SelectorArrayNode result = new SelectorArrayNode(JsonNodeFactory.instance);
+      for (JsonNode group : ((SelectorArrayNode) lhs).getSelectionGroups()) {
+         int resolved = index < 0 ? group.size() + index : index;
+         if (group.isArray()) {
+            JsonNode atIndex = group.get(resolved);
+            if (atIndex != null) {
+               result.addAsSelectionGroup(atIndex);
+            }
+         } else if (resolved == 0) {
+            result.addAsSelectionGroup(group);
+         }
+      }
+      if (result.size() == 0) {
+         return null;
+      }
+      return ExpressionsVisitor.unwrapArray(ExpressionsVisitor.unwrapArray(result));
+   }
+
+   /**
+    * @return the number of fields and indexes of the path
+    */
+   public int getSteps() {
+      return _fields.length;
+   }
+
+   /**
+    * @return the names of the fields of the path, in order
+    */
+   public List<String> getFieldNames() {
+      List<String> names = new ArrayList<String>();
+      for (FieldNode field : _fields) {
+         if (field != null) {
+            names.add(field._field.getName());
+         }
+      }
+      return Collections.unmodifiableList(names);
+   }
+
+   @Override
+   public String toString() {
+      return _text;
+   }
+}
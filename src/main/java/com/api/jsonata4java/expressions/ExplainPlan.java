@@ -0,0 +1,876 @@
+/**
+ * (c) Copyright 2018, 2019 IBM Corporation
+ * 1 New Orchard Road,
+ * Armonk, New York, 10504-1722
+ * United States
+ * +1 914 499 1900
+ * support: Nathaniel Mills wnm3@us.ibm.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.api.jsonata4java.expressions;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.misc.Interval;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.TerminalNode;
+
+import com.api.jsonata4java.expressions.generated.MappingExpressionParser;
+import com.api.jsonata4java.expressions.generated.MappingExpressionParser.ExprContext;
+import com.api.jsonata4java.expressions.generated.MappingExpressionParser.ExprListContext;
+import com.api.jsonata4java.expressions.generated.MappingExpressionParser.ExprOrSeqContext;
+import com.api.jsonata4java.expressions.generated.MappingExpressionParser.SeqContext;
+import com.api.jsonata4java.expressions.generated.MappingExpressionParser.VarListContext;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Static explain plan of a parsed expression. The plan is the parse tree
+ * normalized to its operators (grouping rules such as exprList are elided),
+ * with each operator annotated with an estimated cardinality and cost, and
+ * the expression is checked for patterns whose cost grows quadratically with
+ * the size of the input.
+ * <p>
+ * Estimates are coarse. Sizes are looked up by the dotted path of the field
+ * from the root (e.g. "orders" or "orders.lines") and give the average number
+ * of values of the field per parent value; unknown fields count as 1. A
+ * variable's size is looked up by its name (e.g. "$orders"). The
+ * {@link #DOCUMENT_SIZE} and {@link #RANGE_SIZE} keys size descendant
+ * searches and ranges with bounds that are not literals. Cost is counted in
+ * node evaluations plus values touched.
+ */
+public class ExplainPlan {
+
+   /**
+    * Size key for the number of values searched by **
+    */
+   public static final String DOCUMENT_SIZE = "**";
+
+   /**
+    * Size key for the length of ranges whose bounds are not literals
+    */
+   public static final String RANGE_SIZE = "..";
+
+   static final long DEFAULT_DOCUMENT_SIZE = 1000L;
+   static final long DEFAULT_RANGE_SIZE = 1000L;
+
+   /**
+    * Functions whose result has the cardinality of their arguments
+    */
+   static final Set<String> SEQUENCE_FUNCTIONS = new HashSet<String>(Arrays.asList("$append", "$distinct",
+         "$keys", "$reverse", "$shuffle", "$sort", "$spread", "$zip", "$split"));
+
+   /**
+    * Functions returning their first argument's values in some order
+    */
+   static final Set<String> ORDERING_FUNCTIONS = new HashSet<String>(
+         Arrays.asList("$distinct", "$reverse", "$shuffle", "$sort"));
+
+   /**
+    * Kinds of expensive patterns
+    */
+   public enum WarningType {
+      /**
+       * An array is iterated again (e.g. via $$) for each of its own values
+       */
+      NESTED_ITERATION,
+      /**
+       * $reduce builds its result with &amp; or $append, copying the
+       * accumulator on every step
+       */
+      REDUCE_ACCUMULATION,
+      /**
+       * ** searches the whole input
+       */
+      DESCENDANT_AT_ROOT,
+      /**
+       * A range whose bounds come from the input
+       */
+      UNBOUNDED_RANGE
+   }
+
+   /**
+    * An expensive pattern found in the expression
+    */
+   public static class Warning {
+      WarningType _type;
+      String _message;
+      ParserRuleContext _node;
+
+      Warning(WarningType type, ParserRuleContext node, String message) {
+         _type = type;
+         _node = node;
+         _message = message;
+      }
+
+      public WarningType getType() {
+         return _type;
+      }
+
+      public String getMessage() {
+         return _message;
+      }
+
+      public int getLine() {
+         return _node.getStart().getLine();
+      }
+
+      public int getColumn() {
+         return _node.getStart().getCharPositionInLine();
+      }
+
+      public String getSource() {
+         return sourceOf(_node);
+      }
+
+      public ObjectNode toJson() {
+         ObjectNode result = JsonNodeFactory.instance.objectNode();
+         result.put("type", _type.name());
+         result.put("line", getLine());
+         result.put("column", getColumn());
+         result.put("source", getSource());
+         result.put("message", _message);
+         return result;
+      }
+
+      public String toString() {
+         return _type + " [" + getLine() + ":" + getColumn() + "] " + _message;
+      }
+   }
+
+   /**
+    * An operator of the plan
+    */
+   public static class PlanNode {
+      ParserRuleContext _node;
+      String _operator;
+      String _detail = null;
+      double _cardinality = 0.0;
+      double _cost = 0.0;
+      String _path = null;
+      List<PlanNode> _children = new ArrayList<PlanNode>();
+
+      PlanNode(ParserRuleContext node, String operator) {
+         _node = node;
+         _operator = operator;
+      }
+
+      /**
+       * Add a child whose cost is part of this node's cost
+       */
+      PlanNode add(PlanNode child) {
+         _children.add(child);
+         _cost += child._cost;
+         return child;
+      }
+
+      public ParserRuleContext getNode() {
+         return _node;
+      }
+
+      /**
+       * @return the operator (the grammar rule alternative of the node)
+       */
+      public String getOperator() {
+         return _operator;
+      }
+
+      /**
+       * @return the field, function, variable, operator or literal of the node,
+       *         or null
+       */
+      public String getDetail() {
+         return _detail;
+      }
+
+      public int getLine() {
+         return _node.getStart().getLine();
+      }
+
+      public int getColumn() {
+         return _node.getStart().getCharPositionInLine();
+      }
+
+      public String getSource() {
+         return sourceOf(_node);
+      }
+
+      /**
+       * @return the estimated number of values produced by the node
+       */
+      public double getEstimatedCardinality() {
+         return _cardinality;
+      }
+
+      /**
+       * @return the estimated cost of the node including its children
+       */
+      public double getEstimatedCost() {
+         return _cost;
+      }
+
+      public List<PlanNode> getChildren() {
+         return Collections.unmodifiableList(_children);
+      }
+
+      public ObjectNode toJson() {
+         ObjectNode result = JsonNodeFactory.instance.objectNode();
+         result.put("operator", _operator);
+         if (_detail != null) {
+            result.put("detail", _detail);
+         }
+         result.put("line", getLine());
+         result.put("column", getColumn());
+         result.put("cardinality", Math.round(_cardinality));
+         result.put("cost", Math.round(_cost));
+         if (_children.isEmpty() == false) {
+            ArrayNode children = result.putArray("children");
+            for (PlanNode child : _children) {
+               children.add(child.toJson());
+            }
+         }
+         return result;
+      }
+
+      void appendText(StringBuilder sb, String indent) {
+         sb.append(indent).append(_operator);
+         if (_detail != null) {
+            sb.append(' ').append(_detail);
+         }
+         sb.append(" [").append(getLine()).append(':').append(getColumn()).append("] card=")
+               .append(Math.round(_cardinality)).append(" cost=").append(Math.round(_cost)).append('\n');
+         for (PlanNode child : _children) {
+            child.appendText(sb, indent + "  ");
+         }
+      }
+   }
+
+   /**
+    * Estimated cardinality and path of a bound variable
+    */
+   static class Binding {
+      double _cardinality;
+      String _path;
+      boolean _parameter;
+
+      Binding(double cardinality, String path, boolean parameter) {
+         _cardinality = cardinality;
+         _path = path;
+         _parameter = parameter;
+      }
+   }
+
+   /**
+    * An array being iterated by a predicate or higher order function
+    */
+   static class Iteration {
+      String _path;
+      ParserRuleContext _node;
+
+      Iteration(String path, ParserRuleContext node) {
+         _path = path;
+         _node = node;
+      }
+   }
+
+   Map<String, Long> _sizes;
+   Map<String, Binding> _variables = new HashMap<String, Binding>();
+   Deque<Iteration> _iterations = new ArrayDeque<Iteration>();
+   Set<ParserRuleContext> _flagged = new HashSet<ParserRuleContext>();
+   List<Warning> _warnings = new ArrayList<Warning>();
+   PlanNode _root = null;
+
+   ExplainPlan(Map<String, Long> sizes) {
+      _sizes = sizes == null ? Collections.<String, Long> emptyMap() : sizes;
+   }
+
+   /**
+    * @param tree
+    *             the parse tree of the expression
+    * @return the plan estimated with all fields holding a single value
+    */
+   public static ExplainPlan explain(ParseTree tree) {
+      return explain(tree, null);
+   }
+
+   /**
+    * @param tree
+    *              the parse tree of the expression
+    * @param sizes
+    *              the average number of values of fields keyed by their dotted
+    *              path from the root, of variables keyed by name, and the
+    *              {@link #DOCUMENT_SIZE} and {@link #RANGE_SIZE}. May be null.
+    * @return the plan
+    */
+   public static ExplainPlan explain(ParseTree tree, Map<String, Long> sizes) {
+      ExplainPlan plan = new ExplainPlan(sizes);
+      if (tree instanceof ExprContext) {
+         plan._root = plan.plan((ExprContext) tree, 1.0, "");
+      }
+      return plan;
+   }
+
+   /**
+    * @return the root of the plan, or null if the tree is not an expression
+    */
+   public PlanNode getRoot() {
+      return _root;
+   }
+
+   /**
+    * @return the expensive patterns found in the expression
+    */
+   public List<Warning> getWarnings() {
+      return Collections.unmodifiableList(_warnings);
+   }
+
+   /**
+    * @return the estimated cost of evaluating the expression
+    */
+   public double getEstimatedCost() {
+      return _root == null ? 0.0 : _root._cost;
+   }
+
+   public ObjectNode toJson() {
+      ObjectNode result = JsonNodeFactory.instance.objectNode();
+      result.put("cost", Math.round(getEstimatedCost()));
+      ArrayNode warnings = result.putArray("warnings");
+      for (Warning warning : _warnings) {
+         warnings.add(warning.toJson());
+      }
+      if (_root != null) {
+         result.set("plan", _root.toJson());
+      }
+      return result;
+   }
+
+   public String toString() {
+      StringBuilder sb = new StringBuilder();
+      sb.append("Estimated cost: ").append(Math.round(getEstimatedCost()));
+      if (_sizes.isEmpty() == false) {
+         sb.append(" (sizes: ").append(_sizes).append(')');
+      }
+      sb.append('\n');
+      for (Warning warning : _warnings) {
+         sb.append("Warning: ").append(warning).append('\n');
+      }
+      if (_root != null) {
+         _root.appendText(sb, "");
+      }
+      return sb.toString();
+   }
+
+   long size(String key, long defaultSize) {
+      if (key == null) {
+         return defaultSize;
+      }
+      Long size = _sizes.get(key);
+      return size == null ? defaultSize : size.longValue();
+   }
+
+   void warn(WarningType type, ParserRuleContext node, String message) {
+      _warnings.add(new Warning(type, node, message));
+   }
+
+   /**
+    * Flag an iteration whose body reaches the array it iterates
+    */
+   void checkNestedIteration(ParserRuleContext node, String path) {
+      if (path == null) {
+         return;
+      }
+      for (Iteration iteration : _iterations) {
+         if (path.equals(iteration._path) && _flagged.add(iteration._node)) {
+            warn(WarningType.NESTED_ITERATION, iteration._node,
+                  "iterates " + path + " (size " + size(path, 1L) + ") again for each of its values at "
+                        + node.getStart().getLine() + ":" + node.getStart().getCharPositionInLine()
+                        + ", cost grows with the square of its size");
+         }
+      }
+   }
+
+   static String path(String parent, String step) {
+      if (parent == null) {
+         return null;
+      }
+      return parent.isEmpty() ? step : parent + "." + step;
+   }
+
+   static String fieldName(String id) {
+      if (id.length() > 1 && id.startsWith("`") && id.endsWith("`")) {
+         return id.substring(1, id.length() - 1);
+      }
+      return id;
+   }
+
+   static String sourceOf(ParserRuleContext node) {
+      Token start = node.getStart();
+      Token stop = node.getStop();
+      if (start != null && stop != null && start.getInputStream() != null && start.getStartIndex() >= 0
+            && stop.getStopIndex() >= start.getStartIndex()) {
+         return start.getInputStream().getText(Interval.of(start.getStartIndex(), stop.getStopIndex()));
+      }
+      return node.getText();
+   }
+
+   static String operatorOf(ParserRuleContext node) {
+      String name = node.getClass().getSimpleName();
+      if (name.endsWith("Context")) {
+         name = name.substring(0, name.length() - "Context".length());
+      }
+      return name.isEmpty() ? name : Character.toLowerCase(name.charAt(0)) + name.substring(1);
+   }
+
+   static boolean isNumberLiteral(ExprContext expr) {
+      if (expr instanceof MappingExpressionParser.Unary_opContext) {
+         expr = ((MappingExpressionParser.Unary_opContext) expr).expr();
+      }
+      return expr instanceof MappingExpressionParser.NumberContext;
+   }
+
+   static double numberOf(ExprContext expr) {
+      if (expr instanceof MappingExpressionParser.Unary_opContext) {
+         return -numberOf(((MappingExpressionParser.Unary_opContext) expr).expr());
+      }
+      return Double.parseDouble(expr.getText());
+   }
+
+   PlanNode plan(ExprContext expr, double card, String path) {
+      PlanNode node = new PlanNode(expr, operatorOf(expr));
+      node._cardinality = card;
+      node._cost = card;
+      if (expr instanceof MappingExpressionParser.IdContext) {
+         String name = fieldName(((MappingExpressionParser.IdContext) expr).ID().getText());
+         node._detail = name;
+         node._path = path(path, name);
+         node._cardinality = card * size(node._path, 1L);
+         checkNestedIteration(expr, node._path);
+      } else if (expr instanceof MappingExpressionParser.Field_valuesContext) {
+         ExprContext next = ((MappingExpressionParser.Field_valuesContext) expr).expr();
+         node._path = path(path, "*");
+         node._cardinality = card * size(node._path, 1L);
+         if (next != null) {
+            PlanNode child = node.add(plan(next, node._cardinality, node._path));
+            node._cardinality = child._cardinality;
+            node._path = child._path;
+         }
+      } else if (expr instanceof MappingExpressionParser.DescendantContext) {
+         ExprContext next = ((MappingExpressionParser.DescendantContext) expr).expr();
+         long documentSize = size(DOCUMENT_SIZE, DEFAULT_DOCUMENT_SIZE);
+         if ("".equals(path)) {
+            warn(WarningType.DESCENDANT_AT_ROOT, expr,
+                  "** searches the whole input (about " + documentSize + " values)");
+         }
+         node._cardinality = card * documentSize;
+         node._cost = node._cardinality;
+         if (next != null) {
+            PlanNode child = node.add(plan(next, node._cardinality, null));
+            node._cardinality = child._cardinality;
+         }
+      } else if (expr instanceof MappingExpressionParser.Context_refContext) {
+         node._detail = "$";
+         PlanNode child = node.add(plan(((MappingExpressionParser.Context_refContext) expr).expr(), card, path));
+         if (((MappingExpressionParser.Context_refContext) expr).ARR_OPEN() == null) {
+            node._cardinality = child._cardinality;
+            node._path = child._path;
+         } else {
+            node._path = path;
+         }
+      } else if (expr instanceof MappingExpressionParser.Root_pathContext) {
+         node._detail = "$$";
+         PlanNode child = plan(((MappingExpressionParser.Root_pathContext) expr).expr(), 1.0, "");
+         node._children.add(child);
+         node._cost += child._cost * card;
+         node._cardinality = child._cardinality * card;
+         node._path = child._path;
+      } else if (expr instanceof MappingExpressionParser.PathContext) {
+         MappingExpressionParser.PathContext ctx = (MappingExpressionParser.PathContext) expr;
+         PlanNode left = node.add(plan(ctx.expr(0), card, path));
+         PlanNode right = node.add(plan(ctx.expr(1), left._cardinality, left._path));
+         node._cardinality = right._cardinality;
+         node._path = right._path;
+      } else if (expr instanceof MappingExpressionParser.To_arrayContext) {
+         PlanNode child = node.add(plan(((MappingExpressionParser.To_arrayContext) expr).expr(), card, path));
+         node._cardinality = child._cardinality;
+         node._path = child._path;
+      } else if (expr instanceof MappingExpressionParser.ArrayContext) {
+         MappingExpressionParser.ArrayContext ctx = (MappingExpressionParser.ArrayContext) expr;
+         PlanNode source = node.add(plan(ctx.expr(0), card, path));
+         node._path = source._path;
+         node._cost += source._cardinality;
+         if (isNumberLiteral(ctx.expr(1))) {
+            node._detail = "index";
+            node._cardinality = Math.min(card, source._cardinality);
+            node.add(plan(ctx.expr(1), card, null));
+         } else {
+            node._detail = "filter";
+            node._cardinality = source._cardinality;
+            iterate(node, source, ctx.expr(1));
+            limit(node, ctx, card);
+         }
+      } else if (expr instanceof MappingExpressionParser.Array_constructorContext) {
+         MappingExpressionParser.ExprOrSeqListContext list = ((MappingExpressionParser.Array_constructorContext) expr)
+               .exprOrSeqList();
+         node._cardinality = 0.0;
+         if (list != null) {
+            for (ExprOrSeqContext item : list.exprOrSeq()) {
+               PlanNode child = node.add(item.seq() != null ? plan(item.seq(), card, path) : plan(item.expr(), card, path));
+               node._cardinality += child._cardinality;
+            }
+         }
+      } else if (expr instanceof MappingExpressionParser.Object_constructorContext) {
+         MappingExpressionParser.FieldListContext fields = ((MappingExpressionParser.Object_constructorContext) expr)
+               .fieldList();
+         if (fields != null) {
+            for (ExprContext value : fields.expr()) {
+               node.add(plan(value, card, path));
+            }
+         }
+      } else if (expr instanceof MappingExpressionParser.Function_callContext) {
+         planFunctionCall(node, (MappingExpressionParser.Function_callContext) expr, card, path);
+      } else if (expr instanceof MappingExpressionParser.Function_declContext) {
+         MappingExpressionParser.Function_declContext ctx = (MappingExpressionParser.Function_declContext) expr;
+         node._detail = "function";
+         planDeclaration(node, ctx.varList(), ctx.exprList());
+      } else if (expr instanceof MappingExpressionParser.Var_assignContext) {
+         MappingExpressionParser.Var_assignContext ctx = (MappingExpressionParser.Var_assignContext) expr;
+         node._detail = ctx.VAR_ID().getText();
+         if (ctx.expr() != null) {
+            PlanNode child = node.add(plan(ctx.expr(), card, path));
+            node._cardinality = child._cardinality;
+            node._path = child._path;
+            _variables.put(node._detail, new Binding(child._cardinality / Math.max(card, 1.0), child._path, false));
+         } else {
+            planDeclaration(node, ctx.varList(), ctx.exprList());
+         }
+      } else if (expr instanceof MappingExpressionParser.Map_functionContext
+            || expr instanceof MappingExpressionParser.Filter_functionContext
+            || expr instanceof MappingExpressionParser.Each_functionContext
+            || expr instanceof MappingExpressionParser.Sift_functionContext
+            || expr instanceof MappingExpressionParser.Reduce_functionContext) {
+         planHigherOrderFunction(node, expr, card, path);
+      } else if (expr instanceof MappingExpressionParser.Function_execContext) {
+         MappingExpressionParser.Function_execContext ctx = (MappingExpressionParser.Function_execContext) expr;
+         node._detail = "function";
+         for (ExprContext arg : ctx.exprValues().exprList().expr()) {
+            node.add(plan(arg, card, path));
+         }
+         if (ctx.exprList() != null) {
+            for (ExprContext body : ctx.exprList().expr()) {
+               node._cardinality = node.add(plan(body, card, null))._cardinality;
+            }
+         }
+      } else if (expr instanceof MappingExpressionParser.ConditionalContext) {
+         MappingExpressionParser.ConditionalContext ctx = (MappingExpressionParser.ConditionalContext) expr;
+         node.add(plan(ctx.expr(0), card, path));
+         PlanNode then = plan(ctx.expr(1), card, path);
+         PlanNode otherwise = ctx.expr(2) == null ? null : plan(ctx.expr(2), card, path);
+         node._children.add(then);
+         PlanNode costlier = then;
+         if (otherwise != null) {
+            node._children.add(otherwise);
+            if (otherwise._cost > then._cost) {
+               costlier = otherwise;
+            }
+         }
+         node._cost += costlier._cost;
+         node._cardinality = costlier._cardinality;
+         node._path = then._path;
+      } else if (expr instanceof MappingExpressionParser.Fct_chainContext) {
+         MappingExpressionParser.Fct_chainContext ctx = (MappingExpressionParser.Fct_chainContext) expr;
+         node._detail = "~>";
+         PlanNode left = node.add(plan(ctx.expr(0), card, path));
+         PlanNode right = node.add(plan(ctx.expr(1), left._cardinality, left._path));
+         node._cardinality = right._cardinality;
+         node._path = right._path;
+      } else if (expr instanceof MappingExpressionParser.ParensContext) {
+         for (ExprContext child : ((MappingExpressionParser.ParensContext) expr).expr()) {
+            PlanNode last = node.add(plan(child, card, path));
+            node._cardinality = last._cardinality;
+            node._path = last._path;
+         }
+         if (node._children.size() == 1) {
+            return node._children.get(0);
+         }
+      } else if (expr instanceof MappingExpressionParser.Var_recallContext) {
+         String name = ((MappingExpressionParser.Var_recallContext) expr).VAR_ID().getText();
+         node._detail = name;
+         Binding binding = _variables.get(name);
+         if (binding != null) {
+            node._cardinality = card * binding._cardinality;
+            node._path = binding._path;
+            if (binding._parameter == false) {
+               checkNestedIteration(expr, node._path);
+            }
+         } else if (name.equals("$$") == false) {
+            node._cardinality = card * size(name, 1L);
+            node._path = name;
+            checkNestedIteration(expr, node._path);
+         }
+      } else if (expr instanceof MappingExpressionParser.MembershipContext) {
+         node._detail = "in";
+         node.add(plan(((MappingExpressionParser.MembershipContext) expr).expr(0), card, path));
+         PlanNode set = node.add(plan(((MappingExpressionParser.MembershipContext) expr).expr(1), card, path));
+         node._cost += set._cardinality;
+      } else {
+         // literals and unary, arithmetic, string, comparison and boolean
+         // operators produce one value per context value
+         if (expr instanceof MappingExpressionParser.NumberContext
+               || expr instanceof MappingExpressionParser.StringContext
+               || expr instanceof MappingExpressionParser.BooleanContext
+               || expr instanceof MappingExpressionParser.NullContext) {
+            node._detail = expr.getText();
+         } else {
+            for (int i = 0; i < expr.getChildCount(); i++) {
+               ParseTree child = expr.getChild(i);
+               if (child instanceof ExprContext) {
+                  node.add(plan((ExprContext) child, card, path));
+               } else if (child instanceof TerminalNode && node._detail == null) {
+                  node._detail = child.getText();
+               }
+            }
+         }
+      }
+      return node;
+   }
+
+   PlanNode plan(SeqContext seq, double card, String path) {
+      PlanNode node = new PlanNode(seq, "range");
+      node._detail = "..";
+      node.add(plan(seq.expr(0), card, path));
+      node.add(plan(seq.expr(1), card, path));
+      long length;
+      if (isNumberLiteral(seq.expr(0)) && isNumberLiteral(seq.expr(1))) {
+         length = Math.max(0L, (long) (numberOf(seq.expr(1)) - numberOf(seq.expr(0))) + 1L);
+      } else {
+         length = size(RANGE_SIZE, DEFAULT_RANGE_SIZE);
+         warn(WarningType.UNBOUNDED_RANGE, seq,
+               "the length of range " + sourceOf(seq) + " depends on the input (estimated " + length + ")");
+      }
+      node._cardinality = card * length;
+      node._cost += node._cardinality;
+      return node;
+   }
+
+   /**
+    * Plan the predicate or function body evaluated for each value of the
+    * source
+    */
+   void iterate(PlanNode node, PlanNode source, ParserRuleContext body) {
+      if (source._path != null) {
+         _iterations.push(new Iteration(source._path, node._node));
+      }
+      try {
+         if (body instanceof ExprContext) {
+            node.add(plan((ExprContext) body, source._cardinality, source._path));
+         } else if (body instanceof ExprListContext) {
+            for (ExprContext expr : ((ExprListContext) body).expr()) {
+               node.add(plan(expr, source._cardinality, null));
+            }
+         }
+      } finally {
+         if (source._path != null) {
+            _iterations.pop();
+         }
+      }
+   }
+
+   void planDeclaration(PlanNode node, VarListContext varList, ExprListContext body) {
+      // a declaration costs nothing until called, so its body is shown but not
+      // counted
+      if (body == null) {
+         return;
+      }
+      Map<String, Binding> saved = bindParameters(varList, null, 1, 1.0, null);
+      for (ExprContext expr : body.expr()) {
+         node._children.add(plan(expr, 1.0, null));
+      }
+      _variables.putAll(saved);
+   }
+
+   /**
+    * Bind the parameters of an inline function, returning the bindings they
+    * hide
+    */
+   Map<String, Binding> bindParameters(VarListContext varList, String elementParameter, int elementIndex,
+         double cardinality, String path) {
+      Map<String, Binding> saved = new HashMap<String, Binding>();
+      if (varList == null) {
+         return saved;
+      }
+      List<TerminalNode> vars = varList.VAR_ID();
+      for (int i = 0; i < vars.size(); i++) {
+         String name = vars.get(i).getText();
+         saved.put(name, _variables.get(name));
+         _variables.put(name, i == elementIndex ? new Binding(1.0, path, true) : new Binding(1.0, null, true));
+      }
+      return saved;
+   }
+
+   void planFunctionCall(PlanNode node, MappingExpressionParser.Function_callContext ctx, double card, String path) {
+      String name = ctx.VAR_ID().getText();
+      node._detail = name;
+      double argCard = 0.0;
+      String firstPath = null;
+      if (ctx.exprValues() != null) {
+         List<ExprContext> args = ctx.exprValues().exprList().expr();
+         for (int i = 0; i < args.size(); i++) {
+            PlanNode arg = node.add(plan(args.get(i), card, path));
+            if (args.get(i) instanceof MappingExpressionParser.Function_declContext == false) {
+               argCard += arg._cardinality;
+            }
+            if (i == 0) {
+               firstPath = arg._path;
+            }
+         }
+      } else {
+         argCard = card;
+         firstPath = path;
+      }
+      if (name.equals("$sort")) {
+         node._cost += argCard * Math.max(1.0, Math.log(argCard) / Math.log(2.0));
+      } else {
+         node._cost += argCard;
+      }
+      if (SEQUENCE_FUNCTIONS.contains(name)) {
+         node._cardinality = Math.max(card, argCard);
+      }
+      if (ORDERING_FUNCTIONS.contains(name)) {
+         node._path = firstPath;
+      }
+   }
+
+   void planHigherOrderFunction(PlanNode node, ExprContext expr, double card, String path) {
+      List<ExprListContext> exprLists = expr.getRuleContexts(ExprListContext.class);
+      VarListContext varList = expr.getRuleContext(VarListContext.class, 0);
+      TerminalNode varId = expr.getToken(MappingExpressionParser.VAR_ID, 0);
+      node._detail = expr.getStart().getText();
+      boolean useContext = expr.getParent() instanceof MappingExpressionParser.Fct_chainContext
+            || expr.getParent() instanceof MappingExpressionParser.PathContext;
+
+      PlanNode source;
+      if (useContext) {
+         source = new PlanNode(expr, "context");
+         source._cardinality = card;
+         source._path = path;
+      } else {
+         source = node.add(plan(exprLists.get(0).expr(0), card, path));
+      }
+      ExprListContext body = null;
+      if (exprLists.size() > (useContext ? 0 : 1)) {
+         body = exprLists.get(useContext ? 0 : 1);
+      }
+      boolean reduce = expr instanceof MappingExpressionParser.Reduce_functionContext;
+      if (reduce) {
+         for (ExprOrSeqContext init : ((MappingExpressionParser.Reduce_functionContext) expr).exprOrSeq()) {
+            node.add(init.seq() != null ? plan(init.seq(), card, path) : plan(init.expr(), card, path));
+         }
+      }
+
+      node._cost += source._cardinality;
+      if (varId == null && body != null) {
+         Map<String, Binding> saved = bindParameters(varList, null, reduce ? 1 : 0, 1.0, source._path);
+         iterate(node, source, body);
+         _variables.putAll(saved);
+         if (reduce && varList != null && varList.VAR_ID().isEmpty() == false
+               && checkAccumulation(expr, body, varList.VAR_ID(0).getText())) {
+            // charge the copies made of the growing accumulator
+            node._cost += source._cardinality * source._cardinality / 2.0;
+         }
+      }
+      if (expr instanceof MappingExpressionParser.Map_functionContext
+            || expr instanceof MappingExpressionParser.Filter_functionContext
+            || expr instanceof MappingExpressionParser.Each_functionContext) {
+         node._cardinality = source._cardinality;
+      }
+      if (expr instanceof MappingExpressionParser.Filter_functionContext) {
+         node._path = source._path;
+         limit(node, expr, card);
+      }
+   }
+
+   /**
+    * Note the limit pushed down into a filter by the expression consuming its
+    * result (see {@link ExpressionsVisitor#selectionLimit}) and cap its
+    * cardinality accordingly. The cost is left at that of the worst case,
+    * where the filter reaches the end of its array.
+    */
+   static void limit(PlanNode node, ParserRuleContext filter, double card) {
+      int limit = ExpressionsVisitor.selectionLimit(filter, null);
+      if (limit == ExpressionsVisitor.FIRST_TRUE) {
+         node._detail += " until true";
+         node._cardinality = Math.min(node._cardinality, card);
+      } else if (limit != ExpressionsVisitor.NO_LIMIT) {
+         node._detail += " limit " + limit;
+         node._cardinality = Math.min(node._cardinality, card * limit);
+      }
+   }
+
+   /**
+    * Flag a $reduce whose function appends to the accumulator, copying it on
+    * every step
+    */
+   boolean checkAccumulation(ExprContext reduce, ParseTree body, String accumulator) {
+      if (appendsTo(body, accumulator) == false) {
+         return false;
+      }
+      warn(WarningType.REDUCE_ACCUMULATION, reduce, "$reduce appends to " + accumulator
+            + " on every step, copying it each time, so cost grows with the square of the input size");
+      return true;
+   }
+
+   static boolean appendsTo(ParseTree tree, String accumulator) {
+      if (tree instanceof MappingExpressionParser.Concat_opContext) {
+         if (references(tree, accumulator)) {
+            return true;
+         }
+      } else if (tree instanceof MappingExpressionParser.Function_callContext
+            && ((MappingExpressionParser.Function_callContext) tree).VAR_ID().getText().equals("$append")
+            && references(tree, accumulator)) {
+         return true;
+      }
+      for (int i = 0; i < tree.getChildCount(); i++) {
+         if (appendsTo(tree.getChild(i), accumulator)) {
+            return true;
+         }
+      }
+      return false;
+   }
+
+   static boolean references(ParseTree tree, String variable) {
+      if (tree instanceof MappingExpressionParser.Var_recallContext) {
+         return ((MappingExpressionParser.Var_recallContext) tree).VAR_ID().getText().equals(variable);
+      }
+      for (int i = 0; i < tree.getChildCount(); i++) {
+         if (references(tree.getChild(i), variable)) {
+            return true;
+         }
+      }
+      return false;
+   }
+}
@@ -0,0 +1,386 @@
+/**
+ * (c) Copyright 2018, 2019 IBM Corporation
+ * 1 New Orchard Road,
+ * Armonk, New York, 10504-1722
+ * United States
+ * +1 914 499 1900
+ * support: Nathaniel Mills wnm3@us.ibm.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.api.jsonata4java.expressions;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import org.antlr.v4.runtime.ANTLRInputStream;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CommonToken;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenSource;
+import org.antlr.v4.runtime.misc.Pair;
+import org.antlr.v4.runtime.tree.ErrorNode;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.TerminalNode;
+import org.antlr.v4.runtime.tree.TerminalNodeImpl;
+
+import com.api.jsonata4java.expressions.generated.MappingExpressionParser;
+
+/**
+ * Compact binary form of a parsed expression. The parse tree is written with
+ * its tokens so it can be rebuilt without lexing or parsing the expression,
+ * e.g. to ship precompiled rule bundles to the nodes of a cluster.
+ * <p>
+ * Each expression is written as one record: a magic number, the format
+ * version, the length of the payload, the payload and its CRC32 checksum.
+ * Records can be concatenated into a bundle and read back one at a time. The
+ * payload holds a fingerprint of the grammar, the expression text, its tokens
+ * and the tree. A record written by a different version of the grammar is
+ * loaded by parsing its expression text.
+ */
+@SuppressWarnings("deprecation")
+public class ExpressionCodec {
+
+   /**
+    * Marks the start of a record ("J4JX")
+    */
+   static final int MAGIC = 0x4A344A58;
+
+   /**
+    * Version of the record format
+    */
+   static final int VERSION = 1;
+
+   /**
+    * Rule context classes of the grammar, indexed by their position in the
+    * sorted list of their names
+    */
+   static final List<Class<? extends ParserRuleContext>> CONTEXT_CLASSES = new ArrayList<Class<? extends ParserRuleContext>>();
+   static final Map<Class<?>, Integer> CONTEXT_IDS = new HashMap<Class<?>, Integer>();
+   static final Map<Class<?>, Field[]> TOKEN_FIELDS = new HashMap<Class<?>, Field[]>();
+   static final Map<Class<?>, Constructor<?>> CONSTRUCTORS = new HashMap<Class<?>, Constructor<?>>();
+   static final int GRAMMAR_FINGERPRINT;
+
+   static {
+      Class<?>[] classes = MappingExpressionParser.class.getDeclaredClasses();
+      Arrays.sort(classes, new Comparator<Class<?>>() {
+         @Override
+         public int compare(Class<?> c1, Class<?> c2) {
+            return c1.getSimpleName().compareTo(c2.getSimpleName());
+         }
+      });
+      CRC32 crc = new CRC32();
+      crc.update(MappingExpressionParser._serializedATN.getBytes(StandardCharsets.UTF_8));
+      for (Class<?> cls : classes) {
+         if (ParserRuleContext.class.isAssignableFrom(cls) == false) {
+            continue;
+         }
+         @SuppressWarnings("unchecked")
+         Class<? extends ParserRuleContext> ctxClass = (Class<? extends ParserRuleContext>) cls;
+         CONTEXT_IDS.put(ctxClass, CONTEXT_CLASSES.size());
+         CONTEXT_CLASSES.add(ctxClass);
+         List<Field> tokenFields = new ArrayList<Field>();
+         for (Field field : ctxClass.getDeclaredFields()) {
+            if (field.getType() == Token.class && Modifier.isStatic(field.getModifiers()) == false) {
+               tokenFields.add(field);
+            }
+         }
+         Field[] fields = tokenFields.toArray(new Field[tokenFields.size()]);
+         Arrays.sort(fields, new Comparator<Field>() {
+            @Override
+            public int compare(Field f1, Field f2) {
+               return f1.getName().compareTo(f2.getName());
+            }
+         });
+         TOKEN_FIELDS.put(ctxClass, fields);
+         crc.update(ctxClass.getSimpleName().getBytes(StandardCharsets.UTF_8));
+         for (Field field : fields) {
+            crc.update(field.getName().getBytes(StandardCharsets.UTF_8));
+         }
+      }
+      GRAMMAR_FINGERPRINT = (int) crc.getValue();
+   }
+
+   private ExpressionCodec() {
+   }
+
+   /**
+    * Write the binary form of the parsed expression
+    * 
+    * @param expr
+    *               the parsed expression
+    * @param output
+    *               the stream receiving the record
+    * @throws IOException
+    */
+   public static void write(Expressions expr, OutputStream output) throws IOException {
+      ByteArrayOutputStream payload = new ByteArrayOutputStream(256);
+      DataOutputStream data = new DataOutputStream(payload);
+      data.writeInt(GRAMMAR_FINGERPRINT);
+      byte[] text = expr.toString().getBytes(StandardCharsets.UTF_8);
+      writeVarInt(data, text.length);
+      data.write(text);
+
+      // collect the tokens referenced by the tree
+      Map<Token, Integer> tokenIds = new IdentityHashMap<Token, Integer>();
+      List<Token> tokens = new ArrayList<Token>();
+      collectTokens(expr.getTree(), tokenIds, tokens);
+      writeVarInt(data, tokens.size());
+      for (Token token : tokens) {
+         writeVarInt(data, token.getType() + 1);
+         writeVarInt(data, token.getStartIndex() + 1);
+         writeVarInt(data, token.getStopIndex() - token.getStartIndex() + 1);
+         writeVarInt(data, token.getLine());
+         writeVarInt(data, token.getCharPositionInLine() + 1);
+         writeVarInt(data, token.getTokenIndex() + 1);
+      }
+      writeTree(data, expr.getTree(), tokenIds);
+      data.flush();
+
+      byte[] bytes = payload.toByteArray();
+      CRC32 crc = new CRC32();
+      crc.update(bytes);
+      DataOutputStream out = new DataOutputStream(output);
+      out.writeInt(MAGIC);
+      out.writeByte(VERSION);
+      out.writeInt(bytes.length);
+      out.write(bytes);
+      out.writeInt((int) crc.getValue());
+      out.flush();
+   }
+
+   /**
+    * Read the next parsed expression of the stream
+    * 
+    * @param input
+    *              the stream holding records written by
+    *              {@link #write(Expressions, OutputStream)}. Only the bytes of
+    *              the record are read.
+    * @return the parsed expression, or null at the end of the stream
+    * @throws IOException
+    *                        if the record is truncated, corrupted or of an
+    *                        unsupported format version
+    * @throws ParseException
+    *                        if the record was written by a different version
+    *                        of the grammar and its expression no longer parses
+    */
+   public static Expressions read(InputStream input) throws IOException, ParseException {
+      DataInputStream in = new DataInputStream(input);
+      int magic;
+      try {
+         magic = in.readInt();
+      } catch (EOFException e) {
+         return null;
+      }
+      if (magic != MAGIC) {
+         throw new IOException("Not a compiled expression record");
+      }
+      int version = in.readUnsignedByte();
+      if (version != VERSION) {
+         throw new IOException("Unsupported compiled expression format version " + version);
+      }
+      int length = in.readInt();
+      if (length < 0) {
+         throw new IOException("Corrupted compiled expression record");
+      }
+      byte[] bytes = new byte[length];
+      in.readFully(bytes);
+      CRC32 crc = new CRC32();
+      crc.update(bytes);
+      if (in.readInt() != (int) crc.getValue()) {
+         throw new IOException("Checksum mismatch in compiled expression record");
+      }
+
+      DataInputStream data = new DataInputStream(new ByteArrayInputStream(bytes));
+      int fingerprint = data.readInt();
+      byte[] text = new byte[readVarInt(data)];
+      data.readFully(text);
+      String expression = new String(text, StandardCharsets.UTF_8);
+      if (fingerprint != GRAMMAR_FINGERPRINT) {
+         return Expressions.parse(expression);
+      }
+
+      try {
+         CharStream chars = new ANTLRInputStream(expression);
+         Pair<TokenSource, CharStream> source = new Pair<TokenSource, CharStream>(null, chars);
+         Token[] tokens = new Token[readVarInt(data)];
+         for (int i = 0; i < tokens.length; i++) {
+            int type = readVarInt(data) - 1;
+            int start = readVarInt(data) - 1;
+            int stop = start + readVarInt(data) - 1;
+            CommonToken token = new CommonToken(source, type, Token.DEFAULT_CHANNEL, start, stop);
+            token.setLine(readVarInt(data));
+            token.setCharPositionInLine(readVarInt(data) - 1);
+            token.setTokenIndex(readVarInt(data) - 1);
+            tokens[i] = token;
+         }
+         ParseTree tree = readTree(data, tokens);
+         return new Expressions(tree, expression);
+      } catch (RuntimeException | ReflectiveOperationException e) {
+         throw new IOException("Corrupted compiled expression record", e);
+      }
+   }
+
+   static void collectTokens(ParseTree tree, Map<Token, Integer> tokenIds, List<Token> tokens) {
+      if (tree instanceof TerminalNode) {
+         addToken(((TerminalNode) tree).getSymbol(), tokenIds, tokens);
+         return;
+      }
+      ParserRuleContext ctx = (ParserRuleContext) tree;
+      addToken(ctx.getStart(), tokenIds, tokens);
+      for (int i = 0; i < ctx.getChildCount(); i++) {
+         collectTokens(ctx.getChild(i), tokenIds, tokens);
+      }
+      addToken(ctx.getStop(), tokenIds, tokens);
+   }
+
+   static void addToken(Token token, Map<Token, Integer> tokenIds, List<Token> tokens) {
+      if (token != null && tokenIds.containsKey(token) == false) {
+         tokenIds.put(token, tokens.size());
+         tokens.add(token);
+      }
+   }
+
+   static void writeTree(DataOutputStream data, ParseTree tree, Map<Token, Integer> tokenIds) throws IOException {
+      if (tree instanceof ErrorNode) {
+         throw new IllegalArgumentException("Parse trees with errors can not be written");
+      }
+      if (tree instanceof TerminalNode) {
+         writeVarInt(data, 0);
+         writeVarInt(data, tokenIds.get(((TerminalNode) tree).getSymbol()));
+         return;
+      }
+      ParserRuleContext ctx = (ParserRuleContext) tree;
+      Integer id = CONTEXT_IDS.get(ctx.getClass());
+      if (id == null) {
+         throw new IllegalArgumentException("Unknown rule context " + ctx.getClass().getName());
+      }
+      writeVarInt(data, id + 1);
+      writeVarInt(data, ctx.invokingState + 1);
+      writeTokenRef(data, ctx.getStart(), tokenIds);
+      writeTokenRef(data, ctx.getStop(), tokenIds);
+      writeVarInt(data, ctx.getChildCount());
+      for (int i = 0; i < ctx.getChildCount(); i++) {
+         writeTree(data, ctx.getChild(i), tokenIds);
+      }
+      for (Field field : TOKEN_FIELDS.get(ctx.getClass())) {
+         try {
+            writeTokenRef(data, (Token) field.get(ctx), tokenIds);
+         } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+         }
+      }
+   }
+
+   static ParseTree readTree(DataInputStream data, Token[] tokens) throws IOException, ReflectiveOperationException {
+      int id = readVarInt(data);
+      if (id == 0) {
+         return new TerminalNodeImpl(tokens[readVarInt(data)]);
+      }
+      Class<? extends ParserRuleContext> ctxClass = CONTEXT_CLASSES.get(id - 1);
+      ParserRuleContext ctx = newContext(ctxClass, readVarInt(data) - 1);
+      ctx.start = readTokenRef(data, tokens);
+      ctx.stop = readTokenRef(data, tokens);
+      int childCount = readVarInt(data);
+      for (int i = 0; i < childCount; i++) {
+         ParseTree child = readTree(data, tokens);
+         if (child instanceof TerminalNode) {
+            ctx.addChild((TerminalNode) child);
+         } else {
+            ParserRuleContext childCtx = (ParserRuleContext) child;
+            childCtx.parent = ctx;
+            ctx.addChild(childCtx);
+         }
+      }
+      for (Field field : TOKEN_FIELDS.get(ctxClass)) {
+         field.set(ctx, readTokenRef(data, tokens));
+      }
+      return ctx;
+   }
+
+   /**
+    * Create a rule context. The contexts of labeled alternatives (e.g.
+    * PathContext) are copied from a context of their rule (e.g. ExprContext).
+    */
+   static ParserRuleContext newContext(Class<?> ctxClass, int invokingState) throws ReflectiveOperationException {
+      Constructor<?> constructor;
+      synchronized (CONSTRUCTORS) {
+         constructor = CONSTRUCTORS.get(ctxClass);
+         if (constructor == null) {
+            try {
+               constructor = ctxClass.getConstructor(ParserRuleContext.class, int.class);
+            } catch (NoSuchMethodException e) {
+               constructor = ctxClass.getConstructor(ctxClass.getSuperclass());
+            }
+            CONSTRUCTORS.put(ctxClass, constructor);
+         }
+      }
+      if (constructor.getParameterCount() == 2) {
+         return (ParserRuleContext) constructor.newInstance(null, invokingState);
+      }
+      return (ParserRuleContext) constructor.newInstance(newContext(ctxClass.getSuperclass(), invokingState));
+   }
+
+   static void writeTokenRef(DataOutputStream data, Token token, Map<Token, Integer> tokenIds) throws IOException {
+      writeVarInt(data, token == null ? 0 : tokenIds.get(token) + 1);
+   }
+
+   static Token readTokenRef(DataInputStream data, Token[] tokens) throws IOException {
+      int ref = readVarInt(data);
+      return ref == 0 ? null : tokens[ref - 1];
+   }
+
+   /**
+    * Write a non negative int in 1 to 5 bytes, 7 bits per byte
+    */
+   static void writeVarInt(DataOutputStream data, int value) throws IOException {
+      while ((value & ~0x7F) != 0) {
+         data.writeByte((value & 0x7F) | 0x80);
+         value >>>= 7;
+      }
+      data.writeByte(value);
+   }
+
+   static int readVarInt(DataInputStream data) throws IOException {
+      int value = 0;
+      for (int shift = 0; shift < 35; shift += 7) {
+         int b = data.readUnsignedByte();
+         value |= (b & 0x7F) << shift;
+         if ((b & 0x80) == 0) {
+            return value;
+         }
+      }
+      throw new IOException("Malformed variable length int");
+   }
+}
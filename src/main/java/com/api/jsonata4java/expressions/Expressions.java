@@ -22,8 +22,12 @@
 
 package com.api.jsonata4java.expressions;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -33,6 +37,7 @@ import org.antlr.v4.runtime.RecognitionException;
 import org.antlr.v4.runtime.tree.ErrorNodeImpl;
 import org.antlr.v4.runtime.tree.ParseTree;
 
+import com.api.jsonata4java.expressions.functions.FunctionSignature;
 import com.api.jsonata4java.expressions.generated.MappingExpressionLexer;
 import com.api.jsonata4java.expressions.generated.MappingExpressionParser;
 import com.api.jsonata4java.expressions.utils.Constants;
@@ -44,6 +49,9 @@ public class Expressions {
 	ParseTree tree = null;
 	String expression = null;
 	ExpressionsVisitor _eval = new ExpressionsVisitor(JsonNodeFactory.instance.objectNode());
+	CompiledPath _path = null;
+	Map<ParseTree, JsonNode> _literals = null;
+	Map<ParseTree, FunctionSignature.CallShape> _callShapes = null;
 
 	/**
 	 * Returns a list of $something references in the given expression, using the
@@ -70,6 +78,9 @@ public class Expressions {
 	public Expressions(ParseTree aTree, String anExpression) {
 		tree = aTree;
 		expression = anExpression;
+		_path = CompiledPath.compile(aTree);
+		_literals = ExpressionsVisitor.compileLiterals(aTree);
+		_callShapes = ExpressionsVisitor.compileCallShapes(aTree);
 	}
 
 	// Convert a mapping expression string into a pre-processed expression ready
@@ -138,6 +149,8 @@ public class Expressions {
       JsonNode result = null;
 
       ExpressionsVisitor eval = new ExpressionsVisitor(rootContext);
+      eval.setLiterals(_literals);
+      eval.setCallShapes(_callShapes);
       _eval = eval;
       if (timeoutMS <= 0L) {
          throw new EvaluateException("The timeoutMS must be a positive number. Received "+timeoutMS);
@@ -177,7 +190,17 @@ public class Expressions {
 
 		JsonNode result = null;
 
+		if (_path != null) {
+			try {
+				return _path.evaluate(rootContext);
+			} catch (EvaluateRuntimeException e) {
+				throw new EvaluateException(e.getMessage(), e);
+			}
+		}
+
 		ExpressionsVisitor eval = new ExpressionsVisitor(rootContext);
+		eval.setLiterals(_literals);
+		eval.setCallShapes(_callShapes);
 		_eval = eval;
 
 		try {
@@ -209,8 +232,79 @@ public class Expressions {
 	
 	public void setTree(ParseTree parsetree) {
 	   tree = parsetree;
+	   _path = CompiledPath.compile(parsetree);
+	   _literals = ExpressionsVisitor.compileLiterals(parsetree);
+	   _callShapes = ExpressionsVisitor.compileCallShapes(parsetree);
 	}
+
+   /**
+    * @return the compiled form of the expression if it is a plain path of field
+    *         names and integer indexes (see {@link CompiledPath}), else null
+    */
+   public CompiledPath getCompiledPath() {
+      return _path;
+   }
+
+   /**
+    * @return the values of the expression's number literals, converted when
+    *         it was parsed (see {@link ExpressionsVisitor#compileLiterals}),
+    *         or null if it has none
+    */
+   public Map<ParseTree, JsonNode> getLiterals() {
+      return _literals;
+   }
+
+   /**
+    * @return how the calls of built in typed functions pass their arguments,
+    *         decided when the expression was parsed (see
+    *         {@link ExpressionsVisitor#compileCallShapes}), or null if it has
+    *         none
+    */
+   public Map<ParseTree, FunctionSignature.CallShape> getCallShapes() {
+      return _callShapes;
+   }
 	
+   /**
+    * @param sizes
+    *              the average number of values of fields keyed by their dotted
+    *              path from the root (see {@link ExplainPlan}). May be null.
+    * @return the explain plan of the expression with its estimated cost and
+    *         any expensive patterns found
+    */
+   public ExplainPlan explain(Map<String, Long> sizes) {
+      return ExplainPlan.explain(tree, sizes);
+   }
+
+   /**
+    * Write the binary form of this parsed expression (see
+    * {@link ExpressionCodec})
+    * 
+    * @param output
+    *               the stream receiving the record
+    * @throws IOException
+    */
+   public void writeTo(OutputStream output) throws IOException {
+      ExpressionCodec.write(this, output);
+   }
+
+   /**
+    * Read a parsed expression written by {@link #writeTo(OutputStream)}
+    * without parsing it
+    * 
+    * @param input
+    *              the stream holding the record
+    * @return the parsed expression, or null at the end of the stream
+    * @throws IOException
+    *                        if the record is truncated, corrupted or of an
+    *                        unsupported format version
+    * @throws ParseException
+    *                        if the record was written by a different version
+    *                        of the grammar and its expression no longer parses
+    */
+   public static Expressions readFrom(InputStream input) throws IOException, ParseException {
+      return ExpressionCodec.read(input);
+   }
+
    public void timeboxExpression(long timeoutMS, int maxDepth) {
       _eval.timeboxExpression(timeoutMS, maxDepth);
    }
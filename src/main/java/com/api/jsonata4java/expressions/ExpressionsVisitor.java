@@ -22,34 +22,44 @@
 
 package com.api.jsonata4java.expressions;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
 import java.util.EmptyStackException;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.Stack;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
-import org.antlr.v4.runtime.CommonToken;
-import org.antlr.v4.runtime.CommonTokenFactory;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Token;
 import org.antlr.v4.runtime.tree.ParseTree;
 import org.antlr.v4.runtime.tree.ParseTreeProperty;
+import org.antlr.v4.runtime.tree.RuleNode;
 import org.antlr.v4.runtime.tree.TerminalNode;
 import org.antlr.v4.runtime.tree.TerminalNodeImpl;
 import org.apache.commons.text.StringEscapeUtils;
 
 import com.api.jsonata4java.expressions.functions.DeclaredFunction;
 import com.api.jsonata4java.expressions.functions.Function;
+import com.api.jsonata4java.expressions.functions.FunctionMemo;
+import com.api.jsonata4java.expressions.functions.FunctionSignature;
+import com.api.jsonata4java.expressions.functions.NativeFunction;
+import com.api.jsonata4java.expressions.functions.TypedFunction;
 import com.api.jsonata4java.expressions.generated.MappingExpressionBaseVisitor;
 import com.api.jsonata4java.expressions.generated.MappingExpressionParser;
 import com.api.jsonata4java.expressions.generated.MappingExpressionParser.ArrayContext;
 import com.api.jsonata4java.expressions.generated.MappingExpressionParser.Array_constructorContext;
-import com.api.jsonata4java.expressions.generated.MappingExpressionParser.BooleanContext;
 import com.api.jsonata4java.expressions.generated.MappingExpressionParser.ExprContext;
 import com.api.jsonata4java.expressions.generated.MappingExpressionParser.ExprListContext;
 import com.api.jsonata4java.expressions.generated.MappingExpressionParser.ExprOrSeqContext;
@@ -59,14 +69,20 @@ import com.api.jsonata4java.expressions.generated.MappingExpressionParser.Functi
 import com.api.jsonata4java.expressions.generated.MappingExpressionParser.IdContext;
 import com.api.jsonata4java.expressions.generated.MappingExpressionParser.NullContext;
 import com.api.jsonata4java.expressions.generated.MappingExpressionParser.Object_constructorContext;
+import com.api.jsonata4java.expressions.generated.MappingExpressionParser.Object_transformContext;
 import com.api.jsonata4java.expressions.generated.MappingExpressionParser.PathContext;
 import com.api.jsonata4java.expressions.generated.MappingExpressionParser.Root_pathContext;
 import com.api.jsonata4java.expressions.generated.MappingExpressionParser.SeqContext;
 import com.api.jsonata4java.expressions.generated.MappingExpressionParser.VarListContext;
+import com.api.jsonata4java.expressions.metrics.EvaluationMetrics;
+import com.api.jsonata4java.expressions.metrics.EvaluationProfile;
 import com.api.jsonata4java.expressions.utils.BooleanUtils;
 import com.api.jsonata4java.expressions.utils.Constants;
+import com.api.jsonata4java.expressions.utils.CopyOnWriteTree;
 import com.api.jsonata4java.expressions.utils.FunctionUtils;
+import com.api.jsonata4java.expressions.utils.JsonHashUtils;
 import com.api.jsonata4java.expressions.utils.NumberUtils;
+import com.api.jsonata4java.expressions.utils.RopeTextNode;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -78,6 +94,7 @@ import com.fasterxml.jackson.databind.node.LongNode;
 import com.fasterxml.jackson.databind.node.NullNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.fasterxml.jackson.databind.node.TextNode;
+import com.fasterxml.jackson.databind.node.ValueNode;
 
 public class ExpressionsVisitor extends MappingExpressionBaseVisitor<JsonNode> {
    
@@ -86,6 +103,7 @@ public class ExpressionsVisitor extends MappingExpressionBaseVisitor<JsonNode> {
    boolean checkRuntime = false;
    int maxDepth = -1;
    long maxTime = 0L;
+   Instant now = null;
 
    private void checkRunaway() {
       if (checkRuntime) {
@@ -115,10 +133,169 @@ public class ExpressionsVisitor extends MappingExpressionBaseVisitor<JsonNode> {
          checkRuntime = true;
       }
    }
+
+   /**
+    * @return the instant returned by $now() and $millis(). The clock is read
+    *         once, on first use, so every call within an evaluation sees the
+    *         same value.
+    */
+   public Instant getNow() {
+      if (now == null) {
+         now = Instant.now();
+      }
+      return now;
+   }
    
+   /**
+    * Subexpressions shared with other expressions evaluated against the same
+    * root context (see com.api.jsonata4java.ExpressionSet). sharedKeys maps the
+    * shared parse tree nodes to their structural keys, sharedValues holds the
+    * results already computed for that root context.
+    */
+   Map<ParseTree, String> sharedKeys = null;
+   Map<String, JsonNode> sharedValues = null;
+   JsonNode sharedContext = null;
+
+   /**
+    * Share the results of the identified subexpressions when they are evaluated
+    * against the root context
+    * 
+    * @param keys
+    *                 map of the parse tree nodes that may be shared to the key
+    *                 used to store their result
+    * @param values
+    *                 results of the shared subexpressions computed so far. Must
+    *                 only be used with the same root context.
+    */
+   public void shareSubexpressions(Map<ParseTree, String> keys, Map<String, JsonNode> values) {
+      sharedKeys = keys;
+      sharedValues = values;
+      sharedContext = stack.isEmpty() ? null : stack.firstElement();
+   }
+
+   /**
+    * Metrics of the current evaluation, null when metrics are not being
+    * collected
+    */
+   EvaluationMetrics metrics = null;
+
+   public EvaluationMetrics getMetrics() {
+      return metrics;
+   }
+
+   public void setMetrics(EvaluationMetrics metrics) {
+      this.metrics = metrics;
+   }
+
+   /**
+    * Per node profile of the current evaluation, null when not profiling
+    */
+   EvaluationProfile profile = null;
+
+   public EvaluationProfile getProfile() {
+      return profile;
+   }
+
+   public void setProfile(EvaluationProfile profile) {
+      this.profile = profile;
+   }
+
+   /**
+    * @return the name of the function invoked by the node, or null if the node
+    *         is not a function invocation
+    */
+   static String getInvokedFunctionName(ParseTree tree) {
+      if (tree instanceof MappingExpressionParser.Function_callContext) {
+         return ((MappingExpressionParser.Function_callContext) tree).VAR_ID().getText();
+      }
+      if (tree instanceof MappingExpressionParser.Map_functionContext
+            || tree instanceof MappingExpressionParser.Filter_functionContext
+            || tree instanceof MappingExpressionParser.Reduce_functionContext
+            || tree instanceof MappingExpressionParser.Sift_functionContext
+            || tree instanceof MappingExpressionParser.Each_functionContext) {
+         return ((ParserRuleContext) tree).getStart().getText();
+      }
+      return null;
+   }
+
+   /**
+    * Visit the node recording the visit and, for function invocations, the time
+    * spent in the function
+    */
+   JsonNode visitWithMetrics(ParseTree tree) {
+      metrics.nodeVisited();
+      String functionName = getInvokedFunctionName(tree);
+      if (functionName == null) {
+         return visitNode(tree);
+      }
+      long start = System.nanoTime();
+      try {
+         return visitNode(tree);
+      } finally {
+         metrics.functionCalled(functionName, System.nanoTime() - start);
+      }
+   }
+
+   /**
+    * Rules without their own visit method (e.g. the exprList of a function
+    * body) accept their children directly, so route them through visit while
+    * metrics are collected or the evaluation is profiled
+    */
+   @Override
+   public JsonNode visitChildren(RuleNode node) {
+      if (metrics == null && profile == null) {
+         return super.visitChildren(node);
+      }
+      JsonNode result = defaultResult();
+      int n = node.getChildCount();
+      for (int i = 0; i < n && shouldVisitNextChild(node, result); i++) {
+         result = aggregateResult(result, visit(node.getChild(i)));
+      }
+      return result;
+   }
+
+   /**
+    * Visit the node recording its invocation, time and result cardinality in
+    * the profile
+    */
+   JsonNode visitWithProfile(ParseTree tree) {
+      if (tree instanceof ParserRuleContext == false) {
+         return metrics != null ? visitWithMetrics(tree) : visitNode(tree);
+      }
+      JsonNode result = null;
+      boolean failed = true;
+      profile.enter();
+      long start = System.nanoTime();
+      try {
+         result = metrics != null ? visitWithMetrics(tree) : visitNode(tree);
+         failed = false;
+         return result;
+      } finally {
+         profile.exit((ParserRuleContext) tree, System.nanoTime() - start, result, failed);
+      }
+   }
+
    @Override
    public JsonNode visit(ParseTree tree) {
+      if (profile != null) {
+         return visitWithProfile(tree);
+      }
+      if (metrics != null) {
+         return visitWithMetrics(tree);
+      }
+      return visitNode(tree);
+   }
+
+   JsonNode visitNode(ParseTree tree) {
       JsonNode result = null;
+      String sharedKey = null;
+      if (sharedKeys != null && sharedContext != null && stack.peek() == sharedContext
+            && selectionParents == null) {
+         sharedKey = sharedKeys.get(tree);
+         if (sharedKey != null && sharedValues.containsKey(sharedKey)) {
+            return sharedValues.get(sharedKey);
+         }
+      }
       if (checkRuntime) {
          evaluateEntry();
       }
@@ -126,9 +303,37 @@ public class ExpressionsVisitor extends MappingExpressionBaseVisitor<JsonNode> {
       if (checkRuntime) {
          evaluateExit();
       }
+      if (result instanceof RopeTextNode && keepsRope(tree) == false) {
+         result = RopeTextNode.flatten(result);
+      }
+      if (sharedKey != null) {
+         sharedValues.put(sharedKey, result);
+      }
       return result;
    }
 
+   /**
+    * @return whether a {@link RopeTextNode} value of the node may be kept as is:
+    *         the node is an operand of a concatenation, a branch of a
+    *         conditional whose value is kept, or the body (or its last
+    *         expression) of the declared function being invoked by
+    *         {@link #call(DeclaredFunction, JsonNode[])}. Anywhere else the
+    *         value is flattened to a TextNode.
+    */
+   boolean keepsRope(ParseTree tree) {
+      ParseTree parent = tree.getParent();
+      if (functionBody != null && (tree == functionBody || parent == functionBody)) {
+         return true;
+      }
+      if (parent instanceof MappingExpressionParser.Concat_opContext) {
+         return true;
+      }
+      if (parent instanceof MappingExpressionParser.ConditionalContext) {
+         return ((MappingExpressionParser.ConditionalContext) parent).expr(0) != tree;
+      }
+      return false;
+   }
+
    /**
     * This is how we indicate to upstream operators that we are currently inside a
     * selection statement. E.g. [{"a":1}, {"a":2}}].a will return this special
@@ -304,7 +509,7 @@ public class ExpressionsVisitor extends MappingExpressionBaseVisitor<JsonNode> {
       }
    }
 
-   private static String sanitise(String str) {
+   static String sanitise(String str) {
 
       // strip any surrounding quotes
       if ((str.startsWith("`") && str.endsWith("`")) || (str.startsWith("\"") && str.endsWith("\""))
@@ -325,7 +530,7 @@ public class ExpressionsVisitor extends MappingExpressionBaseVisitor<JsonNode> {
     * @param input
     * @return
     */
-   private static JsonNode unwrapArray(JsonNode input) {
+   static JsonNode unwrapArray(JsonNode input) {
       if (input == null) {
          return null;
       } else if (input.isArray()) {
@@ -341,6 +546,7 @@ public class ExpressionsVisitor extends MappingExpressionBaseVisitor<JsonNode> {
 
    JsonNodeFactory factory = JsonNodeFactory.instance;
    private Map<String, DeclaredFunction> functionMap = new HashMap<String, DeclaredFunction>();
+   private Map<String, NativeFunction> nativeFunctions = new HashMap<String, NativeFunction>();
 
    /**
     * This stack is used for storing the current "context" under which to evaluate
@@ -431,6 +637,236 @@ public class ExpressionsVisitor extends MappingExpressionBaseVisitor<JsonNode> {
       return functionMap;
    }
 
+   /**
+    * @return the Java functions registered for this evaluation, by name
+    *         including the leading $
+    */
+   public Map<String, NativeFunction> getNativeFunctions() {
+      return nativeFunctions;
+   }
+
+   /**
+    * @param name
+    *             the function name including the leading $
+    * @return the registered Java function or built in function of the name (a
+    *         registered function replaces a built in one), or null if there is
+    *         none
+    */
+   public Function getFunction(String name) {
+      if (nativeFunctions.isEmpty() == false) {
+         NativeFunction function = nativeFunctions.get(name);
+         if (function != null) {
+            return function;
+         }
+      }
+      return Constants.FUNCTIONS.get(name);
+   }
+
+   /**
+    * Returned in place of a result by a declared function call in tail position
+    * of the body being evaluated by {@link #invoke(DeclaredFunction, JsonNode[])}
+    * so the call is made by its loop rather than on the Java stack. The call's
+    * function and arguments are left in tailCallFunction and tailCallArgs.
+    */
+   static final JsonNode TAIL_CALL = new TextNode("tail call");
+
+   /**
+    * Memo of pure declared function results, null when not memoizing
+    */
+   FunctionMemo memo = null;
+
+   /**
+    * While the pattern of a transform is evaluated, the containers each
+    * container was selected from with the field name or index it was selected
+    * by, so a match can be found in the transformed value by following them
+    * back to the input; null otherwise
+    */
+   Map<JsonNode, List<Object[]>> selectionParents = null;
+
+   /**
+    * Record that a value was selected from a container by a field name or
+    * index. The members of an array are recorded too, as paths select them
+    * through the array.
+    */
+   void recordSelection(JsonNode parent, Object step, JsonNode child) {
+      if (child == null || child.isContainerNode() == false) {
+         return;
+      }
+      List<Object[]> parents = selectionParents.get(child);
+      if (parents == null) {
+         parents = new ArrayList<Object[]>(1);
+         selectionParents.put(child, parents);
+      }
+      for (Object[] known : parents) {
+         if (known[0] == parent && known[1].equals(step)) {
+            return;
+         }
+      }
+      parents.add(new Object[] { parent, step });
+      if (child.isArray()) {
+         for (int i = 0; i < child.size(); i++) {
+            recordSelection(child, i, child.get(i));
+         }
+      }
+   }
+
+   public FunctionMemo getMemo() {
+      return memo;
+   }
+
+   public void setMemo(FunctionMemo memo) {
+      this.memo = memo;
+   }
+
+   /**
+    * Marks a variable that was unassigned before a function assigned it
+    */
+   static final JsonNode UNBOUND = new TextNode("unbound");
+
+   /**
+    * Body of the declared function being evaluated, null outside of functions
+    */
+   ExprListContext functionBody = null;
+
+   /**
+    * Values of the caller's variables assigned by the declared function being
+    * evaluated, keyed by variable name
+    */
+   Map<String, JsonNode> frame = null;
+   DeclaredFunction tailCallFunction = null;
+   JsonNode[] tailCallArgs = null;
+
+   /**
+    * Invoke a declared function. Calls in tail position of the body (the last
+    * expression of the body or of a block, or a branch of a conditional in tail
+    * position) are executed by this loop (a trampoline) in constant stack space,
+    * so tail recursion is not limited by the Java stack.
+    * 
+    * @param fct
+    *             the function to invoke
+    * @param args
+    *             the values bound to the function's variables
+    * @return the result of the function
+    */
+   public JsonNode invoke(DeclaredFunction fct, JsonNode[] args) {
+      return RopeTextNode.flatten(call(fct, args));
+   }
+
+   /**
+    * Invoke a declared function as {@link #invoke(DeclaredFunction, JsonNode[])}
+    * does, leaving a string built by concatenation as a {@link RopeTextNode} so
+    * the caller can pass it back to the next call (e.g. the accumulator of
+    * $reduce) and have it appended to in place
+    */
+   JsonNode call(DeclaredFunction fct, JsonNode[] args) {
+      ExprListContext callerBody = functionBody;
+      Map<String, JsonNode> callerFrame = frame;
+      frame = null;
+      // memo keys of the calls in the chain of tail calls, which all share its
+      // result
+      List<Object> memoKeys = null;
+      try {
+         while (true) {
+            if (memo != null) {
+               Object key = memo.keyOf(fct, this, args);
+               if (key != null) {
+                  JsonNode cached = memo.get(key);
+                  if (cached != null) {
+                     JsonNode result = FunctionMemo.isUndefined(cached) ? null : cached;
+                     memoize(memoKeys, result);
+                     return result;
+                  }
+                  if (memoKeys == null) {
+                     memoKeys = new ArrayList<Object>();
+                  }
+                  memoKeys.add(key);
+               }
+            }
+            functionBody = fct.getExpressionList();
+            List<TerminalNode> variables = fct.getVariables();
+            for (int i = 0; i < variables.size(); i++) {
+               // variables without a value are undefined in the body
+               assignLocal(variables.get(i).getText(), i < args.length ? args[i] : null);
+            }
+            JsonNode result = visit(functionBody);
+            if (result != TAIL_CALL) {
+               memoize(memoKeys, result);
+               return result;
+            }
+            fct = tailCallFunction;
+            args = tailCallArgs;
+            tailCallFunction = null;
+            tailCallArgs = null;
+         }
+      } finally {
+         if (frame != null) {
+            // restore the caller's variables
+            for (Map.Entry<String, JsonNode> entry : frame.entrySet()) {
+               if (entry.getValue() == UNBOUND) {
+                  variableMap.remove(entry.getKey());
+               } else {
+                  variableMap.put(entry.getKey(), entry.getValue());
+               }
+            }
+         }
+         frame = callerFrame;
+         functionBody = callerBody;
+      }
+   }
+
+   /**
+    * Assign a variable, saving the caller's value to be restored when the
+    * declared function being evaluated returns
+    */
+   void assignLocal(String varName, JsonNode value) {
+      if (functionBody != null || frame != null) {
+         if (frame == null) {
+            frame = new HashMap<String, JsonNode>();
+         }
+         if (frame.containsKey(varName) == false) {
+            frame.put(varName, variableMap.containsKey(varName) ? variableMap.get(varName) : UNBOUND);
+         }
+      }
+      variableMap.put(varName, value);
+   }
+
+   void memoize(List<Object> memoKeys, JsonNode result) {
+      if (memoKeys != null) {
+         result = RopeTextNode.flatten(result);
+         for (Object key : memoKeys) {
+            memo.put(key, result);
+         }
+      }
+   }
+
+   /**
+    * @return whether the call is in tail position of the body of the declared
+    *         function being evaluated, so its result is the function's result
+    */
+   boolean isTailCall(ParserRuleContext call) {
+      ParserRuleContext child = call;
+      ParserRuleContext parent = call.getParent();
+      while (parent != null) {
+         if (parent == functionBody) {
+            return child == parent.getChild(parent.getChildCount() - 1);
+         }
+         if (parent instanceof MappingExpressionParser.ConditionalContext) {
+            if (child == ((MappingExpressionParser.ConditionalContext) parent).expr(0)) {
+               return false;
+            }
+         } else if (parent instanceof MappingExpressionParser.ParensContext) {
+            if (child != parent.getChild(parent.getChildCount() - 2)) {
+               return false;
+            }
+         } else {
+            return false;
+         }
+         child = parent;
+         parent = parent.getParent();
+      }
+      return false;
+   }
+
    public Stack<JsonNode> getStack() {
       return stack;
    }
@@ -517,7 +953,7 @@ public class ExpressionsVisitor extends MappingExpressionBaseVisitor<JsonNode> {
     * @param rhsCtx
     * @return
     */
-   private JsonNode resolvePath(JsonNode lhs, ExprContext rhsCtx) {
+   JsonNode resolvePath(JsonNode lhs, ExprContext rhsCtx) {
       final String METHOD = "resolvePath";
       if (LOG.isLoggable(Level.FINEST))
          LOG.entering(CLASS, METHOD, new Object[] { lhs, rhsCtx.getText() });
@@ -584,14 +1020,21 @@ public class ExpressionsVisitor extends MappingExpressionBaseVisitor<JsonNode> {
          // now process the "descendants" (array elements, or nodes from keys of an
          // object)
          if (input.isArray()) {
-            for (Iterator<JsonNode> it = ((ArrayNode) input).iterator(); it.hasNext();) {
-               JsonNode member = it.next();
+            for (int i = 0; i < input.size(); i++) {
+               JsonNode member = input.get(i);
+               if (selectionParents != null) {
+                  recordSelection(input, i, member);
+               }
                traverseDescendants(member, results);
             }
          } else if (input.isObject()) {
             for (Iterator<String> it = ((ObjectNode) input).fieldNames(); it.hasNext();) {
                String key = it.next();
-               traverseDescendants(((ObjectNode) input).get(key), results);
+               JsonNode value = ((ObjectNode) input).get(key);
+               if (selectionParents != null) {
+                  recordSelection(input, key, value);
+               }
+               traverseDescendants(value, results);
             }
          }
       } // else don't process null
@@ -602,14 +1045,21 @@ public class ExpressionsVisitor extends MappingExpressionBaseVisitor<JsonNode> {
       JsonNode leftNode = visit(ctx.expr(0)); // get value of left subexpression
       JsonNode rightNode = visit(ctx.expr(1)); // get value of right
       // subexpression
+      return arithmetic(ctx.op, leftNode, rightNode);
+   }
 
+   /**
+    * Apply the arithmetic operator (+, -, *, / or %) to the values of its
+    * operands
+    */
+   static JsonNode arithmetic(Token op, JsonNode leftNode, JsonNode rightNode) {
       // in all cases, if either are *no match*, JSONata returns *no match*
       if (leftNode == null || rightNode == null) {
          return null;
       }
 
       if (!leftNode.isNumber() || !rightNode.isNumber()) {
-         throw new EvaluateRuntimeException(ctx.op.getText() + " expects two numeric arguments");
+         throw new EvaluateRuntimeException(op.getText() + " expects two numeric arguments");
       }
 
       // treat both inputs as doubles when performing arithmetic operations
@@ -618,24 +1068,154 @@ public class ExpressionsVisitor extends MappingExpressionBaseVisitor<JsonNode> {
 
       final double result;
 
-      if (ctx.op.getType() == MappingExpressionParser.ADD) {
+      switch (op.getType()) {
+      case MappingExpressionParser.ADD:
          result = left + right;
-      } else if (ctx.op.getType() == MappingExpressionParser.SUB) {
+         break;
+      case MappingExpressionParser.SUB:
          result = left - right;
-      } else {
+         break;
+      case MappingExpressionParser.MUL:
+         result = left * right;
+         break;
+      case MappingExpressionParser.DIV:
+         result = left / right;
+         break;
+      case MappingExpressionParser.REM:
+         result = left % right;
+         break;
+      default:
          // should never happen (this expression should not have parsed in the
          // first place)
-         throw new EvaluateRuntimeException("Unrecognised token " + ctx.op.getText());
+         throw new EvaluateRuntimeException("Unrecognised token " + op.getText());
       }
 
-      // coerce the result to a long iff the result is exactly .0
-      if (isWholeNumber(result)) {
+      // coerce the result to a long iff the result is exactly .0 and fits in
+      // one, larger results (e.g. a factorial) stay doubles
+      if (isWholeNumber(result) && result >= Long.MIN_VALUE && result < Long.MAX_VALUE) {
          return new LongNode((long) result);
       } else {
          return new DoubleNode(result);
       }
    }
 
+   /**
+    * {@link #selectionLimit(ParserRuleContext, Map)} of a filter whose result
+    * is used in full
+    */
+   public static final int NO_LIMIT = Integer.MAX_VALUE;
+
+   /**
+    * {@link #selectionLimit(ParserRuleContext, Map)} of a filter whose result
+    * is only cast to a boolean, which is true as soon as one value selected is
+    */
+   public static final int FIRST_TRUE = 0;
+
+   /**
+    * Optimizer rule pushing a limit down into a filter (a predicate on an
+    * array, e.g. events[type="error"], or a $filter call) from the expression
+    * consuming its result. The filter stops evaluating its predicate once it
+    * has selected as many values as the consumer needs, returning those in an
+    * array, which the consumer turns into the same value as the full result:
+    * <ul>
+    * <li>a literal index k (e.g. events[type="error"][0]) needs k + 1 values</li>
+    * <li>$exists needs one</li>
+    * <li>$count compared with a literal n needs n + 1, as every count above n
+    * compares the same</li>
+    * <li>a condition, an operand of and / or, and the argument of $boolean or
+    * $not need values up to the first that casts to true
+    * ({@link #FIRST_TRUE})</li>
+    * </ul>
+    * Limits are at least 2, as a single selected value is unwrapped from its
+    * array. Parentheses around the filter and $$. before it are looked
+    * through. The predicate is not evaluated against the values after the
+    * limit, so errors it would raise there are not reported.
+    * 
+    * @param filter
+    *                        the predicate or $filter call
+    * @param nativeFunctions
+    *                        functions bound in place of the built in ones, may
+    *                        be null
+    * @return the number of values the filter needs to select, FIRST_TRUE, or
+    *         NO_LIMIT
+    */
+   public static int selectionLimit(ParserRuleContext filter, Map<String, ? extends Function> nativeFunctions) {
+      ParserRuleContext operand = filter;
+      ParserRuleContext consumer = filter.getParent();
+      while ((consumer instanceof MappingExpressionParser.ParensContext
+            && ((MappingExpressionParser.ParensContext) consumer).expr().size() == 1)
+            || consumer instanceof Root_pathContext) {
+         operand = consumer;
+         consumer = consumer.getParent();
+      }
+      if (consumer instanceof ArrayContext) {
+         ArrayContext index = (ArrayContext) consumer;
+         if (index.expr(0) == operand) {
+            long k = literalOf(index.expr(1));
+            return k == Long.MAX_VALUE ? NO_LIMIT : atLeastTwo(k + 1);
+         }
+      } else if (consumer instanceof MappingExpressionParser.ConditionalContext) {
+         if (((MappingExpressionParser.ConditionalContext) consumer).expr(0) == operand) {
+            return FIRST_TRUE;
+         }
+      } else if (consumer instanceof MappingExpressionParser.LogandContext
+            || consumer instanceof MappingExpressionParser.LogorContext) {
+         return FIRST_TRUE;
+      } else if (consumer instanceof ExprListContext && ((ExprListContext) consumer).expr().size() == 1
+            && consumer.getParent() instanceof ExprValuesContext
+            && consumer.getParent().getParent() instanceof Function_callContext) {
+         Function_callContext call = (Function_callContext) consumer.getParent().getParent();
+         String name = call.VAR_ID().getText();
+         if (nativeFunctions != null && nativeFunctions.containsKey(name)) {
+            return NO_LIMIT;
+         }
+         switch (name) {
+         case Constants.FUNCTION_EXISTS:
+            return atLeastTwo(1L);
+         case Constants.FUNCTION_BOOLEAN:
+         case Constants.FUNCTION_NOT:
+            return FIRST_TRUE;
+         case Constants.FUNCTION_COUNT:
+            if (call.getParent() instanceof MappingExpressionParser.Comp_opContext) {
+               MappingExpressionParser.Comp_opContext comparison = (MappingExpressionParser.Comp_opContext) call
+                     .getParent();
+               long n = literalOf(comparison.expr(0) == call ? comparison.expr(1) : comparison.expr(0));
+               return n == Long.MAX_VALUE ? NO_LIMIT : atLeastTwo(n + 1);
+            }
+            break;
+         default:
+            break;
+         }
+      }
+      return NO_LIMIT;
+   }
+
+   /**
+    * @return the value of a non-negative integer literal (rounded down), or
+    *         Long.MAX_VALUE if the expression is not one
+    */
+   static long literalOf(ExprContext expr) {
+      if (expr instanceof MappingExpressionParser.NumberContext) {
+         ValueNode value = NumberUtils.scanNumber(((MappingExpressionParser.NumberContext) expr).NUMBER().getText());
+         if (value != null && value.doubleValue() >= 0.0 && value.doubleValue() < NO_LIMIT - 1) {
+            return (long) value.doubleValue();
+         }
+      }
+      return Long.MAX_VALUE;
+   }
+
+   static int atLeastTwo(long limit) {
+      return limit >= NO_LIMIT ? NO_LIMIT : (int) Math.max(limit, 2L);
+   }
+
+   /**
+    * @return whether a filter with the limit has selected enough values, the
+    *         last of which is given
+    */
+   static boolean limitReached(int limit, int selected, JsonNode last) {
+      return limit == FIRST_TRUE ? BooleanUtils.convertJsonNodeToBoolean(last) : selected >= limit;
+   }
+
    @Override
    public JsonNode visitArray(ArrayContext ctx) {
       final String METHOD = "visitArray";
@@ -660,8 +1240,23 @@ public class ExpressionsVisitor extends MappingExpressionBaseVisitor<JsonNode> {
       }
 
       // Expression inside [] (e.g. [1])
-      ExprContext indexContext = ctx.expr(1);
+      return select(ctx, sourceArray, ctx.expr(1));
+   }
 
+   /**
+    * Select the members of an array at the indexes, or matching the predicate,
+    * given by an expression
+    * 
+    * @param ctx
+    *                     the array index or $[...] expression
+    * @param sourceArray
+    *                     the array
+    * @param indexContext
+    *                     the expression inside []
+    * @return the selected members, null if none
+    */
+   JsonNode select(ParserRuleContext ctx, ArrayNode sourceArray, ExprContext indexContext) {
+      final String METHOD = "select";
       // this will contain a list of indexes that should be pulled out of the
       // source array
       // any non-integral array indexes will rounded down in this list
@@ -669,6 +1264,7 @@ public class ExpressionsVisitor extends MappingExpressionBaseVisitor<JsonNode> {
       final List<Integer> indexesToReturn = new ArrayList<>();
 
       boolean isPredicate = false;
+      int limit = selectionLimit(ctx, nativeFunctions);
 
       for (int i = 0; i < sourceArray.size(); i++) {
          JsonNode e = sourceArray.get(i);
@@ -708,6 +1304,14 @@ public class ExpressionsVisitor extends MappingExpressionBaseVisitor<JsonNode> {
             // it
             if (indexesInContext == BooleanNode.TRUE) {
                indexesToReturn.add(i);
+               if (limit != NO_LIMIT && limitReached(limit, indexesToReturn.size(), e)) {
+                  // the consumer of the result needs no more values
+                  ArrayNode selected = factory.arrayNode();
+                  for (int index : indexesToReturn) {
+                     selected.add(sourceArray.get(index));
+                  }
+                  return selected;
+               }
             }
          } else {
             // if it resolves to any other type of node, we know that the index
@@ -912,10 +1516,17 @@ public class ExpressionsVisitor extends MappingExpressionBaseVisitor<JsonNode> {
 
    @Override
    public JsonNode visitComp_op(MappingExpressionParser.Comp_opContext ctx) {
-      BooleanNode result = null;
-
       JsonNode left = visit(ctx.expr(0)); // get value of left subexpression
       JsonNode right = visit(ctx.expr(1)); // get value of right subexpression
+      return compare(ctx.op, left, right);
+   }
+
+   /**
+    * Apply the comparison operator (=, !=, &lt;, &lt;=, &gt; or &gt;=) to the
+    * values of its operands
+    */
+   static BooleanNode compare(Token op, JsonNode left, JsonNode right) {
+      BooleanNode result = null;
 
       // in all cases, if both are *no match*, JSONata returns false
       if (left == null && right == null) {
@@ -928,7 +1539,7 @@ public class ExpressionsVisitor extends MappingExpressionBaseVisitor<JsonNode> {
       // return null;
       // }
 
-      if (ctx.op.getType() == MappingExpressionParser.EQ) {
+      if (op.getType() == MappingExpressionParser.EQ) {
          if (left == null && right != null) {
             return BooleanNode.FALSE;
          }
@@ -937,7 +1548,7 @@ public class ExpressionsVisitor extends MappingExpressionBaseVisitor<JsonNode> {
          }
          // else both not null
          result = areJsonNodesEqual(left, right) ? BooleanNode.TRUE : BooleanNode.FALSE;
-      } else if (ctx.op.getType() == MappingExpressionParser.NOT_EQ) {
+      } else if (op.getType() == MappingExpressionParser.NOT_EQ) {
          if (left == null && right != null) {
             return BooleanNode.TRUE;
          }
@@ -947,7 +1558,7 @@ public class ExpressionsVisitor extends MappingExpressionBaseVisitor<JsonNode> {
          // else both not null
          result = areJsonNodesEqual(left, right) ? BooleanNode.FALSE : BooleanNode.TRUE;
 
-      } else if (ctx.op.getType() == MappingExpressionParser.LT) {
+      } else if (op.getType() == MappingExpressionParser.LT) {
          if (left == null || left.isNull() || right == null || right.isNull()) {
             throw new EvaluateRuntimeException(
                   "The expressions either side of operator \"<\" must evaluate to numeric or string values");
@@ -958,7 +1569,7 @@ public class ExpressionsVisitor extends MappingExpressionBaseVisitor<JsonNode> {
          } else {
             result = (left.asText().compareTo(right.asText()) == -1) ? BooleanNode.TRUE : BooleanNode.FALSE;
          }
-      } else if (ctx.op.getType() == MappingExpressionParser.GT) {
+      } else if (op.getType() == MappingExpressionParser.GT) {
          if (left == null || left.isNull() || right == null || right.isNull()) {
             throw new EvaluateRuntimeException(
                   "The expressions either side of operator \">\" must evaluate to numeric or string values");
@@ -969,7 +1580,7 @@ public class ExpressionsVisitor extends MappingExpressionBaseVisitor<JsonNode> {
          } else {
             result = (left.asText().compareTo(right.asText()) == 1) ? BooleanNode.TRUE : BooleanNode.FALSE;
          }
-      } else if (ctx.op.getType() == MappingExpressionParser.LE) {
+      } else if (op.getType() == MappingExpressionParser.LE) {
          if (left == null || left.isNull() || right == null || right.isNull()) {
             throw new EvaluateRuntimeException(
                   "The expressions either side of operator \"<=\" must evaluate to numeric or string values");
@@ -980,7 +1591,7 @@ public class ExpressionsVisitor extends MappingExpressionBaseVisitor<JsonNode> {
          } else {
             result = (left.asText().compareTo(right.asText()) != 1) ? BooleanNode.TRUE : BooleanNode.FALSE;
          }
-      } else if (ctx.op.getType() == MappingExpressionParser.GE) {
+      } else if (op.getType() == MappingExpressionParser.GE) {
          if (left == null || left.isNull() || right == null || right.isNull()) {
             throw new EvaluateRuntimeException(
                   "The expressions either side of operator \">=\" must evaluate to numeric or string values");
@@ -1000,7 +1611,24 @@ public class ExpressionsVisitor extends MappingExpressionBaseVisitor<JsonNode> {
    public JsonNode visitConcat_op(MappingExpressionParser.Concat_opContext ctx) {
       JsonNode left = visit(ctx.expr(0)); // get value of left subexpression
       JsonNode right = visit(ctx.expr(1)); // get value of right subexpression
+      if (left instanceof RopeTextNode) {
+         // append to the string being built
+         RopeTextNode rope = (RopeTextNode) left;
+         if (right instanceof RopeTextNode) {
+            return rope.append((RopeTextNode) right);
+         }
+         return rope.append(right == null ? "" : castString(right));
+      }
+      if (right instanceof RopeTextNode || keepsRope(ctx)) {
+         return RopeTextNode.concat(left == null ? "" : castString(left), right == null ? "" : castString(right));
+      }
+      return concat(left, right);
+   }
 
+   /**
+    * Concatenate the string values of the operands of the &amp; operator
+    */
+   static JsonNode concat(JsonNode left, JsonNode right) {
       String leftStr;
       String rightStr;
 
@@ -1030,88 +1658,21 @@ public class ExpressionsVisitor extends MappingExpressionBaseVisitor<JsonNode> {
       return BooleanUtils.convertJsonNodeToBoolean(cond) ? visit(ctx.expr(1)) : visit(ctx.expr(2));
    }
 
+   /**
+    * $.expr and $[expr] navigate the value of $ itself, so they select values
+    * of the input (which a transform may then change) rather than of a copy.
+    * $ of a value that is not an object or array selects nothing.
+    */
    @Override
    public JsonNode visitContext_ref(MappingExpressionParser.Context_refContext ctx) {
-      JsonNode result = null;
-      if (ctx.getChildCount() > 0) {
-         ParseTree child0 = ctx.getChild(0);
-         if (child0 instanceof TerminalNodeImpl) {
-            if (((TerminalNodeImpl) child0).symbol.getText().equals("$")) {
-               // replace first child with value of the rootContext
-               JsonNode context = variableMap.get("$");
-               CommonToken token = null;
-               ExprContext expr = null;
-               switch (context.getNodeType()) {
-               case BINARY:
-               case POJO: {
-                  break;
-               }
-               case ARRAY: {
-                  child0 = FunctionUtils.getArrayConstructorContext(ctx, (ArrayNode) context);
-                  ctx.children.set(0, child0);
-                  expr = new MappingExpressionParser.ArrayContext(ctx);
-                  for (int i = 0; i < ctx.children.size(); i++) {
-                     expr.children.add(ctx.children.get(i));
-                  }
-                  result = visit(expr);
-                  break;
-               }
-               case BOOLEAN: {
-                  token = (context.asBoolean()
-                        ? CommonTokenFactory.DEFAULT.create(MappingExpressionParser.TRUE, context.asText())
-                        : CommonTokenFactory.DEFAULT.create(MappingExpressionParser.FALSE, context.asText()));
-                  TerminalNodeImpl tn = new TerminalNodeImpl(token);
-                  BooleanContext nc = new MappingExpressionParser.BooleanContext(ctx);
-                  nc.addAnyChild(tn);
-                  child0 = nc;
-                  ctx.children.set(0, child0);
-                  result = visit(ctx);
-                  break;
-               }
-               case MISSING:
-               case NULL: {
-                  token = CommonTokenFactory.DEFAULT.create(MappingExpressionParser.NULL, null);
-                  TerminalNodeImpl tn = new TerminalNodeImpl(token);
-                  child0 = tn;
-                  ctx.children.set(0, child0);
-                  result = visit(ctx);
-                  break;
-               }
-               case NUMBER: {
-                  token = CommonTokenFactory.DEFAULT.create(MappingExpressionParser.NUMBER, context.asText());
-                  TerminalNodeImpl tn = new TerminalNodeImpl(token);
-                  child0 = tn;
-                  ctx.children.set(0, child0);
-                  result = visit(ctx);
-                  break;
-               }
-               case OBJECT: {
-                  child0 = FunctionUtils.getObjectConstructorContext(ctx, (ObjectNode) context);
-                  ctx.children.set(0, child0);
-                  expr = new MappingExpressionParser.PathContext(ctx);
-                  for (int i = 0; i < ctx.children.size(); i++) {
-                     expr.children.add(ctx.children.get(i));
-                  }
-                  result = visit(expr);
-                  break;
-               }
-               case STRING:
-               default: {
-                  token = CommonTokenFactory.DEFAULT.create(MappingExpressionParser.STRING, context.asText());
-                  TerminalNodeImpl tn = new TerminalNodeImpl(token);
-                  child0 = tn;
-                  ctx.children.set(0, child0);
-                  result = visit(ctx);
-                  break;
-               }
-               } // end switch
-                 // result = visit(expr);
-            }
-         } else {
-            result = visit(ctx);
-         }
+      JsonNode context = variableMap.get("$");
+      if (context == null || context.isContainerNode() == false) {
+         return null;
       }
-      return result;
+      if (ctx.ARR_OPEN() != null) {
+         return select(ctx, ensureArray(context), ctx.expr());
+      }
+      return pathResult(resolvePath(context, ctx.expr()));
    }
 
    @Override
@@ -1166,7 +1727,7 @@ public class ExpressionsVisitor extends MappingExpressionBaseVisitor<JsonNode> {
       TerminalNode varid = ctx.VAR_ID();
       if (varid != null) {
          // is this a known function reference?
-         Function function = Constants.FUNCTIONS.get(varid.getText());
+         Function function = getFunction(varid.getText());
          if (function != null) {
             Function_callContext callCtx = new Function_callContext(ctx);
             // note: callCtx.children should be empty unless carrying an
@@ -1202,11 +1763,166 @@ public class ExpressionsVisitor extends MappingExpressionBaseVisitor<JsonNode> {
          stack.push(visit(ctx.expr(0)));
          result = visit(ctx.expr(1));
          stack.pop();
+      } else if (exprObj instanceof Object_transformContext) {
+         result = transform((Object_transformContext) exprObj, visit(ctx.expr(0)));
       } else
          throw new EvaluateRuntimeException("Expected a function but got " + ctx.expr(1).getText());
       return result;
    }
 
+   /**
+    * A transform | pattern | update [, delete] | outside of a function chain is
+    * applied to the context value
+    */
+   @Override
+   public JsonNode visitObject_transform(Object_transformContext ctx) {
+      return transform(ctx, stack.isEmpty() ? null : stack.peek());
+   }
+
+   /**
+    * Apply a transform to a value. The result is a changed version of the value,
+    * which is itself left unchanged: the objects selected by the pattern (with
+    * the value as context and as $, nested arrays of matches flattened) are
+    * updated (their fields set to those of the object the update evaluates to
+    * with them as context) and have the fields named by the delete clause
+    * removed. Only the objects changed and their ancestors are copied, all
+    * other values are shared with the input (see {@link CopyOnWriteTree}).
+    * The path to each match is found from where the pattern selected it (see
+    * {@link #selectionParents}) rather than by searching the value. Objects
+    * selected by the pattern that it did not reach from the value (e.g.
+    * constructed by it) or that an earlier update has replaced are not changed.
+    * 
+    * @param ctx
+    *              the transform
+    * @param input
+    *              the value to transform
+    * @return the transformed value, or the input itself if nothing is changed
+    */
+   JsonNode transform(Object_transformContext ctx, JsonNode input) {
+      if (input == null) {
+         return null;
+      }
+      // the pattern is evaluated with the input as $, recording where it
+      // selects each container from
+      Map<JsonNode, List<Object[]>> parents = new IdentityHashMap<JsonNode, List<Object[]>>();
+      Map<JsonNode, List<Object[]>> outerParents = selectionParents;
+      JsonNode outerContext = variableMap.put("$", input);
+      selectionParents = parents;
+      stack.push(input);
+      JsonNode selected;
+      try {
+         if (input.isArray()) {
+            for (int i = 0; i < input.size(); i++) {
+               recordSelection(input, i, input.get(i));
+            }
+         }
+         selected = visit(ctx.expr(0));
+      } finally {
+         stack.pop();
+         selectionParents = outerParents;
+         if (outerContext == null) {
+            variableMap.remove("$");
+         } else {
+            variableMap.put("$", outerContext);
+         }
+      }
+      if (selected == null) {
+         return input;
+      }
+      ArrayNode matches = flatten(selected, null);
+      CopyOnWriteTree tree = new CopyOnWriteTree(input);
+      Map<JsonNode, List<Object[]>> paths = new IdentityHashMap<JsonNode, List<Object[]>>();
+      Map<JsonNode, Integer> used = new IdentityHashMap<JsonNode, Integer>();
+      ExprContext deleteCtx = ctx.expr().size() > 2 ? ctx.expr(2) : null;
+      for (JsonNode match : matches) {
+         // the n-th selection of a node is its n-th occurrence in the input
+         Object[] path = null;
+         List<Object[]> found = paths.get(match);
+         if (found == null && match.isObject()) {
+            found = new ArrayList<Object[]>(1);
+            selectionPaths(match, input, parents, new LinkedList<Object>(), found);
+            paths.put(match, found);
+         }
+         if (found != null && found.isEmpty() == false) {
+            Integer index = used.get(match);
+            index = index == null ? 0 : index;
+            used.put(match, index + 1);
+            path = found.get(Math.min(index, found.size() - 1));
+         }
+         JsonNode current = path == null ? null : tree.getAt(path);
+
+         stack.push(current == null ? match : current);
+         JsonNode update = visit(ctx.expr(1));
+         stack.pop();
+         if (update != null) {
+            if (update.isObject() == false) {
+               throw new EvaluateRuntimeException(String.format(Constants.ERR_MSG_TRANSFORM_UPDATE, update.toString()));
+            }
+            if (current != null && update.size() > 0) {
+               current = tree.editAt(path);
+               ((ObjectNode) current).setAll((ObjectNode) update);
+            }
+         }
+         if (deleteCtx != null) {
+            stack.push(current == null ? match : current);
+            JsonNode deletions = visit(deleteCtx);
+            stack.pop();
+            if (deletions != null) {
+               boolean strings = deletions.isTextual();
+               if (deletions.isArray()) {
+                  strings = true;
+                  for (JsonNode deletion : deletions) {
+                     strings &= deletion.isTextual();
+                  }
+               }
+               if (strings == false) {
+                  throw new EvaluateRuntimeException(
+                        String.format(Constants.ERR_MSG_TRANSFORM_DELETE, deletions.toString()));
+               }
+               for (JsonNode deletion : deletions.isArray() ? deletions : Collections.singletonList(deletions)) {
+                  if (current != null && current.has(deletion.asText())) {
+                     current = tree.editAt(path);
+                     ((ObjectNode) current).remove(deletion.asText());
+                  }
+               }
+            }
+         }
+      }
+      return tree.getRoot();
+   }
+
+   /**
+    * Find the paths from the input of a transform to a value its pattern
+    * selected, following the containers recorded as the value's parents
+    * 
+    * @param node
+    *                a selected value, or one of its ancestors
+    * @param input
+    *                the input of the transform
+    * @param parents
+    *                the containers each container was selected from
+    * @param steps
+    *                the steps from the node to the selected value
+    * @param found
+    *                receives the paths, in the order the value was reached
+    */
+   static void selectionPaths(JsonNode node, JsonNode input, Map<JsonNode, List<Object[]>> parents,
+         LinkedList<Object> steps, List<Object[]> found) {
+      if (node == input) {
+         found.add(steps.toArray());
+         return;
+      }
+      List<Object[]> links = parents.get(node);
+      if (links == null) {
+         return;
+      }
+      for (Object[] link : links) {
+         steps.addFirst(link[1]);
+         selectionPaths((JsonNode) link[0], input, parents, steps, found);
+         steps.removeFirst();
+      }
+   }
+
    @Override
    public JsonNode visitField_values(MappingExpressionParser.Field_valuesContext ctx) {
       ArrayNode resultArray = new ArrayNode(JsonNodeFactory.instance);
@@ -1222,7 +1938,11 @@ public class ExpressionsVisitor extends MappingExpressionBaseVisitor<JsonNode> {
          return null;
       }
       for (Iterator<String> it = ((ObjectNode) elt).fieldNames(); it.hasNext();) {
-         JsonNode value = ((ObjectNode) elt).get(it.next());
+         String key = it.next();
+         JsonNode value = ((ObjectNode) elt).get(key);
+         if (selectionParents != null) {
+            recordSelection(elt, key, value);
+         }
          if (value.isArray()) {
             value = flatten(value, null);
             // remove outer array
@@ -1273,6 +1993,7 @@ public class ExpressionsVisitor extends MappingExpressionBaseVisitor<JsonNode> {
          throw new EvaluateRuntimeException(String.format(Constants.ERR_MSG_ARG1_BAD_TYPE, Constants.FUNCTION_FILTER));
       }
       ArrayNode mapArray = (ArrayNode) arrayObj;
+      int limit = selectionLimit(ctx, nativeFunctions);
 
       ExprListContext fctBody = null;
       if (exprListContext.size() > (useContext ? 0 : 1)) {
@@ -1283,7 +2004,7 @@ public class ExpressionsVisitor extends MappingExpressionBaseVisitor<JsonNode> {
       TerminalNode varid = ctx.VAR_ID();
       if (varid != null) {
          // is this a known function reference?
-         Function function = Constants.FUNCTIONS.get(varid.getText());
+         Function function = getFunction(varid.getText());
          if (function != null) {
             for (int i = 0; i < mapArray.size(); i++) {
                Function_callContext callCtx = new Function_callContext(ctx);
@@ -1293,6 +2014,9 @@ public class ExpressionsVisitor extends MappingExpressionBaseVisitor<JsonNode> {
                JsonNode fctResult = FunctionUtils.processFctCallVariables(this, function, varid, callCtx, element);
                if (fctResult != null && fctResult.asBoolean()) {
                   resultArray.add(element);
+                  if (limit != NO_LIMIT && limitReached(limit, resultArray.size(), element)) {
+                     break;
+                  }
                }
             }
          } else {
@@ -1329,6 +2053,9 @@ public class ExpressionsVisitor extends MappingExpressionBaseVisitor<JsonNode> {
                JsonNode fctResult = fct.invoke(this, evc);
                if (fctResult != null && fctResult.asBoolean()) {
                   resultArray.add(element);
+                  if (limit != NO_LIMIT && limitReached(limit, resultArray.size(), element)) {
+                     break;
+                  }
                }
             }
          }
@@ -1362,6 +2089,9 @@ public class ExpressionsVisitor extends MappingExpressionBaseVisitor<JsonNode> {
             JsonNode fctResult = fct.invoke(this, evc);
             if (fctResult != null && fctResult.asBoolean()) {
                resultArray.add(element);
+               if (limit != NO_LIMIT && limitReached(limit, resultArray.size(), element)) {
+                  break;
+               }
             }
          }
       }
@@ -1373,7 +2103,7 @@ public class ExpressionsVisitor extends MappingExpressionBaseVisitor<JsonNode> {
       JsonNode result = null;
       String functionName = ctx.VAR_ID().getText();
 
-      Function function = Constants.FUNCTIONS.get(functionName);
+      Function function = getFunction(functionName);
       if (function != null) {
          result = function.invoke(this, ctx);
       } else {
@@ -1381,6 +2111,11 @@ public class ExpressionsVisitor extends MappingExpressionBaseVisitor<JsonNode> {
          if (declFct == null) {
             throw new EvaluateRuntimeException("Unknown function: " + functionName);
          }
+         if (functionBody != null && isTailCall(ctx)) {
+            tailCallArgs = declFct.evaluateArguments(this, ctx);
+            tailCallFunction = declFct;
+            return TAIL_CALL;
+         }
          result = declFct.invoke(this, ctx);
       }
       return result;
@@ -1453,6 +2188,9 @@ public class ExpressionsVisitor extends MappingExpressionBaseVisitor<JsonNode> {
          result = null;
       } else {
          result = context.get(id);
+         if (selectionParents != null) {
+            recordSelection(context, id, result);
+         }
       }
 
       result = unwrapArray(result);
@@ -1501,6 +2239,15 @@ public class ExpressionsVisitor extends MappingExpressionBaseVisitor<JsonNode> {
    @Override
    public JsonNode visitMap_function(MappingExpressionParser.Map_functionContext ctx) {
       ArrayNode resultArray = new ArrayNode(JsonNodeFactory.instance);
+      map(ctx, resultArray::add);
+      return resultArray;
+   }
+
+   /**
+    * Evaluate $map, passing the result of each call of the function (null if
+    * undefined) to the consumer as it is produced
+    */
+   void map(MappingExpressionParser.Map_functionContext ctx, Consumer<JsonNode> results) {
       // expect something that evaluates to an array and either a variable
       // pointing to a function, or a function declaration
       VarListContext varList = ctx.varList();
@@ -1528,14 +2275,14 @@ public class ExpressionsVisitor extends MappingExpressionBaseVisitor<JsonNode> {
       TerminalNode varid = ctx.VAR_ID();
       if (varid != null) {
          // is this a known function reference?
-         Function function = Constants.FUNCTIONS.get(varid.getText());
+         Function function = getFunction(varid.getText());
          if (function != null) {
             for (int i = 0; i < mapArray.size(); i++) {
                Function_callContext callCtx = new Function_callContext(ctx);
                // note: callCtx.children should be empty unless carrying an
                // exception
                JsonNode element = mapArray.get(i);
-               resultArray.add(FunctionUtils.processFctCallVariables(this, function, varid, callCtx, element));
+               results.accept(FunctionUtils.processFctCallVariables(this, function, varid, callCtx, element));
             }
          } else {
             // get the function to be executed from the functionMap and execute
@@ -1568,7 +2315,7 @@ public class ExpressionsVisitor extends MappingExpressionBaseVisitor<JsonNode> {
                   break;
                }
                }
-               resultArray.add(fct.invoke(this, evc));
+               results.accept(fct.invoke(this, evc));
             }
          }
       } else {
@@ -1598,10 +2345,9 @@ public class ExpressionsVisitor extends MappingExpressionBaseVisitor<JsonNode> {
                break;
             }
             }
-            resultArray.add(fct.invoke(this, evc));
+            results.accept(fct.invoke(this, evc));
          }
       }
-      return resultArray;
    }
 
    @Override
@@ -1617,6 +2363,14 @@ public class ExpressionsVisitor extends MappingExpressionBaseVisitor<JsonNode> {
       // If the RHS is a single value, then it is treated as a singleton array.
       right = ensureArray(right);
 
+      if (right.size() >= MEMBERSHIP_INDEX_SIZE && right instanceof SelectorArrayNode == false
+            && isMembershipKey(left) && isStableArray(ctx.expr(1))) {
+         Set<JsonHashUtils.Key> index = membershipIndex(right);
+         if (index != null) {
+            return index.contains(new JsonHashUtils.Key(left)) ? BooleanNode.TRUE : BooleanNode.FALSE;
+         }
+      }
+
       BooleanNode result = BooleanNode.FALSE;
       Iterator<JsonNode> elements = right.elements();
       while (elements.hasNext()) {
@@ -1634,47 +2388,112 @@ public class ExpressionsVisitor extends MappingExpressionBaseVisitor<JsonNode> {
       return result;
    }
 
-   @Override
-   public JsonNode visitMuldiv_op(MappingExpressionParser.Muldiv_opContext ctx) {
+   /**
+    * Smallest array the in operator looks up in a hash set of its members
+    * rather than by comparing each member
+    */
+   static final int MEMBERSHIP_INDEX_SIZE = 16;
 
-      JsonNode leftNode = visit(ctx.expr(0)); // get value of left subexpression
-      JsonNode rightNode = visit(ctx.expr(1)); // get value of right
-      // subexpression
+   /**
+    * Most arrays remembered by {@link #membershipIndexes}. When more are
+    * searched the map is cleared, so its memory stays bounded.
+    */
+   static final int MEMBERSHIP_INDEX_LIMIT = 64;
 
-      // in all cases, if either are *no match*, JSONata returns *no match*
-      if (leftNode == null || rightNode == null) {
-         return null;
-      }
+   /**
+    * Arrays searched by the in operator during the evaluation: Boolean.FALSE
+    * once searched, then the hash set of their members (Boolean.TRUE if they
+    * have members that cannot be hashed consistently with the = operator).
+    * Only arrays that {@link #isStableArray(ParseTree)} selects are kept.
+    */
+   Map<JsonNode, Object> membershipIndexes = null;
 
-      if (!leftNode.isNumber() || !rightNode.isNumber()) {
-         throw new EvaluateRuntimeException(ctx.op.getText() + " expects two numeric arguments");
+   /**
+    * @return whether the right hand side of an in operator yields the same
+    *         array each time it is evaluated, so an index of its members can
+    *         be used again: a variable, or a path of field names (optionally
+    *         from $ or $$). Other expressions, e.g. ranges, constructors,
+    *         filters and function calls, build a new array each time.
+    */
+   static boolean isStableArray(ParseTree expr) {
+      while (expr instanceof MappingExpressionParser.ParensContext
+            && ((MappingExpressionParser.ParensContext) expr).expr().size() == 1) {
+         expr = ((MappingExpressionParser.ParensContext) expr).expr(0);
       }
+      if (expr instanceof MappingExpressionParser.Var_recallContext || expr instanceof IdContext) {
+         return true;
+      }
+      if (expr instanceof PathContext) {
+         return isStableArray(((PathContext) expr).expr(0)) && isStableArray(((PathContext) expr).expr(1));
+      }
+      if (expr instanceof Root_pathContext) {
+         return isStableArray(((Root_pathContext) expr).expr());
+      }
+      if (expr instanceof MappingExpressionParser.Context_refContext) {
+         return ((MappingExpressionParser.Context_refContext) expr).ARR_OPEN() == null
+               && isStableArray(((MappingExpressionParser.Context_refContext) expr).expr());
+      }
+      return false;
+   }
 
-      // treat both inputs as doubles when performing arithmetic operations
-      double left = leftNode.asDouble();
-      double right = rightNode.asDouble();
-
-      final double result;
+   /**
+    * @return whether the value can be looked up in a membership index: a
+    *         string, boolean, null or integer the = operator compares exactly
+    *         as {@link JsonHashUtils#deepEquals(JsonNode, JsonNode)} does
+    *         (it compares a floating point number to any value by their
+    *         double values, so e.g. 1.0 = true)
+    */
+   static boolean isMembershipKey(JsonNode value) {
+      return value.isFloatingPointNumber() == false && JsonHashUtils.isScalarKey(value);
+   }
 
-      if (ctx.op.getType() == MappingExpressionParser.MUL) {
-         result = left * right;
-      } else if (ctx.op.getType() == MappingExpressionParser.DIV) {
-         result = left / right;
-      } else if (ctx.op.getType() == MappingExpressionParser.REM) {
-         result = left % right;
-      } else {
-         // should never happen (this expression should not have parsed in the
-         // first place)
-         throw new EvaluateRuntimeException("Unrecognised token " + ctx.op.getText());
+   /**
+    * @return the hash set of the strings, integers, booleans and nulls of the
+    *         array (its arrays and objects are never equal to anything), built
+    *         the second time the array is searched, or null if the array should
+    *         be searched by comparing each member. Arrays are not changed while
+    *         an expression is evaluated, so the set stays valid.
+    */
+   @SuppressWarnings("unchecked")
+   Set<JsonHashUtils.Key> membershipIndex(JsonNode array) {
+      if (membershipIndexes == null) {
+         membershipIndexes = new IdentityHashMap<JsonNode, Object>();
+      }
+      Object index = membershipIndexes.get(array);
+      if (index == null) {
+         if (membershipIndexes.size() >= MEMBERSHIP_INDEX_LIMIT) {
+            membershipIndexes.clear();
+         }
+         // a single search costs no more than building the set
+         membershipIndexes.put(array, Boolean.FALSE);
+         return null;
       }
-
-      // coerce the result to a long iff the result is exactly .0
-      if (isWholeNumber(result)) {
-         return new LongNode((long) result);
-      } else {
-         return new DoubleNode(result);
+      if (index == Boolean.FALSE) {
+         Set<JsonHashUtils.Key> keys = new HashSet<JsonHashUtils.Key>(array.size() * 2);
+         for (int i = 0; i < array.size(); i++) {
+            JsonNode element = array.get(i);
+            if (element.isContainerNode()) {
+               continue;
+            }
+            if (isMembershipKey(element) == false) {
+               membershipIndexes.put(array, Boolean.TRUE);
+               return null;
+            }
+            keys.add(new JsonHashUtils.Key(element));
+         }
+         membershipIndexes.put(array, keys);
+         return keys;
       }
+      return index == Boolean.TRUE ? null : (Set<JsonHashUtils.Key>) index;
+   }
+
+   @Override
+   public JsonNode visitMuldiv_op(MappingExpressionParser.Muldiv_opContext ctx) {
 
+      JsonNode leftNode = visit(ctx.expr(0)); // get value of left subexpression
+      JsonNode rightNode = visit(ctx.expr(1)); // get value of right
+      // subexpression
+      return arithmetic(ctx.op, leftNode, rightNode);
    }
 
    @Override
@@ -1692,9 +2511,124 @@ public class ExpressionsVisitor extends MappingExpressionBaseVisitor<JsonNode> {
        * NumberUtils::convertNumberToValueNode will check whether the number is within
        * the valid range and throw a suitable exception if it is not.
        */
+      if (literals != null) {
+         JsonNode literal = literals.get(ctx);
+         if (literal != null) {
+            return literal;
+         }
+      }
       return NumberUtils.convertNumberToValueNode(ctx.NUMBER().getText());
    }
 
+   /**
+    * Values of the number literals of a parse tree keyed by their nodes (see
+    * {@link #compileLiterals(ParseTree)}), null when literals are converted as
+    * they are visited
+    */
+   Map<ParseTree, JsonNode> literals = null;
+
+   public Map<ParseTree, JsonNode> getLiterals() {
+      return literals;
+   }
+
+   public void setLiterals(Map<ParseTree, JsonNode> literals) {
+      this.literals = literals;
+   }
+
+   /**
+    * How the calls of built in typed functions in the parse tree pass their
+    * arguments, keyed by the calls (see {@link #compileCallShapes(ParseTree)}),
+    * null when this is decided at each call
+    */
+   Map<ParseTree, FunctionSignature.CallShape> callShapes = null;
+
+   public Map<ParseTree, FunctionSignature.CallShape> getCallShapes() {
+      return callShapes;
+   }
+
+   public void setCallShapes(Map<ParseTree, FunctionSignature.CallShape> callShapes) {
+      this.callShapes = callShapes;
+   }
+
+   /**
+    * @param ctx
+    *                  a call of a typed function
+    * @param signature
+    *                  the signature of the function the call is made to
+    * @return how the call passes its arguments: the shape decided when the
+    *         expression was parsed, unless the name is now bound to a function
+    *         with another signature
+    */
+   public FunctionSignature.CallShape getCallShape(Function_callContext ctx, FunctionSignature signature) {
+      if (callShapes != null) {
+         FunctionSignature.CallShape shape = callShapes.get(ctx);
+         if (shape != null && shape.getSignature() == signature) {
+            return shape;
+         }
+      }
+      return signature.getCallShape(ctx);
+   }
+
+   /**
+    * Decide once how the calls of built in typed functions in a parse tree pass
+    * their arguments, so evaluations of the tree look the decision up
+    * 
+    * @param tree
+    *             the parsed expression
+    * @return the shapes of the calls keyed by their nodes, or null if the tree
+    *         has none
+    */
+   public static Map<ParseTree, FunctionSignature.CallShape> compileCallShapes(ParseTree tree) {
+      Map<ParseTree, FunctionSignature.CallShape> shapes = new IdentityHashMap<ParseTree, FunctionSignature.CallShape>();
+      compileCallShapes(tree, shapes);
+      return shapes.isEmpty() ? null : shapes;
+   }
+
+   static void compileCallShapes(ParseTree tree, Map<ParseTree, FunctionSignature.CallShape> shapes) {
+      if (tree instanceof Function_callContext) {
+         Function function = Constants.FUNCTIONS.get(((Function_callContext) tree).VAR_ID().getText());
+         if (function instanceof TypedFunction) {
+            shapes.put(tree,
+                  ((TypedFunction) function).getFunctionSignature().getCallShape((Function_callContext) tree));
+         }
+      }
+      for (int i = 0; i < tree.getChildCount(); i++) {
+         compileCallShapes(tree.getChild(i), shapes);
+      }
+   }
+
+   /**
+    * Convert the number literals of a parse tree once, so evaluations of the
+    * tree look their values up rather than converting their text each time
+    * they are visited. Literals out of range are left out, to fail when they
+    * are evaluated.
+    * 
+    * @param tree
+    *             the parsed expression
+    * @return the values of the literals keyed by their nodes, or null if the
+    *         tree has none
+    */
+   public static Map<ParseTree, JsonNode> compileLiterals(ParseTree tree) {
+      Map<ParseTree, JsonNode> literals = new IdentityHashMap<ParseTree, JsonNode>();
+      compileLiterals(tree, literals);
+      return literals.isEmpty() ? null : literals;
+   }
+
+   static void compileLiterals(ParseTree tree, Map<ParseTree, JsonNode> literals) {
+      if (tree instanceof MappingExpressionParser.NumberContext) {
+         try {
+            literals.put(tree,
+                  NumberUtils.convertNumberToValueNode(((MappingExpressionParser.NumberContext) tree).NUMBER().getText()));
+         } catch (EvaluateRuntimeException e) {
+            // reported when the literal is evaluated
+         }
+         return;
+      }
+      for (int i = 0; i < tree.getChildCount(); i++) {
+         compileLiterals(tree.getChild(i), literals);
+      }
+   }
+
    // @Override
    // public JsonNode
    // visitExprOrSeqList(MappingExpressionParser.ExprOrSeqListContext ctx) {
@@ -1805,7 +2739,23 @@ public class ExpressionsVisitor extends MappingExpressionBaseVisitor<JsonNode> {
 
       // flattenOutput = true;
 
-      /* final */ JsonNode lhs = visit(lhsCtx);
+      JsonNode lhs = pathEntry(visit(lhsCtx));
+      if (lhs == null) {
+         return null;
+      }
+
+      JsonNode result = pathResult(resolvePath(lhs, rhsCtx));
+
+      if (LOG.isLoggable(Level.FINEST))
+         LOG.exiting(CLASS, METHOD, result);
+      return result;
+   }
+
+   /**
+    * @return the value of the left hand side of a path as the input of its
+    *         right hand side, or null if the path has no match
+    */
+   static JsonNode pathEntry(JsonNode lhs) {
       if (lhs == null || lhs.isNull()) {
          return null; // throw new
                       // EvaluateRuntimeException(String.format(Constants.ERR_MSG_INVALID_PATH_ENTRY,"null"));
@@ -1813,20 +2763,23 @@ public class ExpressionsVisitor extends MappingExpressionBaseVisitor<JsonNode> {
       // reject path entries that are numbers or values
       switch (lhs.getNodeType()) {
       case NUMBER: {
-         lhs = factory.textNode(lhs.asText());
-         break;
+         return JsonNodeFactory.instance.textNode(lhs.asText());
       }
       case BOOLEAN:
       case NULL: {
          throw new EvaluateRuntimeException(String.format(Constants.ERR_MSG_INVALID_PATH_ENTRY, lhs.toString()));
       }
       default: {
-         break;
+         return lhs;
       }
       }
+   }
 
-      JsonNode rhs = resolvePath(lhs, rhsCtx);
-
+   /**
+    * @return the result of a path given the values selected by its right hand
+    *         side
+    */
+   static JsonNode pathResult(JsonNode rhs) {
       JsonNode result;
       if (rhs == null) { // okay to return NullNode here so don't test "|| rhs.isNull()"
          result = null;
@@ -1844,11 +2797,7 @@ public class ExpressionsVisitor extends MappingExpressionBaseVisitor<JsonNode> {
       // {"a": [[1]]}.a==1
       // {"a": [[[1]]]}.a==[1]
       // (the other level of flattening is performed on the return of visitId())
-      result = unwrapArray(result);
-
-      if (LOG.isLoggable(Level.FINEST))
-         LOG.exiting(CLASS, METHOD, result);
-      return result;
+      return unwrapArray(result);
    }
 
    /*
@@ -1896,7 +2845,7 @@ public class ExpressionsVisitor extends MappingExpressionBaseVisitor<JsonNode> {
       TerminalNode varid = ctx.VAR_ID();
       if (varid != null) {
          // is this a known function reference?
-         Function function = Constants.FUNCTIONS.get(varid.getText());
+         Function function = getFunction(varid.getText());
          if (function != null) {
             for (int i = startIndex; i < mapArray.size(); i++) {
                Function_callContext callCtx = new Function_callContext(ctx);
@@ -1913,28 +2862,35 @@ public class ExpressionsVisitor extends MappingExpressionBaseVisitor<JsonNode> {
                throw new EvaluateRuntimeException(
                      "Expected function variable reference " + varid.getText() + " to resolve to a declared function.");
             }
-            for (int i = startIndex; i < mapArray.size(); i++) {
-               JsonNode element = mapArray.get(i);
-               ExprValuesContext evc = new ExprValuesContext(ctx, ctx.invokingState);
-               evc = FunctionUtils.fillExprVarContext(ctx, prevResult, element);
-               prevResult = fct.invoke(this, evc);
-            }
+            prevResult = reduce(fct, mapArray, startIndex, prevResult);
          }
       } else {
          // we have a declared function for mapping
          DeclaredFunction fct = new DeclaredFunction(varList, fctBody);
-         for (int i = startIndex; i < mapArray.size(); i++) {
-            JsonNode element = mapArray.get(i);
-            ExprValuesContext evc = new ExprValuesContext(ctx, ctx.invokingState);
-            evc = FunctionUtils.fillExprVarContext(ctx, prevResult, element);
-            prevResult = fct.invoke(this, evc);
-         }
+         prevResult = reduce(fct, mapArray, startIndex, prevResult);
       }
       result = prevResult;
       return result;
 
    }
 
+   /**
+    * Call the declared function of a $reduce with the result of the previous
+    * call and each element of the array from startIndex. The values are bound
+    * to the function's variables as they are, so a string accumulated by
+    * concatenation stays a {@link RopeTextNode} from one call to the next.
+    */
+   JsonNode reduce(DeclaredFunction fct, ArrayNode array, int startIndex, JsonNode init) {
+      JsonNode prevResult = init;
+      if (startIndex < array.size()) {
+         fct.checkArgumentCount(2);
+      }
+      for (int i = startIndex; i < array.size(); i++) {
+         prevResult = call(fct, new JsonNode[] { prevResult, array.get(i) });
+      }
+      return prevResult;
+   }
+
    @Override
    public JsonNode visitRoot_path(Root_pathContext ctx) {
       final String METHOD = "visitRoot_path";
@@ -2028,7 +2984,7 @@ public class ExpressionsVisitor extends MappingExpressionBaseVisitor<JsonNode> {
       TerminalNode varid = ctx.VAR_ID();
       if (varid != null) {
          // is this a known function reference?
-         Function function = Constants.FUNCTIONS.get(varid.getText());
+         Function function = getFunction(varid.getText());
          JsonNode fctResult = null;
          if (function != null) {
             for (Iterator<String> it = object.fieldNames(); it.hasNext();) {
@@ -2147,25 +3103,30 @@ public class ExpressionsVisitor extends MappingExpressionBaseVisitor<JsonNode> {
 
    @Override
    public JsonNode visitUnary_op(MappingExpressionParser.Unary_opContext ctx) {
-      JsonNode result = null;
       JsonNode operand = visit(ctx.expr());
 
       if (ctx.op.getType() == MappingExpressionParser.SUB) {
+         return negate(operand);
+      }
+      // cannot happen (expression will not have parsed)
+      return null;
+   }
 
-         if (operand == null) {
-            return null; // NOTE: Javascript JSONata engine actually throws an
-                         // exception here (but it shouldn't.. this is a bug in
-                         // that engine that will be fixed)
-         } else if (operand.isFloatingPointNumber()) {
-            result = new DoubleNode(-operand.asDouble());
-         } else if (operand.isIntegralNumber()) {
-            result = new LongNode(-operand.asLong());
-         } else {
-            throw new EvaluateRuntimeException(ERR_NEGATE_NON_NUMERIC);
-         }
+   /**
+    * Negate the value of the operand of the unary - operator
+    */
+   static JsonNode negate(JsonNode operand) {
+      JsonNode result = null;
+      if (operand == null) {
+         return null; // NOTE: Javascript JSONata engine actually throws an
+                      // exception here (but it shouldn't.. this is a bug in
+                      // that engine that will be fixed)
+      } else if (operand.isFloatingPointNumber()) {
+         result = new DoubleNode(-operand.asDouble());
+      } else if (operand.isIntegralNumber()) {
+         result = new LongNode(-operand.asLong());
       } else {
-         // cannot happen (expression will not have parsed)
-         result = null;
+         throw new EvaluateRuntimeException(ERR_NEGATE_NON_NUMERIC);
       }
 
       return result;
@@ -2186,7 +3147,7 @@ public class ExpressionsVisitor extends MappingExpressionBaseVisitor<JsonNode> {
          this.functionMap.put(varName, fct);
       } else {
          result = visit(expr);
-         this.variableMap.put(varName, result);
+         assignLocal(varName, result);
       }
       return result;
    }
@@ -2195,7 +3156,9 @@ public class ExpressionsVisitor extends MappingExpressionBaseVisitor<JsonNode> {
    public JsonNode visitVar_recall(MappingExpressionParser.Var_recallContext ctx) {
       final String varName = ctx.getText();
       JsonNode result = this.variableMap.get(varName);
-      if (result == null) {
+      // a variable bound to undefined (e.g. a parameter without a value) is
+      // undefined, only one never bound is an error
+      if (result == null && this.variableMap.containsKey(varName) == false) {
          throw new EvaluateRuntimeException(varName + " is unknown (e.g., unassigned variable)");
       }
       return result;
@@ -0,0 +1,221 @@
+/**
+ * (c) Copyright 2018, 2019 IBM Corporation
+ * 1 New Orchard Road,
+ * Armonk, New York, 10504-1722
+ * United States
+ * +1 914 499 1900
+ * support: Nathaniel Mills wnm3@us.ibm.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.api.jsonata4java.expressions;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.List;
+
+import org.antlr.v4.runtime.tree.ParseTree;
+
+import com.api.jsonata4java.expressions.generated.MappingExpressionParser;
+import com.api.jsonata4java.expressions.generated.MappingExpressionParser.ExprContext;
+import com.api.jsonata4java.expressions.generated.MappingExpressionParser.ExprOrSeqContext;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Writes the result of an expression to a JsonGenerator as it is produced,
+ * rather than building the whole result before it is serialized. The members
+ * of the arrays produced by $map, by paths over arrays and by array
+ * constructors (also as the last expression of a block, or nested in one
+ * another) are written one at a time, so only one member is held at a time.
+ * Any other value is evaluated as usual and then written.
+ * <p>
+ * The output is the serialization of the value the expression evaluates to.
+ * If the evaluation fails part way, the output written so far is
+ * incomplete.
+ */
+public class ResultWriter {
+
+   // writes trees to generators that have no codec of their own
+   static final ObjectMapper MAPPER = new ObjectMapper();
+
+   final ExpressionsVisitor _visitor;
+   final JsonGenerator _generator;
+
+   /**
+    * @param visitor
+    *                  the visitor holding the context and the bindings of the
+    *                  evaluation
+    * @param generator
+    *                  the generator receiving the result
+    */
+   public ResultWriter(ExpressionsVisitor visitor, JsonGenerator generator) {
+      _visitor = visitor;
+      _generator = generator;
+   }
+
+   /**
+    * Evaluate the expression writing its result
+    * 
+    * @param tree
+    *             the parse tree of the expression
+    * @return whether the expression had a result. Nothing is written if it
+    *         was undefined.
+    * @throws IOException
+    *                     if the generator fails
+    */
+   public boolean write(ParseTree tree) throws IOException {
+      try {
+         return writeValue(tree);
+      } catch (UncheckedIOException e) {
+         throw e.getCause();
+      }
+   }
+
+   boolean writeValue(ParseTree tree) throws IOException {
+      if (tree instanceof MappingExpressionParser.Map_functionContext
+            && ((MappingExpressionParser.Map_functionContext) tree)
+                  .getParent() instanceof MappingExpressionParser.Fct_chainContext == false
+            && ((MappingExpressionParser.Map_functionContext) tree)
+                  .getParent() instanceof MappingExpressionParser.PathContext == false) {
+         // $map of the context (in a chain or path, see visitMap_function) is
+         // left to the visitor
+         _generator.writeStartArray();
+         _visitor.map((MappingExpressionParser.Map_functionContext) tree, this::writeMember);
+         _generator.writeEndArray();
+         return true;
+      }
+      if (tree instanceof MappingExpressionParser.Array_constructorContext) {
+         writeArray((MappingExpressionParser.Array_constructorContext) tree);
+         return true;
+      }
+      if (tree instanceof MappingExpressionParser.PathContext) {
+         return writePath((MappingExpressionParser.PathContext) tree);
+      }
+      if (tree instanceof MappingExpressionParser.ParensContext) {
+         // the value of a block is that of its last expression
+         List<ExprContext> expressions = ((MappingExpressionParser.ParensContext) tree).expr();
+         for (int i = 0; i < expressions.size() - 1; i++) {
+            _visitor.visit(expressions.get(i));
+         }
+         return writeValue(expressions.get(expressions.size() - 1));
+      }
+      JsonNode value = _visitor.visit(tree);
+      if (value == null) {
+         return false;
+      }
+      writeTree(value);
+      return true;
+   }
+
+   void writeTree(JsonNode value) throws IOException {
+      MAPPER.writeTree(_generator, value);
+   }
+
+   /**
+    * Write a member of an array, undefined being written as null
+    */
+   void writeMember(JsonNode value) {
+      try {
+         if (value == null) {
+            _generator.writeNull();
+         } else {
+            writeTree(value);
+         }
+      } catch (IOException e) {
+         throw new UncheckedIOException(e);
+      }
+   }
+
+   /**
+    * Write an array constructor (see visitArray_constructor)
+    */
+   void writeArray(MappingExpressionParser.Array_constructorContext ctx) throws IOException {
+      _generator.writeStartArray();
+      if (ctx.exprOrSeqList() != null) {
+         for (ExprOrSeqContext expr : ctx.exprOrSeqList().exprOrSeq()) {
+            if (expr.seq() == null) {
+               if (writeValue(expr.expr()) == false) {
+                  _generator.writeNull();
+               }
+            } else {
+               // a range is added member by member, and is empty if undefined
+               JsonNode seq = _visitor.visit(expr);
+               if (seq != null) {
+                  for (JsonNode member : seq) {
+                     writeTree(member);
+                  }
+               }
+            }
+         }
+      }
+      _generator.writeEndArray();
+   }
+
+   /**
+    * Write a path (see visitPath). Its right hand side is evaluated for each
+    * member of an array on its left hand side. The values are written as they
+    * are selected, once a second one shows that the result is an array.
+    */
+   boolean writePath(MappingExpressionParser.PathContext ctx) throws IOException {
+      JsonNode lhs = ExpressionsVisitor.pathEntry(_visitor.visit(ctx.expr(0)));
+      if (lhs == null) {
+         return false;
+      }
+      if (lhs.isArray() == false) {
+         JsonNode value = ExpressionsVisitor.pathResult(_visitor.resolvePath(lhs, ctx.expr(1)));
+         if (value == null) {
+            return false;
+         }
+         writeTree(value);
+         return true;
+      }
+      JsonNode first = null;
+      long count = 0L;
+      for (JsonNode lhsE : lhs) {
+         JsonNode rhsE = _visitor.resolvePath(lhsE, ctx.expr(1));
+         if (rhsE == null) {
+            continue;
+         }
+         // the values of each member are flattened into the result (see
+         // SelectorArrayNode.addAsSelectionGroup)
+         for (JsonNode value : rhsE.isArray() ? rhsE : Collections.singletonList(rhsE)) {
+            if (count == 0L) {
+               first = value;
+            } else {
+               if (count == 1L) {
+                  _generator.writeStartArray();
+                  writeTree(first);
+                  first = null;
+               }
+               writeTree(value);
+            }
+            count++;
+         }
+      }
+      if (count == 0L) {
+         return false;
+      }
+      if (count == 1L) {
+         // a single value is not an array (see pathResult)
+         writeTree(first);
+      } else {
+         _generator.writeEndArray();
+      }
+      return true;
+   }
+}
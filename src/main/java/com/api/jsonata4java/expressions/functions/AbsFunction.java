@@ -22,16 +22,11 @@
 
 package com.api.jsonata4java.expressions.functions;
 
-import com.api.jsonata4java.expressions.EvaluateRuntimeException;
-import com.api.jsonata4java.expressions.ExpressionsVisitor;
-import com.api.jsonata4java.expressions.generated.MappingExpressionParser.Function_callContext;
 import com.api.jsonata4java.expressions.utils.Constants;
-import com.api.jsonata4java.expressions.utils.FunctionUtils;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.DoubleNode;
 import com.fasterxml.jackson.databind.node.FloatNode;
 import com.fasterxml.jackson.databind.node.IntNode;
-import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.LongNode;
 
 /**
@@ -50,61 +45,29 @@ import com.fasterxml.jackson.databind.node.LongNode;
  * $abs(5)==5 $abs(-5)==5
  * 
  */
-public class AbsFunction extends FunctionBase implements Function {
+public class AbsFunction extends TypedFunction {
 
 	public static String ERR_BAD_CONTEXT = String.format(Constants.ERR_MSG_BAD_CONTEXT, Constants.FUNCTION_ABS);
 	public static String ERR_ARG1BADTYPE = String.format(Constants.ERR_MSG_ARG1_BAD_TYPE, Constants.FUNCTION_ABS);
 	public static String ERR_ARG2BADTYPE = String.format(Constants.ERR_MSG_ARG2_BAD_TYPE, Constants.FUNCTION_ABS);
 
-	public JsonNode invoke(ExpressionsVisitor expressionVisitor, Function_callContext ctx) {
-		// Create the variable to return
-		JsonNode result = null;
-
-		// Retrieve the number of arguments
-		JsonNode argNumber = JsonNodeFactory.instance.nullNode();
-		boolean useContext = FunctionUtils.useContextVariable(ctx, getSignature());
-		int argCount = getArgumentCount(ctx);
-		if (useContext) {
-			argNumber = FunctionUtils.getContextVariable(expressionVisitor);
-			if (argNumber == null) {
-				return null;
-			}
-			if (!argNumber.isNumber()) {
-				throw new EvaluateRuntimeException(ERR_ARG1BADTYPE);
-			}
-			argCount++;
+	@Override
+	public JsonNode call(JsonNode[] args) {
+		// the signature has been checked: the argument is a number or absent
+		JsonNode argNumber = args[0];
+		if (argNumber == null) {
+			return null;
 		}
-
-		// Make sure that we have the right number of arguments
-		if (argCount == 1) {
-			if (!useContext) {
-				argNumber = FunctionUtils.getValuesListExpression(expressionVisitor, ctx, 0);
-			}
-			if (argNumber != null) {
-				// Check the type of the argument
-				if (argNumber.isNumber()) {
-					if (argNumber.isInt()) {
-						int number = argNumber.intValue();
-						result = new IntNode(Math.abs(number));
-					} else if (argNumber.isLong()) {
-						long number = argNumber.longValue();
-						result = new LongNode(Math.abs(number));
-					} else if (argNumber.isFloat()) {
-						float number = argNumber.floatValue();
-						result = new FloatNode(Math.abs(number));
-					} else if (argNumber.isDouble()) {
-						double number = argNumber.doubleValue();
-						result = new DoubleNode(Math.abs(number));
-					}
-				} else {
-					throw new EvaluateRuntimeException(ERR_ARG1BADTYPE);
-				}
-			}
-		} else {
-			throw new EvaluateRuntimeException(argCount == 0 ? ERR_BAD_CONTEXT : ERR_ARG2BADTYPE);
+		if (argNumber.isInt()) {
+			return new IntNode(Math.abs(argNumber.intValue()));
+		} else if (argNumber.isLong()) {
+			return new LongNode(Math.abs(argNumber.longValue()));
+		} else if (argNumber.isFloat()) {
+			return new FloatNode(Math.abs(argNumber.floatValue()));
+		} else if (argNumber.isDouble()) {
+			return new DoubleNode(Math.abs(argNumber.doubleValue()));
 		}
-
-		return result;
+		return null;
 	}
 
 	@Override
@@ -22,13 +22,8 @@
 
 package com.api.jsonata4java.expressions.functions;
 
-import com.api.jsonata4java.expressions.EvaluateRuntimeException;
-import com.api.jsonata4java.expressions.ExpressionsVisitor;
-import com.api.jsonata4java.expressions.generated.MappingExpressionParser.Function_callContext;
 import com.api.jsonata4java.expressions.utils.Constants;
-import com.api.jsonata4java.expressions.utils.FunctionUtils;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.LongNode;
 
 /**
@@ -47,58 +42,25 @@ import com.fasterxml.jackson.databind.node.LongNode;
  * $ceil(5)==5 $ceil(5.3)==6 $ceil(5.8)==6 $ceil(-5.3)==-5
  * 
  */
-public class CeilFunction extends FunctionBase implements Function {
+public class CeilFunction extends TypedFunction {
 
 	public static String ERR_BAD_CONTEXT = String.format(Constants.ERR_MSG_BAD_CONTEXT, Constants.FUNCTION_CEIL);
 	public static String ERR_ARG1BADTYPE = String.format(Constants.ERR_MSG_ARG1_BAD_TYPE, Constants.FUNCTION_CEIL);
 	public static String ERR_ARG2BADTYPE = String.format(Constants.ERR_MSG_ARG2_BAD_TYPE, Constants.FUNCTION_CEIL);
 
-	public JsonNode invoke(ExpressionsVisitor expressionVisitor, Function_callContext ctx) {
-		// Create the variable to return
-		JsonNode result = null;
-
-		// Retrieve the number of arguments
-		JsonNode argNumber = JsonNodeFactory.instance.nullNode();
-		boolean useContext = FunctionUtils.useContextVariable(ctx, getSignature());
-		int argCount = getArgumentCount(ctx);
-		if (useContext) {
-			argNumber = FunctionUtils.getContextVariable(expressionVisitor);
-			if (argNumber == null) {
-				return null;
-			}
-			if (!argNumber.isNumber()) {
-				throw new EvaluateRuntimeException(ERR_BAD_CONTEXT);
-			}
-			argCount++;
+	@Override
+	public JsonNode call(JsonNode[] args) {
+		// the signature has been checked: the argument is a number or absent
+		JsonNode argNumber = args[0];
+		if (argNumber == null) {
+			return null;
 		}
-
-		// Make sure that we have the right number of arguments
-		if (argCount == 1) {
-			if (!useContext) {
-				argNumber = FunctionUtils.getValuesListExpression(expressionVisitor, ctx, 0);
-			}
-			if (argNumber != null) {
-				if (argNumber.isNumber()) {
-					if (!argNumber.isIntegralNumber()) {
-						// Math.ceil only accepts a double
-						double ceil = Math.ceil(argNumber.doubleValue());
-
-						// Create the node to return
-						result = new LongNode((long) ceil);
-					} else {
-						// The argument is already an integer... simply return the
-						// node
-						result = argNumber;
-					}
-				} else {
-					throw new EvaluateRuntimeException(ERR_ARG1BADTYPE);
-				}
-			}
-		} else {
-			throw new EvaluateRuntimeException(argCount == 0 ? ERR_BAD_CONTEXT : ERR_ARG2BADTYPE);
+		if (!argNumber.isIntegralNumber()) {
+			// Math.ceil only accepts a double
+			return new LongNode((long) Math.ceil(argNumber.doubleValue()));
 		}
-
-		return result;
+		// The argument is already an integer... simply return the node
+		return argNumber;
 	}
 
 	@Override
@@ -40,6 +40,8 @@ import com.fasterxml.jackson.databind.JsonNode;
 
 public class DeclaredFunction {
 
+	static final JsonNode[] NO_VALUES = new JsonNode[0];
+
 	VarListContext _varList;
 	ExprListContext _exprList;
 
@@ -71,44 +73,55 @@ public class DeclaredFunction {
 	}
 
 	public JsonNode invoke(ExpressionsVisitor expressionVisitor, ParserRuleContext ruleValues) {
-		JsonNode result = null;
+		return expressionVisitor.invoke(this, evaluateArguments(expressionVisitor, ruleValues));
+	}
+
+	/**
+	 * Evaluate the values to be assigned to the function's variables. All values
+	 * are evaluated before any variable is assigned.
+	 * 
+	 * @param expressionVisitor
+	 *                          the visitor evaluating the values
+	 * @param ruleValues
+	 *                          the ExprValuesContext, Function_callContext or
+	 *                          EmptyValuesContext supplying the values
+	 * @return the values in variable order (empty if no values are supplied)
+	 */
+	public JsonNode[] evaluateArguments(ExpressionsVisitor expressionVisitor, ParserRuleContext ruleValues) {
 		ExprValuesContext exprValues = null;
-		Function_callContext fctCallValues = null;
 		if (ruleValues instanceof ExprValuesContext) {
-		   exprValues = (ExprValuesContext)ruleValues;
-   		List<TerminalNode> varListCtx = _varList.VAR_ID();
-   		List<ExprContext> exprValuesCtx = exprValues.exprList().expr();
-   		int varListCount = varListCtx.size();
-   		int exprListCount = exprValuesCtx.size();
-   		// ensure a direct mapping is possible
-   		if (varListCount != exprListCount) {
-   			throw new EvaluateRuntimeException(
-   					"Expected equal counts for varibles (" + varListCount + ") and values (" + exprListCount + ")");
-   		}
-   		for (int i = 0; i < varListCount; i++) {
-   			String varID = varListCtx.get(i).getText();
-   			JsonNode value = expressionVisitor.visit(exprValuesCtx.get(i));
-   			expressionVisitor.getVariableMap().put(varID, value);
-   		}
+			exprValues = (ExprValuesContext) ruleValues;
 		} else if (ruleValues instanceof Function_callContext) {
-		   fctCallValues = (Function_callContext)ruleValues;
-         List<TerminalNode> varListCtx = _varList.VAR_ID();
-         exprValues = (ExprValuesContext)fctCallValues.exprValues();
-         List<ExprContext> exprValuesCtx = exprValues.exprList().expr();
-         int varListCount = varListCtx.size();
-         int exprListCount = exprValuesCtx.size();
-         // ensure a direct mapping is possible
-         if (varListCount != exprListCount) {
-            throw new EvaluateRuntimeException(
-                  "Expected equal counts for varibles (" + varListCount + ") and values (" + exprListCount + ")");
-         }
-         for (int i = 0; i < varListCount; i++) {
-            String varID = varListCtx.get(i).getText();
-            JsonNode value = expressionVisitor.visit(exprValuesCtx.get(i));
-            expressionVisitor.getVariableMap().put(varID, value);
-         }
+			exprValues = ((Function_callContext) ruleValues).exprValues();
 		} // else EmptyValuesContext
-      result = expressionVisitor.visit(_exprList);
-		return result;
+		if (exprValues == null) {
+			return NO_VALUES;
+		}
+		List<ExprContext> exprValuesCtx = exprValues.exprList().expr();
+		int exprListCount = exprValuesCtx.size();
+		checkArgumentCount(exprListCount);
+		JsonNode[] values = new JsonNode[exprListCount];
+		for (int i = 0; i < exprListCount; i++) {
+			values[i] = expressionVisitor.visit(exprValuesCtx.get(i));
+		}
+		return values;
+	}
+
+	/**
+	 * Ensure a direct mapping of values to the function's variables is possible.
+	 * Fewer values than variables are allowed, the remaining variables are
+	 * undefined (as in JSONata, e.g. an optional $step).
+	 * 
+	 * @param valueCount
+	 *                   the number of values supplied
+	 * @throws EvaluateRuntimeException
+	 *                                  if the function declares fewer variables
+	 */
+	public void checkArgumentCount(int valueCount) {
+		int varListCount = _varList.VAR_ID().size();
+		if (varListCount < valueCount) {
+			throw new EvaluateRuntimeException(
+					"Expected equal counts for varibles (" + varListCount + ") and values (" + valueCount + ")");
+		}
 	}
 }
@@ -0,0 +1,104 @@
+/**
+ * (c) Copyright 2018, 2019 IBM Corporation
+ * 1 New Orchard Road, 
+ * Armonk, New York, 10504-1722
+ * United States
+ * +1 914 499 1900
+ * support: Nathaniel Mills wnm3@us.ibm.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.api.jsonata4java.expressions.functions;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import com.api.jsonata4java.expressions.EvaluateRuntimeException;
+import com.api.jsonata4java.expressions.ExpressionsVisitor;
+import com.api.jsonata4java.expressions.generated.MappingExpressionParser.Function_callContext;
+import com.api.jsonata4java.expressions.utils.Constants;
+import com.api.jsonata4java.expressions.utils.FunctionUtils;
+import com.api.jsonata4java.expressions.utils.JsonHashUtils;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+
+/**
+ * From http://docs.jsonata.org/array-functions.html:
+ * 
+ * $distinct(array)
+ * 
+ * Returns an array containing all the values from the array parameter, but
+ * with any duplicates removed. Values are tested for deep equality as if by
+ * using the = operator on values and the deep equality of arrays and objects.
+ * 
+ * Examples
+ * 
+ * $distinct([1,2,3,3,4,3,5]) => [1, 2, 3, 4, 5]
+ * 
+ * Values are found in a hash set of {@link JsonHashUtils.Key}s, so the
+ * function takes time linear in the size of the array.
+ */
+public class DistinctFunction extends FunctionBase implements Function {
+
+	public static String ERR_ARG1BADTYPE = String.format(Constants.ERR_MSG_ARG1_BAD_TYPE, Constants.FUNCTION_DISTINCT);
+	public static String ERR_ARG2BADTYPE = String.format(Constants.ERR_MSG_ARG2_BAD_TYPE, Constants.FUNCTION_DISTINCT);
+
+	public JsonNode invoke(ExpressionsVisitor expressionVisitor, Function_callContext ctx) {
+		JsonNode result = null;
+
+		// Retrieve the number of arguments
+		JsonNode argArray = JsonNodeFactory.instance.nullNode();
+		boolean useContext = FunctionUtils.useContextVariable(ctx, getSignature());
+		int argCount = getArgumentCount(ctx);
+		if (useContext) {
+			argArray = FunctionUtils.getContextVariable(expressionVisitor);
+			argCount++;
+		}
+
+		// Make sure that we have the right number of arguments
+		if (argCount == 1) {
+			if (!useContext) {
+				argArray = FunctionUtils.getValuesListExpression(expressionVisitor, ctx, 0);
+			}
+			if (argArray == null || argArray.isArray() == false || argArray.size() <= 1) {
+				// undefined, a single value and arrays without duplicates are
+				// returned as they are
+				result = argArray;
+			} else {
+				ArrayNode array = (ArrayNode) argArray;
+				ArrayNode distinct = JsonNodeFactory.instance.arrayNode();
+				Set<JsonHashUtils.Key> seen = new HashSet<JsonHashUtils.Key>(array.size() * 2);
+				for (int i = 0; i < array.size(); i++) {
+					JsonNode element = array.get(i);
+					if (seen.add(new JsonHashUtils.Key(element))) {
+						distinct.add(element);
+					}
+				}
+				result = distinct;
+			}
+		} else {
+			throw new EvaluateRuntimeException(argCount == 0 ? ERR_ARG1BADTYPE : ERR_ARG2BADTYPE);
+		}
+
+		return result;
+	}
+
+	@Override
+	public String getSignature() {
+		// accepts an array, returns an array
+		return "<a:a>";
+	}
+}
@@ -134,7 +134,7 @@ public class FormatNumberFunction extends FunctionBase implements Function {
 
 						// Check to see if we have an optional options argument and
 						// read it if we do
-						DecimalFormatSymbols symbols = Constants.DEFAULT_DECIMAL_FORMAT_SYMBOLS;
+						DecimalFormatSymbols symbols = Constants.getDefaultDecimalFormatSymbols();
 						if (argCount == 3) {
 							final JsonNode argOptions = FunctionUtils.getValuesListExpression(expressionVisitor, ctx,
 									useContext ? 1 : 2);
@@ -169,7 +169,7 @@ public class FormatNumberFunction extends FunctionBase implements Function {
 
 	private DecimalFormatSymbols processOptionsArg(JsonNode argOptions) {
 		// Create the variable return
-		DecimalFormatSymbols symbols = (DecimalFormatSymbols) Constants.DEFAULT_DECIMAL_FORMAT_SYMBOLS.clone();
+		DecimalFormatSymbols symbols = (DecimalFormatSymbols) Constants.getDefaultDecimalFormatSymbols().clone();
 
 		// Iterate over the formatting character overrides
 		Iterator<String> fieldNames = argOptions.fieldNames();
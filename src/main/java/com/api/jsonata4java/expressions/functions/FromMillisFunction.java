@@ -23,11 +23,13 @@
 package com.api.jsonata4java.expressions.functions;
 
 import java.time.Instant;
+import java.time.ZoneOffset;
 
 import com.api.jsonata4java.expressions.EvaluateRuntimeException;
 import com.api.jsonata4java.expressions.ExpressionsVisitor;
 import com.api.jsonata4java.expressions.generated.MappingExpressionParser.Function_callContext;
 import com.api.jsonata4java.expressions.utils.Constants;
+import com.api.jsonata4java.expressions.utils.DateTimeUtils;
 import com.api.jsonata4java.expressions.utils.FunctionUtils;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
@@ -36,15 +38,25 @@ import com.fasterxml.jackson.databind.node.TextNode;
 /**
  * From http://docs.jsonata.org/string-functions.html:
  * 
- * $fromMillis(number)
+ * $fromMillis(number [, picture [, timezone]])
  * 
  * Convert a number representing milliseconds since the Unix Epoch (1 January,
- * 1970 UTC) to a timestamp string in the ISO 8601 format.
+ * 1970 UTC) to a formatted string representation of the timestamp as specified
+ * by the picture string.
+ * 
+ * If the optional picture parameter is omitted, then the timestamp is
+ * formatted in the ISO 8601 format. If the optional timezone string is
+ * supplied (of the form ±HHMM), then the formatted timestamp will be in that
+ * timezone, otherwise it is in UTC.
  * 
  * Examples
  * 
  * $fromMillis(1510067557121)=="2017-11-07T15:12:37.121Z"
  * 
+ * $fromMillis(1510067557121, '[M01]/[D01]/[Y0001] [h#1]:[m01][P]')=="11/07/2017 3:12pm"
+ * 
+ * $fromMillis(1510067557121, '[H01]:[m01]:[s01] [z]', '-0500')=="10:12:37 GMT-05:00"
+ * 
  */
 public class FromMillisFunction extends FunctionBase implements Function {
 
@@ -53,6 +65,10 @@ public class FromMillisFunction extends FunctionBase implements Function {
 			Constants.FUNCTION_FROM_MILLIS);
 	public static String ERR_ARG2BADTYPE = String.format(Constants.ERR_MSG_ARG2_BAD_TYPE,
 			Constants.FUNCTION_FROM_MILLIS);
+	public static String ERR_ARG3BADTYPE = String.format(Constants.ERR_MSG_ARG3_BAD_TYPE,
+			Constants.FUNCTION_FROM_MILLIS);
+	public static String ERR_ARG4BADTYPE = String.format(Constants.ERR_MSG_ARG4_BAD_TYPE,
+			Constants.FUNCTION_FROM_MILLIS);
 
 	public JsonNode invoke(ExpressionsVisitor expressionVisitor, Function_callContext ctx) {
 		// Create the variable to return
@@ -68,21 +84,44 @@ public class FromMillisFunction extends FunctionBase implements Function {
 		}
 
 		// Make sure that we have the right number of arguments
-		if (argCount == 1) {
+		if (argCount >= 1 && argCount <= 3) {
 			if (!useContext) {
 				argNumber = FunctionUtils.getValuesListExpression(expressionVisitor, ctx, 0);
 			}
+			int offset = useContext ? 0 : 1;
+			JsonNode argPicture = argCount >= 2 ? FunctionUtils.getValuesListExpression(expressionVisitor, ctx, offset)
+					: null;
+			JsonNode argTimezone = argCount == 3
+					? FunctionUtils.getValuesListExpression(expressionVisitor, ctx, offset + 1)
+					: null;
+			if (argPicture != null && !argPicture.isNull() && !argPicture.isTextual()) {
+				throw new EvaluateRuntimeException(ERR_ARG2BADTYPE);
+			}
+			if (argTimezone != null && !argTimezone.isNull() && !argTimezone.isTextual()) {
+				throw new EvaluateRuntimeException(ERR_ARG3BADTYPE);
+			}
 			if (argNumber != null) {
 				if (argNumber.isNumber()) {
 					final Long millis = argNumber.asLong();
-					Instant instant = Instant.ofEpochMilli(millis);
-					result = new TextNode(instant.toString());
+					boolean hasPicture = argPicture != null && argPicture.isTextual();
+					boolean hasTimezone = argTimezone != null && argTimezone.isTextual();
+					if (hasPicture || hasTimezone) {
+						ZoneOffset zone = hasTimezone
+								? DateTimeUtils.parseTimezone(argTimezone.textValue(), Constants.FUNCTION_FROM_MILLIS)
+								: ZoneOffset.UTC;
+						String picture = hasPicture ? argPicture.textValue() : DateTimeUtils.ISO_PICTURE;
+						result = new TextNode(
+								DateTimeUtils.format(millis, picture, zone, Constants.FUNCTION_FROM_MILLIS));
+					} else {
+						Instant instant = Instant.ofEpochMilli(millis);
+						result = new TextNode(instant.toString());
+					}
 				} else {
 					throw new EvaluateRuntimeException(ERR_ARG1BADTYPE);
 				}
 			}
 		} else {
-			throw new EvaluateRuntimeException(argCount == 0 ? ERR_BAD_CONTEXT : ERR_ARG2BADTYPE);
+			throw new EvaluateRuntimeException(argCount == 0 ? ERR_BAD_CONTEXT : ERR_ARG4BADTYPE);
 		}
 
 		return result;
@@ -90,8 +129,8 @@ public class FromMillisFunction extends FunctionBase implements Function {
 
 	@Override
 	public String getSignature() {
-		// accepts a number (or context variable), an optional string, another optional
-		// string, returns a number
+		// accepts a number (or context variable), an optional picture string, an
+		// optional timezone string, returns a string
 		return "<n-s?s?:s>";
 	}
 }
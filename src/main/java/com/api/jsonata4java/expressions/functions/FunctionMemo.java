@@ -0,0 +1,581 @@
+/**
+ * (c) Copyright 2018, 2019 IBM Corporation
+ * 1 New Orchard Road,
+ * Armonk, New York, 10504-1722
+ * United States
+ * +1 914 499 1900
+ * support: Nathaniel Mills wnm3@us.ibm.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.api.jsonata4java.expressions.functions;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.TerminalNode;
+
+import com.api.jsonata4java.expressions.ExpressionsVisitor;
+import com.api.jsonata4java.expressions.ExpressionsVisitor.SelectorArrayNode;
+import com.api.jsonata4java.expressions.generated.MappingExpressionParser;
+import com.api.jsonata4java.expressions.generated.MappingExpressionParser.ExprListContext;
+import com.api.jsonata4java.expressions.utils.Constants;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+
+/**
+ * Cache of the results of pure declared functions keyed by the function body
+ * and a structural hash of the argument values (and of any outer variables the
+ * function reads). A function is only memoized when analysis of its body shows
+ * that:
+ * <ul>
+ * <li>it calls no non-deterministic function ($now, $millis, $random,
+ * $shuffle)</li>
+ * <li>it does not assign variables used outside of its body</li>
+ * <li>it does not read the context ($, $$ or paths not starting from a
+ * variable or function result)</li>
+ * <li>every declared function it calls is also pure</li>
+ * </ul>
+ * Other functions are evaluated as usual and counted as skipped.
+ */
+public class FunctionMemo {
+
+	/**
+	 * Lifetime of memoized results
+	 */
+	public enum Scope {
+		/**
+		 * Results are discarded when the evaluation completes
+		 */
+		EVALUATION,
+		/**
+		 * Results are kept by the Expression across evaluations in a bounded
+		 * least recently used cache
+		 */
+		EXPRESSION
+	}
+
+	/**
+	 * Hit and miss counts, shared by the memos of an Expression
+	 */
+	public static class Statistics {
+		LongAdder _hits = new LongAdder();
+		LongAdder _misses = new LongAdder();
+		LongAdder _skipped = new LongAdder();
+		LongAdder _evictions = new LongAdder();
+
+		/**
+		 * @return the calls answered from the memo
+		 */
+		public long getHits() {
+			return _hits.sum();
+		}
+
+		/**
+		 * @return the calls of pure functions evaluated and added to the memo
+		 */
+		public long getMisses() {
+			return _misses.sum();
+		}
+
+		/**
+		 * @return the calls of functions that could not be memoized
+		 */
+		public long getSkipped() {
+			return _skipped.sum();
+		}
+
+		/**
+		 * @return the results evicted to keep the memo within its bound
+		 */
+		public long getEvictions() {
+			return _evictions.sum();
+		}
+
+		public String toString() {
+			return "hits=" + getHits() + ", misses=" + getMisses() + ", skipped=" + getSkipped() + ", evictions="
+					+ getEvictions();
+		}
+	}
+
+	/**
+	 * Functions whose results differ between calls with the same arguments
+	 */
+	static final Set<String> NON_DETERMINISTIC = new HashSet<String>(Arrays.asList(Constants.FUNCTION_NOW,
+			Constants.FUNCTION_MILLIS, Constants.FUNCTION_RANDOM, Constants.FUNCTION_SHUFFLE));
+
+	/**
+	 * Stands in for an undefined (null) result in the memo
+	 */
+	static final JsonNode UNDEFINED = new TextNode("undefined");
+
+	/**
+	 * Result of the purity analysis of a function body
+	 */
+	static class Analysis {
+		boolean _pure = true;
+		String _reason = null;
+		/**
+		 * outer variables read by the function or the functions it calls
+		 */
+		Set<String> _freeVariables = new HashSet<String>();
+		String[] _freeVariableNames = null;
+		/**
+		 * bodies of the declared functions called, keyed by function name
+		 */
+		Map<String, ExprListContext> _callees = new LinkedHashMap<String, ExprListContext>();
+
+		void impure(String reason) {
+			if (_pure) {
+				_pure = false;
+				_reason = reason;
+			}
+		}
+	}
+
+	/**
+	 * Memo key: the function body identity and the argument and outer variable
+	 * values. Values are compared with the order of object fields, as functions
+	 * such as $keys and $string (and results returning an argument) depend on it.
+	 */
+	static class Key {
+		ExprListContext _body;
+		JsonNode[] _values;
+		int _hash;
+
+		Key(ExprListContext body, JsonNode[] values) {
+			_body = body;
+			_values = values;
+			int hash = System.identityHashCode(body);
+			for (JsonNode value : values) {
+				hash = hash * 31 + hashOf(value);
+			}
+			_hash = hash;
+		}
+
+		public int hashCode() {
+			return _hash;
+		}
+
+		public boolean equals(Object obj) {
+			if (obj instanceof Key == false) {
+				return false;
+			}
+			Key other = (Key) obj;
+			if (_hash != other._hash || _body != other._body || _values.length != other._values.length) {
+				return false;
+			}
+			for (int i = 0; i < _values.length; i++) {
+				if (same(_values[i], other._values[i]) == false) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		static int hashOf(JsonNode value) {
+			if (value == null) {
+				return 0;
+			}
+			int hash = value.getNodeType().hashCode();
+			if (value.isObject()) {
+				for (Iterator<Map.Entry<String, JsonNode>> it = value.fields(); it.hasNext();) {
+					Map.Entry<String, JsonNode> field = it.next();
+					hash = (hash * 31 + field.getKey().hashCode()) * 31 + hashOf(field.getValue());
+				}
+			} else if (value.isArray()) {
+				for (JsonNode member : value) {
+					hash = hash * 31 + hashOf(member);
+				}
+			} else {
+				hash = hash * 31 + value.hashCode();
+			}
+			return hash;
+		}
+
+		/**
+		 * @return whether the values are equal with their object fields in the
+		 *         same order
+		 */
+		static boolean same(JsonNode left, JsonNode right) {
+			if (left == right) {
+				return true;
+			}
+			if (left == null || right == null || left.size() != right.size()) {
+				return false;
+			}
+			if (left.isObject()) {
+				if (right.isObject() == false) {
+					return false;
+				}
+				Iterator<Map.Entry<String, JsonNode>> others = right.fields();
+				for (Iterator<Map.Entry<String, JsonNode>> it = left.fields(); it.hasNext();) {
+					Map.Entry<String, JsonNode> field = it.next();
+					Map.Entry<String, JsonNode> other = others.next();
+					if (field.getKey().equals(other.getKey()) == false
+							|| same(field.getValue(), other.getValue()) == false) {
+						return false;
+					}
+				}
+				return true;
+			}
+			if (left.isArray()) {
+				if (right.isArray() == false) {
+					return false;
+				}
+				for (int i = 0; i < left.size(); i++) {
+					if (same(left.get(i), right.get(i)) == false) {
+						return false;
+					}
+				}
+				return true;
+			}
+			return left.equals(right);
+		}
+	}
+
+	Scope _scope;
+	int _maxEntries;
+	Statistics _statistics;
+	LinkedHashMap<Key, JsonNode> _results;
+	Map<ExprListContext, Analysis> _analyses = new IdentityHashMap<ExprListContext, Analysis>();
+
+	/**
+	 * @param scope
+	 *                   the lifetime of the memoized results
+	 * @param maxEntries
+	 *                   the maximum number of results kept, least recently used
+	 *                   results are evicted first. Zero or less means unbounded.
+	 * @param statistics
+	 *                   the counters updated by this memo, or null for new
+	 *                   counters
+	 */
+	public FunctionMemo(Scope scope, int maxEntries, Statistics statistics) {
+		_scope = scope;
+		_maxEntries = maxEntries;
+		_statistics = statistics == null ? new Statistics() : statistics;
+		_results = new LinkedHashMap<Key, JsonNode>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, JsonNode> eldest) {
+				if (_maxEntries > 0 && size() > _maxEntries) {
+					_statistics._evictions.increment();
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	public Scope getScope() {
+		return _scope;
+	}
+
+	public Statistics getStatistics() {
+		return _statistics;
+	}
+
+	/**
+	 * @return the number of memoized results
+	 */
+	public synchronized int size() {
+		return _results.size();
+	}
+
+	/**
+	 * Discard all memoized results
+	 */
+	public synchronized void clear() {
+		_results.clear();
+	}
+
+	/**
+	 * @param fct
+	 *                the function being invoked
+	 * @param visitor
+	 *                the visitor evaluating the function
+	 * @param args
+	 *                the argument values
+	 * @return the memo key of the call, or null if the function is not pure
+	 */
+	public Object keyOf(DeclaredFunction fct, ExpressionsVisitor visitor, JsonNode[] args) {
+		ExprListContext body = fct.getExpressionList();
+		Analysis analysis = analysisOf(fct, visitor);
+		if (analysis._pure) {
+			// the called functions must still be the ones analyzed
+			Map<String, DeclaredFunction> functions = visitor.getFunctionMap();
+			for (Map.Entry<String, ExprListContext> callee : analysis._callees.entrySet()) {
+				DeclaredFunction current = functions.get(callee.getKey());
+				if (current == null || current.getExpressionList() != callee.getValue()) {
+					_statistics._skipped.increment();
+					return null;
+				}
+			}
+			String[] free = analysis._freeVariableNames;
+			JsonNode[] values = Arrays.copyOf(args, args.length + free.length);
+			Map<String, JsonNode> variables = visitor.getVariableMap();
+			for (int i = 0; i < free.length; i++) {
+				values[args.length + i] = variables.get(free[i]);
+			}
+			return new Key(body, values);
+		}
+		_statistics._skipped.increment();
+		return null;
+	}
+
+	/**
+	 * @param key
+	 *            a key returned by keyOf
+	 * @return the memoized result (undefined results are returned as a marker
+	 *         that {@link #isUndefined(JsonNode)} recognizes), or null if the
+	 *         call has not been memoized
+	 */
+	public JsonNode get(Object key) {
+		JsonNode result;
+		synchronized (this) {
+			result = _results.get(key);
+		}
+		if (result == null) {
+			return null;
+		}
+		_statistics._hits.increment();
+		// callers may modify containers in place
+		return result.isContainerNode() ? result.deepCopy() : result;
+	}
+
+	/**
+	 * @param result
+	 *               a result returned by get
+	 * @return whether the result is the marker of an undefined result
+	 */
+	public static boolean isUndefined(JsonNode result) {
+		return result == UNDEFINED;
+	}
+
+	/**
+	 * Memoize the result of a call
+	 *
+	 * @param key
+	 *               a key returned by keyOf
+	 * @param result
+	 *               the result of the call
+	 */
+	public void put(Object key, JsonNode result) {
+		_statistics._misses.increment();
+		if (result instanceof SelectorArrayNode) {
+			// selections are unwrapped differently from plain arrays so can not be
+			// copied
+			return;
+		}
+		Key memoKey = (Key) key;
+		for (int i = 0; i < memoKey._values.length; i++) {
+			if (memoKey._values[i] != null && memoKey._values[i].isContainerNode()) {
+				memoKey._values[i] = memoKey._values[i].deepCopy();
+			}
+		}
+		JsonNode value = result == null ? UNDEFINED : result.isContainerNode() ? result.deepCopy() : result;
+		synchronized (this) {
+			_results.put(memoKey, value);
+		}
+	}
+
+	/**
+	 * @param fct
+	 *                a declared function
+	 * @param visitor
+	 *                the visitor evaluating the function
+	 * @return null if the function is pure, otherwise why it is not
+	 */
+	public String getImpurity(DeclaredFunction fct, ExpressionsVisitor visitor) {
+		return analysisOf(fct, visitor)._reason;
+	}
+
+	synchronized Analysis analysisOf(DeclaredFunction fct, ExpressionsVisitor visitor) {
+		Analysis analysis = _analyses.get(fct.getExpressionList());
+		if (analysis == null) {
+			analysis = analyze(fct, visitor, new HashSet<ExprListContext>());
+			analysis._freeVariableNames = analysis._freeVariables.toArray(new String[0]);
+			Arrays.sort(analysis._freeVariableNames);
+			_analyses.put(fct.getExpressionList(), analysis);
+		}
+		return analysis;
+	}
+
+	Analysis analyze(DeclaredFunction fct, ExpressionsVisitor visitor, Set<ExprListContext> inProgress) {
+		Analysis analysis = new Analysis();
+		ExprListContext body = fct.getExpressionList();
+		inProgress.add(body);
+
+		// variables local to the body: its parameters and those of nested
+		// functions, and variables assigned within it
+		Set<String> parameters = new HashSet<String>();
+		for (TerminalNode var : fct.getVariables()) {
+			parameters.add(var.getText());
+		}
+		Set<String> locals = new HashSet<String>(parameters);
+		collectLocals(body, locals);
+		Set<String> outer = new HashSet<String>();
+		collectOuterNames(root(body), body, outer);
+
+		Set<String> called = new HashSet<String>();
+		check(body, body, locals, parameters, outer, visitor, analysis, called);
+
+		for (String name : called) {
+			DeclaredFunction callee = visitor.getFunctionMap().get(name);
+			if (callee == null) {
+				analysis.impure("calls unknown function " + name);
+				break;
+			}
+			analysis._callees.put(name, callee.getExpressionList());
+			if (inProgress.contains(callee.getExpressionList())) {
+				// recursion is pure if the rest of the body is
+				continue;
+			}
+			Analysis calleeAnalysis = analyze(callee, visitor, inProgress);
+			if (calleeAnalysis._pure == false) {
+				analysis.impure(name + " " + calleeAnalysis._reason);
+				break;
+			}
+			analysis._freeVariables.addAll(calleeAnalysis._freeVariables);
+			analysis._callees.putAll(calleeAnalysis._callees);
+		}
+		inProgress.remove(body);
+		return analysis;
+	}
+
+	void check(ParseTree tree, ExprListContext body, Set<String> locals, Set<String> parameters, Set<String> outer,
+			ExpressionsVisitor visitor, Analysis analysis, Set<String> called) {
+		if (tree instanceof MappingExpressionParser.Var_assignContext) {
+			String name = ((MappingExpressionParser.Var_assignContext) tree).VAR_ID().getText();
+			if (parameters.contains(name) == false && outer.contains(name)) {
+				analysis.impure("assigns outer variable " + name);
+			}
+		} else if (tree instanceof MappingExpressionParser.Var_recallContext) {
+			String name = ((MappingExpressionParser.Var_recallContext) tree).VAR_ID().getText();
+			if (locals.contains(name) == false) {
+				analysis._freeVariables.add(name);
+			}
+		} else if (tree instanceof MappingExpressionParser.Function_callContext) {
+			MappingExpressionParser.Function_callContext call = (MappingExpressionParser.Function_callContext) tree;
+			checkCall(call.VAR_ID().getText(), locals, visitor, analysis, called);
+			if (call.emptyValues() != null && isContextRelative(call, body)) {
+				analysis.impure("reads the context in " + call.getText());
+			}
+		} else if (tree instanceof MappingExpressionParser.Map_functionContext
+				|| tree instanceof MappingExpressionParser.Filter_functionContext
+				|| tree instanceof MappingExpressionParser.Reduce_functionContext
+				|| tree instanceof MappingExpressionParser.Sift_functionContext
+				|| tree instanceof MappingExpressionParser.Each_functionContext) {
+			TerminalNode varId = ((ParserRuleContext) tree).getToken(MappingExpressionParser.VAR_ID, 0);
+			if (varId != null) {
+				checkCall(varId.getText(), locals, visitor, analysis, called);
+			}
+		} else if (tree instanceof MappingExpressionParser.IdContext
+				|| tree instanceof MappingExpressionParser.Field_valuesContext
+				|| tree instanceof MappingExpressionParser.DescendantContext) {
+			if (isContextRelative((ParserRuleContext) tree, body)) {
+				analysis.impure("reads the context in " + ((ParserRuleContext) tree).getText());
+			}
+		} else if (tree instanceof MappingExpressionParser.Context_refContext
+				|| tree instanceof MappingExpressionParser.Root_pathContext) {
+			analysis.impure("reads the context in " + ((ParserRuleContext) tree).getText());
+		}
+		for (int i = 0; i < tree.getChildCount() && analysis._pure; i++) {
+			check(tree.getChild(i), body, locals, parameters, outer, visitor, analysis, called);
+		}
+	}
+
+	void checkCall(String name, Set<String> locals, ExpressionsVisitor visitor, Analysis analysis, Set<String> called) {
+		if (NON_DETERMINISTIC.contains(name)) {
+			analysis.impure("calls " + name);
+		} else if (visitor.getNativeFunctions().containsKey(name)) {
+			analysis.impure("calls the Java function " + name);
+		} else if (Constants.FUNCTIONS.containsKey(name) || locals.contains(name)) {
+			// built in, or declared within the body and so checked with it
+		} else {
+			called.add(name);
+		}
+	}
+
+	/**
+	 * @return whether the node is evaluated against the context of the call
+	 *         rather than against a value computed within the body
+	 */
+	static boolean isContextRelative(ParserRuleContext node, ExprListContext body) {
+		ParserRuleContext child = node;
+		ParserRuleContext parent = node.getParent();
+		while (parent != null && parent != body) {
+			if ((parent instanceof MappingExpressionParser.PathContext
+					|| parent instanceof MappingExpressionParser.Fct_chainContext)
+					&& child == parent.getChild(parent.getChildCount() - 1)) {
+				return false;
+			}
+			if (parent instanceof MappingExpressionParser.ArrayContext
+					&& child == ((MappingExpressionParser.ArrayContext) parent).expr(1)) {
+				return false;
+			}
+			child = parent;
+			parent = parent.getParent();
+		}
+		return true;
+	}
+
+	static void collectLocals(ParseTree tree, Set<String> locals) {
+		if (tree instanceof MappingExpressionParser.VarListContext) {
+			for (TerminalNode var : ((MappingExpressionParser.VarListContext) tree).VAR_ID()) {
+				locals.add(var.getText());
+			}
+		} else if (tree instanceof MappingExpressionParser.Var_assignContext) {
+			locals.add(((MappingExpressionParser.Var_assignContext) tree).VAR_ID().getText());
+		}
+		for (int i = 0; i < tree.getChildCount(); i++) {
+			collectLocals(tree.getChild(i), locals);
+		}
+	}
+
+	/**
+	 * Collect the variables recalled or assigned outside of the body
+	 */
+	static void collectOuterNames(ParseTree tree, ExprListContext body, Set<String> names) {
+		if (tree == body) {
+			return;
+		}
+		if (tree instanceof MappingExpressionParser.Var_assignContext) {
+			names.add(((MappingExpressionParser.Var_assignContext) tree).VAR_ID().getText());
+		} else if (tree instanceof MappingExpressionParser.Var_recallContext) {
+			names.add(((MappingExpressionParser.Var_recallContext) tree).VAR_ID().getText());
+		}
+		for (int i = 0; i < tree.getChildCount(); i++) {
+			collectOuterNames(tree.getChild(i), body, names);
+		}
+	}
+
+	static ParseTree root(ParserRuleContext node) {
+		ParserRuleContext root = node;
+		while (root.getParent() != null) {
+			root = root.getParent();
+		}
+		return root;
+	}
+}
@@ -0,0 +1,554 @@
+/**
+ * (c) Copyright 2018, 2019 IBM Corporation
+ * 1 New Orchard Road, 
+ * Armonk, New York, 10504-1722
+ * United States
+ * +1 914 499 1900
+ * support: Nathaniel Mills wnm3@us.ibm.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.api.jsonata4java.expressions.functions;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.api.jsonata4java.expressions.EvaluateRuntimeException;
+import com.api.jsonata4java.expressions.ExpressionsVisitor;
+import com.api.jsonata4java.expressions.ParseException;
+import com.api.jsonata4java.expressions.generated.MappingExpressionParser;
+import com.api.jsonata4java.expressions.generated.MappingExpressionParser.ExprListContext;
+import com.api.jsonata4java.expressions.generated.MappingExpressionParser.Function_callContext;
+import com.api.jsonata4java.expressions.utils.Constants;
+import com.api.jsonata4java.expressions.utils.FunctionUtils;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+
+/**
+ * A function signature such as {@code <s-n?:s>} parsed into its parameters.
+ * Each parameter is a type symbol (b boolean, n number, s string, l null, a
+ * array, o object, f function, j any JSON value, x anything, u
+ * boolean/number/string/null) or a parenthesized choice of them, optionally
+ * followed by a subtype in angle brackets and by the modifiers ? (optional), +
+ * (one or more) and - (taken from the context when not supplied).
+ * <p>
+ * The signature is also the shared argument layer of {@link TypedFunction}s:
+ * it decides whether a call takes the context value, evaluates the arguments
+ * and checks their number and types (wrapping a single value passed for an
+ * array parameter in an array), so the function receives ready typed values.
+ */
+public class FunctionSignature {
+
+	static final String TYPE_SYMBOLS = "bnslaofjxu";
+
+	static final Map<String, FunctionSignature> CACHE = new ConcurrentHashMap<String, FunctionSignature>();
+
+	/**
+	 * How a call passes its arguments to a function with the signature: the
+	 * number of arguments written at the call and whether the context value is
+	 * inserted before them. The shapes of the calls of built in functions are
+	 * decided when an expression is parsed (see
+	 * {@link ExpressionsVisitor#compileCallShapes}).
+	 */
+	public static class CallShape {
+		final FunctionSignature _signature;
+		final int _argCount;
+		final boolean _useContext;
+		final boolean _fromContext;
+
+		CallShape(FunctionSignature signature, int argCount, boolean useContext, boolean fromContext) {
+			_signature = signature;
+			_argCount = argCount;
+			_useContext = useContext;
+			_fromContext = fromContext;
+		}
+
+		/**
+		 * @return the signature the shape was decided for
+		 */
+		public FunctionSignature getSignature() {
+			return _signature;
+		}
+
+		/**
+		 * @return the number of arguments written at the call
+		 */
+		public int getArgumentCount() {
+			return _argCount;
+		}
+
+		/**
+		 * @return whether the first argument is the context value or the value
+		 *         chained into the call
+		 */
+		public boolean isUseContext() {
+			return _useContext;
+		}
+
+		/**
+		 * @return whether the first argument is the context value (and not a
+		 *         chained value), so a wrong type is reported as a bad context
+		 */
+		public boolean isFromContext() {
+			return _fromContext;
+		}
+	}
+
+	/**
+	 * One parameter of a signature
+	 */
+	public static class Parameter {
+		String _types;
+		String _subtype;
+		boolean _optional;
+		boolean _variadic;
+		boolean _context;
+
+		Parameter(String types) {
+			_types = types;
+		}
+
+		/**
+		 * @return the type symbols accepted by the parameter, e.g. "s" or "sf" for
+		 *         the choice (sf)
+		 */
+		public String getTypes() {
+			return _types;
+		}
+
+		/**
+		 * @return the subtype of an array or function parameter (the text between
+		 *         the angle brackets), or null if none is declared
+		 */
+		public String getSubtype() {
+			return _subtype;
+		}
+
+		/**
+		 * @return whether the parameter may be omitted
+		 */
+		public boolean isOptional() {
+			return _optional;
+		}
+
+		/**
+		 * @return whether the parameter takes one or more arguments
+		 */
+		public boolean isVariadic() {
+			return _variadic;
+		}
+
+		/**
+		 * @return whether the context value is used when the parameter is not
+		 *         supplied
+		 */
+		public boolean isContext() {
+			return _context;
+		}
+
+		/**
+		 * @param value
+		 *              an argument value (not null)
+		 * @return whether the value is of one of the parameter's types
+		 */
+		public boolean accepts(JsonNode value) {
+			for (int i = 0; i < _types.length(); i++) {
+				if (isType(_types.charAt(i), value)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * @return whether an array of the subtype (if any) may be passed
+		 */
+		boolean acceptsArray() {
+			return _types.indexOf('a') != -1;
+		}
+
+		/**
+		 * @param array
+		 *              an array argument value
+		 * @return whether all members of the array are of the parameter's subtype
+		 */
+		boolean acceptsMembers(JsonNode array) {
+			if (_subtype == null || _subtype.length() != 1 || _types.indexOf('a') == -1) {
+				return true;
+			}
+			char type = _subtype.charAt(0);
+			for (JsonNode member : array) {
+				if (isType(type, member) == false) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * @param type
+	 *              a type symbol
+	 * @param value
+	 *              a value (not null)
+	 * @return whether the value is of the type. Functions are not JSON values, so
+	 *         any value is accepted for f (as for j and x).
+	 */
+	static boolean isType(char type, JsonNode value) {
+		switch (type) {
+		case 'b':
+			return value.isBoolean();
+		case 'n':
+			return value.isNumber();
+		case 's':
+			return value.isTextual();
+		case 'l':
+			return value.isNull();
+		case 'a':
+			return value.isArray();
+		case 'o':
+			return value.isObject();
+		case 'u':
+			return value.isBoolean() || value.isNumber() || value.isTextual() || value.isNull();
+		default:
+			return true;
+		}
+	}
+
+	String _signature;
+	List<Parameter> _parameters = new ArrayList<Parameter>();
+	String _returnType = null;
+	int _minArity = 0;
+	int _maxArity = 0;
+	boolean _context = false;
+
+	FunctionSignature(String signature) {
+		_signature = signature;
+	}
+
+	/**
+	 * @param signature
+	 *                  a well formed signature, e.g. the signature of a built in
+	 *                  function
+	 * @return the parsed signature, parsed only once for each signature string
+	 * @throws EvaluateRuntimeException
+	 *                                  if the signature is not well formed
+	 */
+	public static FunctionSignature of(String signature) {
+		FunctionSignature result = CACHE.get(signature);
+		if (result == null) {
+			try {
+				result = parse(signature);
+			} catch (ParseException e) {
+				throw new EvaluateRuntimeException(e.getMessage());
+			}
+			CACHE.put(signature, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Parse a signature
+	 * 
+	 * @param signature
+	 *                  the signature, e.g. {@code <s-n?:s>}
+	 * @return the parsed signature
+	 * @throws ParseException
+	 *                        if the signature is not well formed
+	 */
+	public static FunctionSignature parse(String signature) throws ParseException {
+		if (signature == null || signature.length() < 2 || signature.charAt(0) != '<'
+				|| signature.charAt(signature.length() - 1) != '>') {
+			throw new ParseException("Invalid function signature " + signature + ": expected <parameters:return>");
+		}
+		FunctionSignature result = new FunctionSignature(signature);
+		int end = signature.length() - 1;
+		int i = 1;
+		Parameter param = null;
+		while (i < end) {
+			char c = signature.charAt(i);
+			if (c == ':') {
+				result._returnType = signature.substring(i + 1, end);
+				break;
+			} else if (TYPE_SYMBOLS.indexOf(c) != -1) {
+				param = new Parameter(String.valueOf(c));
+				result._parameters.add(param);
+				i++;
+			} else if (c == '(') {
+				int close = signature.indexOf(')', i);
+				if (close == -1) {
+					throw new ParseException("Invalid function signature " + signature + ": unmatched ( at " + i);
+				}
+				String types = signature.substring(i + 1, close);
+				for (int t = 0; t < types.length(); t++) {
+					if (TYPE_SYMBOLS.indexOf(types.charAt(t)) == -1) {
+						throw new ParseException("Invalid function signature " + signature + ": unknown type symbol "
+								+ types.charAt(t));
+					}
+				}
+				param = new Parameter(types);
+				result._parameters.add(param);
+				i = close + 1;
+			} else if (c == '<' && param != null && param._subtype == null) {
+				int close = matchingBracket(signature, i);
+				if (close == -1 || close >= end) {
+					throw new ParseException("Invalid function signature " + signature + ": unmatched < at " + i);
+				}
+				param._subtype = signature.substring(i + 1, close);
+				i = close + 1;
+			} else if ((c == '?' || c == '+' || c == '-') && param != null) {
+				if (c == '?') {
+					param._optional = true;
+				} else if (c == '+') {
+					param._variadic = true;
+				} else {
+					param._context = true;
+					result._context = true;
+				}
+				i++;
+			} else {
+				throw new ParseException(
+						"Invalid function signature " + signature + ": unexpected character " + c + " at " + i);
+			}
+		}
+		for (Parameter p : result._parameters) {
+			if (p._variadic) {
+				result._maxArity = Integer.MAX_VALUE;
+			} else if (result._maxArity != Integer.MAX_VALUE) {
+				result._maxArity++;
+			}
+			if (p._optional == false) {
+				result._minArity++;
+			}
+		}
+		return result;
+	}
+
+	static int matchingBracket(String signature, int open) {
+		int depth = 0;
+		for (int i = open; i < signature.length(); i++) {
+			char c = signature.charAt(i);
+			if (c == '<') {
+				depth++;
+			} else if (c == '>' && --depth == 0) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @return the parameters in order
+	 */
+	public List<Parameter> getParameters() {
+		return Collections.unmodifiableList(_parameters);
+	}
+
+	/**
+	 * @return the return type (the text after the colon), or null if none is
+	 *         declared
+	 */
+	public String getReturnType() {
+		return _returnType;
+	}
+
+	/**
+	 * @return the number of parameters that must be supplied (including one taken
+	 *         from the context)
+	 */
+	public int getMinArity() {
+		return _minArity;
+	}
+
+	/**
+	 * @return the number of parameters that may be supplied, Integer.MAX_VALUE if
+	 *         the last one is variadic
+	 */
+	public int getMaxArity() {
+		return _maxArity;
+	}
+
+	/**
+	 * @return whether a parameter is taken from the context when not supplied
+	 */
+	public boolean acceptsContext() {
+		return _context;
+	}
+
+	/**
+	 * @param count
+	 *              the number of arguments supplied
+	 * @return whether the count is valid for this signature
+	 */
+	public boolean acceptsArgumentCount(int count) {
+		return count >= _minArity && count <= _maxArity;
+	}
+
+	/**
+	 * @return a description of the valid argument counts, e.g. "1", "1 to 3" or
+	 *         "at least 1"
+	 */
+	public String describeArity() {
+		if (_maxArity == Integer.MAX_VALUE) {
+			return "at least " + _minArity;
+		}
+		return _minArity == _maxArity ? String.valueOf(_minArity) : _minArity + " to " + _maxArity;
+	}
+
+	/**
+	 * Decide whether a call takes the context value as its first argument: always
+	 * at the end of a function chain, and when the signature allows it for a call
+	 * in a path or a call leaving out required arguments. This depends only on
+	 * the call site, so it can be decided once when the call is compiled.
+	 * 
+	 * @param ctx
+	 *                 the call
+	 * @param argCount
+	 *                 the number of arguments written at the call
+	 * @return whether the context value is inserted as the first argument
+	 */
+	public boolean useContext(Function_callContext ctx, int argCount) {
+		if (ctx != null && ctx.getParent() instanceof MappingExpressionParser.Fct_chainContext) {
+			return true;
+		}
+		return _context && ((ctx != null && ctx.getParent() instanceof MappingExpressionParser.PathContext)
+				|| argCount < _minArity);
+	}
+
+	/**
+	 * @param ctx
+	 *            a call of a function with this signature
+	 * @return how the call passes its arguments to a function with this
+	 *         signature
+	 */
+	public CallShape getCallShape(Function_callContext ctx) {
+		int argCount = 0;
+		if (ctx.exprValues() != null && ctx.exprValues().exprList() != null) {
+			argCount = ctx.exprValues().exprList().expr().size();
+		}
+		boolean useContext = useContext(ctx, argCount);
+		// a chained value is passed as an argument rather than as the context
+		return new CallShape(this, argCount, useContext,
+				useContext && ctx.getParent() instanceof MappingExpressionParser.Fct_chainContext == false);
+	}
+
+	/**
+	 * Evaluate the arguments of a call, inserting the context value first when
+	 * the call takes it (see {@link #useContext(Function_callContext, int)})
+	 * 
+	 * @param expressionVisitor
+	 *                          the visitor evaluating the call
+	 * @param ctx
+	 *                          the call
+	 * @return the evaluated arguments, null for those without a result
+	 */
+	public JsonNode[] evaluateArguments(ExpressionsVisitor expressionVisitor, Function_callContext ctx) {
+		return evaluateArguments(expressionVisitor, ctx, getCallShape(ctx));
+	}
+
+	/**
+	 * Evaluate the arguments of a call as described by its shape
+	 * 
+	 * @param expressionVisitor
+	 *                          the visitor evaluating the call
+	 * @param ctx
+	 *                          the call
+	 * @param shape
+	 *                          the shape of the call from
+	 *                          {@link #getCallShape(Function_callContext)}
+	 * @return the evaluated arguments, null for those without a result
+	 */
+	public JsonNode[] evaluateArguments(ExpressionsVisitor expressionVisitor, Function_callContext ctx,
+			CallShape shape) {
+		int argCount = shape._argCount;
+		JsonNode[] args = new JsonNode[shape._useContext ? argCount + 1 : argCount];
+		int offset = 0;
+		if (shape._useContext) {
+			args[offset++] = FunctionUtils.getContextVariable(expressionVisitor);
+		}
+		if (argCount > 0) {
+			ExprListContext exprList = ctx.exprValues().exprList();
+			for (int i = 0; i < argCount; i++) {
+				args[offset + i] = expressionVisitor.visit(exprList.expr(i));
+			}
+		}
+		return args;
+	}
+
+	/**
+	 * Check the number and types of the arguments of a call. A single value
+	 * passed for an array parameter is wrapped in an array. Arguments without a
+	 * value (null) are passed on for the function to handle.
+	 * 
+	 * @param fctName
+	 *                    the name of the called function, used in error messages
+	 * @param args
+	 *                    the evaluated arguments
+	 * @param fromContext
+	 *                    whether the first argument is the context value
+	 * @return the arguments, ready to be passed to the function
+	 * @throws EvaluateRuntimeException
+	 *                                  if an argument is missing, extra or of
+	 *                                  the wrong type
+	 */
+	public JsonNode[] coerce(String fctName, JsonNode[] args, boolean fromContext) {
+		if (args.length < _minArity) {
+			if (args.length == 0 && _context) {
+				throw new EvaluateRuntimeException(String.format(Constants.ERR_MSG_BAD_CONTEXT, fctName));
+			}
+			throw new EvaluateRuntimeException(
+					String.format(Constants.ERR_MSG_ARG_BAD_TYPE, args.length + 1, fctName));
+		}
+		if (args.length > _maxArity) {
+			throw new EvaluateRuntimeException(String.format(Constants.ERR_MSG_ARG_BAD_TYPE, _maxArity + 1, fctName));
+		}
+		JsonNode[] result = args;
+		for (int i = 0; i < args.length; i++) {
+			JsonNode value = args[i];
+			if (value == null) {
+				continue;
+			}
+			Parameter param = _parameters.get(Math.min(i, _parameters.size() - 1));
+			if (param.accepts(value) == false) {
+				if (param.acceptsArray()) {
+					ArrayNode array = JsonNodeFactory.instance.arrayNode();
+					array.add(value);
+					if (param.acceptsMembers(array)) {
+						if (result == args) {
+							result = args.clone();
+						}
+						result[i] = array;
+						continue;
+					}
+				}
+				if (i == 0 && fromContext) {
+					throw new EvaluateRuntimeException(String.format(Constants.ERR_MSG_BAD_CONTEXT, fctName));
+				}
+				throw new EvaluateRuntimeException(String.format(Constants.ERR_MSG_ARG_BAD_TYPE, i + 1, fctName));
+			} else if (value.isArray() && param.acceptsMembers(value) == false) {
+				throw new EvaluateRuntimeException(String.format(Constants.ERR_MSG_ARG_BAD_TYPE, i + 1, fctName));
+			}
+		}
+		return result;
+	}
+
+	public String toString() {
+		return _signature;
+	}
+}
@@ -0,0 +1,43 @@
+/**
+ * (c) Copyright 2018, 2019 IBM Corporation
+ * 1 New Orchard Road, 
+ * Armonk, New York, 10504-1722
+ * United States
+ * +1 914 499 1900
+ * support: Nathaniel Mills wnm3@us.ibm.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.api.jsonata4java.expressions.functions;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Java implementation of a function registered with a signature (see
+ * {@link NativeFunction}). Lambdas and method references (e.g.
+ * {@code args -> new TextNode(GeoHash.encode(args[0].asDouble(), args[1].asDouble()))})
+ * can be registered directly.
+ */
+@FunctionalInterface
+public interface JavaFunction {
+
+	/**
+	 * @param args
+	 *             the evaluated arguments, in signature order. An argument whose
+	 *             expression produced no result is null.
+	 * @return the result of the function, or null for no result
+	 */
+	public JsonNode apply(JsonNode[] args);
+}
@@ -23,17 +23,16 @@
 package com.api.jsonata4java.expressions.functions;
 
 import java.util.Iterator;
-import java.util.StringJoiner;
 
 import com.api.jsonata4java.expressions.EvaluateRuntimeException;
 import com.api.jsonata4java.expressions.ExpressionsVisitor;
 import com.api.jsonata4java.expressions.generated.MappingExpressionParser.Function_callContext;
 import com.api.jsonata4java.expressions.utils.Constants;
 import com.api.jsonata4java.expressions.utils.FunctionUtils;
+import com.api.jsonata4java.expressions.utils.RopeTextNode;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
-import com.fasterxml.jackson.databind.node.TextNode;
 
 /**
  * From http://docs.jsonata.org/string-functions.html:
@@ -107,23 +106,25 @@ public class JoinFunction extends FunctionBase implements Function {
 			}
 
 			// Join the elements of the array argument
-			StringJoiner stringJoiner = new StringJoiner(separator);
+			StringBuilder joined = new StringBuilder();
+			int components = 0;
 			Iterator<JsonNode> elements = ((ArrayNode) argArray).elements();
 			while (elements.hasNext()) {
 				JsonNode element = elements.next();
 				if (element.isTextual()) {
-					stringJoiner.add(element.textValue());
+					join(joined, components++, separator, element.textValue());
 				} else if (element.isArray()){
 				   for (Iterator<JsonNode>it = ((ArrayNode)element).iterator();it.hasNext();) {
-				      stringJoiner.add(it.next().textValue());
+				      join(joined, components++, separator, it.next().textValue());
 				   }
 				} else {
 					throw new EvaluateRuntimeException(ERR_MSG_ARG1_ARR_STR);
 				}
 			} // WHILE
 
-			// Create the result from the joined string
-			result = new TextNode(stringJoiner.toString());
+			// Create the result from the joined characters, which a following
+			// concatenation appends to without copying them to a String first
+			result = RopeTextNode.wrap(joined);
 		} else {
 			if (argCount != 0 && argArray == null) {
 				return null;
@@ -135,6 +136,17 @@ public class JoinFunction extends FunctionBase implements Function {
 		return result;
 	}
 
+	/**
+	 * Append a component string (preceded by the separator unless it is the
+	 * first component) to the joined string
+	 */
+	static void join(StringBuilder joined, int index, String separator, String component) {
+		if (index > 0) {
+			joined.append(separator);
+		}
+		joined.append(component);
+	}
+
 	@Override
 	public String getSignature() {
 		// accepts an array of strings, an optional string, returns a string
@@ -22,8 +22,6 @@
 
 package com.api.jsonata4java.expressions.functions;
 
-import java.time.Instant;
-
 import com.api.jsonata4java.expressions.EvaluateRuntimeException;
 import com.api.jsonata4java.expressions.ExpressionsVisitor;
 import com.api.jsonata4java.expressions.generated.MappingExpressionParser.Function_callContext;
@@ -58,7 +56,7 @@ public class MillisFunction extends FunctionBase implements Function {
 
 		// Make sure that we have the right number of arguments
 		if (argCount == 0) {
-			long millis = Instant.now().toEpochMilli();
+			long millis = expressionVisitor.getNow().toEpochMilli();
 			result = new LongNode(millis);
 		} else {
 			throw new EvaluateRuntimeException(ERR_ARG1BADTYPE);
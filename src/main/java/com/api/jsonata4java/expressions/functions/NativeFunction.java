@@ -0,0 +1,87 @@
+/**
+ * (c) Copyright 2018, 2019 IBM Corporation
+ * 1 New Orchard Road, 
+ * Armonk, New York, 10504-1722
+ * United States
+ * +1 914 499 1900
+ * support: Nathaniel Mills wnm3@us.ibm.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.api.jsonata4java.expressions.functions;
+
+import com.api.jsonata4java.expressions.ParseException;
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * A function implemented in Java and registered by name with a signature for
+ * one Expression or one BindingEnvironment. The arguments of a call are
+ * evaluated once, checked against the signature and passed to the
+ * {@link JavaFunction} as an array. The number of arguments of the calls
+ * already in an expression is also checked when the function is registered.
+ */
+public class NativeFunction extends TypedFunction {
+
+	String _name;
+	JavaFunction _implementation;
+
+	/**
+	 * @param name
+	 *                       the name of the function, with or without the leading
+	 *                       $
+	 * @param signature
+	 *                       the signature of the function, e.g. {@code <nn:s>}
+	 * @param implementation
+	 *                       the Java implementation
+	 * @throws ParseException
+	 *                        if the signature is not well formed
+	 */
+	public NativeFunction(String name, String signature, JavaFunction implementation) throws ParseException {
+		if (implementation == null) {
+			throw new ParseException("No implementation supplied for function " + name);
+		}
+		_name = name.startsWith("$") ? name : "$" + name;
+		_functionSignature = FunctionSignature.parse(signature);
+		_implementation = implementation;
+	}
+
+	/**
+	 * @return the name of the function including the leading $
+	 */
+	public String getName() {
+		return _name;
+	}
+
+	@Override
+	public String getSignature() {
+		return _functionSignature.toString();
+	}
+
+	/**
+	 * @param count
+	 *              the number of arguments written at a call site
+	 * @return whether the call is valid, allowing for an argument taken from the
+	 *         context
+	 */
+	public boolean acceptsCallArgumentCount(int count) {
+		return _functionSignature.acceptsArgumentCount(count)
+				|| (_functionSignature.acceptsContext() && _functionSignature.acceptsArgumentCount(count + 1));
+	}
+
+	@Override
+	public JsonNode call(JsonNode[] args) {
+		return _implementation.apply(args);
+	}
+}
@@ -58,7 +58,7 @@ public class NowFunction extends FunctionBase implements Function {
 
 		// Make sure that we have the right number of arguments
 		if (argCount == 0) {
-			Instant instant = Instant.now();
+			Instant instant = expressionVisitor.getNow();
 			result = new TextNode(instant.toString());
 		} else {
 			throw new EvaluateRuntimeException(ERR_ARG1BADTYPE);
@@ -23,13 +23,9 @@
 package com.api.jsonata4java.expressions.functions;
 
 import com.api.jsonata4java.expressions.EvaluateRuntimeException;
-import com.api.jsonata4java.expressions.ExpressionsVisitor;
-import com.api.jsonata4java.expressions.generated.MappingExpressionParser.Function_callContext;
 import com.api.jsonata4java.expressions.utils.Constants;
-import com.api.jsonata4java.expressions.utils.FunctionUtils;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.DoubleNode;
-import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 
 /**
  * http://docs.jsonata.org/numeric-functions.html
@@ -48,61 +44,31 @@ import com.fasterxml.jackson.databind.node.JsonNodeFactory;
  * $sqrt(4)==2 $sqrt(2)==1.414213562373
  * 
  */
-public class SqrtFunction extends FunctionBase implements Function {
+public class SqrtFunction extends TypedFunction {
 
 	public static String ERR_BAD_CONTEXT = String.format(Constants.ERR_MSG_BAD_CONTEXT, Constants.FUNCTION_SQRT);
 	public static String ERR_ARG1BADTYPE = String.format(Constants.ERR_MSG_ARG1_BAD_TYPE, Constants.FUNCTION_SQRT);
 	public static String ERR_ARG2BADTYPE = String.format(Constants.ERR_MSG_ARG2_BAD_TYPE, Constants.FUNCTION_SQRT);
 
-	public JsonNode invoke(ExpressionsVisitor expressionVisitor, Function_callContext ctx) {
-		// Create the variable to return
-		JsonNode result = null;
-
-		// Retrieve the number of arguments
-		JsonNode argNumber = JsonNodeFactory.instance.nullNode();
-		boolean useContext = FunctionUtils.useContextVariable(ctx, getSignature());
-		int argCount = getArgumentCount(ctx);
-		if (useContext) {
-			argNumber = FunctionUtils.getContextVariable(expressionVisitor);
-			argCount++;
+	@Override
+	public JsonNode call(JsonNode[] args) {
+		// the signature has been checked: the argument is a number or absent
+		JsonNode argNumber = args[0];
+		if (argNumber == null) {
+			return null;
 		}
-
-		// Make sure that we have the right number of arguments
-		if (argCount == 1) {
-			if (!useContext) {
-				argNumber = FunctionUtils.getValuesListExpression(expressionVisitor, ctx, 0);
-			}
-			if (argNumber != null) {
-				// Check the type of the argument
-				if (argNumber.isNumber()) {
-					// Make sure that the number is a valid positive number
-					double number = argNumber.doubleValue();
-					if (number >= 0 && number != Double.NaN // Should not be possible
-															// because it should be
-															// caught in
-															// ExpressionsVisitor::visitNumber
-					) {
-						// Calculate the result and create the node to return
-						double sqrt = Math.sqrt(argNumber.doubleValue());
-						result = new DoubleNode(sqrt);
-					} else {
-						/*
-						 * The sqrt function cannot be applied to the argument. Throw a suitable
-						 * exception.
-						 */
-						final String msg = String.format(Constants.ERR_MSG_FUNC_CANNOT_BE_APPLIED_NEG_NUM,
-								Constants.FUNCTION_SQRT, argNumber.doubleValue());
-						throw new EvaluateRuntimeException(msg);
-					}
-				} else {
-					throw new EvaluateRuntimeException(ERR_ARG1BADTYPE);
-				}
-			}
-		} else {
-			throw new EvaluateRuntimeException(argCount == 0 ? ERR_BAD_CONTEXT : ERR_ARG2BADTYPE);
+		// Make sure that the number is a valid positive number
+		double number = argNumber.doubleValue();
+		if (number < 0) {
+			/*
+			 * The sqrt function cannot be applied to the argument. Throw a suitable
+			 * exception.
+			 */
+			final String msg = String.format(Constants.ERR_MSG_FUNC_CANNOT_BE_APPLIED_NEG_NUM, Constants.FUNCTION_SQRT,
+					number);
+			throw new EvaluateRuntimeException(msg);
 		}
-
-		return result;
+		return new DoubleNode(Math.sqrt(number));
 	}
 
 	@Override
@@ -73,7 +73,10 @@ public class StringFunction extends FunctionBase implements Function {
 			if (!useContext) {
 				arg = FunctionUtils.getValuesListExpression(expressionVisitor, ctx, 0);
 			}
-			if (arg != null) {
+			if (arg != null && arg.isTextual()) {
+				// already a string (or a string being built), so nothing to copy
+				result = arg;
+			} else if (arg != null) {
 				String asString = ExpressionsVisitor.castString(arg);
 				if (asString == null) {
 					result = null;
@@ -29,6 +29,7 @@ import com.api.jsonata4java.expressions.EvaluateRuntimeException;
 import com.api.jsonata4java.expressions.ExpressionsVisitor;
 import com.api.jsonata4java.expressions.generated.MappingExpressionParser.Function_callContext;
 import com.api.jsonata4java.expressions.utils.Constants;
+import com.api.jsonata4java.expressions.utils.DateTimeUtils;
 import com.api.jsonata4java.expressions.utils.FunctionUtils;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
@@ -37,22 +38,28 @@ import com.fasterxml.jackson.databind.node.LongNode;
 /**
  * http://docs.jsonata.org/numeric-functions.html
  * 
- * $toMillis(timestamp)
+ * $toMillis(timestamp [, picture])
  * 
- * Convert a timestamp string in the ISO 8601 format to the number of
- * milliseconds since the Unix Epoch (1 January, 1970 UTC) as a number.
+ * Convert a timestamp string to the number of milliseconds since the Unix
+ * Epoch (1 January, 1970 UTC) as a number.
+ * 
+ * If the optional picture string is supplied, then the format of the timestamp
+ * is defined by it, otherwise the timestamp must be in the ISO 8601 format.
  * 
  * An error is thrown if the string is not in the correct format.
  * 
  * Examples
  * 
  * $toMillis("2017-11-07T15:07:54.972Z")==1510067274972
+ * 
+ * $toMillis("11/07/2017 15:07", "[M01]/[D01]/[Y0001] [H01]:[m01]")==1510067220000
  */
 public class ToMillisFunction extends FunctionBase implements Function {
 
 	public static String ERR_BAD_CONTEXT = String.format(Constants.ERR_MSG_BAD_CONTEXT, Constants.FUNCTION_TO_MILLIS);
 	public static String ERR_ARG1BADTYPE = String.format(Constants.ERR_MSG_ARG1_BAD_TYPE, Constants.FUNCTION_TO_MILLIS);
 	public static String ERR_ARG2BADTYPE = String.format(Constants.ERR_MSG_ARG2_BAD_TYPE, Constants.FUNCTION_TO_MILLIS);
+	public static String ERR_ARG3BADTYPE = String.format(Constants.ERR_MSG_ARG3_BAD_TYPE, Constants.FUNCTION_TO_MILLIS);
 
 	public JsonNode invoke(ExpressionsVisitor expressionVisitor, Function_callContext ctx) {
 		// Create the variable to return
@@ -68,10 +75,16 @@ public class ToMillisFunction extends FunctionBase implements Function {
 		}
 
 		// Make sure that we have the right number of arguments
-		if (argCount == 1) {
+		if (argCount == 1 || argCount == 2) {
 			if (!useContext) {
 				argTimestamp = FunctionUtils.getValuesListExpression(expressionVisitor, ctx, 0);
 			}
+			JsonNode argPicture = argCount == 2
+					? FunctionUtils.getValuesListExpression(expressionVisitor, ctx, useContext ? 0 : 1)
+					: null;
+			if (argPicture != null && !argPicture.isNull() && !argPicture.isTextual()) {
+				throw new EvaluateRuntimeException(ERR_ARG2BADTYPE);
+			}
 			// if arg is an array, return its length. Any other type of
 			// input returns 1.
 			if (argTimestamp == null) {
@@ -79,6 +92,17 @@ public class ToMillisFunction extends FunctionBase implements Function {
 			}
 			// Check the type of the argument
 			if (argTimestamp.isTextual()) {
+				String timestamp = argTimestamp.asText();
+				if (argPicture != null && argPicture.isTextual()) {
+					return new LongNode(
+							DateTimeUtils.parse(timestamp, argPicture.textValue(), Constants.FUNCTION_TO_MILLIS));
+				}
+				// most timestamps are plain ISO 8601 strings the scanner handles
+				// without the cost of a parse exception when they are not
+				long millis = DateTimeUtils.parseIso(timestamp);
+				if (millis != DateTimeUtils.NOT_PARSED) {
+					return new LongNode(millis);
+				}
 				try {
 					/*
 					 * The string passed to us might contain an ISO 8601 format string that
@@ -86,15 +110,14 @@ public class ToMillisFunction extends FunctionBase implements Function {
 					 * DateTimeParseException when attempting to parse these strings. We need to use
 					 * the java.time.OffsetDateTime class instead.
 					 */
-					Long millis = OffsetDateTime.parse(argTimestamp.asText()).toInstant().toEpochMilli();
+					millis = OffsetDateTime.parse(timestamp).toInstant().toEpochMilli();
 					result = new LongNode(millis);
 				} catch (DateTimeParseException e) {
 					/*
 					 * The string argument does not contain a valid ISO 8601 format datetime string.
 					 * Throw a suitable exception.
 					 */
-					final String msg = String.format(Constants.ERR_MSG_TO_MILLIS_ISO_8601_FORMAT,
-							argTimestamp.asText());
+					final String msg = String.format(Constants.ERR_MSG_TO_MILLIS_ISO_8601_FORMAT, timestamp);
 					throw new EvaluateRuntimeException(msg);
 				}
 			} else {
@@ -103,7 +126,7 @@ public class ToMillisFunction extends FunctionBase implements Function {
 				throw new EvaluateRuntimeException(ERR_ARG1BADTYPE);
 			}
 		} else {
-			throw new EvaluateRuntimeException(argCount == 0 ? ERR_BAD_CONTEXT : ERR_ARG2BADTYPE);
+			throw new EvaluateRuntimeException(argCount == 0 ? ERR_BAD_CONTEXT : ERR_ARG3BADTYPE);
 		}
 
 		return result;
@@ -111,7 +134,8 @@ public class ToMillisFunction extends FunctionBase implements Function {
 
 	@Override
 	public String getSignature() {
-		// accepts a string (or context variable), an optional string, returns a number
+		// accepts a string (or context variable), an optional picture string, returns a
+		// number
 		return "<s-s?:n>";
 	}
 }
@@ -0,0 +1,86 @@
+/**
+ * (c) Copyright 2018, 2019 IBM Corporation
+ * 1 New Orchard Road, 
+ * Armonk, New York, 10504-1722
+ * United States
+ * +1 914 499 1900
+ * support: Nathaniel Mills wnm3@us.ibm.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.api.jsonata4java.expressions.functions;
+
+import com.api.jsonata4java.expressions.ExpressionsVisitor;
+import com.api.jsonata4java.expressions.generated.MappingExpressionParser.Function_callContext;
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Base of functions whose arguments are evaluated and checked against their
+ * signature by {@link FunctionSignature} before {@link #call(JsonNode[])}, so
+ * the implementation only deals with values of the declared types. The
+ * signature is parsed once per function, and how each call of a built in
+ * function passes its arguments is decided when the expression is parsed.
+ */
+public abstract class TypedFunction extends FunctionBase implements Function {
+
+	FunctionSignature _functionSignature = null;
+
+	/**
+	 * @return the parsed signature of the function
+	 */
+	public FunctionSignature getFunctionSignature() {
+		if (_functionSignature == null) {
+			_functionSignature = FunctionSignature.of(getSignature());
+		}
+		return _functionSignature;
+	}
+
+	@Override
+	public JsonNode invoke(ExpressionsVisitor expressionVisitor, Function_callContext ctx) {
+		FunctionSignature signature = getFunctionSignature();
+		FunctionSignature.CallShape shape = expressionVisitor.getCallShape(ctx, signature);
+		JsonNode[] args = signature.evaluateArguments(expressionVisitor, ctx, shape);
+		return call(signature.coerce(getFunctionName(ctx), args, shape.isFromContext()));
+	}
+
+	/**
+	 * Call the function with values that are already evaluated, as done by
+	 * higher order functions such as $map. Values beyond the signature's
+	 * parameters are dropped.
+	 * 
+	 * @param fctName
+	 *                the name the function is called by
+	 * @param args
+	 *                the evaluated arguments
+	 * @return the result of the function
+	 */
+	public JsonNode callWithValues(String fctName, JsonNode... args) {
+		FunctionSignature signature = getFunctionSignature();
+		if (args.length > signature.getMaxArity()) {
+			JsonNode[] trimmed = new JsonNode[signature.getMaxArity()];
+			System.arraycopy(args, 0, trimmed, 0, trimmed.length);
+			args = trimmed;
+		}
+		return call(signature.coerce(fctName, args, false));
+	}
+
+	/**
+	 * @param args
+	 *             the arguments, checked against the signature. An argument
+	 *             without a value is null.
+	 * @return the result of the function, or null for no result
+	 */
+	public abstract JsonNode call(JsonNode[] args);
+}
@@ -371,6 +371,18 @@ public class MappingExpressionBaseListener implements MappingExpressionListener
 	 * <p>The default implementation does nothing.</p>
 	 */
 	@Override public void exitBoolean(MappingExpressionParser.BooleanContext ctx) { }
+	/**
+	 * {@inheritDoc}
+	 *
+	 * <p>The default implementation does nothing.</p>
+	 */
+	@Override public void enterObject_transform(MappingExpressionParser.Object_transformContext ctx) { }
+	/**
+	 * {@inheritDoc}
+	 *
+	 * <p>The default implementation does nothing.</p>
+	 */
+	@Override public void exitObject_transform(MappingExpressionParser.Object_transformContext ctx) { }
 	/**
 	 * {@inheritDoc}
 	 *
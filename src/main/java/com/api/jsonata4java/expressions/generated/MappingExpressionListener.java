@@ -367,6 +367,18 @@ public interface MappingExpressionListener extends ParseTreeListener {
 	 * @param ctx the parse tree
 	 */
 	void exitBoolean(MappingExpressionParser.BooleanContext ctx);
+	/**
+	 * Enter a parse tree produced by the {@code object_transform}
+	 * labeled alternative in {@link MappingExpressionParser#expr}.
+	 * @param ctx the parse tree
+	 */
+	void enterObject_transform(MappingExpressionParser.Object_transformContext ctx);
+	/**
+	 * Exit a parse tree produced by the {@code object_transform}
+	 * labeled alternative in {@link MappingExpressionParser#expr}.
+	 * @param ctx the parse tree
+	 */
+	void exitObject_transform(MappingExpressionParser.Object_transformContext ctx);
 	/**
 	 * Enter a parse tree produced by the {@code null}
 	 * labeled alternative in {@link MappingExpressionParser#expr}.
@@ -22,8 +22,8 @@ public class MappingExpressionParser extends Parser {
 		OBJ_OPEN=18, OBJ_CLOSE=19, DOLLAR=20, ROOT=21, DESCEND=22, NUMBER=23, 
 		FUNCTIONID=24, WS=25, COMMENT=26, CHAIN=27, ASSIGN=28, MUL=29, DIV=30, 
 		ADD=31, SUB=32, REM=33, EQ=34, NOT_EQ=35, LT=36, LE=37, GT=38, GE=39, 
-		CONCAT=40, EACH=41, SIFT=42, REDUCE=43, FILTER=44, MAP=45, VAR_ID=46, 
-		ID=47;
+		CONCAT=40, PIPE=41, EACH=42, SIFT=43, REDUCE=44, FILTER=45, MAP=46, VAR_ID=47, 
+		ID=48;
 	public static final int
 		RULE_expr = 0, RULE_fieldList = 1, RULE_exprList = 2, RULE_varList = 3, 
 		RULE_exprValues = 4, RULE_emptyValues = 5, RULE_seq = 6, RULE_exprOrSeq = 7, 
@@ -38,7 +38,7 @@ public class MappingExpressionParser extends Parser {
 		"'false'", null, "'and'", "'or'", "'in'", "'null'", "'['", "']'", "'{'", 
 		"'}'", "'$'", "'$$'", "'**'", null, "'function'", null, null, "'~>'", 
 		"':='", "'*'", "'/'", "'+'", "'-'", "'%'", "'='", "'!='", "'<'", "'<='", 
-		"'>'", "'>='", "'&'", "'$each'", "'$sift'", "'$reduce'", "'$filter'", 
+		"'>'", "'>='", "'&'", "'|'", "'$each'", "'$sift'", "'$reduce'", "'$filter'", 
 		"'$map'"
 	};
 	private static final String[] _SYMBOLIC_NAMES = {
@@ -46,7 +46,7 @@ public class MappingExpressionParser extends Parser {
 		"STRING", "AND", "OR", "IN", "NULL", "ARR_OPEN", "ARR_CLOSE", "OBJ_OPEN", 
 		"OBJ_CLOSE", "DOLLAR", "ROOT", "DESCEND", "NUMBER", "FUNCTIONID", "WS", 
 		"COMMENT", "CHAIN", "ASSIGN", "MUL", "DIV", "ADD", "SUB", "REM", "EQ", 
-		"NOT_EQ", "LT", "LE", "GT", "GE", "CONCAT", "EACH", "SIFT", "REDUCE", 
+		"NOT_EQ", "LT", "LE", "GT", "GE", "CONCAT", "PIPE", "EACH", "SIFT", "REDUCE", 
 		"FILTER", "MAP", "VAR_ID", "ID"
 	};
 	public static final Vocabulary VOCABULARY = new VocabularyImpl(_LITERAL_NAMES, _SYMBOLIC_NAMES);
@@ -780,6 +780,28 @@ public class MappingExpressionParser extends Parser {
 			else return visitor.visitChildren(this);
 		}
 	}
+	public static class Object_transformContext extends ExprContext {
+		public List<ExprContext> expr() {
+			return getRuleContexts(ExprContext.class);
+		}
+		public ExprContext expr(int i) {
+			return getRuleContext(ExprContext.class,i);
+		}
+		public Object_transformContext(ExprContext ctx) { copyFrom(ctx); }
+		@Override
+		public void enterRule(ParseTreeListener listener) {
+			if ( listener instanceof MappingExpressionListener ) ((MappingExpressionListener)listener).enterObject_transform(this);
+		}
+		@Override
+		public void exitRule(ParseTreeListener listener) {
+			if ( listener instanceof MappingExpressionListener ) ((MappingExpressionListener)listener).exitObject_transform(this);
+		}
+		@Override
+		public <T> T accept(ParseTreeVisitor<? extends T> visitor) {
+			if ( visitor instanceof MappingExpressionVisitor ) return ((MappingExpressionVisitor<? extends T>)visitor).visitObject_transform(this);
+			else return visitor.visitChildren(this);
+		}
+	}
 	public static class NullContext extends ExprContext {
 		public TerminalNode NULL() { return getToken(MappingExpressionParser.NULL, 0); }
 		public NullContext(ExprContext ctx) { copyFrom(ctx); }
@@ -910,9 +932,9 @@ public class MappingExpressionParser extends Parser {
 			int _alt;
 			enterOuterAlt(_localctx, 1);
 			{
-			setState(198);
+			setState(208);
 			_errHandler.sync(this);
-			switch ( getInterpreter().adaptivePredict(_input,22,_ctx) ) {
+			switch ( getInterpreter().adaptivePredict(_input,23,_ctx) ) {
 			case 1:
 				{
 				_localctx = new IdContext(_localctx);
@@ -1012,7 +1034,7 @@ public class MappingExpressionParser extends Parser {
 				setState(40);
 				match(T__0);
 				setState(41);
-				expr(31);
+				expr(32);
 				}
 				break;
 			case 6:
@@ -1025,7 +1047,7 @@ public class MappingExpressionParser extends Parser {
 				setState(44);
 				_errHandler.sync(this);
 				_la = _input.LA(1);
-				if ((((_la) & ~0x3f) == 0 && ((1L << _la) & ((1L << T__1) | (1L << TRUE) | (1L << FALSE) | (1L << STRING) | (1L << NULL) | (1L << ARR_OPEN) | (1L << OBJ_OPEN) | (1L << DOLLAR) | (1L << ROOT) | (1L << DESCEND) | (1L << NUMBER) | (1L << FUNCTIONID) | (1L << MUL) | (1L << SUB) | (1L << EACH) | (1L << SIFT) | (1L << REDUCE) | (1L << FILTER) | (1L << MAP) | (1L << VAR_ID) | (1L << ID))) != 0)) {
+				if ((((_la) & ~0x3f) == 0 && ((1L << _la) & ((1L << T__1) | (1L << TRUE) | (1L << FALSE) | (1L << STRING) | (1L << NULL) | (1L << ARR_OPEN) | (1L << OBJ_OPEN) | (1L << DOLLAR) | (1L << ROOT) | (1L << DESCEND) | (1L << NUMBER) | (1L << FUNCTIONID) | (1L << MUL) | (1L << SUB) | (1L << PIPE) | (1L << EACH) | (1L << SIFT) | (1L << REDUCE) | (1L << FILTER) | (1L << MAP) | (1L << VAR_ID) | (1L << ID))) != 0)) {
 					{
 					setState(43);
 					exprOrSeqList();
@@ -1096,7 +1118,7 @@ public class MappingExpressionParser extends Parser {
 				setState(61);
 				_errHandler.sync(this);
 				_la = _input.LA(1);
-				if ((((_la) & ~0x3f) == 0 && ((1L << _la) & ((1L << T__1) | (1L << TRUE) | (1L << FALSE) | (1L << STRING) | (1L << NULL) | (1L << ARR_OPEN) | (1L << OBJ_OPEN) | (1L << DOLLAR) | (1L << ROOT) | (1L << DESCEND) | (1L << NUMBER) | (1L << FUNCTIONID) | (1L << MUL) | (1L << SUB) | (1L << EACH) | (1L << SIFT) | (1L << REDUCE) | (1L << FILTER) | (1L << MAP) | (1L << VAR_ID) | (1L << ID))) != 0)) {
+				if ((((_la) & ~0x3f) == 0 && ((1L << _la) & ((1L << T__1) | (1L << TRUE) | (1L << FALSE) | (1L << STRING) | (1L << NULL) | (1L << ARR_OPEN) | (1L << OBJ_OPEN) | (1L << DOLLAR) | (1L << ROOT) | (1L << DESCEND) | (1L << NUMBER) | (1L << FUNCTIONID) | (1L << MUL) | (1L << SUB) | (1L << PIPE) | (1L << EACH) | (1L << SIFT) | (1L << REDUCE) | (1L << FILTER) | (1L << MAP) | (1L << VAR_ID) | (1L << ID))) != 0)) {
 					{
 					setState(60);
 					exprList();
@@ -1137,7 +1159,7 @@ public class MappingExpressionParser extends Parser {
 					setState(72);
 					_errHandler.sync(this);
 					_la = _input.LA(1);
-					if ((((_la) & ~0x3f) == 0 && ((1L << _la) & ((1L << T__1) | (1L << TRUE) | (1L << FALSE) | (1L << STRING) | (1L << NULL) | (1L << ARR_OPEN) | (1L << OBJ_OPEN) | (1L << DOLLAR) | (1L << ROOT) | (1L << DESCEND) | (1L << NUMBER) | (1L << FUNCTIONID) | (1L << MUL) | (1L << SUB) | (1L << EACH) | (1L << SIFT) | (1L << REDUCE) | (1L << FILTER) | (1L << MAP) | (1L << VAR_ID) | (1L << ID))) != 0)) {
+					if ((((_la) & ~0x3f) == 0 && ((1L << _la) & ((1L << T__1) | (1L << TRUE) | (1L << FALSE) | (1L << STRING) | (1L << NULL) | (1L << ARR_OPEN) | (1L << OBJ_OPEN) | (1L << DOLLAR) | (1L << ROOT) | (1L << DESCEND) | (1L << NUMBER) | (1L << FUNCTIONID) | (1L << MUL) | (1L << SUB) | (1L << PIPE) | (1L << EACH) | (1L << SIFT) | (1L << REDUCE) | (1L << FILTER) | (1L << MAP) | (1L << VAR_ID) | (1L << ID))) != 0)) {
 						{
 						setState(71);
 						exprList();
@@ -1186,7 +1208,7 @@ public class MappingExpressionParser extends Parser {
 					setState(87);
 					_errHandler.sync(this);
 					_la = _input.LA(1);
-					if ((((_la) & ~0x3f) == 0 && ((1L << _la) & ((1L << T__1) | (1L << TRUE) | (1L << FALSE) | (1L << STRING) | (1L << NULL) | (1L << ARR_OPEN) | (1L << OBJ_OPEN) | (1L << DOLLAR) | (1L << ROOT) | (1L << DESCEND) | (1L << NUMBER) | (1L << FUNCTIONID) | (1L << MUL) | (1L << SUB) | (1L << EACH) | (1L << SIFT) | (1L << REDUCE) | (1L << FILTER) | (1L << MAP) | (1L << VAR_ID) | (1L << ID))) != 0)) {
+					if ((((_la) & ~0x3f) == 0 && ((1L << _la) & ((1L << T__1) | (1L << TRUE) | (1L << FALSE) | (1L << STRING) | (1L << NULL) | (1L << ARR_OPEN) | (1L << OBJ_OPEN) | (1L << DOLLAR) | (1L << ROOT) | (1L << DESCEND) | (1L << NUMBER) | (1L << FUNCTIONID) | (1L << MUL) | (1L << SUB) | (1L << PIPE) | (1L << EACH) | (1L << SIFT) | (1L << REDUCE) | (1L << FILTER) | (1L << MAP) | (1L << VAR_ID) | (1L << ID))) != 0)) {
 						{
 						setState(86);
 						exprList();
@@ -1239,7 +1261,7 @@ public class MappingExpressionParser extends Parser {
 					setState(104);
 					_errHandler.sync(this);
 					_la = _input.LA(1);
-					if ((((_la) & ~0x3f) == 0 && ((1L << _la) & ((1L << T__1) | (1L << TRUE) | (1L << FALSE) | (1L << STRING) | (1L << NULL) | (1L << ARR_OPEN) | (1L << OBJ_OPEN) | (1L << DOLLAR) | (1L << ROOT) | (1L << DESCEND) | (1L << NUMBER) | (1L << FUNCTIONID) | (1L << MUL) | (1L << SUB) | (1L << EACH) | (1L << SIFT) | (1L << REDUCE) | (1L << FILTER) | (1L << MAP) | (1L << VAR_ID) | (1L << ID))) != 0)) {
+					if ((((_la) & ~0x3f) == 0 && ((1L << _la) & ((1L << T__1) | (1L << TRUE) | (1L << FALSE) | (1L << STRING) | (1L << NULL) | (1L << ARR_OPEN) | (1L << OBJ_OPEN) | (1L << DOLLAR) | (1L << ROOT) | (1L << DESCEND) | (1L << NUMBER) | (1L << FUNCTIONID) | (1L << MUL) | (1L << SUB) | (1L << PIPE) | (1L << EACH) | (1L << SIFT) | (1L << REDUCE) | (1L << FILTER) | (1L << MAP) | (1L << VAR_ID) | (1L << ID))) != 0)) {
 						{
 						setState(103);
 						exprList();
@@ -1292,7 +1314,7 @@ public class MappingExpressionParser extends Parser {
 					setState(121);
 					_errHandler.sync(this);
 					_la = _input.LA(1);
-					if ((((_la) & ~0x3f) == 0 && ((1L << _la) & ((1L << T__1) | (1L << TRUE) | (1L << FALSE) | (1L << STRING) | (1L << NULL) | (1L << ARR_OPEN) | (1L << OBJ_OPEN) | (1L << DOLLAR) | (1L << ROOT) | (1L << DESCEND) | (1L << NUMBER) | (1L << FUNCTIONID) | (1L << MUL) | (1L << SUB) | (1L << EACH) | (1L << SIFT) | (1L << REDUCE) | (1L << FILTER) | (1L << MAP) | (1L << VAR_ID) | (1L << ID))) != 0)) {
+					if ((((_la) & ~0x3f) == 0 && ((1L << _la) & ((1L << T__1) | (1L << TRUE) | (1L << FALSE) | (1L << STRING) | (1L << NULL) | (1L << ARR_OPEN) | (1L << OBJ_OPEN) | (1L << DOLLAR) | (1L << ROOT) | (1L << DESCEND) | (1L << NUMBER) | (1L << FUNCTIONID) | (1L << MUL) | (1L << SUB) | (1L << PIPE) | (1L << EACH) | (1L << SIFT) | (1L << REDUCE) | (1L << FILTER) | (1L << MAP) | (1L << VAR_ID) | (1L << ID))) != 0)) {
 						{
 						setState(120);
 						exprList();
@@ -1345,7 +1367,7 @@ public class MappingExpressionParser extends Parser {
 					setState(138);
 					_errHandler.sync(this);
 					_la = _input.LA(1);
-					if ((((_la) & ~0x3f) == 0 && ((1L << _la) & ((1L << T__1) | (1L << TRUE) | (1L << FALSE) | (1L << STRING) | (1L << NULL) | (1L << ARR_OPEN) | (1L << OBJ_OPEN) | (1L << DOLLAR) | (1L << ROOT) | (1L << DESCEND) | (1L << NUMBER) | (1L << FUNCTIONID) | (1L << MUL) | (1L << SUB) | (1L << EACH) | (1L << SIFT) | (1L << REDUCE) | (1L << FILTER) | (1L << MAP) | (1L << VAR_ID) | (1L << ID))) != 0)) {
+					if ((((_la) & ~0x3f) == 0 && ((1L << _la) & ((1L << T__1) | (1L << TRUE) | (1L << FALSE) | (1L << STRING) | (1L << NULL) | (1L << ARR_OPEN) | (1L << OBJ_OPEN) | (1L << DOLLAR) | (1L << ROOT) | (1L << DESCEND) | (1L << NUMBER) | (1L << FUNCTIONID) | (1L << MUL) | (1L << SUB) | (1L << PIPE) | (1L << EACH) | (1L << SIFT) | (1L << REDUCE) | (1L << FILTER) | (1L << MAP) | (1L << VAR_ID) | (1L << ID))) != 0)) {
 						{
 						setState(137);
 						exprList();
@@ -1414,7 +1436,7 @@ public class MappingExpressionParser extends Parser {
 					setState(162);
 					_errHandler.sync(this);
 					_la = _input.LA(1);
-					if ((((_la) & ~0x3f) == 0 && ((1L << _la) & ((1L << T__1) | (1L << TRUE) | (1L << FALSE) | (1L << STRING) | (1L << NULL) | (1L << ARR_OPEN) | (1L << OBJ_OPEN) | (1L << DOLLAR) | (1L << ROOT) | (1L << DESCEND) | (1L << NUMBER) | (1L << FUNCTIONID) | (1L << MUL) | (1L << SUB) | (1L << EACH) | (1L << SIFT) | (1L << REDUCE) | (1L << FILTER) | (1L << MAP) | (1L << VAR_ID) | (1L << ID))) != 0)) {
+					if ((((_la) & ~0x3f) == 0 && ((1L << _la) & ((1L << T__1) | (1L << TRUE) | (1L << FALSE) | (1L << STRING) | (1L << NULL) | (1L << ARR_OPEN) | (1L << OBJ_OPEN) | (1L << DOLLAR) | (1L << ROOT) | (1L << DESCEND) | (1L << NUMBER) | (1L << FUNCTIONID) | (1L << MUL) | (1L << SUB) | (1L << PIPE) | (1L << EACH) | (1L << SIFT) | (1L << REDUCE) | (1L << FILTER) | (1L << MAP) | (1L << VAR_ID) | (1L << ID))) != 0)) {
 						{
 						setState(161);
 						exprList();
@@ -1448,7 +1470,7 @@ public class MappingExpressionParser extends Parser {
 				setState(174);
 				_errHandler.sync(this);
 				_la = _input.LA(1);
-				if ((((_la) & ~0x3f) == 0 && ((1L << _la) & ((1L << T__1) | (1L << TRUE) | (1L << FALSE) | (1L << STRING) | (1L << NULL) | (1L << ARR_OPEN) | (1L << OBJ_OPEN) | (1L << DOLLAR) | (1L << ROOT) | (1L << DESCEND) | (1L << NUMBER) | (1L << FUNCTIONID) | (1L << MUL) | (1L << SUB) | (1L << EACH) | (1L << SIFT) | (1L << REDUCE) | (1L << FILTER) | (1L << MAP) | (1L << VAR_ID) | (1L << ID))) != 0)) {
+				if ((((_la) & ~0x3f) == 0 && ((1L << _la) & ((1L << T__1) | (1L << TRUE) | (1L << FALSE) | (1L << STRING) | (1L << NULL) | (1L << ARR_OPEN) | (1L << OBJ_OPEN) | (1L << DOLLAR) | (1L << ROOT) | (1L << DESCEND) | (1L << NUMBER) | (1L << FUNCTIONID) | (1L << MUL) | (1L << SUB) | (1L << PIPE) | (1L << EACH) | (1L << SIFT) | (1L << REDUCE) | (1L << FILTER) | (1L << MAP) | (1L << VAR_ID) | (1L << ID))) != 0)) {
 					{
 					setState(173);
 					exprList();
@@ -1488,106 +1510,135 @@ public class MappingExpressionParser extends Parser {
 				setState(181);
 				((Unary_opContext)_localctx).op = match(SUB);
 				setState(182);
-				expr(15);
+				expr(16);
 				}
 				break;
 			case 19:
 				{
-				_localctx = new ParensContext(_localctx);
+				_localctx = new Object_transformContext(_localctx);
 				_ctx = _localctx;
 				_prevctx = _localctx;
 				setState(183);
-				match(T__1);
+				match(PIPE);
 				setState(184);
 				expr(0);
+				setState(185);
+				match(PIPE);
+				setState(186);
+				expr(0);
 				setState(189);
 				_errHandler.sync(this);
 				_la = _input.LA(1);
+				if (_la==T__2) {
+					{
+					setState(187);
+					match(T__2);
+					setState(188);
+					expr(0);
+					}
+				}
+
+				setState(191);
+				match(PIPE);
+				}
+				break;
+			case 20:
+				{
+				_localctx = new ParensContext(_localctx);
+				_ctx = _localctx;
+				_prevctx = _localctx;
+				setState(193);
+				match(T__1);
+				setState(194);
+				expr(0);
+				setState(199);
+				_errHandler.sync(this);
+				_la = _input.LA(1);
 				while (_la==T__6) {
 					{
 					{
-					setState(185);
+					setState(195);
 					match(T__6);
-					setState(186);
+					setState(196);
 					expr(0);
 					}
 					}
-					setState(191);
+					setState(201);
 					_errHandler.sync(this);
 					_la = _input.LA(1);
 				}
-				setState(192);
+				setState(202);
 				match(T__3);
 				}
 				break;
-			case 20:
+			case 21:
 				{
 				_localctx = new Var_recallContext(_localctx);
 				_ctx = _localctx;
 				_prevctx = _localctx;
-				setState(194);
+				setState(204);
 				match(VAR_ID);
 				}
 				break;
-			case 21:
+			case 22:
 				{
 				_localctx = new NumberContext(_localctx);
 				_ctx = _localctx;
 				_prevctx = _localctx;
-				setState(195);
+				setState(205);
 				match(NUMBER);
 				}
 				break;
-			case 22:
+			case 23:
 				{
 				_localctx = new StringContext(_localctx);
 				_ctx = _localctx;
 				_prevctx = _localctx;
-				setState(196);
+				setState(206);
 				match(STRING);
 				}
 				break;
-			case 23:
+			case 24:
 				{
 				_localctx = new NullContext(_localctx);
 				_ctx = _localctx;
 				_prevctx = _localctx;
-				setState(197);
+				setState(207);
 				match(NULL);
 				}
 				break;
 			}
 			_ctx.stop = _input.LT(-1);
-			setState(243);
+			setState(253);
 			_errHandler.sync(this);
-			_alt = getInterpreter().adaptivePredict(_input,24,_ctx);
+			_alt = getInterpreter().adaptivePredict(_input,25,_ctx);
 			while ( _alt!=2 && _alt!=org.antlr.v4.runtime.atn.ATN.INVALID_ALT_NUMBER ) {
 				if ( _alt==1 ) {
 					if ( _parseListeners!=null ) triggerExitRuleEvent();
 					_prevctx = _localctx;
 					{
-					setState(241);
+					setState(251);
 					_errHandler.sync(this);
-					switch ( getInterpreter().adaptivePredict(_input,23,_ctx) ) {
+					switch ( getInterpreter().adaptivePredict(_input,24,_ctx) ) {
 					case 1:
 						{
 						_localctx = new PathContext(new ExprContext(_parentctx, _parentState));
 						pushNewRecursionContext(_localctx, _startState, RULE_expr);
-						setState(200);
-						if (!(precpred(_ctx, 30))) throw new FailedPredicateException(this, "precpred(_ctx, 30)");
-						setState(201);
+						setState(210);
+						if (!(precpred(_ctx, 31))) throw new FailedPredicateException(this, "precpred(_ctx, 31)");
+						setState(211);
 						match(T__0);
-						setState(202);
-						expr(31);
+						setState(212);
+						expr(32);
 						}
 						break;
 					case 2:
 						{
 						_localctx = new Muldiv_opContext(new ExprContext(_parentctx, _parentState));
 						pushNewRecursionContext(_localctx, _startState, RULE_expr);
-						setState(203);
-						if (!(precpred(_ctx, 14))) throw new FailedPredicateException(this, "precpred(_ctx, 14)");
-						setState(204);
+						setState(213);
+						if (!(precpred(_ctx, 15))) throw new FailedPredicateException(this, "precpred(_ctx, 15)");
+						setState(214);
 						((Muldiv_opContext)_localctx).op = _input.LT(1);
 						_la = _input.LA(1);
 						if ( !((((_la) & ~0x3f) == 0 && ((1L << _la) & ((1L << MUL) | (1L << DIV) | (1L << REM))) != 0)) ) {
@@ -1598,17 +1649,17 @@ public class MappingExpressionParser extends Parser {
 							_errHandler.reportMatch(this);
 							consume();
 						}
-						setState(205);
-						expr(15);
+						setState(215);
+						expr(16);
 						}
 						break;
 					case 3:
 						{
 						_localctx = new Addsub_opContext(new ExprContext(_parentctx, _parentState));
 						pushNewRecursionContext(_localctx, _startState, RULE_expr);
-						setState(206);
-						if (!(precpred(_ctx, 13))) throw new FailedPredicateException(this, "precpred(_ctx, 13)");
-						setState(207);
+						setState(216);
+						if (!(precpred(_ctx, 14))) throw new FailedPredicateException(this, "precpred(_ctx, 14)");
+						setState(217);
 						((Addsub_opContext)_localctx).op = _input.LT(1);
 						_la = _input.LA(1);
 						if ( !(_la==ADD || _la==SUB) ) {
@@ -1619,29 +1670,29 @@ public class MappingExpressionParser extends Parser {
 							_errHandler.reportMatch(this);
 							consume();
 						}
-						setState(208);
-						expr(14);
+						setState(218);
+						expr(15);
 						}
 						break;
 					case 4:
 						{
 						_localctx = new Concat_opContext(new ExprContext(_parentctx, _parentState));
 						pushNewRecursionContext(_localctx, _startState, RULE_expr);
-						setState(209);
-						if (!(precpred(_ctx, 12))) throw new FailedPredicateException(this, "precpred(_ctx, 12)");
-						setState(210);
+						setState(219);
+						if (!(precpred(_ctx, 13))) throw new FailedPredicateException(this, "precpred(_ctx, 13)");
+						setState(220);
 						match(CONCAT);
-						setState(211);
-						expr(13);
+						setState(221);
+						expr(14);
 						}
 						break;
 					case 5:
 						{
 						_localctx = new Comp_opContext(new ExprContext(_parentctx, _parentState));
 						pushNewRecursionContext(_localctx, _startState, RULE_expr);
-						setState(212);
-						if (!(precpred(_ctx, 11))) throw new FailedPredicateException(this, "precpred(_ctx, 11)");
-						setState(213);
+						setState(222);
+						if (!(precpred(_ctx, 12))) throw new FailedPredicateException(this, "precpred(_ctx, 12)");
+						setState(223);
 						((Comp_opContext)_localctx).op = _input.LT(1);
 						_la = _input.LA(1);
 						if ( !((((_la) & ~0x3f) == 0 && ((1L << _la) & ((1L << EQ) | (1L << NOT_EQ) | (1L << LT) | (1L << LE) | (1L << GT) | (1L << GE))) != 0)) ) {
@@ -1652,83 +1703,83 @@ public class MappingExpressionParser extends Parser {
 							_errHandler.reportMatch(this);
 							consume();
 						}
-						setState(214);
-						expr(12);
+						setState(224);
+						expr(13);
 						}
 						break;
 					case 6:
 						{
 						_localctx = new MembershipContext(new ExprContext(_parentctx, _parentState));
 						pushNewRecursionContext(_localctx, _startState, RULE_expr);
-						setState(215);
-						if (!(precpred(_ctx, 10))) throw new FailedPredicateException(this, "precpred(_ctx, 10)");
-						setState(216);
+						setState(225);
+						if (!(precpred(_ctx, 11))) throw new FailedPredicateException(this, "precpred(_ctx, 11)");
+						setState(226);
 						match(IN);
-						setState(217);
-						expr(11);
+						setState(227);
+						expr(12);
 						}
 						break;
 					case 7:
 						{
 						_localctx = new LogandContext(new ExprContext(_parentctx, _parentState));
 						pushNewRecursionContext(_localctx, _startState, RULE_expr);
-						setState(218);
-						if (!(precpred(_ctx, 9))) throw new FailedPredicateException(this, "precpred(_ctx, 9)");
-						setState(219);
+						setState(228);
+						if (!(precpred(_ctx, 10))) throw new FailedPredicateException(this, "precpred(_ctx, 10)");
+						setState(229);
 						match(AND);
-						setState(220);
-						expr(10);
+						setState(230);
+						expr(11);
 						}
 						break;
 					case 8:
 						{
 						_localctx = new LogorContext(new ExprContext(_parentctx, _parentState));
 						pushNewRecursionContext(_localctx, _startState, RULE_expr);
-						setState(221);
-						if (!(precpred(_ctx, 8))) throw new FailedPredicateException(this, "precpred(_ctx, 8)");
-						setState(222);
+						setState(231);
+						if (!(precpred(_ctx, 9))) throw new FailedPredicateException(this, "precpred(_ctx, 9)");
+						setState(232);
 						match(OR);
-						setState(223);
-						expr(9);
+						setState(233);
+						expr(10);
 						}
 						break;
 					case 9:
 						{
 						_localctx = new ConditionalContext(new ExprContext(_parentctx, _parentState));
 						pushNewRecursionContext(_localctx, _startState, RULE_expr);
-						setState(224);
-						if (!(precpred(_ctx, 7))) throw new FailedPredicateException(this, "precpred(_ctx, 7)");
-						setState(225);
+						setState(234);
+						if (!(precpred(_ctx, 8))) throw new FailedPredicateException(this, "precpred(_ctx, 8)");
+						setState(235);
 						match(T__4);
-						setState(226);
+						setState(236);
 						expr(0);
-						setState(227);
+						setState(237);
 						match(T__5);
-						setState(228);
-						expr(8);
+						setState(238);
+						expr(9);
 						}
 						break;
 					case 10:
 						{
 						_localctx = new Fct_chainContext(new ExprContext(_parentctx, _parentState));
 						pushNewRecursionContext(_localctx, _startState, RULE_expr);
-						setState(230);
-						if (!(precpred(_ctx, 6))) throw new FailedPredicateException(this, "precpred(_ctx, 6)");
-						setState(231);
+						setState(240);
+						if (!(precpred(_ctx, 7))) throw new FailedPredicateException(this, "precpred(_ctx, 7)");
+						setState(241);
 						match(CHAIN);
-						setState(232);
-						expr(7);
+						setState(242);
+						expr(8);
 						}
 						break;
 					case 11:
 						{
 						_localctx = new To_arrayContext(new ExprContext(_parentctx, _parentState));
 						pushNewRecursionContext(_localctx, _startState, RULE_expr);
-						setState(233);
-						if (!(precpred(_ctx, 29))) throw new FailedPredicateException(this, "precpred(_ctx, 29)");
-						setState(234);
+						setState(243);
+						if (!(precpred(_ctx, 30))) throw new FailedPredicateException(this, "precpred(_ctx, 30)");
+						setState(244);
 						match(ARR_OPEN);
-						setState(235);
+						setState(245);
 						match(ARR_CLOSE);
 						}
 						break;
@@ -1736,22 +1787,22 @@ public class MappingExpressionParser extends Parser {
 						{
 						_localctx = new ArrayContext(new ExprContext(_parentctx, _parentState));
 						pushNewRecursionContext(_localctx, _startState, RULE_expr);
-						setState(236);
-						if (!(precpred(_ctx, 28))) throw new FailedPredicateException(this, "precpred(_ctx, 28)");
-						setState(237);
+						setState(246);
+						if (!(precpred(_ctx, 29))) throw new FailedPredicateException(this, "precpred(_ctx, 29)");
+						setState(247);
 						match(ARR_OPEN);
-						setState(238);
+						setState(248);
 						expr(0);
-						setState(239);
+						setState(249);
 						match(ARR_CLOSE);
 						}
 						break;
 					}
 					} 
 				}
-				setState(245);
+				setState(255);
 				_errHandler.sync(this);
-				_alt = getInterpreter().adaptivePredict(_input,24,_ctx);
+				_alt = getInterpreter().adaptivePredict(_input,25,_ctx);
 			}
 			}
 		}
@@ -1803,29 +1854,29 @@ public class MappingExpressionParser extends Parser {
 		try {
 			enterOuterAlt(_localctx, 1);
 			{
-			setState(246);
+			setState(256);
 			match(STRING);
-			setState(247);
+			setState(257);
 			match(T__5);
-			setState(248);
+			setState(258);
 			expr(0);
-			setState(255);
+			setState(265);
 			_errHandler.sync(this);
 			_la = _input.LA(1);
 			while (_la==T__2) {
 				{
 				{
-				setState(249);
+				setState(259);
 				match(T__2);
-				setState(250);
+				setState(260);
 				match(STRING);
-				setState(251);
+				setState(261);
 				match(T__5);
-				setState(252);
+				setState(262);
 				expr(0);
 				}
 				}
-				setState(257);
+				setState(267);
 				_errHandler.sync(this);
 				_la = _input.LA(1);
 			}
@@ -1875,25 +1926,25 @@ public class MappingExpressionParser extends Parser {
 			int _alt;
 			enterOuterAlt(_localctx, 1);
 			{
-			setState(258);
+			setState(268);
 			expr(0);
-			setState(263);
+			setState(273);
 			_errHandler.sync(this);
-			_alt = getInterpreter().adaptivePredict(_input,26,_ctx);
+			_alt = getInterpreter().adaptivePredict(_input,27,_ctx);
 			while ( _alt!=2 && _alt!=org.antlr.v4.runtime.atn.ATN.INVALID_ALT_NUMBER ) {
 				if ( _alt==1 ) {
 					{
 					{
-					setState(259);
+					setState(269);
 					match(T__2);
-					setState(260);
+					setState(270);
 					expr(0);
 					}
 					} 
 				}
-				setState(265);
+				setState(275);
 				_errHandler.sync(this);
-				_alt = getInterpreter().adaptivePredict(_input,26,_ctx);
+				_alt = getInterpreter().adaptivePredict(_input,27,_ctx);
 			}
 			}
 		}
@@ -1939,39 +1990,39 @@ public class MappingExpressionParser extends Parser {
 		try {
 			enterOuterAlt(_localctx, 1);
 			{
-			setState(266);
+			setState(276);
 			match(T__1);
-			setState(277);
+			setState(287);
 			_errHandler.sync(this);
 			_la = _input.LA(1);
 			while (_la==VAR_ID) {
 				{
 				{
-				setState(267);
+				setState(277);
 				match(VAR_ID);
-				setState(272);
+				setState(282);
 				_errHandler.sync(this);
 				_la = _input.LA(1);
 				while (_la==T__2) {
 					{
 					{
-					setState(268);
+					setState(278);
 					match(T__2);
-					setState(269);
+					setState(279);
 					match(VAR_ID);
 					}
 					}
-					setState(274);
+					setState(284);
 					_errHandler.sync(this);
 					_la = _input.LA(1);
 				}
 				}
 				}
-				setState(279);
+				setState(289);
 				_errHandler.sync(this);
 				_la = _input.LA(1);
 			}
-			setState(280);
+			setState(290);
 			match(T__3);
 			}
 		}
@@ -2015,11 +2066,11 @@ public class MappingExpressionParser extends Parser {
 		try {
 			enterOuterAlt(_localctx, 1);
 			{
-			setState(282);
+			setState(292);
 			match(T__1);
-			setState(283);
+			setState(293);
 			exprList();
-			setState(284);
+			setState(294);
 			match(T__3);
 			}
 		}
@@ -2060,9 +2111,9 @@ public class MappingExpressionParser extends Parser {
 		try {
 			enterOuterAlt(_localctx, 1);
 			{
-			setState(286);
+			setState(296);
 			match(T__1);
-			setState(287);
+			setState(297);
 			match(T__3);
 			}
 		}
@@ -2109,11 +2160,11 @@ public class MappingExpressionParser extends Parser {
 		try {
 			enterOuterAlt(_localctx, 1);
 			{
-			setState(289);
+			setState(299);
 			expr(0);
-			setState(290);
+			setState(300);
 			match(T__7);
-			setState(291);
+			setState(301);
 			expr(0);
 			}
 		}
@@ -2158,20 +2209,20 @@ public class MappingExpressionParser extends Parser {
 		ExprOrSeqContext _localctx = new ExprOrSeqContext(_ctx, getState());
 		enterRule(_localctx, 14, RULE_exprOrSeq);
 		try {
-			setState(295);
+			setState(305);
 			_errHandler.sync(this);
-			switch ( getInterpreter().adaptivePredict(_input,29,_ctx) ) {
+			switch ( getInterpreter().adaptivePredict(_input,30,_ctx) ) {
 			case 1:
 				enterOuterAlt(_localctx, 1);
 				{
-				setState(293);
+				setState(303);
 				seq();
 				}
 				break;
 			case 2:
 				enterOuterAlt(_localctx, 2);
 				{
-				setState(294);
+				setState(304);
 				expr(0);
 				}
 				break;
@@ -2221,21 +2272,21 @@ public class MappingExpressionParser extends Parser {
 		try {
 			enterOuterAlt(_localctx, 1);
 			{
-			setState(297);
+			setState(307);
 			exprOrSeq();
-			setState(302);
+			setState(312);
 			_errHandler.sync(this);
 			_la = _input.LA(1);
 			while (_la==T__2) {
 				{
 				{
-				setState(298);
+				setState(308);
 				match(T__2);
-				setState(299);
+				setState(309);
 				exprOrSeq();
 				}
 				}
-				setState(304);
+				setState(314);
 				_errHandler.sync(this);
 				_la = _input.LA(1);
 			}
@@ -2262,35 +2313,35 @@ public class MappingExpressionParser extends Parser {
 	private boolean expr_sempred(ExprContext _localctx, int predIndex) {
 		switch (predIndex) {
 		case 0:
-			return precpred(_ctx, 30);
+			return precpred(_ctx, 31);
 		case 1:
-			return precpred(_ctx, 14);
+			return precpred(_ctx, 15);
 		case 2:
-			return precpred(_ctx, 13);
+			return precpred(_ctx, 14);
 		case 3:
-			return precpred(_ctx, 12);
+			return precpred(_ctx, 13);
 		case 4:
-			return precpred(_ctx, 11);
+			return precpred(_ctx, 12);
 		case 5:
-			return precpred(_ctx, 10);
+			return precpred(_ctx, 11);
 		case 6:
-			return precpred(_ctx, 9);
+			return precpred(_ctx, 10);
 		case 7:
-			return precpred(_ctx, 8);
+			return precpred(_ctx, 9);
 		case 8:
-			return precpred(_ctx, 7);
+			return precpred(_ctx, 8);
 		case 9:
-			return precpred(_ctx, 6);
+			return precpred(_ctx, 7);
 		case 10:
-			return precpred(_ctx, 29);
+			return precpred(_ctx, 30);
 		case 11:
-			return precpred(_ctx, 28);
+			return precpred(_ctx, 29);
 		}
 		return true;
 	}
 
 	public static final String _serializedATN =
-		"\3\u608b\ua72a\u8133\ub9ed\u417c\u3be7\u7786\u5964\3\61\u0134\4\2\t\2"+
+		"\3\u608b\ua72a\u8133\ub9ed\u417c\u3be7\u7786\u5964\3\62\u013e\4\2\t\2"+
 		"\4\3\t\3\4\4\t\4\4\5\t\5\4\6\t\6\4\7\t\7\4\b\t\b\4\t\t\t\4\n\t\n\3\2\3"+
 		"\2\3\2\3\2\3\2\5\2\32\n\2\3\2\3\2\3\2\5\2\37\n\2\3\2\3\2\3\2\3\2\3\2\3"+
 		"\2\3\2\5\2(\n\2\3\2\3\2\3\2\3\2\3\2\5\2/\n\2\3\2\3\2\3\2\5\2\64\n\2\3"+
@@ -2302,104 +2353,108 @@ public class MappingExpressionParser extends Parser {
 		"\3\2\3\2\3\2\5\2\u008d\n\2\3\2\3\2\5\2\u0091\n\2\3\2\3\2\7\2\u0095\n\2"+
 		"\f\2\16\2\u0098\13\2\3\2\3\2\3\2\3\2\3\2\3\2\3\2\3\2\3\2\3\2\3\2\5\2\u00a5"+
 		"\n\2\3\2\3\2\5\2\u00a9\n\2\3\2\3\2\3\2\3\2\3\2\3\2\5\2\u00b1\n\2\3\2\3"+
-		"\2\3\2\3\2\3\2\3\2\3\2\3\2\3\2\3\2\3\2\7\2\u00be\n\2\f\2\16\2\u00c1\13"+
-		"\2\3\2\3\2\3\2\3\2\3\2\3\2\5\2\u00c9\n\2\3\2\3\2\3\2\3\2\3\2\3\2\3\2\3"+
+		"\2\3\2\3\2\3\2\3\2\3\2\3\2\3\2\3\2\3\2\3\2\3\2\5\2\u00c0\n\2\3\2\3\2\3"+
+		"\2\3\2\3\2\3\2\7\2\u00c8\n\2\f\2\16\2\u00cb\13\2\3\2\3\2\3\2\3\2\3\2\3"+
+		"\2\5\2\u00d3\n\2\3\2\3\2\3\2\3\2\3\2\3\2\3\2\3\2\3\2\3\2\3\2\3\2\3\2\3"+
 		"\2\3\2\3\2\3\2\3\2\3\2\3\2\3\2\3\2\3\2\3\2\3\2\3\2\3\2\3\2\3\2\3\2\3\2"+
-		"\3\2\3\2\3\2\3\2\3\2\3\2\3\2\3\2\3\2\3\2\3\2\3\2\3\2\3\2\3\2\3\2\7\2\u00f4"+
-		"\n\2\f\2\16\2\u00f7\13\2\3\3\3\3\3\3\3\3\3\3\3\3\3\3\7\3\u0100\n\3\f\3"+
-		"\16\3\u0103\13\3\3\4\3\4\3\4\7\4\u0108\n\4\f\4\16\4\u010b\13\4\3\5\3\5"+
-		"\3\5\3\5\7\5\u0111\n\5\f\5\16\5\u0114\13\5\7\5\u0116\n\5\f\5\16\5\u0119"+
-		"\13\5\3\5\3\5\3\6\3\6\3\6\3\6\3\7\3\7\3\7\3\b\3\b\3\b\3\b\3\t\3\t\5\t"+
-		"\u012a\n\t\3\n\3\n\3\n\7\n\u012f\n\n\f\n\16\n\u0132\13\n\3\n\2\3\2\13"+
-		"\2\4\6\b\n\f\16\20\22\2\6\3\2\13\f\4\2\37 ##\3\2!\"\3\2$)\2\u0168\2\u00c8"+
-		"\3\2\2\2\4\u00f8\3\2\2\2\6\u0104\3\2\2\2\b\u010c\3\2\2\2\n\u011c\3\2\2"+
-		"\2\f\u0120\3\2\2\2\16\u0123\3\2\2\2\20\u0129\3\2\2\2\22\u012b\3\2\2\2"+
-		"\24\25\b\2\1\2\25\u00c9\7\61\2\2\26\31\7\37\2\2\27\30\7\3\2\2\30\32\5"+
-		"\2\2\2\31\27\3\2\2\2\31\32\3\2\2\2\32\u00c9\3\2\2\2\33\36\7\30\2\2\34"+
-		"\35\7\3\2\2\35\37\5\2\2\2\36\34\3\2\2\2\36\37\3\2\2\2\37\u00c9\3\2\2\2"+
-		" \'\7\26\2\2!\"\7\3\2\2\"(\5\2\2\2#$\7\22\2\2$%\5\2\2\2%&\7\23\2\2&(\3"+
-		"\2\2\2\'!\3\2\2\2\'#\3\2\2\2(\u00c9\3\2\2\2)*\7\27\2\2*+\7\3\2\2+\u00c9"+
-		"\5\2\2!,.\7\22\2\2-/\5\22\n\2.-\3\2\2\2./\3\2\2\2/\60\3\2\2\2\60\u00c9"+
-		"\7\23\2\2\61\63\7\24\2\2\62\64\5\4\3\2\63\62\3\2\2\2\63\64\3\2\2\2\64"+
-		"\65\3\2\2\2\65\u00c9\7\25\2\2\669\7\60\2\2\67:\5\f\7\28:\5\n\6\29\67\3"+
-		"\2\2\298\3\2\2\2:\u00c9\3\2\2\2;<\7\32\2\2<=\5\b\5\2=?\7\24\2\2>@\5\6"+
-		"\4\2?>\3\2\2\2?@\3\2\2\2@A\3\2\2\2AB\7\25\2\2B\u00c9\3\2\2\2CD\7\60\2"+
-		"\2DN\7\36\2\2EO\5\2\2\2FG\7\32\2\2GH\5\b\5\2HJ\7\24\2\2IK\5\6\4\2JI\3"+
-		"\2\2\2JK\3\2\2\2KL\3\2\2\2LM\7\25\2\2MO\3\2\2\2NE\3\2\2\2NF\3\2\2\2O\u00c9"+
-		"\3\2\2\2PQ\7+\2\2QR\7\4\2\2RS\5\6\4\2S]\7\5\2\2T^\7\60\2\2UV\7\32\2\2"+
-		"VW\5\b\5\2WY\7\24\2\2XZ\5\6\4\2YX\3\2\2\2YZ\3\2\2\2Z[\3\2\2\2[\\\7\25"+
-		"\2\2\\^\3\2\2\2]T\3\2\2\2]U\3\2\2\2^_\3\2\2\2_`\7\6\2\2`\u00c9\3\2\2\2"+
-		"ab\7.\2\2bc\7\4\2\2cd\5\6\4\2dn\7\5\2\2eo\7\60\2\2fg\7\32\2\2gh\5\b\5"+
-		"\2hj\7\24\2\2ik\5\6\4\2ji\3\2\2\2jk\3\2\2\2kl\3\2\2\2lm\7\25\2\2mo\3\2"+
-		"\2\2ne\3\2\2\2nf\3\2\2\2op\3\2\2\2pq\7\6\2\2q\u00c9\3\2\2\2rs\7/\2\2s"+
-		"t\7\4\2\2tu\5\6\4\2u\177\7\5\2\2v\u0080\7\60\2\2wx\7\32\2\2xy\5\b\5\2"+
-		"y{\7\24\2\2z|\5\6\4\2{z\3\2\2\2{|\3\2\2\2|}\3\2\2\2}~\7\25\2\2~\u0080"+
-		"\3\2\2\2\177v\3\2\2\2\177w\3\2\2\2\u0080\u0081\3\2\2\2\u0081\u0082\7\6"+
-		"\2\2\u0082\u00c9\3\2\2\2\u0083\u0084\7-\2\2\u0084\u0085\7\4\2\2\u0085"+
-		"\u0086\5\6\4\2\u0086\u0090\7\5\2\2\u0087\u0091\7\60\2\2\u0088\u0089\7"+
-		"\32\2\2\u0089\u008a\5\b\5\2\u008a\u008c\7\24\2\2\u008b\u008d\5\6\4\2\u008c"+
-		"\u008b\3\2\2\2\u008c\u008d\3\2\2\2\u008d\u008e\3\2\2\2\u008e\u008f\7\25"+
-		"\2\2\u008f\u0091\3\2\2\2\u0090\u0087\3\2\2\2\u0090\u0088\3\2\2\2\u0091"+
-		"\u0096\3\2\2\2\u0092\u0093\7\5\2\2\u0093\u0095\5\20\t\2\u0094\u0092\3"+
-		"\2\2\2\u0095\u0098\3\2\2\2\u0096\u0094\3\2\2\2\u0096\u0097\3\2\2\2\u0097"+
-		"\u0099\3\2\2\2\u0098\u0096\3\2\2\2\u0099\u009a\7\6\2\2\u009a\u00c9\3\2"+
-		"\2\2\u009b\u009c\7,\2\2\u009c\u009d\7\4\2\2\u009d\u009e\5\6\4\2\u009e"+
-		"\u00a8\7\5\2\2\u009f\u00a9\7\60\2\2\u00a0\u00a1\7\32\2\2\u00a1\u00a2\5"+
-		"\b\5\2\u00a2\u00a4\7\24\2\2\u00a3\u00a5\5\6\4\2\u00a4\u00a3\3\2\2\2\u00a4"+
-		"\u00a5\3\2\2\2\u00a5\u00a6\3\2\2\2\u00a6\u00a7\7\25\2\2\u00a7\u00a9\3"+
-		"\2\2\2\u00a8\u009f\3\2\2\2\u00a8\u00a0\3\2\2\2\u00a9\u00aa\3\2\2\2\u00aa"+
-		"\u00ab\7\6\2\2\u00ab\u00c9\3\2\2\2\u00ac\u00ad\7\32\2\2\u00ad\u00ae\5"+
-		"\b\5\2\u00ae\u00b0\7\24\2\2\u00af\u00b1\5\6\4\2\u00b0\u00af\3\2\2\2\u00b0"+
-		"\u00b1\3\2\2\2\u00b1\u00b2\3\2\2\2\u00b2\u00b3\7\25\2\2\u00b3\u00b4\3"+
-		"\2\2\2\u00b4\u00b5\5\n\6\2\u00b5\u00c9\3\2\2\2\u00b6\u00c9\t\2\2\2\u00b7"+
-		"\u00b8\7\"\2\2\u00b8\u00c9\5\2\2\21\u00b9\u00ba\7\4\2\2\u00ba\u00bf\5"+
-		"\2\2\2\u00bb\u00bc\7\t\2\2\u00bc\u00be\5\2\2\2\u00bd\u00bb\3\2\2\2\u00be"+
-		"\u00c1\3\2\2\2\u00bf\u00bd\3\2\2\2\u00bf\u00c0\3\2\2\2\u00c0\u00c2\3\2"+
-		"\2\2\u00c1\u00bf\3\2\2\2\u00c2\u00c3\7\6\2\2\u00c3\u00c9\3\2\2\2\u00c4"+
-		"\u00c9\7\60\2\2\u00c5\u00c9\7\31\2\2\u00c6\u00c9\7\r\2\2\u00c7\u00c9\7"+
-		"\21\2\2\u00c8\24\3\2\2\2\u00c8\26\3\2\2\2\u00c8\33\3\2\2\2\u00c8 \3\2"+
-		"\2\2\u00c8)\3\2\2\2\u00c8,\3\2\2\2\u00c8\61\3\2\2\2\u00c8\66\3\2\2\2\u00c8"+
-		";\3\2\2\2\u00c8C\3\2\2\2\u00c8P\3\2\2\2\u00c8a\3\2\2\2\u00c8r\3\2\2\2"+
-		"\u00c8\u0083\3\2\2\2\u00c8\u009b\3\2\2\2\u00c8\u00ac\3\2\2\2\u00c8\u00b6"+
-		"\3\2\2\2\u00c8\u00b7\3\2\2\2\u00c8\u00b9\3\2\2\2\u00c8\u00c4\3\2\2\2\u00c8"+
-		"\u00c5\3\2\2\2\u00c8\u00c6\3\2\2\2\u00c8\u00c7\3\2\2\2\u00c9\u00f5\3\2"+
-		"\2\2\u00ca\u00cb\f \2\2\u00cb\u00cc\7\3\2\2\u00cc\u00f4\5\2\2!\u00cd\u00ce"+
-		"\f\20\2\2\u00ce\u00cf\t\3\2\2\u00cf\u00f4\5\2\2\21\u00d0\u00d1\f\17\2"+
-		"\2\u00d1\u00d2\t\4\2\2\u00d2\u00f4\5\2\2\20\u00d3\u00d4\f\16\2\2\u00d4"+
-		"\u00d5\7*\2\2\u00d5\u00f4\5\2\2\17\u00d6\u00d7\f\r\2\2\u00d7\u00d8\t\5"+
-		"\2\2\u00d8\u00f4\5\2\2\16\u00d9\u00da\f\f\2\2\u00da\u00db\7\20\2\2\u00db"+
-		"\u00f4\5\2\2\r\u00dc\u00dd\f\13\2\2\u00dd\u00de\7\16\2\2\u00de\u00f4\5"+
-		"\2\2\f\u00df\u00e0\f\n\2\2\u00e0\u00e1\7\17\2\2\u00e1\u00f4\5\2\2\13\u00e2"+
-		"\u00e3\f\t\2\2\u00e3\u00e4\7\7\2\2\u00e4\u00e5\5\2\2\2\u00e5\u00e6\7\b"+
-		"\2\2\u00e6\u00e7\5\2\2\n\u00e7\u00f4\3\2\2\2\u00e8\u00e9\f\b\2\2\u00e9"+
-		"\u00ea\7\35\2\2\u00ea\u00f4\5\2\2\t\u00eb\u00ec\f\37\2\2\u00ec\u00ed\7"+
-		"\22\2\2\u00ed\u00f4\7\23\2\2\u00ee\u00ef\f\36\2\2\u00ef\u00f0\7\22\2\2"+
-		"\u00f0\u00f1\5\2\2\2\u00f1\u00f2\7\23\2\2\u00f2\u00f4\3\2\2\2\u00f3\u00ca"+
-		"\3\2\2\2\u00f3\u00cd\3\2\2\2\u00f3\u00d0\3\2\2\2\u00f3\u00d3\3\2\2\2\u00f3"+
-		"\u00d6\3\2\2\2\u00f3\u00d9\3\2\2\2\u00f3\u00dc\3\2\2\2\u00f3\u00df\3\2"+
-		"\2\2\u00f3\u00e2\3\2\2\2\u00f3\u00e8\3\2\2\2\u00f3\u00eb\3\2\2\2\u00f3"+
-		"\u00ee\3\2\2\2\u00f4\u00f7\3\2\2\2\u00f5\u00f3\3\2\2\2\u00f5\u00f6\3\2"+
-		"\2\2\u00f6\3\3\2\2\2\u00f7\u00f5\3\2\2\2\u00f8\u00f9\7\r\2\2\u00f9\u00fa"+
-		"\7\b\2\2\u00fa\u0101\5\2\2\2\u00fb\u00fc\7\5\2\2\u00fc\u00fd\7\r\2\2\u00fd"+
-		"\u00fe\7\b\2\2\u00fe\u0100\5\2\2\2\u00ff\u00fb\3\2\2\2\u0100\u0103\3\2"+
-		"\2\2\u0101\u00ff\3\2\2\2\u0101\u0102\3\2\2\2\u0102\5\3\2\2\2\u0103\u0101"+
-		"\3\2\2\2\u0104\u0109\5\2\2\2\u0105\u0106\7\5\2\2\u0106\u0108\5\2\2\2\u0107"+
-		"\u0105\3\2\2\2\u0108\u010b\3\2\2\2\u0109\u0107\3\2\2\2\u0109\u010a\3\2"+
-		"\2\2\u010a\7\3\2\2\2\u010b\u0109\3\2\2\2\u010c\u0117\7\4\2\2\u010d\u0112"+
-		"\7\60\2\2\u010e\u010f\7\5\2\2\u010f\u0111\7\60\2\2\u0110\u010e\3\2\2\2"+
-		"\u0111\u0114\3\2\2\2\u0112\u0110\3\2\2\2\u0112\u0113\3\2\2\2\u0113\u0116"+
-		"\3\2\2\2\u0114\u0112\3\2\2\2\u0115\u010d\3\2\2\2\u0116\u0119\3\2\2\2\u0117"+
-		"\u0115\3\2\2\2\u0117\u0118\3\2\2\2\u0118\u011a\3\2\2\2\u0119\u0117\3\2"+
-		"\2\2\u011a\u011b\7\6\2\2\u011b\t\3\2\2\2\u011c\u011d\7\4\2\2\u011d\u011e"+
-		"\5\6\4\2\u011e\u011f\7\6\2\2\u011f\13\3\2\2\2\u0120\u0121\7\4\2\2\u0121"+
-		"\u0122\7\6\2\2\u0122\r\3\2\2\2\u0123\u0124\5\2\2\2\u0124\u0125\7\n\2\2"+
-		"\u0125\u0126\5\2\2\2\u0126\17\3\2\2\2\u0127\u012a\5\16\b\2\u0128\u012a"+
-		"\5\2\2\2\u0129\u0127\3\2\2\2\u0129\u0128\3\2\2\2\u012a\21\3\2\2\2\u012b"+
-		"\u0130\5\20\t\2\u012c\u012d\7\5\2\2\u012d\u012f\5\20\t\2\u012e\u012c\3"+
-		"\2\2\2\u012f\u0132\3\2\2\2\u0130\u012e\3\2\2\2\u0130\u0131\3\2\2\2\u0131"+
-		"\23\3\2\2\2\u0132\u0130\3\2\2\2!\31\36\'.\639?JNY]jn{\177\u008c\u0090"+
-		"\u0096\u00a4\u00a8\u00b0\u00bf\u00c8\u00f3\u00f5\u0101\u0109\u0112\u0117"+
-		"\u0129\u0130";
+		"\3\2\3\2\3\2\3\2\3\2\3\2\3\2\3\2\3\2\3\2\7\2\u00fe\n\2\f\2\16\2\u0101"+
+		"\13\2\3\3\3\3\3\3\3\3\3\3\3\3\3\3\7\3\u010a\n\3\f\3\16\3\u010d\13\3\3"+
+		"\4\3\4\3\4\7\4\u0112\n\4\f\4\16\4\u0115\13\4\3\5\3\5\3\5\3\5\7\5\u011b"+
+		"\n\5\f\5\16\5\u011e\13\5\7\5\u0120\n\5\f\5\16\5\u0123\13\5\3\5\3\5\3\6"+
+		"\3\6\3\6\3\6\3\7\3\7\3\7\3\b\3\b\3\b\3\b\3\t\3\t\5\t\u0134\n\t\3\n\3\n"+
+		"\3\n\7\n\u0139\n\n\f\n\16\n\u013c\13\n\3\n\2\3\2\13\2\4\6\b\n\f\16\20"+
+		"\22\2\6\3\2\13\f\4\2\37 ##\3\2!\"\3\2$)\2\u0174\2\u00d2\3\2\2\2\4\u0102"+
+		"\3\2\2\2\6\u010e\3\2\2\2\b\u0116\3\2\2\2\n\u0126\3\2\2\2\f\u012a\3\2\2"+
+		"\2\16\u012d\3\2\2\2\20\u0133\3\2\2\2\22\u0135\3\2\2\2\24\25\b\2\1\2\25"+
+		"\u00d3\7\62\2\2\26\31\7\37\2\2\27\30\7\3\2\2\30\32\5\2\2\2\31\27\3\2\2"+
+		"\2\31\32\3\2\2\2\32\u00d3\3\2\2\2\33\36\7\30\2\2\34\35\7\3\2\2\35\37\5"+
+		"\2\2\2\36\34\3\2\2\2\36\37\3\2\2\2\37\u00d3\3\2\2\2 \'\7\26\2\2!\"\7\3"+
+		"\2\2\"(\5\2\2\2#$\7\22\2\2$%\5\2\2\2%&\7\23\2\2&(\3\2\2\2\'!\3\2\2\2\'"+
+		"#\3\2\2\2(\u00d3\3\2\2\2)*\7\27\2\2*+\7\3\2\2+\u00d3\5\2\2\",.\7\22\2"+
+		"\2-/\5\22\n\2.-\3\2\2\2./\3\2\2\2/\60\3\2\2\2\60\u00d3\7\23\2\2\61\63"+
+		"\7\24\2\2\62\64\5\4\3\2\63\62\3\2\2\2\63\64\3\2\2\2\64\65\3\2\2\2\65\u00d3"+
+		"\7\25\2\2\669\7\61\2\2\67:\5\f\7\28:\5\n\6\29\67\3\2\2\298\3\2\2\2:\u00d3"+
+		"\3\2\2\2;<\7\32\2\2<=\5\b\5\2=?\7\24\2\2>@\5\6\4\2?>\3\2\2\2?@\3\2\2\2"+
+		"@A\3\2\2\2AB\7\25\2\2B\u00d3\3\2\2\2CD\7\61\2\2DN\7\36\2\2EO\5\2\2\2F"+
+		"G\7\32\2\2GH\5\b\5\2HJ\7\24\2\2IK\5\6\4\2JI\3\2\2\2JK\3\2\2\2KL\3\2\2"+
+		"\2LM\7\25\2\2MO\3\2\2\2NE\3\2\2\2NF\3\2\2\2O\u00d3\3\2\2\2PQ\7,\2\2QR"+
+		"\7\4\2\2RS\5\6\4\2S]\7\5\2\2T^\7\61\2\2UV\7\32\2\2VW\5\b\5\2WY\7\24\2"+
+		"\2XZ\5\6\4\2YX\3\2\2\2YZ\3\2\2\2Z[\3\2\2\2[\\\7\25\2\2\\^\3\2\2\2]T\3"+
+		"\2\2\2]U\3\2\2\2^_\3\2\2\2_`\7\6\2\2`\u00d3\3\2\2\2ab\7/\2\2bc\7\4\2\2"+
+		"cd\5\6\4\2dn\7\5\2\2eo\7\61\2\2fg\7\32\2\2gh\5\b\5\2hj\7\24\2\2ik\5\6"+
+		"\4\2ji\3\2\2\2jk\3\2\2\2kl\3\2\2\2lm\7\25\2\2mo\3\2\2\2ne\3\2\2\2nf\3"+
+		"\2\2\2op\3\2\2\2pq\7\6\2\2q\u00d3\3\2\2\2rs\7\60\2\2st\7\4\2\2tu\5\6\4"+
+		"\2u\177\7\5\2\2v\u0080\7\61\2\2wx\7\32\2\2xy\5\b\5\2y{\7\24\2\2z|\5\6"+
+		"\4\2{z\3\2\2\2{|\3\2\2\2|}\3\2\2\2}~\7\25\2\2~\u0080\3\2\2\2\177v\3\2"+
+		"\2\2\177w\3\2\2\2\u0080\u0081\3\2\2\2\u0081\u0082\7\6\2\2\u0082\u00d3"+
+		"\3\2\2\2\u0083\u0084\7.\2\2\u0084\u0085\7\4\2\2\u0085\u0086\5\6\4\2\u0086"+
+		"\u0090\7\5\2\2\u0087\u0091\7\61\2\2\u0088\u0089\7\32\2\2\u0089\u008a\5"+
+		"\b\5\2\u008a\u008c\7\24\2\2\u008b\u008d\5\6\4\2\u008c\u008b\3\2\2\2\u008c"+
+		"\u008d\3\2\2\2\u008d\u008e\3\2\2\2\u008e\u008f\7\25\2\2\u008f\u0091\3"+
+		"\2\2\2\u0090\u0087\3\2\2\2\u0090\u0088\3\2\2\2\u0091\u0096\3\2\2\2\u0092"+
+		"\u0093\7\5\2\2\u0093\u0095\5\20\t\2\u0094\u0092\3\2\2\2\u0095\u0098\3"+
+		"\2\2\2\u0096\u0094\3\2\2\2\u0096\u0097\3\2\2\2\u0097\u0099\3\2\2\2\u0098"+
+		"\u0096\3\2\2\2\u0099\u009a\7\6\2\2\u009a\u00d3\3\2\2\2\u009b\u009c\7-"+
+		"\2\2\u009c\u009d\7\4\2\2\u009d\u009e\5\6\4\2\u009e\u00a8\7\5\2\2\u009f"+
+		"\u00a9\7\61\2\2\u00a0\u00a1\7\32\2\2\u00a1\u00a2\5\b\5\2\u00a2\u00a4\7"+
+		"\24\2\2\u00a3\u00a5\5\6\4\2\u00a4\u00a3\3\2\2\2\u00a4\u00a5\3\2\2\2\u00a5"+
+		"\u00a6\3\2\2\2\u00a6\u00a7\7\25\2\2\u00a7\u00a9\3\2\2\2\u00a8\u009f\3"+
+		"\2\2\2\u00a8\u00a0\3\2\2\2\u00a9\u00aa\3\2\2\2\u00aa\u00ab\7\6\2\2\u00ab"+
+		"\u00d3\3\2\2\2\u00ac\u00ad\7\32\2\2\u00ad\u00ae\5\b\5\2\u00ae\u00b0\7"+
+		"\24\2\2\u00af\u00b1\5\6\4\2\u00b0\u00af\3\2\2\2\u00b0\u00b1\3\2\2\2\u00b1"+
+		"\u00b2\3\2\2\2\u00b2\u00b3\7\25\2\2\u00b3\u00b4\3\2\2\2\u00b4\u00b5\5"+
+		"\n\6\2\u00b5\u00d3\3\2\2\2\u00b6\u00d3\t\2\2\2\u00b7\u00b8\7\"\2\2\u00b8"+
+		"\u00d3\5\2\2\22\u00b9\u00ba\7+\2\2\u00ba\u00bb\5\2\2\2\u00bb\u00bc\7+"+
+		"\2\2\u00bc\u00bf\5\2\2\2\u00bd\u00be\7\5\2\2\u00be\u00c0\5\2\2\2\u00bf"+
+		"\u00bd\3\2\2\2\u00bf\u00c0\3\2\2\2\u00c0\u00c1\3\2\2\2\u00c1\u00c2\7+"+
+		"\2\2\u00c2\u00d3\3\2\2\2\u00c3\u00c4\7\4\2\2\u00c4\u00c9\5\2\2\2\u00c5"+
+		"\u00c6\7\t\2\2\u00c6\u00c8\5\2\2\2\u00c7\u00c5\3\2\2\2\u00c8\u00cb\3\2"+
+		"\2\2\u00c9\u00c7\3\2\2\2\u00c9\u00ca\3\2\2\2\u00ca\u00cc\3\2\2\2\u00cb"+
+		"\u00c9\3\2\2\2\u00cc\u00cd\7\6\2\2\u00cd\u00d3\3\2\2\2\u00ce\u00d3\7\61"+
+		"\2\2\u00cf\u00d3\7\31\2\2\u00d0\u00d3\7\r\2\2\u00d1\u00d3\7\21\2\2\u00d2"+
+		"\24\3\2\2\2\u00d2\26\3\2\2\2\u00d2\33\3\2\2\2\u00d2 \3\2\2\2\u00d2)\3"+
+		"\2\2\2\u00d2,\3\2\2\2\u00d2\61\3\2\2\2\u00d2\66\3\2\2\2\u00d2;\3\2\2\2"+
+		"\u00d2C\3\2\2\2\u00d2P\3\2\2\2\u00d2a\3\2\2\2\u00d2r\3\2\2\2\u00d2\u0083"+
+		"\3\2\2\2\u00d2\u009b\3\2\2\2\u00d2\u00ac\3\2\2\2\u00d2\u00b6\3\2\2\2\u00d2"+
+		"\u00b7\3\2\2\2\u00d2\u00b9\3\2\2\2\u00d2\u00c3\3\2\2\2\u00d2\u00ce\3\2"+
+		"\2\2\u00d2\u00cf\3\2\2\2\u00d2\u00d0\3\2\2\2\u00d2\u00d1\3\2\2\2\u00d3"+
+		"\u00ff\3\2\2\2\u00d4\u00d5\f!\2\2\u00d5\u00d6\7\3\2\2\u00d6\u00fe\5\2"+
+		"\2\"\u00d7\u00d8\f\21\2\2\u00d8\u00d9\t\3\2\2\u00d9\u00fe\5\2\2\22\u00da"+
+		"\u00db\f\20\2\2\u00db\u00dc\t\4\2\2\u00dc\u00fe\5\2\2\21\u00dd\u00de\f"+
+		"\17\2\2\u00de\u00df\7*\2\2\u00df\u00fe\5\2\2\20\u00e0\u00e1\f\16\2\2\u00e1"+
+		"\u00e2\t\5\2\2\u00e2\u00fe\5\2\2\17\u00e3\u00e4\f\r\2\2\u00e4\u00e5\7"+
+		"\20\2\2\u00e5\u00fe\5\2\2\16\u00e6\u00e7\f\f\2\2\u00e7\u00e8\7\16\2\2"+
+		"\u00e8\u00fe\5\2\2\r\u00e9\u00ea\f\13\2\2\u00ea\u00eb\7\17\2\2\u00eb\u00fe"+
+		"\5\2\2\f\u00ec\u00ed\f\n\2\2\u00ed\u00ee\7\7\2\2\u00ee\u00ef\5\2\2\2\u00ef"+
+		"\u00f0\7\b\2\2\u00f0\u00f1\5\2\2\13\u00f1\u00fe\3\2\2\2\u00f2\u00f3\f"+
+		"\t\2\2\u00f3\u00f4\7\35\2\2\u00f4\u00fe\5\2\2\n\u00f5\u00f6\f \2\2\u00f6"+
+		"\u00f7\7\22\2\2\u00f7\u00fe\7\23\2\2\u00f8\u00f9\f\37\2\2\u00f9\u00fa"+
+		"\7\22\2\2\u00fa\u00fb\5\2\2\2\u00fb\u00fc\7\23\2\2\u00fc\u00fe\3\2\2\2"+
+		"\u00fd\u00d4\3\2\2\2\u00fd\u00d7\3\2\2\2\u00fd\u00da\3\2\2\2\u00fd\u00dd"+
+		"\3\2\2\2\u00fd\u00e0\3\2\2\2\u00fd\u00e3\3\2\2\2\u00fd\u00e6\3\2\2\2\u00fd"+
+		"\u00e9\3\2\2\2\u00fd\u00ec\3\2\2\2\u00fd\u00f2\3\2\2\2\u00fd\u00f5\3\2"+
+		"\2\2\u00fd\u00f8\3\2\2\2\u00fe\u0101\3\2\2\2\u00ff\u00fd\3\2\2\2\u00ff"+
+		"\u0100\3\2\2\2\u0100\3\3\2\2\2\u0101\u00ff\3\2\2\2\u0102\u0103\7\r\2\2"+
+		"\u0103\u0104\7\b\2\2\u0104\u010b\5\2\2\2\u0105\u0106\7\5\2\2\u0106\u0107"+
+		"\7\r\2\2\u0107\u0108\7\b\2\2\u0108\u010a\5\2\2\2\u0109\u0105\3\2\2\2\u010a"+
+		"\u010d\3\2\2\2\u010b\u0109\3\2\2\2\u010b\u010c\3\2\2\2\u010c\5\3\2\2\2"+
+		"\u010d\u010b\3\2\2\2\u010e\u0113\5\2\2\2\u010f\u0110\7\5\2\2\u0110\u0112"+
+		"\5\2\2\2\u0111\u010f\3\2\2\2\u0112\u0115\3\2\2\2\u0113\u0111\3\2\2\2\u0113"+
+		"\u0114\3\2\2\2\u0114\7\3\2\2\2\u0115\u0113\3\2\2\2\u0116\u0121\7\4\2\2"+
+		"\u0117\u011c\7\61\2\2\u0118\u0119\7\5\2\2\u0119\u011b\7\61\2\2\u011a\u0118"+
+		"\3\2\2\2\u011b\u011e\3\2\2\2\u011c\u011a\3\2\2\2\u011c\u011d\3\2\2\2\u011d"+
+		"\u0120\3\2\2\2\u011e\u011c\3\2\2\2\u011f\u0117\3\2\2\2\u0120\u0123\3\2"+
+		"\2\2\u0121\u011f\3\2\2\2\u0121\u0122\3\2\2\2\u0122\u0124\3\2\2\2\u0123"+
+		"\u0121\3\2\2\2\u0124\u0125\7\6\2\2\u0125\t\3\2\2\2\u0126\u0127\7\4\2\2"+
+		"\u0127\u0128\5\6\4\2\u0128\u0129\7\6\2\2\u0129\13\3\2\2\2\u012a\u012b"+
+		"\7\4\2\2\u012b\u012c\7\6\2\2\u012c\r\3\2\2\2\u012d\u012e\5\2\2\2\u012e"+
+		"\u012f\7\n\2\2\u012f\u0130\5\2\2\2\u0130\17\3\2\2\2\u0131\u0134\5\16\b"+
+		"\2\u0132\u0134\5\2\2\2\u0133\u0131\3\2\2\2\u0133\u0132\3\2\2\2\u0134\21"+
+		"\3\2\2\2\u0135\u013a\5\20\t\2\u0136\u0137\7\5\2\2\u0137\u0139\5\20\t\2"+
+		"\u0138\u0136\3\2\2\2\u0139\u013c\3\2\2\2\u013a\u0138\3\2\2\2\u013a\u013b"+
+		"\3\2\2\2\u013b\23\3\2\2\2\u013c\u013a\3\2\2\2\"\31\36\'.\639?JNY]jn{\177"+
+		"\u008c\u0090\u0096\u00a4\u00a8\u00b0\u00bf\u00c9\u00d2\u00fd\u00ff\u010b"+
+		"\u0113\u011c\u0121\u0133\u013a";
 	public static final ATN _ATN =
 		new ATNDeserializer().deserialize(_serializedATN.toCharArray());
 	static {
@@ -220,6 +220,13 @@ public interface MappingExpressionVisitor<T> extends ParseTreeVisitor<T> {
 	 * @return the visitor result
 	 */
 	T visitBoolean(MappingExpressionParser.BooleanContext ctx);
+	/**
+	 * Visit a parse tree produced by the {@code object_transform}
+	 * labeled alternative in {@link MappingExpressionParser#expr}.
+	 * @param ctx the parse tree
+	 * @return the visitor result
+	 */
+	T visitObject_transform(MappingExpressionParser.Object_transformContext ctx);
 	/**
 	 * Visit a parse tree produced by the {@code null}
 	 * labeled alternative in {@link MappingExpressionParser#expr}.
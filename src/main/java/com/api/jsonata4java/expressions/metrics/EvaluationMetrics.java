@@ -0,0 +1,175 @@
+/**
+ * (c) Copyright 2018, 2019 IBM Corporation
+ * 1 New Orchard Road,
+ * Armonk, New York, 10504-1722
+ * United States
+ * +1 914 499 1900
+ * support: Nathaniel Mills wnm3@us.ibm.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.api.jsonata4java.expressions.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Metrics collected while a single evaluation runs. Instances are confined to
+ * the evaluating thread until they are handed to the MetricsListener.
+ */
+public class EvaluationMetrics {
+
+   /**
+    * Call count and time for one function within an evaluation
+    */
+   public static class FunctionCalls {
+      long _count = 0L;
+      long _nanos = 0L;
+
+      /**
+       * @return the number of calls
+       */
+      public long getCount() {
+         return _count;
+      }
+
+      /**
+       * @return the time spent in the calls (inclusive of nested calls)
+       */
+      public long getNanos() {
+         return _nanos;
+      }
+   }
+
+   static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+   static final boolean ALLOCATION_SUPPORTED = isAllocationSupported();
+
+   String _expressionName;
+   long _startNanos = 0L;
+   long _latencyNanos = 0L;
+   long _startAllocated = -1L;
+   long _allocatedBytes = -1L;
+   long _nodeVisits = 0L;
+   Map<String, FunctionCalls> _functions = new HashMap<String, FunctionCalls>();
+
+   /**
+    * @param expressionName
+    *                       the name used to aggregate the metrics of a compiled
+    *                       expression (e.g. its text or a tenant supplied name)
+    */
+   public EvaluationMetrics(String expressionName) {
+      _expressionName = expressionName;
+   }
+
+   /**
+    * Mark the start of the evaluation
+    */
+   public void start() {
+      if (ALLOCATION_SUPPORTED) {
+         _startAllocated = allocatedBytes();
+      }
+      _startNanos = System.nanoTime();
+   }
+
+   /**
+    * Mark the end of the evaluation
+    */
+   public void stop() {
+      _latencyNanos = System.nanoTime() - _startNanos;
+      if (_startAllocated != -1L) {
+         _allocatedBytes = allocatedBytes() - _startAllocated;
+      }
+   }
+
+   /**
+    * Count a visit of a node of the parse tree
+    */
+   public void nodeVisited() {
+      _nodeVisits++;
+   }
+
+   /**
+    * Record a function call
+    *
+    * @param functionName
+    *                     the name of the function including the leading $
+    * @param nanos
+    *                     the time spent in the call
+    */
+   public void functionCalled(String functionName, long nanos) {
+      FunctionCalls calls = _functions.get(functionName);
+      if (calls == null) {
+         calls = new FunctionCalls();
+         _functions.put(functionName, calls);
+      }
+      calls._count++;
+      calls._nanos += nanos;
+   }
+
+   /**
+    * @return the name of the evaluated expression
+    */
+   public String getExpressionName() {
+      return _expressionName;
+   }
+
+   /**
+    * @return the time taken by the evaluation in nanoseconds
+    */
+   public long getLatencyNanos() {
+      return _latencyNanos;
+   }
+
+   /**
+    * @return the number of bytes allocated by the evaluating thread during the
+    *         evaluation, or -1 if the JVM does not report allocations
+    */
+   public long getAllocatedBytes() {
+      return _allocatedBytes;
+   }
+
+   /**
+    * @return the number of parse tree nodes visited
+    */
+   public long getNodeVisits() {
+      return _nodeVisits;
+   }
+
+   /**
+    * @return calls made to each function keyed by function name
+    */
+   public Map<String, FunctionCalls> getFunctionCalls() {
+      return Collections.unmodifiableMap(_functions);
+   }
+
+   static long allocatedBytes() {
+      return ((com.sun.management.ThreadMXBean) THREADS).getThreadAllocatedBytes(Thread.currentThread().getId());
+   }
+
+   static boolean isAllocationSupported() {
+      try {
+         if (THREADS instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) THREADS;
+            return threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled();
+         }
+      } catch (Throwable t) {
+         // not a HotSpot based JVM
+      }
+      return false;
+   }
+}
@@ -0,0 +1,328 @@
+/**
+ * (c) Copyright 2018, 2019 IBM Corporation
+ * 1 New Orchard Road,
+ * Armonk, New York, 10504-1722
+ * United States
+ * +1 914 499 1900
+ * support: Nathaniel Mills wnm3@us.ibm.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.api.jsonata4java.expressions.metrics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.misc.Interval;
+import org.antlr.v4.runtime.tree.ParseTree;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Per node profile of a single evaluation ("explain analyze"). Every parse
+ * tree node visited records its invocation count, inclusive and exclusive time
+ * and the cardinality of its results. The profile is reported as a tree
+ * annotated with the source positions of the nodes.
+ */
+public class EvaluationProfile {
+
+   /**
+    * Profile of one node of the parse tree
+    */
+   public static class NodeProfile {
+      ParserRuleContext _node;
+      long _count = 0L;
+      long _inclusiveNanos = 0L;
+      long _exclusiveNanos = 0L;
+      long _cardinality = 0L;
+      long _errors = 0L;
+      List<NodeProfile> _children = new ArrayList<NodeProfile>();
+
+      NodeProfile(ParserRuleContext node) {
+         _node = node;
+      }
+
+      /**
+       * @return the profiled parse tree node
+       */
+      public ParserRuleContext getNode() {
+         return _node;
+      }
+
+      /**
+       * @return the grammar rule (or rule alternative label) of the node
+       */
+      public String getRule() {
+         String name = _node.getClass().getSimpleName();
+         if (name.endsWith("Context")) {
+            name = name.substring(0, name.length() - "Context".length());
+         }
+         return name.isEmpty() ? name : Character.toLowerCase(name.charAt(0)) + name.substring(1);
+      }
+
+      /**
+       * @return the source text of the node
+       */
+      public String getSource() {
+         Token start = _node.getStart();
+         Token stop = _node.getStop();
+         if (start != null && stop != null && start.getInputStream() != null && start.getStartIndex() >= 0
+               && stop.getStopIndex() >= start.getStartIndex()) {
+            CharStream input = start.getInputStream();
+            return input.getText(Interval.of(start.getStartIndex(), stop.getStopIndex()));
+         }
+         return _node.getText();
+      }
+
+      /**
+       * @return the line (starting at 1) of the node in the source
+       */
+      public int getLine() {
+         return _node.getStart() == null ? 0 : _node.getStart().getLine();
+      }
+
+      /**
+       * @return the column (starting at 0) of the node in the source
+       */
+      public int getColumn() {
+         return _node.getStart() == null ? 0 : _node.getStart().getCharPositionInLine();
+      }
+
+      /**
+       * @return the number of times the node was evaluated
+       */
+      public long getCount() {
+         return _count;
+      }
+
+      /**
+       * @return the time spent evaluating the node including its children
+       */
+      public long getInclusiveNanos() {
+         return _inclusiveNanos;
+      }
+
+      /**
+       * @return the time spent evaluating the node excluding its children
+       */
+      public long getExclusiveNanos() {
+         return _exclusiveNanos;
+      }
+
+      /**
+       * @return the total number of values produced by the node's evaluations
+       *         (an array counts its members, null counts 0)
+       */
+      public long getCardinality() {
+         return _cardinality;
+      }
+
+      /**
+       * @return the number of evaluations of the node that threw an exception
+       */
+      public long getErrors() {
+         return _errors;
+      }
+
+      /**
+       * @return the profiles of the nearest evaluated descendants of the node
+       */
+      public List<NodeProfile> getChildren() {
+         return Collections.unmodifiableList(_children);
+      }
+
+      /**
+       * @return the profile of the node and its descendants as a JSON object
+       */
+      public ObjectNode toJson() {
+         ObjectNode result = JsonNodeFactory.instance.objectNode();
+         result.put("rule", getRule());
+         result.put("source", getSource());
+         result.put("line", getLine());
+         result.put("column", getColumn());
+         result.put("count", _count);
+         result.put("inclusiveNanos", _inclusiveNanos);
+         result.put("exclusiveNanos", _exclusiveNanos);
+         result.put("cardinality", _cardinality);
+         if (_errors != 0L) {
+            result.put("errors", _errors);
+         }
+         if (_children.isEmpty() == false) {
+            ArrayNode children = result.putArray("children");
+            for (NodeProfile child : _children) {
+               children.add(child.toJson());
+            }
+         }
+         return result;
+      }
+
+      void appendText(StringBuilder sb, String indent) {
+         String source = getSource().replaceAll("\\s+", " ");
+         if (source.length() > 40) {
+            source = source.substring(0, 37) + "...";
+         }
+         sb.append(indent).append(getRule()).append(" [").append(getLine()).append(':').append(getColumn())
+               .append("] ").append(source).append("  count=").append(_count).append(" incl=")
+               .append(formatNanos(_inclusiveNanos)).append(" excl=").append(formatNanos(_exclusiveNanos))
+               .append(" card=").append(_cardinality);
+         if (_errors != 0L) {
+            sb.append(" errors=").append(_errors);
+         }
+         sb.append('\n');
+         for (NodeProfile child : _children) {
+            child.appendText(sb, indent + "  ");
+         }
+      }
+   }
+
+   Map<ParseTree, NodeProfile> _profiles = new IdentityHashMap<ParseTree, NodeProfile>();
+   long[] _childNanos = new long[64];
+   int _depth = 0;
+   ParseTree _root = null;
+   NodeProfile _rootProfile = null;
+   JsonNode _result = null;
+
+   /**
+    * Mark the start of the evaluation of a node
+    */
+   public void enter() {
+      if (_depth == _childNanos.length) {
+         _childNanos = Arrays.copyOf(_childNanos, _depth * 2);
+      }
+      _childNanos[_depth++] = 0L;
+   }
+
+   /**
+    * Mark the end of the evaluation of a node
+    *
+    * @param node
+    *               the evaluated node
+    * @param nanos
+    *               the time taken by the evaluation including its children
+    * @param result
+    *               the result of the evaluation
+    * @param failed
+    *               whether the evaluation threw an exception
+    */
+   public void exit(ParserRuleContext node, long nanos, JsonNode result, boolean failed) {
+      long childNanos = _childNanos[--_depth];
+      if (_depth > 0) {
+         _childNanos[_depth - 1] += nanos;
+      } else if (_root == null) {
+         _root = node;
+      }
+      NodeProfile profile = _profiles.get(node);
+      if (profile == null) {
+         profile = new NodeProfile(node);
+         _profiles.put(node, profile);
+      }
+      profile._count++;
+      profile._inclusiveNanos += nanos;
+      profile._exclusiveNanos += Math.max(0L, nanos - childNanos);
+      if (failed) {
+         profile._errors++;
+      } else if (result != null && result.isNull() == false) {
+         profile._cardinality += result.isArray() ? result.size() : 1;
+      }
+      _rootProfile = null;
+   }
+
+   /**
+    * @param result
+    *               the result of the profiled evaluation
+    */
+   public void setResult(JsonNode result) {
+      _result = result;
+   }
+
+   /**
+    * @return the result of the profiled evaluation
+    */
+   public JsonNode getResult() {
+      return _result;
+   }
+
+   /**
+    * @param node
+    *             a parse tree node
+    * @return the profile of the node, or null if it was not evaluated
+    */
+   public NodeProfile getProfile(ParseTree node) {
+      getRoot();
+      return _profiles.get(node);
+   }
+
+   /**
+    * @return the profile of the root of the parse tree, or null if nothing was
+    *         evaluated
+    */
+   public NodeProfile getRoot() {
+      if (_rootProfile == null && _root != null) {
+         for (NodeProfile profile : _profiles.values()) {
+            profile._children.clear();
+         }
+         _rootProfile = _profiles.get(_root);
+         link(_root, _rootProfile);
+      }
+      return _rootProfile;
+   }
+
+   void link(ParseTree node, NodeProfile parent) {
+      for (int i = 0; i < node.getChildCount(); i++) {
+         ParseTree child = node.getChild(i);
+         NodeProfile profile = _profiles.get(child);
+         if (profile != null) {
+            parent._children.add(profile);
+            link(child, profile);
+         } else {
+            link(child, parent);
+         }
+      }
+   }
+
+   /**
+    * @return the annotated tree as a JSON object
+    */
+   public ObjectNode toJson() {
+      NodeProfile root = getRoot();
+      return root == null ? JsonNodeFactory.instance.objectNode() : root.toJson();
+   }
+
+   /**
+    * @return the annotated tree as indented text, one node per line
+    */
+   public String toString() {
+      StringBuilder sb = new StringBuilder();
+      NodeProfile root = getRoot();
+      if (root != null) {
+         root.appendText(sb, "");
+      }
+      return sb.toString();
+   }
+
+   static String formatNanos(long nanos) {
+      return String.format("%.3fms", nanos / 1000000.0);
+   }
+}
@@ -0,0 +1,210 @@
+/**
+ * (c) Copyright 2018, 2019 IBM Corporation
+ * 1 New Orchard Road,
+ * Armonk, New York, 10504-1722
+ * United States
+ * +1 914 499 1900
+ * support: Nathaniel Mills wnm3@us.ibm.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.api.jsonata4java.expressions.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * MetricsListener aggregating the metrics of every evaluation in memory, keyed
+ * by expression name, so the most expensive expressions can be found.
+ */
+public class InMemoryMetricsRegistry implements MetricsListener {
+
+   /**
+    * Aggregated metrics of one function called by an expression
+    */
+   public static class FunctionStats {
+      LongAdder _count = new LongAdder();
+      LongAdder _nanos = new LongAdder();
+
+      /**
+       * @return the number of calls
+       */
+      public long getCount() {
+         return _count.sum();
+      }
+
+      /**
+       * @return the time spent in the calls
+       */
+      public long getNanos() {
+         return _nanos.sum();
+      }
+   }
+
+   /**
+    * Aggregated metrics of one expression
+    */
+   public static class ExpressionStats {
+      LatencyHistogram _latency = new LatencyHistogram();
+      LongAdder _errors = new LongAdder();
+      LongAdder _nodeVisits = new LongAdder();
+      LongAdder _allocatedBytes = new LongAdder();
+      Map<String, FunctionStats> _functions = new ConcurrentHashMap<String, FunctionStats>();
+
+      void record(EvaluationMetrics metrics, boolean failed) {
+         _latency.record(metrics.getLatencyNanos());
+         if (failed) {
+            _errors.increment();
+         }
+         _nodeVisits.add(metrics.getNodeVisits());
+         if (metrics.getAllocatedBytes() > 0L) {
+            _allocatedBytes.add(metrics.getAllocatedBytes());
+         }
+         for (Map.Entry<String, EvaluationMetrics.FunctionCalls> entry : metrics.getFunctionCalls().entrySet()) {
+            FunctionStats stats = _functions.get(entry.getKey());
+            if (stats == null) {
+               stats = _functions.computeIfAbsent(entry.getKey(), k -> new FunctionStats());
+            }
+            stats._count.add(entry.getValue().getCount());
+            stats._nanos.add(entry.getValue().getNanos());
+         }
+      }
+
+      /**
+       * @return histogram of the evaluation latencies in nanoseconds
+       */
+      public LatencyHistogram getLatency() {
+         return _latency;
+      }
+
+      /**
+       * @return the number of evaluations
+       */
+      public long getEvaluations() {
+         return _latency.getCount();
+      }
+
+      /**
+       * @return the number of evaluations that threw an exception
+       */
+      public long getErrors() {
+         return _errors.sum();
+      }
+
+      /**
+       * @return the total number of parse tree nodes visited
+       */
+      public long getNodeVisits() {
+         return _nodeVisits.sum();
+      }
+
+      /**
+       * @return the total bytes allocated by the evaluations (0 if the JVM does
+       *         not report allocations)
+       */
+      public long getAllocatedBytes() {
+         return _allocatedBytes.sum();
+      }
+
+      /**
+       * @return the function call metrics keyed by function name
+       */
+      public Map<String, FunctionStats> getFunctions() {
+         return Collections.unmodifiableMap(_functions);
+      }
+   }
+
+   Map<String, ExpressionStats> _expressions = new ConcurrentHashMap<String, ExpressionStats>();
+
+   @Override
+   public boolean isEnabled() {
+      return true;
+   }
+
+   @Override
+   public void evaluationCompleted(EvaluationMetrics metrics) {
+      getOrCreate(metrics.getExpressionName()).record(metrics, false);
+   }
+
+   @Override
+   public void evaluationFailed(EvaluationMetrics metrics, Throwable error) {
+      getOrCreate(metrics.getExpressionName()).record(metrics, true);
+   }
+
+   ExpressionStats getOrCreate(String expressionName) {
+      ExpressionStats stats = _expressions.get(expressionName);
+      if (stats == null) {
+         stats = _expressions.computeIfAbsent(expressionName, k -> new ExpressionStats());
+      }
+      return stats;
+   }
+
+   /**
+    * @param expressionName
+    *                       the name of the expression
+    * @return the metrics of the expression or null if it has not been evaluated
+    */
+   public ExpressionStats getExpressionStats(String expressionName) {
+      return _expressions.get(expressionName);
+   }
+
+   /**
+    * @return the metrics of all evaluated expressions keyed by expression name
+    */
+   public Map<String, ExpressionStats> getExpressionStats() {
+      return Collections.unmodifiableMap(_expressions);
+   }
+
+   /**
+    * Discard all metrics
+    */
+   public void reset() {
+      _expressions.clear();
+   }
+
+   /**
+    * @return the metrics of all evaluated expressions as a JSON object
+    */
+   public ObjectNode toJson() {
+      JsonNodeFactory factory = JsonNodeFactory.instance;
+      ObjectNode result = factory.objectNode();
+      for (Map.Entry<String, ExpressionStats> entry : _expressions.entrySet()) {
+         ExpressionStats stats = entry.getValue();
+         ObjectNode expr = result.putObject(entry.getKey());
+         expr.put("evaluations", stats.getEvaluations());
+         expr.put("errors", stats.getErrors());
+         expr.put("nodeVisits", stats.getNodeVisits());
+         expr.put("allocatedBytes", stats.getAllocatedBytes());
+         ObjectNode latency = expr.putObject("latencyNanos");
+         latency.put("mean", (long) stats.getLatency().getMean());
+         latency.put("p50", stats.getLatency().getValueAtPercentile(50.0));
+         latency.put("p90", stats.getLatency().getValueAtPercentile(90.0));
+         latency.put("p99", stats.getLatency().getValueAtPercentile(99.0));
+         latency.put("max", stats.getLatency().getMax());
+         ObjectNode functions = expr.putObject("functions");
+         for (Map.Entry<String, FunctionStats> fct : stats._functions.entrySet()) {
+            ObjectNode f = functions.putObject(fct.getKey());
+            f.put("count", fct.getValue().getCount());
+            f.put("nanos", fct.getValue().getNanos());
+         }
+      }
+      return result;
+   }
+}
@@ -0,0 +1,128 @@
+/**
+ * (c) Copyright 2018, 2019 IBM Corporation
+ * 1 New Orchard Road,
+ * Armonk, New York, 10504-1722
+ * United States
+ * +1 914 499 1900
+ * support: Nathaniel Mills wnm3@us.ibm.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.api.jsonata4java.expressions.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock free histogram of non-negative values (e.g. latencies in nanoseconds)
+ * with log-linear buckets in the style of HdrHistogram: each power of two range
+ * is split into 32 linear sub-buckets, so recorded values are reported within
+ * about 3% of their true value over the whole long range.
+ */
+public class LatencyHistogram {
+
+   static final int SUB_BUCKET_BITS = 5;
+   static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+   static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+   AtomicLongArray _counts = new AtomicLongArray(BUCKETS);
+   AtomicLong _count = new AtomicLong();
+   AtomicLong _sum = new AtomicLong();
+   AtomicLong _max = new AtomicLong();
+
+   /**
+    * Record a value
+    *
+    * @param value
+    *              the value to record. Negative values are recorded as 0.
+    */
+   public void record(long value) {
+      if (value < 0L) {
+         value = 0L;
+      }
+      _counts.incrementAndGet(indexOf(value));
+      _count.incrementAndGet();
+      _sum.addAndGet(value);
+      long max = _max.get();
+      while (value > max && !_max.compareAndSet(max, value)) {
+         max = _max.get();
+      }
+   }
+
+   /**
+    * @return the number of recorded values
+    */
+   public long getCount() {
+      return _count.get();
+   }
+
+   /**
+    * @return the largest recorded value
+    */
+   public long getMax() {
+      return _max.get();
+   }
+
+   /**
+    * @return the mean of the recorded values
+    */
+   public double getMean() {
+      long count = _count.get();
+      return count == 0L ? 0.0 : (double) _sum.get() / count;
+   }
+
+   /**
+    * @param percentile
+    *                   the percentile (0 to 100) sought
+    * @return the highest value equivalent to the value at the percentile
+    */
+   public long getValueAtPercentile(double percentile) {
+      long count = _count.get();
+      if (count == 0L) {
+         return 0L;
+      }
+      long target = Math.max(1L, (long) Math.ceil(Math.min(percentile, 100.0) / 100.0 * count));
+      long seen = 0L;
+      for (int i = 0; i < BUCKETS; i++) {
+         seen += _counts.get(i);
+         if (seen >= target) {
+            return Math.min(highestEquivalentValue(i), getMax());
+         }
+      }
+      return getMax();
+   }
+
+   static int indexOf(long value) {
+      if (value < (SUB_BUCKETS << 1)) {
+         return (int) value;
+      }
+      int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+      return (shift + 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+   }
+
+   static long highestEquivalentValue(int index) {
+      if (index < (SUB_BUCKETS << 1)) {
+         return index;
+      }
+      int shift = index / SUB_BUCKETS - 1;
+      long sub = index % SUB_BUCKETS + SUB_BUCKETS;
+      return ((sub + 1) << shift) - 1;
+   }
+
+   public String toString() {
+      return "count=" + getCount() + ", mean=" + (long) getMean() + ", p50=" + getValueAtPercentile(50.0)
+            + ", p99=" + getValueAtPercentile(99.0) + ", max=" + getMax();
+   }
+}
@@ -0,0 +1,70 @@
+/**
+ * (c) Copyright 2018, 2019 IBM Corporation
+ * 1 New Orchard Road,
+ * Armonk, New York, 10504-1722
+ * United States
+ * +1 914 499 1900
+ * support: Nathaniel Mills wnm3@us.ibm.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.api.jsonata4java.expressions.metrics;
+
+/**
+ * Holder of the MetricsListener used by expressions that have not been given
+ * their own listener
+ */
+public final class Metrics {
+
+   static volatile MetricsListener defaultListener = NoOpMetricsListener.INSTANCE;
+
+   private Metrics() {
+   }
+
+   /**
+    * @return the listener used by expressions without their own listener
+    */
+   public static MetricsListener getDefaultListener() {
+      return defaultListener;
+   }
+
+   /**
+    * @param listener
+    *                 the listener used by expressions without their own
+    *                 listener. null restores the NoOpMetricsListener.
+    */
+   public static void setDefaultListener(MetricsListener listener) {
+      defaultListener = listener == null ? NoOpMetricsListener.INSTANCE : listener;
+   }
+
+   /**
+    * Create a JfrMetricsListener emitting Java Flight Recorder events. The
+    * listener is built from the optional src/main/java-jfr sources (the jfr
+    * profile, on JDK 11 and later) so the library itself still builds and runs
+    * on Java 8. It is loaded reflectively, as virtual threads are by
+    * EvaluationService.
+    *
+    * @return the listener, or null if it was not built or the running JVM does
+    *         not provide the jdk.jfr module
+    */
+   public static MetricsListener newJfrListener() {
+      try {
+         return (MetricsListener) Class.forName("com.api.jsonata4java.expressions.metrics.JfrMetricsListener")
+               .getDeclaredConstructor().newInstance();
+      } catch (Exception | LinkageError e) {
+         return null;
+      }
+   }
+}
@@ -0,0 +1,56 @@
+/**
+ * (c) Copyright 2018, 2019 IBM Corporation
+ * 1 New Orchard Road,
+ * Armonk, New York, 10504-1722
+ * United States
+ * +1 914 499 1900
+ * support: Nathaniel Mills wnm3@us.ibm.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.api.jsonata4java.expressions.metrics;
+
+/**
+ * Service provider interface receiving the metrics collected for each
+ * evaluation. Metrics are only collected when {@link #isEnabled()} returns
+ * true, so a disabled listener costs a single check per evaluation.
+ * Implementations must be thread safe as evaluations may complete on many
+ * threads at once.
+ */
+public interface MetricsListener {
+
+   /**
+    * @return true if metrics should be collected for the next evaluation
+    */
+   public boolean isEnabled();
+
+   /**
+    * Called when an evaluation returns a result
+    *
+    * @param metrics
+    *                the metrics collected during the evaluation
+    */
+   public void evaluationCompleted(EvaluationMetrics metrics);
+
+   /**
+    * Called when an evaluation throws an exception
+    *
+    * @param metrics
+    *                the metrics collected up to the failure
+    * @param error
+    *                the exception thrown by the evaluation
+    */
+   public void evaluationFailed(EvaluationMetrics metrics, Throwable error);
+}
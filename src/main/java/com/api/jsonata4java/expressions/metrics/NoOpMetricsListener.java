@@ -0,0 +1,47 @@
+/**
+ * (c) Copyright 2018, 2019 IBM Corporation
+ * 1 New Orchard Road,
+ * Armonk, New York, 10504-1722
+ * United States
+ * +1 914 499 1900
+ * support: Nathaniel Mills wnm3@us.ibm.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.api.jsonata4java.expressions.metrics;
+
+/**
+ * The default listener. Disabled, so no metrics are collected.
+ */
+public final class NoOpMetricsListener implements MetricsListener {
+
+   public static final NoOpMetricsListener INSTANCE = new NoOpMetricsListener();
+
+   private NoOpMetricsListener() {
+   }
+
+   @Override
+   public boolean isEnabled() {
+      return false;
+   }
+
+   @Override
+   public void evaluationCompleted(EvaluationMetrics metrics) {
+   }
+
+   @Override
+   public void evaluationFailed(EvaluationMetrics metrics, Throwable error) {
+   }
+}
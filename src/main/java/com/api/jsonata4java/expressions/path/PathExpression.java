@@ -63,6 +63,10 @@ public class PathExpression {
 		return expression;
 	}
 
+	ParseTree getTree() {
+		return tree;
+	}
+
 	public static PathExpression parse(final String expr) throws ParseException {
 
 		ANTLRInputStream input = new ANTLRInputStream(expr);
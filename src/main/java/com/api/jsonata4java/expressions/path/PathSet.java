@@ -0,0 +1,292 @@
+/**
+ * (c) Copyright 2018, 2019 IBM Corporation
+ * 1 New Orchard Road, 
+ * Armonk, New York, 10504-1722
+ * United States
+ * +1 914 499 1900
+ * support: Nathaniel Mills wnm3@us.ibm.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.api.jsonata4java.expressions.path;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.api.jsonata4java.expressions.EvaluateRuntimeException;
+import com.api.jsonata4java.expressions.ParseException;
+import com.api.jsonata4java.expressions.path.generated.PathExpressionParser.Array_indexContext;
+import com.api.jsonata4java.expressions.path.generated.PathExpressionParser.PathContext;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * A set of PathExpressions compiled into a trie, so that a batch of values can
+ * be assigned to a document in a single traversal. Paths sharing a prefix share
+ * its lookups, and containers missing from the document are created once,
+ * sized for the fields and indexes the set writes into them.
+ * <p>
+ * Setting the values has the same result as calling
+ * {@link PathExpression#set(JsonNode, Integer, JsonNode)} for each path in
+ * turn, except that a missing array is created with room for the highest index
+ * written into it (elements that are not written are null) rather than failing
+ * with an out of bounds error. An existing array is never extended. A path
+ * whose value is replaced by a later path of the set is not visited, so it can
+ * not fail.
+ */
+public class PathSet {
+
+	static class Node {
+		// field name and leading indexes, as used in error messages
+		final String label;
+		// position of the last path ending at this node, or -1
+		int ordinal = -1;
+		// largest position of a path ending at this node or below it
+		int maxOrdinal = -1;
+		Map<String, Node> fieldMap = new LinkedHashMap<String, Node>();
+		Map<Integer, Node> elementMap = new TreeMap<Integer, Node>();
+		String[] names;
+		Node[] fields;
+		int[] indexes;
+		Node[] elements;
+
+		Node(String label) {
+			this.label = label;
+		}
+
+		Node field(String name) {
+			Node node = fieldMap.get(name);
+			if (node == null) {
+				node = new Node(name);
+				fieldMap.put(name, node);
+			}
+			return node;
+		}
+
+		Node element(int index) {
+			Node node = elementMap.get(index);
+			if (node == null) {
+				node = new Node(label + "[" + index + "]");
+				elementMap.put(index, node);
+			}
+			return node;
+		}
+
+		void freeze() {
+			names = fieldMap.keySet().toArray(new String[fieldMap.size()]);
+			fields = fieldMap.values().toArray(new Node[fieldMap.size()]);
+			indexes = new int[elementMap.size()];
+			elements = new Node[elementMap.size()];
+			int i = 0;
+			for (Map.Entry<Integer, Node> entry : elementMap.entrySet()) {
+				indexes[i] = entry.getKey();
+				elements[i++] = entry.getValue();
+			}
+			fieldMap = null;
+			elementMap = null;
+			for (Node node : fields) {
+				node.freeze();
+			}
+			for (Node node : elements) {
+				node.freeze();
+			}
+		}
+
+		boolean isLeaf() {
+			return names.length == 0 && indexes.length == 0;
+		}
+
+		/**
+		 * Create the container for a missing value of this node, sized for the
+		 * fields or indexes below it. Elements of a new array that have paths
+		 * below them are created too.
+		 */
+		JsonNode create() {
+			if (names.length != 0 || indexes.length == 0) {
+				// like LinkedHashMap's own sizing: capacity * 0.75 must hold the fields
+				return new ObjectNode(JsonNodeFactory.instance,
+						new LinkedHashMap<String, JsonNode>(names.length * 4 / 3 + 1));
+			}
+			int size = indexes[indexes.length - 1] + 1;
+			ArrayNode array = new ArrayNode(JsonNodeFactory.instance, size);
+			for (int i = 0, j = 0; i < size; i++) {
+				if (indexes[j] != i) {
+					array.addNull();
+					continue;
+				}
+				Node element = elements[j++];
+				if (element.isLeaf()) {
+					array.addNull();
+				} else {
+					array.add(element.create());
+				}
+			}
+			return array;
+		}
+	}
+
+	private final List<PathExpression> paths;
+	private final Node root = new Node(null);
+
+	private PathSet(List<PathExpression> paths) {
+		this.paths = Collections.unmodifiableList(new ArrayList<PathExpression>(paths));
+		for (int ordinal = 0; ordinal < this.paths.size(); ordinal++) {
+			add((PathContext) this.paths.get(ordinal).getTree(), ordinal);
+		}
+		root.freeze();
+	}
+
+	private void add(PathContext ctx, int ordinal) {
+		Node node = root;
+		node.maxOrdinal = ordinal;
+		while (ctx != null) {
+			node = node.field(ctx.id().txt.getText());
+			node.maxOrdinal = ordinal;
+			for (Array_indexContext ctx_index : ctx.array_index()) {
+				node = node.element(Integer.valueOf(ctx_index.NUMBER().getText()));
+				node.maxOrdinal = ordinal;
+			}
+			ctx = (PathContext) ctx.rhs;
+		}
+		node.ordinal = ordinal;
+	}
+
+	/**
+	 * Assign values to all paths of the set
+	 *
+	 * @param jsonToModify
+	 *            the object to modify
+	 * @param indexVarValue
+	 *            the value of $index
+	 * @param valuesToAssign
+	 *            the values to assign, one per path in the order the paths were
+	 *            given. When paths overlap, later paths win as they would when
+	 *            set one at a time.
+	 * @return the modified object
+	 * @throws EvaluateRuntimeException
+	 *             if a path can not be set. Values of other paths may have been
+	 *             assigned already.
+	 */
+	public JsonNode set(JsonNode jsonToModify, Integer indexVarValue, List<JsonNode> valuesToAssign) {
+		if (valuesToAssign.size() != paths.size()) {
+			throw new IllegalArgumentException(
+					"Expected " + paths.size() + " values to assign but received " + valuesToAssign.size());
+		}
+		if (jsonToModify == null) {
+			// as PathExpression.set
+			throw new EvaluateRuntimeException("Unexpected null pointer");
+		}
+		JsonNode[] values = valuesToAssign.toArray(new JsonNode[valuesToAssign.size()]);
+		setFields(root, jsonToModify, values, -1);
+		return jsonToModify;
+	}
+
+	/**
+	 * Assign the values of the fields below a node whose paths come after the
+	 * given position
+	 */
+	private void setFields(Node node, JsonNode value, JsonNode[] values, int after) {
+		for (int i = 0; i < node.names.length; i++) {
+			Node child = node.fields[i];
+			if (child.maxOrdinal <= after) {
+				continue;
+			}
+			if (!value.isObject()) {
+				throw new EvaluateRuntimeException(PathExpressionVisitor.ERR_FIELD_ON_NON_OBJECT(node.names[i]));
+			}
+			ObjectNode object = (ObjectNode) value;
+			int childAfter = after;
+			if (child.ordinal > after) {
+				object.set(node.names[i], values[child.ordinal]);
+				childAfter = child.ordinal;
+			} else if (object.get(node.names[i]) == null) {
+				object.set(node.names[i], child.create());
+			}
+			descend(child, object.get(node.names[i]), values, childAfter);
+		}
+	}
+
+	/**
+	 * Assign the values of the elements below a node whose paths come after the
+	 * given position
+	 */
+	private void setElements(Node node, JsonNode value, JsonNode[] values, int after) {
+		for (int i = 0; i < node.indexes.length; i++) {
+			Node child = node.elements[i];
+			int index = node.indexes[i];
+			if (child.maxOrdinal <= after) {
+				continue;
+			}
+			if (!value.isArray()) {
+				throw new EvaluateRuntimeException(PathExpressionVisitor.ERR_INDEX_ON_NON_ARRAY(node.label, index));
+			}
+			ArrayNode array = (ArrayNode) value;
+			if (index >= array.size()) {
+				throw new EvaluateRuntimeException(PathExpressionVisitor.ERR_ARR_INDEX_OUT_OF_BOUNDS(node.label, index));
+			}
+			int childAfter = after;
+			if (child.ordinal > after) {
+				array.set(index, values[child.ordinal]);
+				childAfter = child.ordinal;
+			}
+			descend(child, array.get(index), values, childAfter);
+		}
+	}
+
+	private void descend(Node node, JsonNode value, JsonNode[] values, int after) {
+		if (node.maxOrdinal > after) {
+			setFields(node, value, values, after);
+			setElements(node, value, values, after);
+		}
+	}
+
+	/**
+	 * @return the paths of the set, in the order values are assigned to them
+	 */
+	public List<PathExpression> getPaths() {
+		return paths;
+	}
+
+	/**
+	 * @return the number of paths in the set
+	 */
+	public int size() {
+		return paths.size();
+	}
+
+	@Override
+	public String toString() {
+		return paths.toString();
+	}
+
+	public static PathSet compile(List<PathExpression> paths) {
+		return new PathSet(paths);
+	}
+
+	public static PathSet parse(final String... exprs) throws ParseException {
+		List<PathExpression> paths = new ArrayList<PathExpression>(exprs.length);
+		for (String expr : exprs) {
+			paths.add(PathExpression.parse(expr));
+		}
+		return new PathSet(paths);
+	}
+
+}
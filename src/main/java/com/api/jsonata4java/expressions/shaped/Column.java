@@ -0,0 +1,344 @@
+/**
+ * (c) Copyright 2018, 2019 IBM Corporation
+ * 1 New Orchard Road,
+ * Armonk, New York, 10504-1722
+ * United States
+ * +1 914 499 1900
+ * support: Nathaniel Mills wnm3@us.ibm.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.api.jsonata4java.expressions.shaped;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.DoublePredicate;
+import java.util.function.Predicate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.BooleanNode;
+import com.fasterxml.jackson.databind.node.DoubleNode;
+import com.fasterxml.jackson.databind.node.LongNode;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+
+/**
+ * The values of one field of the objects of a {@link ColumnarArrayNode}, held
+ * in primitive buffers: numbers as doubles (with a bitmap of the integral
+ * ones), strings as codes into a dictionary of distinct values and booleans as
+ * a bitmap. A bitmap marks the null values. All non null values of a column
+ * have the same JSON type.
+ */
+public final class Column {
+
+   /**
+    * The JSON type of the non null values of a column
+    */
+   public enum Type {
+      /** the column only holds nulls */
+      NULL,
+      /** numbers (ints, longs or doubles) */
+      NUMBER,
+      /** strings */
+      STRING,
+      /** booleans */
+      BOOLEAN
+   }
+
+   /**
+    * Integers of larger magnitude can not be held as doubles without loss
+    */
+   static final long MAX_EXACT_LONG = 1L << 53;
+
+   Type _type = Type.NULL;
+   int _size = 0;
+   final BitSet _nulls = new BitSet();
+   double[] _numbers = null;
+   BitSet _integral = null;
+   int[] _codes = null;
+   TextNode[] _dictionary = null;
+   BitSet _booleans = null;
+
+   // dictionary of the strings while the column is loaded
+   Map<String, Integer> _codeOf = null;
+   List<TextNode> _strings = null;
+
+   /**
+    * @param value
+    *              a value read by the {@link ShapedNodeLoader}
+    * @return whether the value can be added to the column, i.e. it is null or
+    *         a scalar of the type of the column's other values. Big integers,
+    *         integers of magnitude above 2^53 and containers are not
+    *         accepted.
+    */
+   boolean accepts(JsonNode value) {
+      if (value.isNull()) {
+         return true;
+      }
+      switch (_type) {
+      case NULL:
+         return acceptsNumber(value) || value.isTextual() || value.isBoolean();
+      case NUMBER:
+         return acceptsNumber(value);
+      case STRING:
+         return value.isTextual();
+      case BOOLEAN:
+         return value.isBoolean();
+      default:
+         return false;
+      }
+   }
+
+   static boolean acceptsNumber(JsonNode value) {
+      if (value.isNumber() == false) {
+         return false;
+      }
+      switch (value.numberType()) {
+      case INT:
+         return true;
+      case LONG:
+         return value.longValue() <= MAX_EXACT_LONG && value.longValue() >= -MAX_EXACT_LONG;
+      case DOUBLE:
+         return true;
+      default:
+         // big integers, big decimals and floats keep their own nodes
+         return false;
+      }
+   }
+
+   /**
+    * Append a value accepted by the column
+    * 
+    * @param value
+    *              the value
+    */
+   void add(JsonNode value) {
+      if (value.isNull()) {
+         _nulls.set(_size++);
+         return;
+      }
+      if (_type == Type.NULL) {
+         if (value.isNumber()) {
+            _type = Type.NUMBER;
+            _numbers = new double[Math.max(16, _size * 2)];
+            _integral = new BitSet();
+         } else if (value.isTextual()) {
+            _type = Type.STRING;
+            _codes = new int[Math.max(16, _size * 2)];
+            _codeOf = new HashMap<String, Integer>();
+            _strings = new ArrayList<TextNode>();
+         } else {
+            _type = Type.BOOLEAN;
+            _booleans = new BitSet();
+         }
+      }
+      switch (_type) {
+      case NUMBER:
+         ensureCapacity();
+         if (value.isIntegralNumber()) {
+            _numbers[_size] = value.longValue();
+            _integral.set(_size);
+         } else {
+            _numbers[_size] = value.doubleValue();
+         }
+         break;
+      case STRING: {
+         Integer code = _codeOf.get(value.textValue());
+         if (code == null) {
+            code = _strings.size();
+            _codeOf.put(value.textValue(), code);
+            _strings.add((TextNode) value);
+         }
+         ensureCapacity();
+         _codes[_size] = code;
+         break;
+      }
+      default:
+         if (value.booleanValue()) {
+            _booleans.set(_size);
+         }
+         break;
+      }
+      _size++;
+   }
+
+   void ensureCapacity() {
+      // null values are only recorded in the bitmap, so the size may have
+      // passed the capacity
+      if (_numbers != null && _size >= _numbers.length) {
+         _numbers = Arrays.copyOf(_numbers, Math.max(16, _size * 2));
+      } else if (_codes != null && _size >= _codes.length) {
+         _codes = Arrays.copyOf(_codes, Math.max(16, _size * 2));
+      }
+   }
+
+   /**
+    * Release the space reserved for more values once the column is loaded
+    */
+   void trim() {
+      if (_numbers != null && _numbers.length != _size) {
+         _numbers = Arrays.copyOf(_numbers, _size);
+      }
+      if (_codes != null) {
+         if (_codes.length != _size) {
+            _codes = Arrays.copyOf(_codes, _size);
+         }
+         _dictionary = _strings.toArray(new TextNode[_strings.size()]);
+         _codeOf = null;
+         _strings = null;
+      }
+   }
+
+   /**
+    * @return the JSON type of the non null values of the column
+    */
+   public Type getType() {
+      return _type;
+   }
+
+   /**
+    * @return the number of values of the column
+    */
+   public int size() {
+      return _size;
+   }
+
+   /**
+    * @param row
+    *            the index of a value
+    * @return whether the value is null
+    */
+   public boolean isNull(int row) {
+      return _nulls.get(row);
+   }
+
+   /**
+    * @param rows
+    *             the indexes of the values, or null for all values
+    * @return whether any of the values is null
+    */
+   public boolean anyNull(BitSet rows) {
+      return rows == null ? _nulls.isEmpty() == false : rows.intersects(_nulls);
+   }
+
+   /**
+    * @param row
+    *            the index of a non null value of a column of numbers
+    * @return the value
+    */
+   public double getDouble(int row) {
+      return _numbers[row];
+   }
+
+   /**
+    * @param row
+    *            the index of a non null value of a column of numbers
+    * @return whether the value was an integer (an int or long)
+    */
+   public boolean isIntegral(int row) {
+      return _integral.get(row);
+   }
+
+   /**
+    * @param row
+    *            the index of a value
+    * @return the value as the node read for it
+    */
+   public JsonNode get(int row) {
+      if (row < 0 || row >= _size) {
+         throw new IndexOutOfBoundsException("Index: " + row + ", Size: " + _size);
+      }
+      if (_nulls.get(row)) {
+         return NullNode.getInstance();
+      }
+      switch (_type) {
+      case NUMBER: {
+         double number = _numbers[row];
+         if (_integral.get(row)) {
+            long integral = (long) number;
+            return integral == (int) integral ? ShapedNodeLoader.intNode((int) integral) : LongNode.valueOf(integral);
+         }
+         return DoubleNode.valueOf(number);
+      }
+      case STRING:
+         return _dictionary[_codes[row]];
+      case BOOLEAN:
+         return _booleans.get(row) ? BooleanNode.TRUE : BooleanNode.FALSE;
+      default:
+         return NullNode.getInstance();
+      }
+   }
+
+   /**
+    * Select the rows whose values pass a test. The test is applied once per
+    * distinct string or boolean value and once for null rather than once per
+    * row; numbers are tested by numberTest if given.
+    * 
+    * @param test
+    *                   the test of a value
+    * @param numberTest
+    *                   the same test of a number as a double, or null to test
+    *                   the nodes of numbers
+    * @return the indexes of the values passing the test
+    */
+   public BitSet select(Predicate<JsonNode> test, DoublePredicate numberTest) {
+      BitSet result = new BitSet(_size);
+      boolean nulls = _nulls.isEmpty() == false && test.test(NullNode.getInstance());
+      switch (_type) {
+      case NUMBER:
+         for (int row = 0; row < _size; row++) {
+            if (_nulls.get(row)) {
+               if (nulls) {
+                  result.set(row);
+               }
+            } else if (numberTest != null ? numberTest.test(_numbers[row]) : test.test(get(row))) {
+               result.set(row);
+            }
+         }
+         return result;
+      case STRING: {
+         boolean[] matches = new boolean[_dictionary.length];
+         for (int code = 0; code < matches.length; code++) {
+            matches[code] = test.test(_dictionary[code]);
+         }
+         for (int row = 0; row < _size; row++) {
+            if (_nulls.get(row) ? nulls : matches[_codes[row]]) {
+               result.set(row);
+            }
+         }
+         return result;
+      }
+      case BOOLEAN: {
+         boolean trues = _booleans.isEmpty() == false && test.test(BooleanNode.TRUE);
+         boolean falses = _booleans.cardinality() + _nulls.cardinality() < _size && test.test(BooleanNode.FALSE);
+         for (int row = 0; row < _size; row++) {
+            if (_nulls.get(row) ? nulls : (_booleans.get(row) ? trues : falses)) {
+               result.set(row);
+            }
+         }
+         return result;
+      }
+      default:
+         if (nulls) {
+            result.set(0, _size);
+         }
+         return result;
+      }
+   }
+}
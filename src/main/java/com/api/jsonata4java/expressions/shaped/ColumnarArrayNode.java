@@ -0,0 +1,197 @@
+/**
+ * (c) Copyright 2018, 2019 IBM Corporation
+ * 1 New Orchard Road,
+ * Armonk, New York, 10504-1722
+ * United States
+ * +1 914 499 1900
+ * support: Nathaniel Mills wnm3@us.ibm.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.api.jsonata4java.expressions.shaped;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+
+/**
+ * An ArrayNode of objects having the same fields with scalar values (e.g. the
+ * readings of a telemetry feed), held as one {@link Column} per field instead
+ * of one object per member. Compiled expressions select fields and filter and
+ * aggregate their values by looping over the columns; the members are only
+ * built as {@link ShapedObjectNode}s when they are read (e.g. by the
+ * interpreter or an expression needing whole objects), and are kept once
+ * built.
+ * <p>
+ * The array can be changed like any ArrayNode. Adding, removing or replacing
+ * members, or changing a member, turns it into an ordinary array of its
+ * members, after which {@link #getShape()} and {@link #getColumn(String)}
+ * return null.
+ */
+public class ColumnarArrayNode extends ArrayNode {
+
+   /**
+    * The members of the array, built from the columns when first read
+    */
+   static final class Rows extends AbstractList<JsonNode> implements RandomAccess {
+      final int _size;
+      Shape _shape;
+      Column[] _columns;
+      volatile AtomicReferenceArray<JsonNode> _rows = null;
+      ArrayList<JsonNode> _list = null;
+
+      Rows(Shape shape, Column[] columns, int size) {
+         _shape = shape;
+         _columns = columns;
+         _size = size;
+      }
+
+      @Override
+      public JsonNode get(int index) {
+         if (_list != null) {
+            return _list.get(index);
+         }
+         if (index < 0 || index >= _size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + _size);
+         }
+         AtomicReferenceArray<JsonNode> rows = _rows;
+         if (rows == null) {
+            rows = rows();
+         }
+         JsonNode row = rows.get(index);
+         if (row == null) {
+            // members built by concurrent readers are the same, keep the first
+            rows.compareAndSet(index, null, build(index));
+            row = rows.get(index);
+         }
+         return row;
+      }
+
+      synchronized AtomicReferenceArray<JsonNode> rows() {
+         if (_rows == null) {
+            _rows = new AtomicReferenceArray<JsonNode>(_size);
+         }
+         return _rows;
+      }
+
+      ShapedObjectNode build(int index) {
+         ShapedObjectNode row = member(_shape, _columns, index);
+         row.map()._owner = this;
+         return row;
+      }
+
+      @Override
+      public int size() {
+         return _list != null ? _list.size() : _size;
+      }
+
+      @Override
+      public JsonNode set(int index, JsonNode element) {
+         return list().set(index, element);
+      }
+
+      @Override
+      public void add(int index, JsonNode element) {
+         list().add(index, element);
+         modCount++;
+      }
+
+      @Override
+      public JsonNode remove(int index) {
+         JsonNode removed = list().remove(index);
+         modCount++;
+         return removed;
+      }
+
+      /**
+       * A member has been changed: the columns no longer hold its values
+       */
+      void rowChanged() {
+         if (_columns != null && _list == null) {
+            for (int i = 0; i < _size; i++) {
+               get(i);
+            }
+            _columns = null;
+            _shape = null;
+         }
+      }
+
+      ArrayList<JsonNode> list() {
+         if (_list == null) {
+            ArrayList<JsonNode> list = new ArrayList<JsonNode>(_size);
+            for (int i = 0; i < _size; i++) {
+               list.add(get(i));
+            }
+            _list = list;
+            _columns = null;
+            _shape = null;
+            _rows = null;
+         }
+         return _list;
+      }
+   }
+
+   final Rows _members;
+
+   ColumnarArrayNode(Shape shape, Column[] columns, int size) {
+      this(new Rows(shape, columns, size));
+   }
+
+   private ColumnarArrayNode(Rows members) {
+      super(JsonNodeFactory.instance, members);
+      _members = members;
+   }
+
+   /**
+    * @return the member at the given index of the columns
+    */
+   static ShapedObjectNode member(Shape shape, Column[] columns, int index) {
+      JsonNode[] values = new JsonNode[columns.length];
+      for (int i = 0; i < values.length; i++) {
+         values[i] = columns[i].get(index);
+      }
+      return new ShapedObjectNode(shape, values);
+   }
+
+   /**
+    * @return the shape of the members, or null if the array or its members
+    *         have been changed since it was loaded
+    */
+   public Shape getShape() {
+      return _members._columns == null ? null : _members._shape;
+   }
+
+   /**
+    * @param field
+    *              the name of a field of the members
+    * @return the values of the field, or null if the members have no such
+    *         field or the array or its members have been changed since it was
+    *         loaded
+    */
+   public Column getColumn(String field) {
+      Column[] columns = _members._columns;
+      Shape shape = _members._shape;
+      if (columns == null || shape == null) {
+         return null;
+      }
+      int index = shape.indexOf(field);
+      return index < 0 ? null : columns[index];
+   }
+}
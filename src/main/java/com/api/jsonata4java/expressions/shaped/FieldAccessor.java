@@ -0,0 +1,100 @@
+/**
+ * (c) Copyright 2018, 2019 IBM Corporation
+ * 1 New Orchard Road,
+ * Armonk, New York, 10504-1722
+ * United States
+ * +1 914 499 1900
+ * support: Nathaniel Mills wnm3@us.ibm.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.api.jsonata4java.expressions.shaped;
+
+import java.util.Arrays;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Selects one field of objects, remembering the position of the field in the
+ * shapes of the {@link ShapedObjectNode}s it has seen (an inline cache), so
+ * repeated selections from objects of the same shapes skip the name lookup.
+ * Other objects are searched by name.
+ */
+public final class FieldAccessor {
+
+   /**
+    * The number of shapes remembered. Selecting from objects of more shapes
+    * looks the field up by name.
+    */
+   static final int MAX_SHAPES = 4;
+
+   static final class CachedShape {
+      final Shape _shape;
+      final int _index;
+
+      CachedShape(Shape shape, int index) {
+         _shape = shape;
+         _index = index;
+      }
+   }
+
+   final String _name;
+   CachedShape[] _cache = new CachedShape[0];
+
+   /**
+    * @param name
+    *             the name of the field selected
+    */
+   public FieldAccessor(String name) {
+      _name = name;
+   }
+
+   /**
+    * @return the name of the field selected
+    */
+   public String getName() {
+      return _name;
+   }
+
+   /**
+    * @param context
+    *                the node to select from (not null)
+    * @return the value of the field, or null if the node has no such field
+    */
+   public JsonNode get(JsonNode context) {
+      if (context instanceof ShapedObjectNode) {
+         ShapedObjectNode object = (ShapedObjectNode) context;
+         Shape shape = object.getShape();
+         if (shape != null) {
+            // entries are immutable, so a cache replaced by another thread is
+            // either seen whole or not at all (null)
+            CachedShape[] cache = _cache;
+            for (CachedShape cached : cache) {
+               if (cached != null && cached._shape == shape) {
+                  return cached._index < 0 ? null : object.valueAt(cached._index);
+               }
+            }
+            int index = shape.indexOf(_name);
+            if (cache.length < MAX_SHAPES) {
+               CachedShape[] grown = Arrays.copyOf(cache, cache.length + 1);
+               grown[cache.length] = new CachedShape(shape, index);
+               _cache = grown;
+            }
+            return index < 0 ? null : object.valueAt(index);
+         }
+      }
+      return context.get(_name);
+   }
+}
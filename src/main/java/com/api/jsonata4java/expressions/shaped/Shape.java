@@ -0,0 +1,128 @@
+/**
+ * (c) Copyright 2018, 2019 IBM Corporation
+ * 1 New Orchard Road,
+ * Armonk, New York, 10504-1722
+ * United States
+ * +1 914 499 1900
+ * support: Nathaniel Mills wnm3@us.ibm.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.api.jsonata4java.expressions.shaped;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The ordered field names shared by objects built by a
+ * {@link ShapedNodeLoader}, with a hash index from name to position. Shapes
+ * form a tree of transitions from the empty shape: adding a field to an object
+ * of one shape gives an object of its child shape, so objects with the same
+ * fields in the same order share one shape.
+ */
+public final class Shape {
+
+   final String[] _keys;
+   final int[] _index;
+   Map<String, Shape> _transitions = null;
+
+   Shape(String[] keys) {
+      _keys = keys;
+      int capacity = 4;
+      while (capacity < keys.length * 2) {
+         capacity <<= 1;
+      }
+      _index = new int[capacity];
+      for (int i = 0; i < keys.length; i++) {
+         int slot = spread(keys[i].hashCode()) & (capacity - 1);
+         while (_index[slot] != 0) {
+            slot = (slot + 1) & (capacity - 1);
+         }
+         _index[slot] = i + 1;
+      }
+   }
+
+   /**
+    * @return a new empty shape, the root of a tree of shapes
+    */
+   static Shape root() {
+      return new Shape(new String[0]);
+   }
+
+   static int spread(int hash) {
+      return hash ^ (hash >>> 16);
+   }
+
+   /**
+    * @param key
+    *            a field name
+    * @return the position of the field in objects of this shape, or -1 if they
+    *         do not have the field
+    */
+   public int indexOf(String key) {
+      int mask = _index.length - 1;
+      int slot = spread(key.hashCode()) & mask;
+      int entry;
+      while ((entry = _index[slot]) != 0) {
+         String candidate = _keys[entry - 1];
+         if (candidate == key || candidate.equals(key)) {
+            return entry - 1;
+         }
+         slot = (slot + 1) & mask;
+      }
+      return -1;
+   }
+
+   /**
+    * @param key
+    *            a field name not in this shape
+    * @return the shape of objects having this shape's fields followed by the
+    *         key
+    */
+   Shape with(String key) {
+      if (_transitions == null) {
+         _transitions = new HashMap<String, Shape>(4);
+      }
+      Shape next = _transitions.get(key);
+      if (next == null) {
+         String[] keys = Arrays.copyOf(_keys, _keys.length + 1);
+         keys[_keys.length] = key;
+         next = new Shape(keys);
+         _transitions.put(key, next);
+      }
+      return next;
+   }
+
+   /**
+    * @return the number of fields
+    */
+   public int size() {
+      return _keys.length;
+   }
+
+   /**
+    * @param index
+    *              a position
+    * @return the name of the field at the position
+    */
+   public String keyAt(int index) {
+      return _keys[index];
+   }
+
+   public String toString() {
+      return Arrays.toString(_keys);
+   }
+}
@@ -0,0 +1,221 @@
+/**
+ * (c) Copyright 2018, 2019 IBM Corporation
+ * 1 New Orchard Road,
+ * Armonk, New York, 10504-1722
+ * United States
+ * +1 914 499 1900
+ * support: Nathaniel Mills wnm3@us.ibm.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.api.jsonata4java.expressions.shaped;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * The fields of a {@link ShapedObjectNode}: a shared {@link Shape} and an array
+ * of values in shape order. Replacing the value of an existing field keeps the
+ * shape; adding or removing a field converts the map to a LinkedHashMap, so a
+ * shaped object can be changed like any ObjectNode, only less compactly.
+ */
+final class ShapedMap extends AbstractMap<String, JsonNode> {
+
+   Shape _shape;
+   JsonNode[] _values;
+   Map<String, JsonNode> _inflated = null;
+   // the columnar array the object was built from, told of any change
+   ColumnarArrayNode.Rows _owner = null;
+
+   ShapedMap(Shape shape, JsonNode[] values) {
+      _shape = shape;
+      _values = values;
+   }
+
+   @Override
+   public JsonNode get(Object key) {
+      if (_inflated != null) {
+         return _inflated.get(key);
+      }
+      if (key instanceof String == false) {
+         return null;
+      }
+      int index = _shape.indexOf((String) key);
+      return index < 0 ? null : _values[index];
+   }
+
+   @Override
+   public boolean containsKey(Object key) {
+      if (_inflated != null) {
+         return _inflated.containsKey(key);
+      }
+      return key instanceof String && _shape.indexOf((String) key) >= 0;
+   }
+
+   @Override
+   public int size() {
+      return _inflated != null ? _inflated.size() : _values.length;
+   }
+
+   @Override
+   public JsonNode put(String key, JsonNode value) {
+      if (_inflated == null) {
+         int index = _shape.indexOf(key);
+         if (index >= 0) {
+            JsonNode previous = _values[index];
+            _values[index] = value;
+            changed();
+            return previous;
+         }
+         inflate();
+      }
+      return _inflated.put(key, value);
+   }
+
+   @Override
+   public JsonNode remove(Object key) {
+      if (_inflated == null) {
+         if (containsKey(key) == false) {
+            return null;
+         }
+         inflate();
+      }
+      return _inflated.remove(key);
+   }
+
+   @Override
+   public void clear() {
+      changed();
+      _inflated = new LinkedHashMap<String, JsonNode>();
+      _shape = null;
+      _values = null;
+   }
+
+   void inflate() {
+      Map<String, JsonNode> inflated = new LinkedHashMap<String, JsonNode>(_values.length * 2);
+      for (int i = 0; i < _values.length; i++) {
+         inflated.put(_shape.keyAt(i), _values[i]);
+      }
+      _inflated = inflated;
+      _shape = null;
+      _values = null;
+      changed();
+   }
+
+   void changed() {
+      ColumnarArrayNode.Rows owner = _owner;
+      if (owner != null) {
+         _owner = null;
+         owner.rowChanged();
+      }
+   }
+
+   @Override
+   public Set<Entry<String, JsonNode>> entrySet() {
+      if (_inflated != null) {
+         return _inflated.entrySet();
+      }
+      return new AbstractSet<Entry<String, JsonNode>>() {
+         @Override
+         public Iterator<Entry<String, JsonNode>> iterator() {
+            return new ShapedIterator(ShapedMap.this);
+         }
+
+         @Override
+         public int size() {
+            return ShapedMap.this.size();
+         }
+      };
+   }
+
+   static final class ShapedIterator implements Iterator<Entry<String, JsonNode>> {
+      final ShapedMap _map;
+      final JsonNode[] _values;
+      int _next = 0;
+
+      ShapedIterator(ShapedMap map) {
+         _map = map;
+         _values = map._values;
+      }
+
+      @Override
+      public boolean hasNext() {
+         return _next < _values.length;
+      }
+
+      @Override
+      public Entry<String, JsonNode> next() {
+         if (_next >= _values.length) {
+            throw new NoSuchElementException();
+         }
+         return new ShapedEntry(_map, _next++);
+      }
+   }
+
+   static final class ShapedEntry implements Entry<String, JsonNode> {
+      final ShapedMap _map;
+      final String _key;
+      final int _index;
+
+      ShapedEntry(ShapedMap map, int index) {
+         _map = map;
+         _key = map._shape.keyAt(index);
+         _index = index;
+      }
+
+      @Override
+      public String getKey() {
+         return _key;
+      }
+
+      @Override
+      public JsonNode getValue() {
+         return _map._inflated == null ? _map._values[_index] : _map._inflated.get(_key);
+      }
+
+      @Override
+      public JsonNode setValue(JsonNode value) {
+         return _map.put(_key, value);
+      }
+
+      @Override
+      public boolean equals(Object o) {
+         if (o instanceof Entry == false) {
+            return false;
+         }
+         Entry<?, ?> other = (Entry<?, ?>) o;
+         JsonNode value = getValue();
+         return _key.equals(other.getKey())
+               && (value == null ? other.getValue() == null : value.equals(other.getValue()));
+      }
+
+      @Override
+      public int hashCode() {
+         JsonNode value = getValue();
+         return _key.hashCode() ^ (value == null ? 0 : value.hashCode());
+      }
+
+      public String toString() {
+         return _key + "=" + getValue();
+      }
+   }
+}
@@ -0,0 +1,332 @@
+/**
+ * (c) Copyright 2018, 2019 IBM Corporation
+ * 1 New Orchard Road,
+ * Armonk, New York, 10504-1722
+ * United States
+ * +1 914 499 1900
+ * support: Nathaniel Mills wnm3@us.ibm.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.api.jsonata4java.expressions.shaped;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.BigIntegerNode;
+import com.fasterxml.jackson.databind.node.BooleanNode;
+import com.fasterxml.jackson.databind.node.DoubleNode;
+import com.fasterxml.jackson.databind.node.IntNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.LongNode;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+
+/**
+ * Builds compact JSON trees directly from a Jackson parser, for documents with
+ * many objects having the same fields (e.g. large arrays of records). Objects
+ * are {@link ShapedObjectNode}s sharing the shapes created by this loader,
+ * small integers and short strings are shared rather than allocated per
+ * occurrence. The trees hold the same values as those read by an ObjectMapper
+ * (ints, longs, big integers and doubles for numbers) and can be evaluated by
+ * any Expression.
+ * <p>
+ * Optionally, arrays of objects having the same fields with scalar values are
+ * loaded as {@link ColumnarArrayNode}s (see {@link #setColumnarThreshold(int)}),
+ * which hold the values of each field in a primitive {@link Column} while they
+ * are read rather than one object per member.
+ * <p>
+ * A loader is not thread safe, but the trees it builds may be read by any
+ * number of threads. Reusing a loader for documents of the same kind lets them
+ * share shapes and strings.
+ */
+public class ShapedNodeLoader {
+
+   /**
+    * Strings up to this length are shared
+    */
+   public static final int MAX_SHARED_STRING_LENGTH = 16;
+
+   /**
+    * Objects with more fields than this are built as ordinary ObjectNodes
+    */
+   public static final int MAX_SHAPE_FIELDS = 256;
+
+   static final int MAX_SHARED_STRINGS = 1 << 16;
+   static final int MAX_SHAPES = 1 << 16;
+   static final int SMALL_INT_MIN = -128;
+   static final IntNode[] SMALL_INTS = new IntNode[1152];
+   static final JsonFactory FACTORY = new JsonFactory();
+
+   static {
+      for (int i = 0; i < SMALL_INTS.length; i++) {
+         SMALL_INTS[i] = new IntNode(SMALL_INT_MIN + i);
+      }
+   }
+
+   final Shape _root = Shape.root();
+   final Map<String, TextNode> _strings = new HashMap<String, TextNode>();
+   int _shapeCount = 1;
+   int _columnarThreshold = 0;
+
+   /**
+    * @param json
+    *             the JSON text
+    * @return the compact tree of the JSON value
+    * @throws IOException
+    *                     if the text is not valid JSON
+    */
+   public JsonNode load(String json) throws IOException {
+      try (JsonParser parser = FACTORY.createParser(json)) {
+         return load(parser);
+      }
+   }
+
+   /**
+    * @param input
+    *              the JSON content, not closed by this method
+    * @return the compact tree of the JSON value
+    * @throws IOException
+    *                     if the content can not be read or is not valid JSON
+    */
+   public JsonNode load(InputStream input) throws IOException {
+      try (JsonParser parser = FACTORY.createParser(input)) {
+         parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+         return load(parser);
+      }
+   }
+
+   /**
+    * @param parser
+    *               a parser positioned before or at the start of a JSON value
+    * @return the compact tree of the value, or null if the parser has no more
+    *         content
+    * @throws IOException
+    *                     if the content can not be read or is not valid JSON
+    */
+   public JsonNode load(JsonParser parser) throws IOException {
+      JsonToken token = parser.currentToken();
+      if (token == null || token == JsonToken.END_OBJECT || token == JsonToken.END_ARRAY) {
+         token = parser.nextToken();
+      }
+      return token == null ? null : readValue(parser, token);
+   }
+
+   /**
+    * @return the number of shapes created by this loader
+    */
+   public int getShapeCount() {
+      return _shapeCount;
+   }
+
+   /**
+    * @param threshold
+    *                  arrays of at least this many objects, all having the same
+    *                  fields in the same order and only null, number, string
+    *                  and boolean values (a field keeping the same type in all
+    *                  of them), are loaded as {@link ColumnarArrayNode}s. Zero
+    *                  (the default) loads all arrays as ordinary ArrayNodes.
+    */
+   public void setColumnarThreshold(int threshold) {
+      _columnarThreshold = Math.max(0, threshold);
+   }
+
+   /**
+    * @return the minimum number of members of arrays loaded as
+    *         ColumnarArrayNodes, or zero if none are
+    */
+   public int getColumnarThreshold() {
+      return _columnarThreshold;
+   }
+
+   JsonNode readValue(JsonParser parser, JsonToken token) throws IOException {
+      switch (token) {
+      case START_OBJECT:
+         return readObject(parser);
+      case START_ARRAY:
+         return readArray(parser);
+      case VALUE_STRING:
+         return text(parser.getText());
+      case VALUE_NUMBER_INT:
+         switch (parser.getNumberType()) {
+         case INT:
+            return intNode(parser.getIntValue());
+         case LONG:
+            return LongNode.valueOf(parser.getLongValue());
+         default:
+            return BigIntegerNode.valueOf(parser.getBigIntegerValue());
+         }
+      case VALUE_NUMBER_FLOAT:
+         return DoubleNode.valueOf(parser.getDoubleValue());
+      case VALUE_TRUE:
+         return BooleanNode.TRUE;
+      case VALUE_FALSE:
+         return BooleanNode.FALSE;
+      case VALUE_NULL:
+         return NullNode.getInstance();
+      default:
+         throw new JsonParseException(parser, "Unexpected token " + token);
+      }
+   }
+
+   /**
+    * While the members of an array qualify for columns, their values are added
+    * to the columns as each member is read, so the members are not kept. When
+    * a member does not qualify, those read so far are built from the columns
+    * and the array is loaded as an ordinary ArrayNode.
+    */
+   JsonNode readArray(JsonParser parser) throws IOException {
+      ArrayList<JsonNode> members = new ArrayList<JsonNode>();
+      Shape shape = null;
+      Column[] columns = null;
+      int rows = 0;
+      JsonToken token;
+      while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+         JsonNode member = readValue(parser, token);
+         if (columns != null) {
+            if (addRow(shape, columns, member)) {
+               rows++;
+               continue;
+            }
+            members = members(shape, columns, rows);
+            columns = null;
+         } else if (_columnarThreshold > 0 && members.isEmpty() && member instanceof ShapedObjectNode
+               && ((ShapedObjectNode) member).getShape().size() > 0) {
+            shape = ((ShapedObjectNode) member).getShape();
+            columns = new Column[shape.size()];
+            for (int i = 0; i < columns.length; i++) {
+               columns[i] = new Column();
+            }
+            if (addRow(shape, columns, member)) {
+               rows = 1;
+               continue;
+            }
+            columns = null;
+         }
+         members.add(member);
+      }
+      if (columns != null) {
+         if (rows >= _columnarThreshold) {
+            for (Column column : columns) {
+               column.trim();
+            }
+            return new ColumnarArrayNode(shape, columns, rows);
+         }
+         members = members(shape, columns, rows);
+      }
+      members.trimToSize();
+      return new ArrayNode(JsonNodeFactory.instance, members);
+   }
+
+   static boolean addRow(Shape shape, Column[] columns, JsonNode member) {
+      if (member instanceof ShapedObjectNode == false || ((ShapedObjectNode) member).getShape() != shape) {
+         return false;
+      }
+      ShapedObjectNode object = (ShapedObjectNode) member;
+      for (int i = 0; i < columns.length; i++) {
+         if (columns[i].accepts(object.valueAt(i)) == false) {
+            return false;
+         }
+      }
+      for (int i = 0; i < columns.length; i++) {
+         columns[i].add(object.valueAt(i));
+      }
+      return true;
+   }
+
+   static ArrayList<JsonNode> members(Shape shape, Column[] columns, int rows) {
+      for (Column column : columns) {
+         column.trim();
+      }
+      ArrayList<JsonNode> members = new ArrayList<JsonNode>(rows + 16);
+      for (int i = 0; i < rows; i++) {
+         members.add(ColumnarArrayNode.member(shape, columns, i));
+      }
+      return members;
+   }
+
+   JsonNode readObject(JsonParser parser) throws IOException {
+      Shape shape = _root;
+      JsonNode[] values = new JsonNode[8];
+      int count = 0;
+      Map<String, JsonNode> overflow = null;
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+         String name = parser.getCurrentName();
+         JsonNode value = readValue(parser, parser.nextToken());
+         if (overflow != null) {
+            overflow.put(name, value);
+            continue;
+         }
+         int index = shape.indexOf(name);
+         if (index >= 0) {
+            // a repeated name replaces the earlier value, as in an ObjectNode
+            values[index] = value;
+            continue;
+         }
+         boolean newShape = shape._transitions == null || shape._transitions.containsKey(name) == false;
+         if (count == MAX_SHAPE_FIELDS || (newShape && _shapeCount >= MAX_SHAPES)) {
+            overflow = new LinkedHashMap<String, JsonNode>();
+            for (int i = 0; i < count; i++) {
+               overflow.put(shape.keyAt(i), values[i]);
+            }
+            overflow.put(name, value);
+         } else {
+            if (newShape) {
+               _shapeCount++;
+            }
+            shape = shape.with(name);
+            if (count == values.length) {
+               values = Arrays.copyOf(values, count * 2);
+            }
+            values[count++] = value;
+         }
+      }
+      if (overflow != null) {
+         return new ObjectNode(JsonNodeFactory.instance, overflow);
+      }
+      return new ShapedObjectNode(shape, count == values.length ? values : Arrays.copyOf(values, count));
+   }
+
+   static IntNode intNode(int value) {
+      int index = value - SMALL_INT_MIN;
+      return index >= 0 && index < SMALL_INTS.length ? SMALL_INTS[index] : IntNode.valueOf(value);
+   }
+
+   TextNode text(String value) {
+      if (value.length() > MAX_SHARED_STRING_LENGTH) {
+         return TextNode.valueOf(value);
+      }
+      TextNode node = _strings.get(value);
+      if (node == null) {
+         node = TextNode.valueOf(value);
+         if (_strings.size() < MAX_SHARED_STRINGS) {
+            _strings.put(value, node);
+         }
+      }
+      return node;
+   }
+}
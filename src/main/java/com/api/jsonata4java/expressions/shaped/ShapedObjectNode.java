@@ -0,0 +1,61 @@
+/**
+ * (c) Copyright 2018, 2019 IBM Corporation
+ * 1 New Orchard Road,
+ * Armonk, New York, 10504-1722
+ * United States
+ * +1 914 499 1900
+ * support: Nathaniel Mills wnm3@us.ibm.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.api.jsonata4java.expressions.shaped;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * An ObjectNode whose fields are held as a shared {@link Shape} and an array of
+ * values rather than a LinkedHashMap per object. It is used like any other
+ * ObjectNode; adding or removing fields turns it into an ordinary (map backed)
+ * object, after which {@link #getShape()} returns null.
+ */
+public class ShapedObjectNode extends ObjectNode {
+
+   ShapedObjectNode(Shape shape, JsonNode[] values) {
+      super(JsonNodeFactory.instance, new ShapedMap(shape, values));
+   }
+
+   /**
+    * @return the shape of the object, or null if fields have been added or
+    *         removed since it was loaded
+    */
+   public Shape getShape() {
+      return ((ShapedMap) _children)._shape;
+   }
+
+   /**
+    * @param index
+    *              the position of a field in the object's shape
+    * @return the value of the field
+    */
+   public JsonNode valueAt(int index) {
+      return ((ShapedMap) _children)._values[index];
+   }
+
+   ShapedMap map() {
+      return (ShapedMap) _children;
+   }
+}
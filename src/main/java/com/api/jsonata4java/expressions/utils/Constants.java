@@ -23,7 +23,6 @@
 package com.api.jsonata4java.expressions.utils;
 
 import java.text.DecimalFormatSymbols;
-import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
 
@@ -36,6 +35,7 @@ import com.api.jsonata4java.expressions.functions.BooleanFunction;
 import com.api.jsonata4java.expressions.functions.CeilFunction;
 import com.api.jsonata4java.expressions.functions.ContainsFunction;
 import com.api.jsonata4java.expressions.functions.CountFunction;
+import com.api.jsonata4java.expressions.functions.DistinctFunction;
 import com.api.jsonata4java.expressions.functions.ExistsFunction;
 import com.api.jsonata4java.expressions.functions.FloorFunction;
 import com.api.jsonata4java.expressions.functions.FormatBaseFunction;
@@ -131,6 +131,7 @@ public class Constants {
    public static final String FUNCTION_ZIP = "$zip";
    public static final String FUNCTION_SORT = "$sort";
    public static final String FUNCTION_INDEX_OF = "$indexOf";
+   public static final String FUNCTION_DISTINCT = "$distinct";
 
    // JSONata object functions
    public static final String FUNCTION_KEYS = "$keys";
@@ -144,82 +145,207 @@ public class Constants {
    public static final String FUNCTION_REDUCT = "$reduce";
    public static final String FUNCTION_SIFT = "$sift";
 
-   // Collection of functions
-   public static final Map<String, Function> FUNCTIONS = new HashMap<String, Function>();
+   // Collection of functions, each created the first time it is used
+   public static final Map<String, Function> FUNCTIONS = new LazyFunctionMap(
+         FUNCTION_SUBSTRING,
+         FUNCTION_STRING,
+         FUNCTION_LENGTH,
+         FUNCTION_SUBSTRING_BEFORE,
+         FUNCTION_SUBSTRING_AFTER,
+         FUNCTION_UPPERCASE,
+         FUNCTION_LOWERCASE,
+         FUNCTION_TRIM,
+         FUNCTION_PAD,
+         FUNCTION_CONTAINS,
+         FUNCTION_SPLIT,
+         FUNCTION_JOIN,
+         FUNCTION_REPLACE,
+         FUNCTION_NOW,
+         FUNCTION_FROM_MILLIS,
+         FUNCTION_FORMAT_NUMBER,
+         FUNCTION_FORMAT_BASE,
+         FUNCTION_BASE64_ENCODE,
+         FUNCTION_BASE64_DECODE,
+         FUNCTION_NUMBER,
+         FUNCTION_EXISTS,
+         FUNCTION_APPEND,
+         FUNCTION_COUNT,
+         FUNCTION_SUM,
+         FUNCTION_AVERAGE,
+         FUNCTION_BOOLEAN,
+         FUNCTION_NOT,
+         FUNCTION_UNPACK,
+         FUNCTION_ABS,
+         FUNCTION_FLOOR,
+         FUNCTION_CEIL,
+         FUNCTION_ROUND,
+         FUNCTION_POWER,
+         FUNCTION_SQRT,
+         FUNCTION_RANDOM,
+         FUNCTION_MILLIS,
+         FUNCTION_TO_MILLIS,
+         FUNCTION_MIN,
+         FUNCTION_MAX,
+         FUNCTION_KEYS,
+         FUNCTION_LOOKUP,
+         FUNCTION_SPREAD,
+         FUNCTION_MERGE,
+         FUNCTION_REVERSE,
+         FUNCTION_SHUFFLE,
+         FUNCTION_ZIP,
+         FUNCTION_SORT,
+         FUNCTION_DISTINCT,
+         FUNCTION_MATCH);
 
-   // Default DecimalFormatSymbols object
-   public static DecimalFormatSymbols DEFAULT_DECIMAL_FORMAT_SYMBOLS = new DecimalFormatSymbols(Locale.US);
-
-   // Static initializer
-   static {
-      // Populate the functions collection
-      FUNCTIONS.put(FUNCTION_SUBSTRING, new SubstringFunction());
-      FUNCTIONS.put(FUNCTION_STRING, new StringFunction());
-      FUNCTIONS.put(FUNCTION_LENGTH, new LengthFunction());
-      FUNCTIONS.put(FUNCTION_SUBSTRING_BEFORE, new SubstringBeforeFunction());
-      FUNCTIONS.put(FUNCTION_SUBSTRING_AFTER, new SubstringAfterFunction());
-      FUNCTIONS.put(FUNCTION_UPPERCASE, new UppercaseFunction());
-      FUNCTIONS.put(FUNCTION_LOWERCASE, new LowercaseFunction());
-      FUNCTIONS.put(FUNCTION_TRIM, new TrimFunction());
-      FUNCTIONS.put(FUNCTION_PAD, new PadFunction());
-      FUNCTIONS.put(FUNCTION_CONTAINS, new ContainsFunction());
-      FUNCTIONS.put(FUNCTION_SPLIT, new SplitFunction());
-      FUNCTIONS.put(FUNCTION_JOIN, new JoinFunction());
-      FUNCTIONS.put(FUNCTION_REPLACE, new ReplaceFunction());
-      FUNCTIONS.put(FUNCTION_NOW, new NowFunction());
-      FUNCTIONS.put(FUNCTION_FROM_MILLIS, new FromMillisFunction());
-      FUNCTIONS.put(FUNCTION_FORMAT_NUMBER, new FormatNumberFunction());
-      FUNCTIONS.put(FUNCTION_FORMAT_BASE, new FormatBaseFunction());
-      FUNCTIONS.put(FUNCTION_BASE64_ENCODE, new Base64EncodeFunction());
-      FUNCTIONS.put(FUNCTION_BASE64_DECODE, new Base64DecodeFunction());
-      FUNCTIONS.put(FUNCTION_NUMBER, new NumberFunction());
-      FUNCTIONS.put(FUNCTION_EXISTS, new ExistsFunction());
-      FUNCTIONS.put(FUNCTION_APPEND, new AppendFunction());
-      FUNCTIONS.put(FUNCTION_COUNT, new CountFunction());
-      FUNCTIONS.put(FUNCTION_SUM, new SumFunction());
-      FUNCTIONS.put(FUNCTION_AVERAGE, new AverageFunction());
-      FUNCTIONS.put(FUNCTION_BOOLEAN, new BooleanFunction());
-      FUNCTIONS.put(FUNCTION_NOT, new NotFunction());
-      FUNCTIONS.put(FUNCTION_UNPACK, new UnpackFunction());
-      FUNCTIONS.put(FUNCTION_ABS, new AbsFunction());
-      FUNCTIONS.put(FUNCTION_FLOOR, new FloorFunction());
-      FUNCTIONS.put(FUNCTION_CEIL, new CeilFunction());
-      FUNCTIONS.put(FUNCTION_ROUND, new RoundFunction());
-      FUNCTIONS.put(FUNCTION_POWER, new PowerFunction());
-      FUNCTIONS.put(FUNCTION_SQRT, new SqrtFunction());
-      FUNCTIONS.put(FUNCTION_RANDOM, new RandomFunction());
-      FUNCTIONS.put(FUNCTION_MILLIS, new MillisFunction());
-      FUNCTIONS.put(FUNCTION_TO_MILLIS, new ToMillisFunction());
-      FUNCTIONS.put(FUNCTION_MIN, new MinFunction());
-      FUNCTIONS.put(FUNCTION_MAX, new MaxFunction());
-      FUNCTIONS.put(FUNCTION_KEYS, new KeysFunction());
-      FUNCTIONS.put(FUNCTION_LOOKUP, new LookupFunction());
-      FUNCTIONS.put(FUNCTION_SPREAD, new SpreadFunction());
-      FUNCTIONS.put(FUNCTION_MERGE, new MergeFunction());
-      FUNCTIONS.put(FUNCTION_REVERSE, new ReverseFunction());
-      FUNCTIONS.put(FUNCTION_SHUFFLE, new ShuffleFunction());
-      FUNCTIONS.put(FUNCTION_ZIP, new ZipFunction());
-      FUNCTIONS.put(FUNCTION_SORT, new SortFunction());
-      FUNCTIONS.put(FUNCTION_MATCH, new MatchFunction());
+   /**
+    * Create the built-in function of the given name
+    * 
+    * @param name
+    *             the name of the function, e.g. $substring
+    * @return a new instance of the function, or null if it is not built-in
+    */
+   static Function createFunction(String name) {
+      switch (name) {
+      case FUNCTION_SUBSTRING:
+         return new SubstringFunction();
+      case FUNCTION_STRING:
+         return new StringFunction();
+      case FUNCTION_LENGTH:
+         return new LengthFunction();
+      case FUNCTION_SUBSTRING_BEFORE:
+         return new SubstringBeforeFunction();
+      case FUNCTION_SUBSTRING_AFTER:
+         return new SubstringAfterFunction();
+      case FUNCTION_UPPERCASE:
+         return new UppercaseFunction();
+      case FUNCTION_LOWERCASE:
+         return new LowercaseFunction();
+      case FUNCTION_TRIM:
+         return new TrimFunction();
+      case FUNCTION_PAD:
+         return new PadFunction();
+      case FUNCTION_CONTAINS:
+         return new ContainsFunction();
+      case FUNCTION_SPLIT:
+         return new SplitFunction();
+      case FUNCTION_JOIN:
+         return new JoinFunction();
+      case FUNCTION_REPLACE:
+         return new ReplaceFunction();
+      case FUNCTION_NOW:
+         return new NowFunction();
+      case FUNCTION_FROM_MILLIS:
+         return new FromMillisFunction();
+      case FUNCTION_FORMAT_NUMBER:
+         return new FormatNumberFunction();
+      case FUNCTION_FORMAT_BASE:
+         return new FormatBaseFunction();
+      case FUNCTION_BASE64_ENCODE:
+         return new Base64EncodeFunction();
+      case FUNCTION_BASE64_DECODE:
+         return new Base64DecodeFunction();
+      case FUNCTION_NUMBER:
+         return new NumberFunction();
+      case FUNCTION_EXISTS:
+         return new ExistsFunction();
+      case FUNCTION_APPEND:
+         return new AppendFunction();
+      case FUNCTION_COUNT:
+         return new CountFunction();
+      case FUNCTION_SUM:
+         return new SumFunction();
+      case FUNCTION_AVERAGE:
+         return new AverageFunction();
+      case FUNCTION_BOOLEAN:
+         return new BooleanFunction();
+      case FUNCTION_NOT:
+         return new NotFunction();
+      case FUNCTION_UNPACK:
+         return new UnpackFunction();
+      case FUNCTION_ABS:
+         return new AbsFunction();
+      case FUNCTION_FLOOR:
+         return new FloorFunction();
+      case FUNCTION_CEIL:
+         return new CeilFunction();
+      case FUNCTION_ROUND:
+         return new RoundFunction();
+      case FUNCTION_POWER:
+         return new PowerFunction();
+      case FUNCTION_SQRT:
+         return new SqrtFunction();
+      case FUNCTION_RANDOM:
+         return new RandomFunction();
+      case FUNCTION_MILLIS:
+         return new MillisFunction();
+      case FUNCTION_TO_MILLIS:
+         return new ToMillisFunction();
+      case FUNCTION_MIN:
+         return new MinFunction();
+      case FUNCTION_MAX:
+         return new MaxFunction();
+      case FUNCTION_KEYS:
+         return new KeysFunction();
+      case FUNCTION_LOOKUP:
+         return new LookupFunction();
+      case FUNCTION_SPREAD:
+         return new SpreadFunction();
+      case FUNCTION_MERGE:
+         return new MergeFunction();
+      case FUNCTION_REVERSE:
+         return new ReverseFunction();
+      case FUNCTION_SHUFFLE:
+         return new ShuffleFunction();
+      case FUNCTION_ZIP:
+         return new ZipFunction();
+      case FUNCTION_SORT:
+         return new SortFunction();
+      case FUNCTION_DISTINCT:
+         return new DistinctFunction();
+      case FUNCTION_MATCH:
+         return new MatchFunction();
       // below not implemented in jsonata.js [yet ;^)]
-      // FUNCTIONS.put(FUNCTION_INDEX_OF, new IndexOfFunction());
+      // case FUNCTION_INDEX_OF:
+      // return new IndexOfFunction();
+
+      // Note: because special functions ($each, $filter, $map, $reduce, $sift)
+      // identify another function to perform, they don't align with the typical
+      // functions that may be invoked with a set of expression variables. These
+      // functions are declared in the ExpressionsVisitor as visitMap_function, etc.
+      default:
+         return null;
+      }
+   }
+
+   /**
+    * Holds the default DecimalFormatSymbols, created when first used
+    */
+   static class DecimalFormatSymbolsHolder {
+      static final DecimalFormatSymbols DEFAULT_DECIMAL_FORMAT_SYMBOLS = new DecimalFormatSymbols(Locale.US);
+
+      static {
+         DEFAULT_DECIMAL_FORMAT_SYMBOLS.setExponentSeparator("e");
+         DEFAULT_DECIMAL_FORMAT_SYMBOLS.setInfinity("Infinity");
+         DEFAULT_DECIMAL_FORMAT_SYMBOLS.setNaN("NaN");
+      }
+   }
 
-      /**
-       * Note: because special functions identify another function to perform, they
-       * don't align with the typical functions that may be invoked with a set of
-       * expression variables. These functions are declared in the ExpressionsVisitor
-       * as visitMap_function, etc.
-       */
-      // FUNCTIONS.put(FUNCTION_EACH, new EachFunction());
-      // FUNCTIONS.put(FUNCTION_FILTER, new FilterFunction());
-      // FUNCTIONS.put(FUNCTION_MAP, new MapFunction());
-      // FUNCTIONS.put(FUNCTION_REDUCE, new ReduceFunction());
-      // FUNCTIONS.put(FUNCTION_SIFT, new SiftFunction());
+   /**
+    * The default DecimalFormatSymbols
+    * 
+    * @deprecated use {@link #getDefaultDecimalFormatSymbols()}. This field is
+    *             kept for existing callers and creates the symbols as soon as
+    *             Constants is loaded.
+    */
+   @Deprecated
+   public static final DecimalFormatSymbols DEFAULT_DECIMAL_FORMAT_SYMBOLS = DecimalFormatSymbolsHolder.DEFAULT_DECIMAL_FORMAT_SYMBOLS;
 
-      // Initialize the default decimal format symbols
-      DEFAULT_DECIMAL_FORMAT_SYMBOLS.setExponentSeparator("e");
-      DEFAULT_DECIMAL_FORMAT_SYMBOLS.setInfinity("Infinity");
-      DEFAULT_DECIMAL_FORMAT_SYMBOLS.setNaN("NaN");
+   /**
+    * @return the default DecimalFormatSymbols (Locale.US with "e" as exponent
+    *         separator). Callers changing the symbols must clone them first.
+    */
+   public static DecimalFormatSymbols getDefaultDecimalFormatSymbols() {
+      return DecimalFormatSymbolsHolder.DEFAULT_DECIMAL_FORMAT_SYMBOLS;
    }
 
    /**
@@ -292,6 +418,8 @@ public class Constants {
    // below is out to favor explanation of arguments
    // public static final String ERR_MSG_WRONG_NUM_ARGS = "Wrong number of
    // arguments to function %s";
+   public static final String ERR_MSG_ARG_COUNT = "Function %s expects %s arguments but was called with %d";
+   public static final String ERR_MSG_ARG_BAD_TYPE = "Argument %d of function %s does not match function signature";
    public static final String ERR_MSG_ARG1_BAD_TYPE = "Argument 1 of function %s does not match function signature";
    public static final String ERR_MSG_ARG2_BAD_TYPE = "Argument 2 of function %s does not match function signature";
    public static final String ERR_MSG_ARG3_BAD_TYPE = "Argument 3 of function %s does not match function signature";
@@ -309,10 +437,17 @@ public class Constants {
    public static final String ERR_MSG_POWER_FUNC_RESULT_NOT_NUMBER = "The power function has resulted in a value that cannot be represented as a number: base=\"%s\", exponent=\"%s\"";
    public static final String ERR_MSG_FUNC_CANNOT_BE_APPLIED_NEG_NUM = "The %s function cannot be applied to a negative number: %s";
    public static final String ERR_MSG_TO_MILLIS_ISO_8601_FORMAT = "The argument for the $toMillis function must be an ISO 8601 format datetime string: \"foo\"";
+   public static final String ERR_MSG_TO_MILLIS_PICTURE = "The argument for the $toMillis function does not match the picture string \"%s\": \"%s\"";
+   public static final String ERR_MSG_PICTURE_UNCLOSED = "No matching closing bracket ']' in the picture string of function %s: \"%s\"";
+   public static final String ERR_MSG_PICTURE_UNKNOWN_COMPONENT = "Unknown component specifier \"%s\" in the picture string of function %s";
+   public static final String ERR_MSG_PICTURE_UNSUPPORTED = "Unsupported presentation \"%s\" in the picture string of function %s";
+   public static final String ERR_MSG_TIMEZONE = "The timezone argument of function %s must be of the form \"+HHMM\" or \"-HHMM\": \"%s\"";
    public static final String ERR_MSG_ARG1_MUST_BE_ARRAY = "Argument 1 of function \"%s\" must be an an array";
    public static final String ERR_MSG_ARG1_MUST_BE_ARRAY_OF_NUMBER = "Argument 1 of function \"%s\" must be an array of \"number\"";
    public static final String ERR_MSG_ARG1_MUST_BE_ARRAY_OF_OBJECTS = "Argument 1 of function \"%s\" must be an object or an array of objects.";
    public static final String ERR_MSG_FCT_CHAIN_NOT_UNARY = "The symbol \"~>\" cannot be used as a unary operator";
+   public static final String ERR_MSG_TRANSFORM_UPDATE = "The insert/update clause of the transform expression must evaluate to an object: %s";
+   public static final String ERR_MSG_TRANSFORM_DELETE = "The delete clause of the transform expression must evaluate to a string or array of strings: %s";
    public static final String ERR_MSG_INVALID_PATH_ENTRY = "The literal value %s cannot be used as a step within a path expression";
    public static final String ERR_MSG_BAD_CONTEXT = "Context value is not a compatible type with argument 1 of function \"%s\"";
    public static final String ERR_MSG_FCT_NOT_FOUND = "Can not find a declared function as second argument of function \"%s\".";
@@ -0,0 +1,176 @@
+/**
+ * (c) Copyright 2018, 2019 IBM Corporation
+ * 1 New Orchard Road, 
+ * Armonk, New York, 10504-1722
+ * United States
+ * +1 914 499 1900
+ * support: Nathaniel Mills wnm3@us.ibm.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.api.jsonata4java.expressions.utils;
+
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * A changed version of a JSON tree that leaves the original tree unchanged and
+ * shares all of its unchanged subtrees. Changing a node copies the spine from
+ * the root to the node (each container on the path is copied shallowly, its
+ * members shared); containers already copied by this tree are changed in
+ * place, so many changes under the same parent copy the parent once.
+ * <p>
+ * Nodes are addressed by paths of field names (String) and array indexes
+ * (Integer) from the root.
+ */
+public class CopyOnWriteTree {
+
+	final JsonNode _original;
+	JsonNode _root;
+	/**
+	 * The copies made by this tree, with the original nodes they were copied
+	 * from
+	 */
+	final Map<JsonNode, JsonNode> _copies = new IdentityHashMap<JsonNode, JsonNode>();
+
+	/**
+	 * @param original the tree to change, which is not changed
+	 */
+	public CopyOnWriteTree(JsonNode original) {
+		_original = original;
+		_root = original;
+	}
+
+	/**
+	 * @return the changed tree, the original tree if nothing has been changed
+	 */
+	public JsonNode getRoot() {
+		return _root;
+	}
+
+	/**
+	 * @param node a node
+	 * @return whether the node is a copy made by this tree (and may be changed in
+	 *         place)
+	 */
+	public boolean isCopy(JsonNode node) {
+		return _copies.containsKey(node);
+	}
+
+	/**
+	 * @param node an object
+	 * @return the object itself if it was copied by this tree, else a shallow copy
+	 *         of it that may be changed (not linked into the tree)
+	 */
+	public ObjectNode edit(ObjectNode node) {
+		return (ObjectNode) copy(node);
+	}
+
+	/**
+	 * @param node an array
+	 * @return the array itself if it was copied by this tree, else a shallow copy
+	 *         of it that may be changed (not linked into the tree)
+	 */
+	public ArrayNode edit(ArrayNode node) {
+		return (ArrayNode) copy(node);
+	}
+
+	JsonNode copy(JsonNode node) {
+		if (_copies.containsKey(node)) {
+			return node;
+		}
+		JsonNode copy;
+		if (node.isObject()) {
+			ObjectNode object = JsonNodeFactory.instance.objectNode();
+			for (Iterator<Map.Entry<String, JsonNode>> it = node.fields(); it.hasNext();) {
+				Map.Entry<String, JsonNode> field = it.next();
+				object.set(field.getKey(), field.getValue());
+			}
+			copy = object;
+		} else {
+			ArrayNode array = JsonNodeFactory.instance.arrayNode(node.size());
+			for (JsonNode member : node) {
+				array.add(member);
+			}
+			copy = array;
+		}
+		_copies.put(copy, node);
+		return copy;
+	}
+
+	/**
+	 * @param path the path of a node of the original tree
+	 * @return the current version of the node (the node or a copy of it), or null
+	 *         if a change has replaced it or one of its ancestors
+	 */
+	public JsonNode getAt(Object[] path) {
+		JsonNode original = _original;
+		JsonNode current = _root;
+		for (Object step : path) {
+			original = child(original, step);
+			current = child(current, step);
+			if (original == null || current == null || derives(current, original) == false) {
+				return null;
+			}
+		}
+		return current;
+	}
+
+	/**
+	 * Make the node at a path changeable, copying it and its ancestors that have
+	 * not been copied yet
+	 * 
+	 * @param path the path of a container of the original tree
+	 * @return the current version of the container, which may be changed in
+	 *         place, or null if a change has replaced it or one of its ancestors
+	 */
+	public JsonNode editAt(Object[] path) {
+		if (getAt(path) == null) {
+			return null;
+		}
+		_root = copy(_root);
+		JsonNode current = _root;
+		for (Object step : path) {
+			JsonNode child = child(current, step);
+			if (_copies.containsKey(child) == false) {
+				child = copy(child);
+				if (step instanceof String) {
+					((ObjectNode) current).set((String) step, child);
+				} else {
+					((ArrayNode) current).set((Integer) step, child);
+				}
+			}
+			current = child;
+		}
+		return current;
+	}
+
+	boolean derives(JsonNode node, JsonNode original) {
+		return node == original || _copies.get(node) == original;
+	}
+
+	static JsonNode child(JsonNode node, Object step) {
+		if (step instanceof String) {
+			return node.isObject() ? node.get((String) step) : null;
+		}
+		return node.isArray() ? node.get((Integer) step) : null;
+	}
+}
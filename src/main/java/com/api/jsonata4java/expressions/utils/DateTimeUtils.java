@@ -0,0 +1,558 @@
+/**
+ * (c) Copyright 2018, 2019 IBM Corporation
+ * 1 New Orchard Road, 
+ * Armonk, New York, 10504-1722
+ * United States
+ * +1 914 499 1900
+ * support: Nathaniel Mills wnm3@us.ibm.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.api.jsonata4java.expressions.utils;
+
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.Year;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.SignStyle;
+import java.time.format.TextStyle;
+import java.time.temporal.ChronoField;
+import java.time.temporal.IsoFields;
+import java.time.temporal.TemporalField;
+import java.time.temporal.ValueRange;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import com.api.jsonata4java.expressions.EvaluateRuntimeException;
+
+/**
+ * Formatting and parsing of timestamps for $fromMillis and $toMillis.
+ * 
+ * Picture strings follow the XPath F&amp;O 3.1 date/time picture syntax used by
+ * JSONata: variable markers such as [Y0001], [M01], [FNn,3-3] or [Z01:01t]
+ * between literal text, with [[ and ]] standing for literal brackets. Each
+ * picture is compiled once into a DateTimeFormatter and kept in a bounded
+ * least recently used cache keyed by the picture and timezone, so repeated
+ * calls only pay for formatting or parsing.
+ * 
+ * Plain ISO 8601 timestamps are parsed by a scanner that reports anything it
+ * does not recognize by returning {@link #NOT_PARSED} rather than throwing, so
+ * the common case never builds an exception.
+ */
+public class DateTimeUtils {
+
+	/**
+	 * Picture producing the ISO 8601 format used by $fromMillis when only a
+	 * timezone is given
+	 */
+	public static final String ISO_PICTURE = "[Y0001]-[M01]-[D01]T[H01]:[m01]:[s01].[f001][Z01:01t]";
+
+	/**
+	 * Returned by {@link #parseIso(String)} for strings it does not recognize
+	 */
+	public static final long NOT_PARSED = Long.MIN_VALUE;
+
+	/**
+	 * Maximum number of compiled pictures kept
+	 */
+	public static final int MAX_FORMATTERS = 256;
+
+	static final Map<String, DateTimeFormatter> _formatters = new LinkedHashMap<String, DateTimeFormatter>(16,
+			0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, DateTimeFormatter> eldest) {
+			return size() > MAX_FORMATTERS;
+		}
+	};
+
+	static final String[] ORDINAL_SUFFIXES = { "th", "st", "nd", "rd", "th", "th", "th", "th", "th", "th" };
+
+	/**
+	 * Format an instant
+	 * 
+	 * @param millis
+	 *                     milliseconds since the Unix Epoch
+	 * @param picture
+	 *                     XPath picture string
+	 * @param offset
+	 *                     timezone offset the timestamp is presented in
+	 * @param functionName
+	 *                     name of the calling function, used in error messages
+	 * @return the formatted timestamp
+	 */
+	public static String format(long millis, String picture, ZoneOffset offset, String functionName) {
+		return getFormatter(picture, offset, false, functionName).format(Instant.ofEpochMilli(millis));
+	}
+
+	/**
+	 * Parse a timestamp against a picture string. Components missing from the
+	 * picture default to the start of their range (1970-01-01T00:00:00Z).
+	 * 
+	 * @param timestamp
+	 *                     the string to parse
+	 * @param picture
+	 *                     XPath picture string
+	 * @param functionName
+	 *                     name of the calling function, used in error messages
+	 * @return milliseconds since the Unix Epoch
+	 * @throws EvaluateRuntimeException
+	 *                                  if the timestamp does not match the
+	 *                                  picture
+	 */
+	public static long parse(String timestamp, String picture, String functionName) {
+		DateTimeFormatter formatter = getFormatter(picture, ZoneOffset.UTC, true, functionName);
+		try {
+			return Instant.from(formatter.parse(timestamp)).toEpochMilli();
+		} catch (DateTimeException e) {
+			throw new EvaluateRuntimeException(
+					String.format(Constants.ERR_MSG_TO_MILLIS_PICTURE, picture, timestamp));
+		}
+	}
+
+	/**
+	 * Parse a timezone argument
+	 * 
+	 * @param timezone
+	 *                     offset of the form ±HHMM
+	 * @param functionName
+	 *                     name of the calling function, used in error messages
+	 * @return the offset
+	 */
+	public static ZoneOffset parseTimezone(String timezone, String functionName) {
+		int length = timezone.length();
+		int start = length == 5 ? 1 : 0;
+		if ((length == 4 || (length == 5 && (timezone.charAt(0) == '+' || timezone.charAt(0) == '-')))) {
+			int hours = digits(timezone, start, 2);
+			int minutes = digits(timezone, start + 2, 2);
+			if (hours >= 0 && minutes >= 0 && minutes < 60 && hours * 100 + minutes <= 1800) {
+				int seconds = hours * 3600 + minutes * 60;
+				return ZoneOffset.ofTotalSeconds(timezone.charAt(0) == '-' ? -seconds : seconds);
+			}
+		}
+		throw new EvaluateRuntimeException(String.format(Constants.ERR_MSG_TIMEZONE, functionName, timezone));
+	}
+
+	/**
+	 * Parse an ISO 8601 timestamp of the form YYYY-MM-DDThh:mm[:ss[.fff]]
+	 * followed by Z or ±hh:mm without throwing
+	 * 
+	 * @param timestamp
+	 *                  the string to parse
+	 * @return milliseconds since the Unix Epoch, or {@link #NOT_PARSED} if the
+	 *         string is not of that form or is not a valid date and time
+	 */
+	public static long parseIso(String timestamp) {
+		int length = timestamp.length();
+		if (length < 17 || timestamp.charAt(4) != '-' || timestamp.charAt(7) != '-' || timestamp.charAt(13) != ':'
+				|| (timestamp.charAt(10) != 'T' && timestamp.charAt(10) != 't')) {
+			return NOT_PARSED;
+		}
+		int year = digits(timestamp, 0, 4);
+		int month = digits(timestamp, 5, 2);
+		int day = digits(timestamp, 8, 2);
+		int hour = digits(timestamp, 11, 2);
+		int minute = digits(timestamp, 14, 2);
+		if (year < 0 || month < 1 || month > 12 || day < 1 || day > Month.of(month).length(Year.isLeap(year))
+				|| hour < 0 || hour > 23 || minute < 0 || minute > 59) {
+			return NOT_PARSED;
+		}
+		int second = 0;
+		int millis = 0;
+		int index = 16;
+		if (timestamp.charAt(index) == ':') {
+			second = length < 19 ? -1 : digits(timestamp, 17, 2);
+			if (second < 0 || second > 59) {
+				return NOT_PARSED;
+			}
+			index = 19;
+			if (index < length && timestamp.charAt(index) == '.') {
+				int start = ++index;
+				while (index < length && Character.isDigit(timestamp.charAt(index))) {
+					if (index - start < 3) {
+						millis = millis * 10 + timestamp.charAt(index) - '0';
+					}
+					index++;
+				}
+				int count = index - start;
+				if (count == 0 || count > 9) {
+					return NOT_PARSED;
+				}
+				for (; count < 3; count++) {
+					millis *= 10;
+				}
+			}
+		}
+		if (index >= length) {
+			return NOT_PARSED;
+		}
+		int offsetSeconds;
+		char sign = timestamp.charAt(index);
+		if ((sign == 'Z' || sign == 'z') && index + 1 == length) {
+			offsetSeconds = 0;
+		} else if ((sign == '+' || sign == '-') && index + 6 == length && timestamp.charAt(index + 3) == ':') {
+			int offsetHours = digits(timestamp, index + 1, 2);
+			int offsetMinutes = digits(timestamp, index + 4, 2);
+			if (offsetHours < 0 || offsetMinutes < 0 || offsetMinutes > 59
+					|| offsetHours * 100 + offsetMinutes > 1800) {
+				return NOT_PARSED;
+			}
+			offsetSeconds = offsetHours * 3600 + offsetMinutes * 60;
+			if (sign == '-') {
+				offsetSeconds = -offsetSeconds;
+			}
+		} else {
+			return NOT_PARSED;
+		}
+		long epochDay = LocalDate.of(year, month, day).toEpochDay();
+		long seconds = epochDay * 86400L + hour * 3600 + minute * 60 + second - offsetSeconds;
+		return seconds * 1000L + millis;
+	}
+
+	/**
+	 * @return the value of count ASCII digits starting at start, or -1 if any of
+	 *         them is not a digit
+	 */
+	static int digits(String text, int start, int count) {
+		int value = 0;
+		for (int i = start; i < start + count; i++) {
+			char c = text.charAt(i);
+			if (c < '0' || c > '9') {
+				return -1;
+			}
+			value = value * 10 + c - '0';
+		}
+		return value;
+	}
+
+	/**
+	 * @return the compiled picture, from the cache when it has been used before
+	 */
+	static DateTimeFormatter getFormatter(String picture, ZoneOffset offset, boolean parse, String functionName) {
+		String key = picture + '\u0000' + (parse ? "parse" : offset.getId());
+		synchronized (_formatters) {
+			DateTimeFormatter formatter = _formatters.get(key);
+			if (formatter != null) {
+				return formatter;
+			}
+		}
+		DateTimeFormatter formatter = compile(picture, parse, functionName).withZone(offset);
+		synchronized (_formatters) {
+			_formatters.put(key, formatter);
+		}
+		return formatter;
+	}
+
+	/**
+	 * Compile a picture string into a formatter. Formatters built for parsing
+	 * are case insensitive and default the fields the picture leaves out.
+	 */
+	static DateTimeFormatter compile(String picture, boolean parse, String functionName) {
+		DateTimeFormatterBuilder builder = new DateTimeFormatterBuilder();
+		if (parse) {
+			builder.parseCaseInsensitive();
+		}
+		Set<Character> components = new HashSet<Character>();
+		StringBuilder literal = new StringBuilder();
+		int length = picture.length();
+		int index = 0;
+		while (index < length) {
+			char c = picture.charAt(index);
+			if ((c == '[' || c == ']') && index + 1 < length && picture.charAt(index + 1) == c) {
+				literal.append(c);
+				index += 2;
+			} else if (c == '[') {
+				int end = picture.indexOf(']', index);
+				if (end < 0) {
+					throw new EvaluateRuntimeException(
+							String.format(Constants.ERR_MSG_PICTURE_UNCLOSED, functionName, picture));
+				}
+				if (literal.length() > 0) {
+					builder.appendLiteral(literal.toString());
+					literal.setLength(0);
+				}
+				String marker = picture.substring(index + 1, end).replaceAll("\\s", "");
+				appendComponent(builder, marker, components, functionName);
+				index = end + 1;
+			} else {
+				literal.append(c);
+				index++;
+			}
+		}
+		if (literal.length() > 0) {
+			builder.appendLiteral(literal.toString());
+		}
+		if (parse) {
+			appendDefaults(builder, components);
+		}
+		return builder.toFormatter(Locale.ENGLISH);
+	}
+
+	static void appendDefaults(DateTimeFormatterBuilder builder, Set<Character> components) {
+		if (components.contains('W') || components.contains('X')) {
+			if (components.contains('F') == false) {
+				builder.parseDefaulting(ChronoField.DAY_OF_WEEK, 1);
+			}
+		} else if (components.contains('d')) {
+			if (components.contains('Y') == false) {
+				builder.parseDefaulting(ChronoField.YEAR, 1970);
+			}
+		} else {
+			if (components.contains('Y') == false) {
+				builder.parseDefaulting(ChronoField.YEAR, 1970);
+			}
+			if (components.contains('M') == false) {
+				builder.parseDefaulting(ChronoField.MONTH_OF_YEAR, 1);
+			}
+			if (components.contains('D') == false) {
+				builder.parseDefaulting(ChronoField.DAY_OF_MONTH, 1);
+			}
+		}
+		if (components.contains('h')) {
+			if (components.contains('P') == false) {
+				builder.parseDefaulting(ChronoField.AMPM_OF_DAY, 0);
+			}
+		} else if (components.contains('H') == false) {
+			builder.parseDefaulting(ChronoField.HOUR_OF_DAY, 0);
+		}
+		if (components.contains('m') == false) {
+			builder.parseDefaulting(ChronoField.MINUTE_OF_HOUR, 0);
+		}
+		if (components.contains('s') == false) {
+			builder.parseDefaulting(ChronoField.SECOND_OF_MINUTE, 0);
+		}
+		if (components.contains('f') == false) {
+			builder.parseDefaulting(ChronoField.NANO_OF_SECOND, 0);
+		}
+		if (components.contains('Z') == false && components.contains('z') == false) {
+			builder.parseDefaulting(ChronoField.OFFSET_SECONDS, 0);
+		}
+	}
+
+	static void appendComponent(DateTimeFormatterBuilder builder, String marker, Set<Character> components,
+			String functionName) {
+		if (marker.isEmpty()) {
+			throw new EvaluateRuntimeException(
+					String.format(Constants.ERR_MSG_PICTURE_UNKNOWN_COMPONENT, marker, functionName));
+		}
+		char component = marker.charAt(0);
+		String presentation = marker.substring(1);
+		int minWidth = -1;
+		int maxWidth = -1;
+		int comma = presentation.lastIndexOf(',');
+		if (comma >= 0) {
+			String width = presentation.substring(comma + 1);
+			presentation = presentation.substring(0, comma);
+			int dash = width.indexOf('-');
+			minWidth = parseWidth(dash < 0 ? width : width.substring(0, dash), marker, functionName);
+			maxWidth = dash < 0 ? -1 : parseWidth(width.substring(dash + 1), marker, functionName);
+		}
+		components.add(component);
+
+		TemporalField field;
+		switch (component) {
+			case 'Y':
+				field = ChronoField.YEAR;
+				break;
+			case 'X':
+				field = IsoFields.WEEK_BASED_YEAR;
+				break;
+			case 'M':
+				field = ChronoField.MONTH_OF_YEAR;
+				break;
+			case 'D':
+				field = ChronoField.DAY_OF_MONTH;
+				break;
+			case 'd':
+				field = ChronoField.DAY_OF_YEAR;
+				break;
+			case 'F':
+				field = ChronoField.DAY_OF_WEEK;
+				break;
+			case 'W':
+				field = IsoFields.WEEK_OF_WEEK_BASED_YEAR;
+				break;
+			case 'w':
+				field = ChronoField.ALIGNED_WEEK_OF_MONTH;
+				break;
+			case 'H':
+				field = ChronoField.HOUR_OF_DAY;
+				break;
+			case 'h':
+				field = ChronoField.CLOCK_HOUR_OF_AMPM;
+				break;
+			case 'P':
+				field = ChronoField.AMPM_OF_DAY;
+				break;
+			case 'm':
+				field = ChronoField.MINUTE_OF_HOUR;
+				break;
+			case 's':
+				field = ChronoField.SECOND_OF_MINUTE;
+				break;
+			case 'f':
+				field = ChronoField.NANO_OF_SECOND;
+				break;
+			case 'Z':
+			case 'z':
+				appendOffset(builder, component, presentation, marker, functionName);
+				return;
+			default:
+				throw new EvaluateRuntimeException(
+						String.format(Constants.ERR_MSG_PICTURE_UNKNOWN_COMPONENT, marker, functionName));
+		}
+
+		if (presentation.isEmpty()) {
+			presentation = (component == 'F' || component == 'P') ? "n"
+					: (component == 'm' || component == 's') ? "01" : component == 'f' ? "001" : "1";
+		}
+		if (presentation.equals("N") || presentation.equals("n") || presentation.equals("Nn")) {
+			builder.appendText(field, names(component, presentation, maxWidth, marker, functionName));
+			return;
+		}
+		boolean ordinal = false;
+		if (presentation.length() > 1 && presentation.endsWith("o")) {
+			ordinal = true;
+			presentation = presentation.substring(0, presentation.length() - 1);
+		}
+		int digits = 0;
+		for (int i = 0; i < presentation.length(); i++) {
+			char c = presentation.charAt(i);
+			if (c >= '0' && c <= '9') {
+				digits++;
+			} else if (c != '#') {
+				throw new EvaluateRuntimeException(
+						String.format(Constants.ERR_MSG_PICTURE_UNSUPPORTED, marker, functionName));
+			}
+		}
+		if (digits == 0 || component == 'P') {
+			throw new EvaluateRuntimeException(
+					String.format(Constants.ERR_MSG_PICTURE_UNSUPPORTED, marker, functionName));
+		}
+		if (component == 'f') {
+			int width = Math.min(9, Math.max(digits, minWidth));
+			builder.appendFraction(field, width, maxWidth > width ? Math.min(9, maxWidth) : width, false);
+			return;
+		}
+		if (ordinal) {
+			ValueRange range = field.range();
+			if (range.getMaximum() > 366) {
+				throw new EvaluateRuntimeException(
+						String.format(Constants.ERR_MSG_PICTURE_UNSUPPORTED, marker, functionName));
+			}
+			Map<Long, String> ordinals = new HashMap<Long, String>();
+			for (long value = range.getMinimum(); value <= range.getMaximum(); value++) {
+				long tens = value % 100;
+				ordinals.put(value, value + ((tens >= 11 && tens <= 13) ? "th" : ORDINAL_SUFFIXES[(int) (value % 10)]));
+			}
+			builder.appendText(field, ordinals);
+			return;
+		}
+		int width = Math.max(digits, minWidth);
+		if ((component == 'Y' || component == 'X') && (maxWidth == 2 || (maxWidth < 0 && presentation.length() == 2))) {
+			builder.appendValueReduced(field, 2, 2, 2000);
+		} else if (component == 'Y' || component == 'X') {
+			builder.appendValue(field, width, Math.max(width, 10), SignStyle.NORMAL);
+		} else {
+			int fieldDigits = Long.toString(field.range().getMaximum()).length();
+			if (width >= fieldDigits) {
+				builder.appendValue(field, width);
+			} else {
+				builder.appendValue(field, width, fieldDigits, SignStyle.NOT_NEGATIVE);
+			}
+		}
+	}
+
+	static void appendOffset(DateTimeFormatterBuilder builder, char component, String presentation, String marker,
+			String functionName) {
+		boolean zulu = presentation.endsWith("t");
+		if (zulu) {
+			presentation = presentation.substring(0, presentation.length() - 1);
+		}
+		if (presentation.isEmpty()) {
+			presentation = "01:01";
+		}
+		String pattern;
+		if (presentation.matches("[0-9]{2}:[0-9]{2}")) {
+			pattern = "+HH:MM";
+		} else if (presentation.matches("[0-9]{4}")) {
+			pattern = "+HHMM";
+		} else if (presentation.matches("[0-9]{1,2}")) {
+			pattern = "+HHmm";
+		} else {
+			throw new EvaluateRuntimeException(
+					String.format(Constants.ERR_MSG_PICTURE_UNSUPPORTED, marker, functionName));
+		}
+		if (component == 'z') {
+			builder.appendLiteral("GMT");
+		}
+		builder.appendOffset(pattern, zulu ? "Z" : pattern.replace("HH", "00").replace("MM", "00").replace("mm", ""));
+	}
+
+	static Map<Long, String> names(char component, String presentation, int maxWidth, String marker,
+			String functionName) {
+		Map<Long, String> names = new HashMap<Long, String>();
+		if (component == 'M') {
+			for (Month month : Month.values()) {
+				names.put((long) month.getValue(), month.getDisplayName(TextStyle.FULL, Locale.ENGLISH));
+			}
+		} else if (component == 'F') {
+			for (DayOfWeek day : DayOfWeek.values()) {
+				names.put((long) day.getValue(), day.getDisplayName(TextStyle.FULL, Locale.ENGLISH));
+			}
+		} else if (component == 'P') {
+			names.put(0L, "am");
+			names.put(1L, "pm");
+		} else {
+			throw new EvaluateRuntimeException(
+					String.format(Constants.ERR_MSG_PICTURE_UNSUPPORTED, marker, functionName));
+		}
+		for (Map.Entry<Long, String> entry : names.entrySet()) {
+			String name = entry.getValue();
+			if (maxWidth > 0 && name.length() > maxWidth) {
+				name = name.substring(0, maxWidth);
+			}
+			if (presentation.equals("N")) {
+				name = name.toUpperCase(Locale.ENGLISH);
+			} else if (presentation.equals("n")) {
+				name = name.toLowerCase(Locale.ENGLISH);
+			}
+			entry.setValue(name);
+		}
+		return names;
+	}
+
+	static int parseWidth(String width, String marker, String functionName) {
+		if (width.equals("*")) {
+			return -1;
+		}
+		int value = width.isEmpty() || width.length() > 2 ? -1 : digits(width, 0, width.length());
+		if (value < 1) {
+			throw new EvaluateRuntimeException(
+					String.format(Constants.ERR_MSG_PICTURE_UNSUPPORTED, marker, functionName));
+		}
+		return value;
+	}
+}
@@ -33,6 +33,7 @@ import org.antlr.v4.runtime.tree.TerminalNodeImpl;
 
 import com.api.jsonata4java.expressions.ExpressionsVisitor;
 import com.api.jsonata4java.expressions.functions.Function;
+import com.api.jsonata4java.expressions.functions.TypedFunction;
 import com.api.jsonata4java.expressions.generated.MappingExpressionParser;
 import com.api.jsonata4java.expressions.generated.MappingExpressionParser.Array_constructorContext;
 import com.api.jsonata4java.expressions.generated.MappingExpressionParser.BooleanContext;
@@ -52,6 +53,7 @@ import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.DoubleNode;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
 
 public class FunctionUtils {
 
@@ -598,6 +600,9 @@ public class FunctionUtils {
 	 */
 	public static JsonNode processFctCallVariables(ExpressionsVisitor exprVisitor, Function function,
 			TerminalNode varid, Function_callContext ctx, JsonNode... elements) {
+		if (function instanceof TypedFunction) {
+			return ((TypedFunction) function).callWithValues(varid.getText(), elements);
+		}
 		ExprListContext elc = new ExprListContext(ctx.getParent(), ctx.invokingState);
 		ExprValuesContext evc = new ExprValuesContext(ctx.getParent(), ctx.invokingState);
 		evc.addAnyChild(new TerminalNodeImpl(CommonTokenFactory.DEFAULT.create(MappingExpressionParser.T__1, "(")));
@@ -665,7 +670,7 @@ public class FunctionUtils {
 		evc.addAnyChild(new TerminalNodeImpl(CommonTokenFactory.DEFAULT.create(MappingExpressionParser.T__3, ")")));
 		ctx.addAnyChild(varid);
 		ctx.addAnyChild(evc);
-		return function.invoke(exprVisitor, ctx);
+		return RopeTextNode.flatten(function.invoke(exprVisitor, ctx));
 	}
 
 	/**
@@ -689,6 +694,9 @@ public class FunctionUtils {
 	 */
 	public static JsonNode processFctCallVariables(ExpressionsVisitor exprVisitor, Function function,
 			TerminalNode varid, Function_callContext ctx, JsonNode value, String key, ObjectNode object) {
+		if (function instanceof TypedFunction) {
+			return ((TypedFunction) function).callWithValues(varid.getText(), value, new TextNode(key), object);
+		}
 		ExprListContext elc = new ExprListContext(ctx.getParent(), ctx.invokingState);
 		ExprValuesContext evc = new ExprValuesContext(ctx.getParent(), ctx.invokingState);
 		evc.addAnyChild(new TerminalNodeImpl(CommonTokenFactory.DEFAULT.create(MappingExpressionParser.T__1, "(")));
@@ -763,7 +771,7 @@ public class FunctionUtils {
 		evc.addAnyChild(new TerminalNodeImpl(CommonTokenFactory.DEFAULT.create(MappingExpressionParser.T__3, ")")));
 		ctx.addAnyChild(varid);
 		ctx.addAnyChild(evc);
-		return function.invoke(exprVisitor, ctx);
+		return RopeTextNode.flatten(function.invoke(exprVisitor, ctx));
 	}
 
 	/**
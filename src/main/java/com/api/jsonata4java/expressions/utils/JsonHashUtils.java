@@ -0,0 +1,227 @@
+/**
+ * (c) Copyright 2018, 2019 IBM Corporation
+ * 1 New Orchard Road, 
+ * Armonk, New York, 10504-1722
+ * United States
+ * +1 914 499 1900
+ * support: Nathaniel Mills wnm3@us.ibm.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.api.jsonata4java.expressions.utils;
+
+import java.util.Iterator;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Structural hashing and equality of JSON trees consistent with JSONata's
+ * deep equality: numbers are equal when their values are (1 equals 1.0),
+ * arrays when their members are equal in order and objects when they have the
+ * same keys with equal values, in any order. Wrapping nodes in {@link Key}s
+ * lets hash based collections find equal values in constant time instead of
+ * comparing each pair.
+ */
+public class JsonHashUtils {
+
+	/**
+	 * The largest magnitude up to which every integer is exactly representable
+	 * as a double
+	 */
+	static final long MAX_EXACT_INTEGER = 1L << 53;
+
+	/**
+	 * A JsonNode compared by {@link JsonHashUtils#deepEquals(JsonNode, JsonNode)}
+	 * and hashed by {@link JsonHashUtils#hash(JsonNode)}, which is computed once.
+	 * The node must not be changed while it is used as a key.
+	 */
+	public static final class Key {
+		final JsonNode _node;
+		final int _hash;
+
+		public Key(JsonNode node) {
+			_node = node;
+			_hash = hash(node);
+		}
+
+		/**
+		 * @return the wrapped node
+		 */
+		public JsonNode getNode() {
+			return _node;
+		}
+
+		@Override
+		public int hashCode() {
+			return _hash;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (o == this) {
+				return true;
+			}
+			if (o instanceof Key == false) {
+				return false;
+			}
+			Key other = (Key) o;
+			return _hash == other._hash && deepEquals(_node, other._node);
+		}
+
+		@Override
+		public String toString() {
+			return String.valueOf(_node);
+		}
+	}
+
+	/**
+	 * @param node a JSON value (null for undefined)
+	 * @return a hash of the value that is equal for values that are
+	 *         {@link #deepEquals(JsonNode, JsonNode)}
+	 */
+	public static int hash(JsonNode node) {
+		if (node == null) {
+			return 0;
+		}
+		switch (node.getNodeType()) {
+		case NUMBER: {
+			// hash the double value so integral and floating point numbers of the
+			// same value (and 0 and -0) hash alike
+			double value = node.asDouble();
+			return Double.hashCode(value == 0.0d ? 0.0d : value);
+		}
+		case STRING:
+			return node.textValue().hashCode();
+		case BOOLEAN:
+			return node.booleanValue() ? 1231 : 1237;
+		case NULL:
+			return 79;
+		case ARRAY: {
+			int hash = 1;
+			for (int i = 0; i < node.size(); i++) {
+				hash = 31 * hash + hash(node.get(i));
+			}
+			return hash;
+		}
+		case OBJECT: {
+			// independent of the order of the fields
+			int hash = 17;
+			for (Iterator<Map.Entry<String, JsonNode>> it = node.fields(); it.hasNext();) {
+				Map.Entry<String, JsonNode> field = it.next();
+				hash += field.getKey().hashCode() ^ hash(field.getValue());
+			}
+			return hash;
+		}
+		default:
+			return node.hashCode();
+		}
+	}
+
+	/**
+	 * @param left  a JSON value (null for undefined)
+	 * @param right a JSON value (null for undefined)
+	 * @return whether the values are deeply equal: numbers of equal value,
+	 *         equal strings, the same boolean, both null, arrays of equal members
+	 *         in the same order or objects with the same keys of equal values
+	 */
+	public static boolean deepEquals(JsonNode left, JsonNode right) {
+		if (left == right) {
+			return true;
+		}
+		if (left == null || right == null) {
+			return false;
+		}
+		if (left.isNumber() && right.isNumber()) {
+			return numbersEqual(left, right);
+		}
+		if (left.getNodeType() != right.getNodeType()) {
+			return false;
+		}
+		switch (left.getNodeType()) {
+		case STRING:
+			return left.textValue().equals(right.textValue());
+		case BOOLEAN:
+			return left.booleanValue() == right.booleanValue();
+		case NULL:
+			return true;
+		case ARRAY: {
+			int size = left.size();
+			if (size != right.size()) {
+				return false;
+			}
+			for (int i = 0; i < size; i++) {
+				if (deepEquals(left.get(i), right.get(i)) == false) {
+					return false;
+				}
+			}
+			return true;
+		}
+		case OBJECT: {
+			if (left.size() != right.size()) {
+				return false;
+			}
+			for (Iterator<Map.Entry<String, JsonNode>> it = left.fields(); it.hasNext();) {
+				Map.Entry<String, JsonNode> field = it.next();
+				JsonNode value = right.get(field.getKey());
+				if (value == null || deepEquals(field.getValue(), value) == false) {
+					return false;
+				}
+			}
+			return true;
+		}
+		default:
+			return left.equals(right);
+		}
+	}
+
+	/**
+	 * Compares numbers as the = operator does: as longs if both are integral,
+	 * otherwise as doubles
+	 */
+	static boolean numbersEqual(JsonNode left, JsonNode right) {
+		if (left.isIntegralNumber() && right.isIntegralNumber()) {
+			return left.asLong() == right.asLong();
+		}
+		return left.asDouble() == right.asDouble();
+	}
+
+	/**
+	 * @param node a JSON value
+	 * @return whether the value is a string, boolean, null or a number whose
+	 *         equality to other numbers is decided by its double value. Integers
+	 *         beyond 2^53 are compared as longs to other integers but as doubles
+	 *         to floating point numbers, an equality no hash can agree with.
+	 */
+	public static boolean isScalarKey(JsonNode node) {
+		switch (node.getNodeType()) {
+		case STRING:
+		case BOOLEAN:
+		case NULL:
+			return true;
+		case NUMBER:
+			if (node.isIntegralNumber()) {
+				if (node.canConvertToLong() == false) {
+					return false;
+				}
+				long value = node.asLong();
+				return value <= MAX_EXACT_INTEGER && value >= -MAX_EXACT_INTEGER;
+			}
+			return true;
+		default:
+			return false;
+		}
+	}
+}
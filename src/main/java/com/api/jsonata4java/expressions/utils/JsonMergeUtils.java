@@ -74,6 +74,54 @@ public class JsonMergeUtils {
 		}
 	}
 
+	/**
+	 * Returns x "merged into" y like {@link #merge(JsonNode, JsonNode)}, without
+	 * changing x or y. The result shares the subtrees of x that are not changed
+	 * by the merge and the subtrees of y merged into x where x has no value: only
+	 * the objects of x that receive values from y are copied (see
+	 * {@link CopyOnWriteTree}).
+	 * 
+	 * @param x Json object
+	 * @param y Json object
+	 * @return merged Json object, x itself if y adds nothing to it
+	 */
+	public static JsonNode mergeCopy(JsonNode x, JsonNode y) {
+		return merge(x, y, new CopyOnWriteTree(x));
+	}
+
+	private static JsonNode merge(JsonNode x, JsonNode y, CopyOnWriteTree tree) {
+		if (x == null) {
+			return y;
+		} else if (y == null) {
+			return x;
+		} else if (x.isObject() && y.isObject()) {
+			ObjectNode result = (ObjectNode) x;
+			final Iterator<Map.Entry<String, JsonNode>> yit = y.fields();
+			while (yit.hasNext()) {
+				final Map.Entry<String, JsonNode> ye = yit.next();
+				final JsonNode xv = x.get(ye.getKey());
+				final JsonNode merged = merge(xv, ye.getValue(), tree);
+				if (merged != xv) {
+					result = tree.edit(result);
+					result.set(ye.getKey(), merged);
+				}
+			}
+			return result;
+		} else if (x.isArray() && y.isArray()) {
+			final ArrayNode output = JsonNodeFactory.instance.arrayNode();
+			boolean changed = x.size() < y.size();
+			for (int i = 0; i < x.size() || i < y.size(); i++) {
+				JsonNode xv = i < x.size() ? x.get(i) : null;
+				JsonNode merged = merge(xv, i < y.size() ? y.get(i) : null, tree);
+				changed |= merged != xv;
+				output.add(merged);
+			}
+			return changed ? output : x;
+		} else {
+			return x;
+		}
+	}
+
 	private static ObjectNode merge(ObjectNode x, ObjectNode y) {
 
 		final Iterator<Map.Entry<String, JsonNode>> yit = y.fields();
@@ -0,0 +1,113 @@
+/**
+ * (c) Copyright 2018, 2019 IBM Corporation
+ * 1 New Orchard Road, 
+ * Armonk, New York, 10504-1722
+ * United States
+ * +1 914 499 1900
+ * support: Nathaniel Mills wnm3@us.ibm.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.api.jsonata4java.expressions.utils;
+
+import java.util.AbstractMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.api.jsonata4java.expressions.functions.Function;
+
+/**
+ * Map of the built-in functions that creates each function the first time it
+ * is looked up, so only the functions an application calls are loaded.
+ * Iterating over the map creates the functions not yet created. Functions
+ * added to the map replace the built-in function of the same name, and
+ * removed built-in functions are not recreated.
+ */
+public class LazyFunctionMap extends AbstractMap<String, Function> {
+
+   final Map<String, Function> _functions = new ConcurrentHashMap<String, Function>();
+   final Set<String> _pending = ConcurrentHashMap.newKeySet();
+
+   /**
+    * @param names
+    *              the names of the built-in functions, created by
+    *              {@link Constants#createFunction(String)}
+    */
+   public LazyFunctionMap(String... names) {
+      for (String name : names) {
+         _pending.add(name);
+      }
+   }
+
+   @Override
+   public Function get(Object key) {
+      Function function = _functions.get(key);
+      if (function == null && _pending.contains(key)) {
+         function = load((String) key);
+      }
+      return function;
+   }
+
+   @Override
+   public boolean containsKey(Object key) {
+      return _functions.containsKey(key) || _pending.contains(key);
+   }
+
+   @Override
+   public Function put(String key, Function value) {
+      Function previous = get(key);
+      _functions.put(key, value);
+      return previous;
+   }
+
+   @Override
+   public Function remove(Object key) {
+      Function previous = get(key);
+      _functions.remove(key);
+      return previous;
+   }
+
+   @Override
+   public int size() {
+      return _functions.size() + _pending.size();
+   }
+
+   @Override
+   public Set<Map.Entry<String, Function>> entrySet() {
+      for (String name : _pending) {
+         load(name);
+      }
+      return _functions.entrySet();
+   }
+
+   /**
+    * @return the number of functions created or added
+    */
+   public int getLoadedCount() {
+      return _functions.size();
+   }
+
+   synchronized Function load(String name) {
+      if (_pending.contains(name)) {
+         Function function = Constants.createFunction(name);
+         if (function != null) {
+            _functions.put(name, function);
+         }
+         _pending.remove(name);
+      }
+      return _functions.get(name);
+   }
+}
@@ -48,8 +48,16 @@ public class NumberUtils {
 	 */
 	public static final ValueNode convertNumberToValueNode(String number) {
 
-		// Create the variable to return
-		ValueNode result = null;
+		// Most strings are plain decimal numbers, which are scanned without
+		// building an exception when they are not integers
+		ValueNode result = scanNumber(number);
+		if (result != null) {
+			return result;
+		}
+		if (!mayBeJavaNumber(number)) {
+			final String msg = String.format(Constants.ERR_MSG_UNABLE_TO_CAST_VALUE_TO_NUMBER, number);
+			throw new EvaluateRuntimeException(msg);
+		}
 
 		try {
 			// First try to convert the number to a long
@@ -75,4 +83,102 @@ public class NumberUtils {
 
 		return result;
 	}
+
+	/**
+	 * Convert a string of the form [+-]digits[.digits][(e|E)[+-]digits] (either
+	 * side of the decimal point may be empty, not both) in a single pass,
+	 * returning a LongNode when it is an integer that fits in a long and a
+	 * DoubleNode otherwise.
+	 * 
+	 * @param number The string representation of the number to convert
+	 * @return ValueNode The ValueNode representation of the number, or null if the
+	 *         string is not of that form
+	 * @throws EvaluateRuntimeException If the number is outside of the valid range
+	 */
+	public static final ValueNode scanNumber(String number) {
+		int length = number.length();
+		int index = 0;
+		boolean negative = false;
+		if (length > 0 && (number.charAt(0) == '-' || number.charAt(0) == '+')) {
+			negative = number.charAt(0) == '-';
+			index++;
+		}
+		// accumulate the integer negatively, as Long.parseLong does, so
+		// Long.MIN_VALUE is reached without overflowing
+		long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+		long multiplyLimit = limit / 10;
+		long value = 0L;
+		boolean overflow = false;
+		int digits = 0;
+		for (; index < length; index++, digits++) {
+			int digit = number.charAt(index) - '0';
+			if (digit < 0 || digit > 9) {
+				break;
+			}
+			if (value < multiplyLimit || value * 10 < limit + digit) {
+				overflow = true;
+			} else {
+				value = value * 10 - digit;
+			}
+		}
+		if (index == length) {
+			if (digits == 0) {
+				return null;
+			}
+			if (!overflow) {
+				return new LongNode(negative ? value : -value);
+			}
+		} else {
+			if (number.charAt(index) == '.') {
+				index++;
+				for (; index < length && isDigit(number.charAt(index)); index++, digits++) {
+				}
+			}
+			if (digits == 0) {
+				return null;
+			}
+			if (index < length && (number.charAt(index) == 'e' || number.charAt(index) == 'E')) {
+				index++;
+				if (index < length && (number.charAt(index) == '-' || number.charAt(index) == '+')) {
+					index++;
+				}
+				int exponentStart = index;
+				for (; index < length && isDigit(number.charAt(index)); index++) {
+				}
+				if (index == exponentStart) {
+					return null;
+				}
+			}
+			if (index != length) {
+				return null;
+			}
+		}
+		// the string is known to be valid, so this does not throw
+		double doubleValue = Double.parseDouble(number);
+		if (Double.isInfinite(doubleValue)) {
+			final String msg = String.format(Constants.ERR_MSG_NUMBER_OUT_OF_RANGE, number);
+			throw new EvaluateRuntimeException(msg);
+		}
+		return new DoubleNode(doubleValue);
+	}
+
+	static boolean isDigit(char c) {
+		return c >= '0' && c <= '9';
+	}
+
+	/**
+	 * @return whether Long.valueOf or Double.valueOf might accept a string
+	 *         {@link #scanNumber(String)} rejected: one with surrounding
+	 *         whitespace, a non ASCII digit, NaN, Infinity, a hexadecimal
+	 *         significand or a type suffix
+	 */
+	static boolean mayBeJavaNumber(String number) {
+		for (int i = 0; i < number.length(); i++) {
+			char c = number.charAt(i);
+			if (c <= ' ' || c > 127 || "NIxXfFdD".indexOf(c) >= 0) {
+				return true;
+			}
+		}
+		return false;
+	}
 }
\ No newline at end of file
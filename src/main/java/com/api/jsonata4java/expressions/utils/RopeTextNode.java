@@ -0,0 +1,178 @@
+/**
+ * (c) Copyright 2018, 2019 IBM Corporation
+ * 1 New Orchard Road, 
+ * Armonk, New York, 10504-1722
+ * United States
+ * +1 914 499 1900
+ * support: Nathaniel Mills wnm3@us.ibm.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.api.jsonata4java.expressions.utils;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.node.JsonNodeType;
+import com.fasterxml.jackson.databind.node.TextNode;
+import com.fasterxml.jackson.databind.node.ValueNode;
+
+/**
+ * A string value being built by concatenation. The characters are kept in a
+ * StringBuilder that may be shared by several ropes, each seeing the first
+ * {@link #length()} characters of it: appending to the rope that ends the
+ * builder appends in place, appending to any other rope copies its characters
+ * to a new builder first. So a string built by appending to the previous
+ * result, e.g. the accumulator of a $reduce, costs time linear in its length
+ * rather than quadratic.
+ * <p>
+ * The characters are only copied to a String when the text of the rope is
+ * needed (e.g. to compare, match or output it), and that String is kept.
+ * Ropes only live while an expression is evaluated: the ExpressionsVisitor
+ * replaces them by a {@link TextNode} ({@link #flatten(JsonNode)}) wherever
+ * the value is used by anything but a concatenation, so they never appear in
+ * results, arrays or objects.
+ */
+public final class RopeTextNode extends ValueNode {
+
+	private static final long serialVersionUID = -3018375441623408612L;
+
+	final StringBuilder _builder;
+	final int _length;
+	String _text = null;
+
+	RopeTextNode(StringBuilder builder) {
+		_builder = builder;
+		_length = builder.length();
+	}
+
+	/**
+	 * @param builder the characters of the rope, which are appended to by later
+	 *                concatenations so must not be changed by the caller
+	 * @return a rope of the current characters of the builder
+	 */
+	public static RopeTextNode wrap(StringBuilder builder) {
+		return new RopeTextNode(builder);
+	}
+
+	/**
+	 * @param left  the string to append to
+	 * @param right the string to append
+	 * @return a rope of the characters of left followed by those of right
+	 */
+	public static RopeTextNode concat(String left, String right) {
+		StringBuilder builder = new StringBuilder(left.length() + right.length() + 16);
+		return new RopeTextNode(builder.append(left).append(right));
+	}
+
+	/**
+	 * @param node a value
+	 * @return the value, or a TextNode of its text if it is a rope
+	 */
+	public static JsonNode flatten(JsonNode node) {
+		if (node instanceof RopeTextNode) {
+			return TextNode.valueOf(node.textValue());
+		}
+		return node;
+	}
+
+	/**
+	 * @param str the string to append
+	 * @return a rope of the characters of this rope followed by those of str
+	 */
+	public RopeTextNode append(String str) {
+		return new RopeTextNode(builderToAppend(str.length()).append(str));
+	}
+
+	/**
+	 * @param rope the rope to append
+	 * @return a rope of the characters of this rope followed by those of rope
+	 */
+	public RopeTextNode append(RopeTextNode rope) {
+		if (rope._text != null) {
+			return append(rope._text);
+		}
+		return new RopeTextNode(builderToAppend(rope._length).append(rope._builder, 0, rope._length));
+	}
+
+	/**
+	 * @return the builder ending with this rope's characters, copied unless
+	 *         nothing has been appended to the builder after them
+	 */
+	StringBuilder builderToAppend(int extra) {
+		if (_builder.length() == _length) {
+			return _builder;
+		}
+		int capacity = _length + extra;
+		StringBuilder builder = new StringBuilder(capacity + (capacity >> 1));
+		return builder.append(_builder, 0, _length);
+	}
+
+	/**
+	 * @return the number of characters of the rope
+	 */
+	public int length() {
+		return _length;
+	}
+
+	@Override
+	public String textValue() {
+		if (_text == null) {
+			_text = _builder.substring(0, _length);
+		}
+		return _text;
+	}
+
+	@Override
+	public String asText() {
+		return textValue();
+	}
+
+	@Override
+	public JsonNodeType getNodeType() {
+		return JsonNodeType.STRING;
+	}
+
+	@Override
+	public JsonToken asToken() {
+		return JsonToken.VALUE_STRING;
+	}
+
+	@Override
+	public void serialize(JsonGenerator gen, SerializerProvider provider) throws IOException {
+		gen.writeString(textValue());
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (o == this) {
+			return true;
+		}
+		return o instanceof JsonNode && ((JsonNode) o).isTextual() && ((JsonNode) o).textValue().equals(textValue());
+	}
+
+	@Override
+	public int hashCode() {
+		return textValue().hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return TextNode.valueOf(textValue()).toString();
+	}
+}
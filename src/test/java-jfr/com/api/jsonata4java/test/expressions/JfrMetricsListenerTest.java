@@ -0,0 +1,82 @@
+/**
+ * (c) Copyright 2018, 2019 IBM Corporation
+ * 1 New Orchard Road, 
+ * Armonk, New York, 10504-1722
+ * United States
+ * +1 914 499 1900
+ * support: Nathaniel Mills wnm3@us.ibm.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.api.jsonata4java.test.expressions;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.api.jsonata4java.Expression;
+import com.api.jsonata4java.expressions.metrics.JfrMetricsListener;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Built and run with the jfr profile only, like the JfrMetricsListener
+ */
+public class JfrMetricsListenerTest {
+
+	ObjectMapper mapper = new ObjectMapper();
+
+	@Test
+	public void testJfrListener() throws Exception {
+		JfrMetricsListener listener = new JfrMetricsListener();
+		Expression expr = Expression.jsonata("$sum(items.value)");
+		expr.setMetricsListener(listener);
+		assertFalse(listener.isEnabled());
+		File file = File.createTempFile("jsonata", ".jfr");
+		try (Recording recording = new Recording()) {
+			recording.enable("com.api.jsonata4java.Evaluation");
+			recording.enable("com.api.jsonata4java.FunctionCalls");
+			recording.start();
+			assertTrue(listener.isEnabled());
+			expr.evaluate(mapper.readTree("{\"items\":[{\"value\":1},{\"value\":2}]}"));
+			recording.stop();
+			recording.dump(file.toPath());
+			List<RecordedEvent> events = RecordingFile.readAllEvents(file.toPath());
+			int evaluations = 0;
+			int functions = 0;
+			for (RecordedEvent event : events) {
+				if (event.getEventType().getName().equals("com.api.jsonata4java.Evaluation")) {
+					evaluations++;
+					assertEquals("$sum(items.value)", event.getString("expression"));
+				} else if (event.getEventType().getName().equals("com.api.jsonata4java.FunctionCalls")) {
+					functions++;
+					assertEquals("$sum", event.getString("function"));
+				}
+			}
+			assertEquals(1, evaluations);
+			assertEquals(1, functions);
+		} finally {
+			file.delete();
+		}
+	}
+}
@@ -30,10 +30,20 @@ import com.api.jsonata4java.test.expressions.AbsFunctionTests;
 import com.api.jsonata4java.test.expressions.Base64DecodeFunctionTests;
 import com.api.jsonata4java.test.expressions.Base64EncodeFunctionTests;
 import com.api.jsonata4java.test.expressions.BasicExpressionsTest;
+import com.api.jsonata4java.test.expressions.BindingEnvironmentTests;
 import com.api.jsonata4java.test.expressions.BooleanFunctionTests;
 import com.api.jsonata4java.test.expressions.CeilFunctionTests;
 import com.api.jsonata4java.test.expressions.ContainsFunctionTests;
+import com.api.jsonata4java.test.expressions.ColdStartTests;
+import com.api.jsonata4java.test.expressions.ColumnarTests;
+import com.api.jsonata4java.test.expressions.CompiledExpressionTests;
+import com.api.jsonata4java.test.expressions.CompiledPathTests;
 import com.api.jsonata4java.test.expressions.CountFunctionTests;
+import com.api.jsonata4java.test.expressions.DistinctFunctionTests;
+import com.api.jsonata4java.test.expressions.EvaluationServiceTests;
+import com.api.jsonata4java.test.expressions.ExplainTests;
+import com.api.jsonata4java.test.expressions.ExpressionCodecTests;
+import com.api.jsonata4java.test.expressions.ExpressionSetTests;
 import com.api.jsonata4java.test.expressions.ExpressionsTests;
 import com.api.jsonata4java.test.expressions.FloorFunctionTests;
 import com.api.jsonata4java.test.expressions.FormatBaseFunctionTests;
@@ -43,20 +53,29 @@ import com.api.jsonata4java.test.expressions.InvalidSyntaxTest;
 import com.api.jsonata4java.test.expressions.JoinFunctionTests;
 import com.api.jsonata4java.test.expressions.JsonataDotOrgTests;
 import com.api.jsonata4java.test.expressions.LengthFunctionTests;
+import com.api.jsonata4java.test.expressions.LimitPushdownTests;
 import com.api.jsonata4java.test.expressions.LowercaseFunctionTests;
 import com.api.jsonata4java.test.expressions.MatchFunctionTests;
 import com.api.jsonata4java.test.expressions.MaxFunctionTests;
+import com.api.jsonata4java.test.expressions.MemoTests;
+import com.api.jsonata4java.test.expressions.MetricsTests;
 import com.api.jsonata4java.test.expressions.MillisFunctionTests;
 import com.api.jsonata4java.test.expressions.MinFunctionTests;
+import com.api.jsonata4java.test.expressions.NativeFunctionTests;
 import com.api.jsonata4java.test.expressions.NotFunctionTests;
 import com.api.jsonata4java.test.expressions.NowFunctionTests;
 import com.api.jsonata4java.test.expressions.NumberFunctionTests;
 import com.api.jsonata4java.test.expressions.NumericCoercionTests;
 import com.api.jsonata4java.test.expressions.PadFunctionTests;
 import com.api.jsonata4java.test.expressions.PowerFunctionTests;
+import com.api.jsonata4java.test.expressions.ProfileTests;
 import com.api.jsonata4java.test.expressions.RandomFunctionTests;
 import com.api.jsonata4java.test.expressions.ReplaceFunctionTests;
+import com.api.jsonata4java.test.expressions.ResultWriterTests;
+import com.api.jsonata4java.test.expressions.RopeTextNodeTests;
 import com.api.jsonata4java.test.expressions.RoundFunctionTests;
+import com.api.jsonata4java.test.expressions.RuleSetTests;
+import com.api.jsonata4java.test.expressions.ShapedNodeTests;
 import com.api.jsonata4java.test.expressions.SingletonArrayHandlingTests;
 import com.api.jsonata4java.test.expressions.SplitFunctionTests;
 import com.api.jsonata4java.test.expressions.SqrtFunctionTests;
@@ -65,13 +84,19 @@ import com.api.jsonata4java.test.expressions.SubstringAfterFunctionTests;
 import com.api.jsonata4java.test.expressions.SubstringBeforeFunctionTests;
 import com.api.jsonata4java.test.expressions.SubstringFunctionTests;
 import com.api.jsonata4java.test.expressions.SumFunctionTests;
+import com.api.jsonata4java.test.expressions.TailCallTests;
 import com.api.jsonata4java.test.expressions.ToMillisFunctionTests;
+import com.api.jsonata4java.test.expressions.TransformTests;
 import com.api.jsonata4java.test.expressions.TrimFunctionTests;
 import com.api.jsonata4java.test.expressions.UnpackFunctionTests;
 import com.api.jsonata4java.test.expressions.UppercaseFunctionTests;
 import com.api.jsonata4java.test.expressions.path.PathExpressionSyntaxTests;
 import com.api.jsonata4java.test.expressions.path.PathExpressionTests;
+import com.api.jsonata4java.test.expressions.path.PathSetTests;
+import com.api.jsonata4java.text.expressions.utils.DateTimeUtilsTest;
+import com.api.jsonata4java.text.expressions.utils.JsonHashUtilsTest;
 import com.api.jsonata4java.text.expressions.utils.JsonMergeUtilsTest;
+import com.api.jsonata4java.text.expressions.utils.NumberUtilsTest;
 
 @RunWith(Suite.class)
 @SuiteClasses({ BasicExpressionsTest.class, JsonataDotOrgTests.class, ExpressionsTests.class, InvalidSyntaxTest.class,
@@ -86,7 +111,15 @@ import com.api.jsonata4java.text.expressions.utils.JsonMergeUtilsTest;
 		CeilFunctionTests.class, RoundFunctionTests.class, PowerFunctionTests.class, SqrtFunctionTests.class,
 		RandomFunctionTests.class, MillisFunctionTests.class, ToMillisFunctionTests.class, MinFunctionTests.class,
 		MaxFunctionTests.class, BooleanFunctionTests.class, JsonMergeUtilsTest.class, PathExpressionTests.class,
-		PathExpressionSyntaxTests.class, SumFunctionTests.class
+		PathExpressionSyntaxTests.class, SumFunctionTests.class, EvaluationServiceTests.class,
+		BindingEnvironmentTests.class, ExpressionSetTests.class, RuleSetTests.class,
+		MetricsTests.class, ProfileTests.class, ExplainTests.class,
+		TailCallTests.class, MemoTests.class, CompiledExpressionTests.class,
+		ExpressionCodecTests.class, ColdStartTests.class, NativeFunctionTests.class,
+		ShapedNodeTests.class, ColumnarTests.class, TransformTests.class, PathSetTests.class,
+		CompiledPathTests.class, ResultWriterTests.class, RopeTextNodeTests.class,
+		DistinctFunctionTests.class, JsonHashUtilsTest.class, DateTimeUtilsTest.class,
+		NumberUtilsTest.class, LimitPushdownTests.class
 
 })
 public class ComponentTestSuite {
@@ -0,0 +1,149 @@
+/**
+ * (c) Copyright 2018, 2019 IBM Corporation
+ * 1 New Orchard Road, 
+ * Armonk, New York, 10504-1722
+ * United States
+ * +1 914 499 1900
+ * support: Nathaniel Mills wnm3@us.ibm.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.api.jsonata4java.test.expressions;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.junit.Test;
+
+import com.api.jsonata4java.Binding;
+import com.api.jsonata4java.BindingEnvironment;
+import com.api.jsonata4java.Expression;
+import com.api.jsonata4java.expressions.EvaluateRuntimeException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+
+public class BindingEnvironmentTests {
+
+	ObjectMapper mapper = new ObjectMapper();
+
+	@Test
+	public void testValueBinding() throws Exception {
+		JsonNode tenant = mapper.readTree("{\"name\":\"acme\",\"limits\":{\"max\":10}}");
+		Expression expr = Expression.jsonata("$tenant.limits.max + a");
+		expr.assign("tenant", tenant);
+		assertEquals(15L, expr.evaluate(mapper.readTree("{\"a\":5}")).asLong());
+
+		// the bound value is used directly rather than being re-parsed
+		Expression same = Expression.jsonata("$tenant");
+		same.assign(new Binding("$tenant", tenant));
+		assertSame(tenant, same.evaluate(null));
+	}
+
+	@Test
+	public void testBindingObject() throws Exception {
+		JsonNode bindingObj = mapper.readTree("{\"a\":4, \"b\":\"function($c){$c+78}\",\"c\":7, \"d\":{\"e\":[1,2]}}");
+		assertEquals(89L, Expression.jsonata("$a + $b($c)").evaluate(null, bindingObj).asLong());
+		assertEquals("[1,2]", Expression.jsonata("$d.e").evaluate(null, bindingObj).toString());
+	}
+
+	@Test
+	public void testBindingsPerEvaluation() throws Exception {
+		Expression expr = Expression.jsonata("$a + $b(1)");
+		List<Binding> bindings = new ArrayList<Binding>();
+		bindings.add(new Binding("a", "x * 2"));
+		bindings.add(new Binding("b", "function($v){$v + 10}"));
+		assertEquals(17L, expr.evaluate(mapper.readTree("{\"x\":3}"), bindings).asLong());
+		assertEquals(31L, expr.evaluate(mapper.readTree("{\"x\":10}"), bindings).asLong());
+
+		// the bindings are not retained by the expression
+		try {
+			expr.evaluate(null);
+			fail("Expected $a to be unassigned");
+		} catch (EvaluateRuntimeException e) {
+			assertEquals("$a is unknown (e.g., unassigned variable)", e.getMessage());
+		}
+		Expression tenant = Expression.jsonata("$tenant");
+		assertEquals("1", tenant.evaluate(null, mapper.readTree("{\"tenant\":1}")).toString());
+		assertEquals("2", tenant.evaluate(null, mapper.readTree("{\"tenant\":2}")).toString());
+		try {
+			tenant.evaluate(null);
+			fail("Expected $tenant to be unassigned");
+		} catch (EvaluateRuntimeException e) {
+			assertEquals("$tenant is unknown (e.g., unassigned variable)", e.getMessage());
+		}
+	}
+
+	@Test
+	public void testConcurrentBindings() throws Exception {
+		Expression expr = Expression.jsonata("$tenant.id");
+		List<CompletableFuture<JsonNode>> futures = new ArrayList<CompletableFuture<JsonNode>>();
+		for (int i = 0; i < 200; i++) {
+			final JsonNode bindingObj = mapper.readTree("{\"tenant\":{\"id\":" + i + "}}");
+			futures.add(CompletableFuture.supplyAsync(() -> {
+				try {
+					return expr.evaluate(null, bindingObj);
+				} catch (Exception e) {
+					throw new CompletionException(e);
+				}
+			}));
+		}
+		for (int i = 0; i < futures.size(); i++) {
+			assertEquals(i, futures.get(i).get().asInt());
+		}
+	}
+
+	@Test
+	public void testEnvironment() throws Exception {
+		List<Binding> bindings = new ArrayList<Binding>();
+		bindings.add(new Binding("rate", JsonNodeFactory.instance.numberNode(2)));
+		bindings.add(new Binding("double", "$rate * 2"));
+		bindings.add(new Binding("scale", "function($v){$v * $double}"));
+		BindingEnvironment env = BindingEnvironment.of(bindings);
+		assertEquals(4L, env.getValue("double").asLong());
+
+		Expression expr = Expression.jsonata("$scale(value)");
+		assertEquals(12L, expr.evaluate(mapper.readTree("{\"value\":3}"), env).asLong());
+		assertEquals(20L, expr.evaluate(mapper.readTree("{\"value\":5}"), env).asLong());
+
+		// environments are immutable, with() returns a new environment
+		BindingEnvironment other = env.with("double", JsonNodeFactory.instance.numberNode(10));
+		assertEquals(30L, expr.evaluate(mapper.readTree("{\"value\":3}"), other).asLong());
+		assertEquals(4L, env.getValue("double").asLong());
+
+		// environment bindings are not retained by the expression
+		Expression rate = Expression.jsonata("$rate");
+		assertEquals(2L, rate.evaluate(null, env).asLong());
+		try {
+			rate.evaluate(null);
+			fail("Expected $rate to be unassigned");
+		} catch (EvaluateRuntimeException e) {
+			assertEquals("$rate is unknown (e.g., unassigned variable)", e.getMessage());
+		}
+	}
+
+	@Test
+	public void testEnvironmentFromObject() throws Exception {
+		BindingEnvironment env = BindingEnvironment
+				.of(mapper.readTree("{\"tenant\":{\"id\":42}, \"f\":\"function($x){$x + $tenant.id}\"}"));
+		assertEquals(43L, Expression.jsonata("$f(1)").evaluate(null, env).asLong());
+	}
+}
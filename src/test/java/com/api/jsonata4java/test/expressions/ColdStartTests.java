@@ -0,0 +1,143 @@
+/**
+ * (c) Copyright 2018, 2019 IBM Corporation
+ * 1 New Orchard Road, 
+ * Armonk, New York, 10504-1722
+ * United States
+ * +1 914 499 1900
+ * support: Nathaniel Mills wnm3@us.ibm.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.api.jsonata4java.test.expressions;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.api.jsonata4java.Expression;
+import com.api.jsonata4java.JSONataUtils;
+import com.api.jsonata4java.expressions.functions.Function;
+import com.api.jsonata4java.expressions.functions.UppercaseFunction;
+import com.api.jsonata4java.expressions.utils.Constants;
+import com.api.jsonata4java.expressions.utils.LazyFunctionMap;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Measures the time to the first evaluation in a fresh JVM and checks the
+ * built-in functions and random sources are only set up when used
+ */
+public class ColdStartTests {
+
+	static final String EXPRESSION = "$uppercase(name) & ' ' & $string(count + 1)";
+
+	/**
+	 * Run in a fresh JVM: reports the time taken to parse and evaluate the first
+	 * expression, and what it initialized
+	 * 
+	 * @param args
+	 *             not used
+	 * @throws Exception
+	 */
+	public static void main(String[] args) throws Exception {
+		long start = System.nanoTime();
+		JsonNode input = new ObjectMapper().readTree("{\"name\":\"cold\",\"count\":1}");
+		long parsed = System.nanoTime();
+		Expression expr = Expression.jsonata(EXPRESSION);
+		long compiled = System.nanoTime();
+		JsonNode result = expr.evaluate(input);
+		long evaluated = System.nanoTime();
+		System.out.println("result=" + result);
+		System.out.println("functions=" + ((LazyFunctionMap) Constants.FUNCTIONS).getLoadedCount());
+		System.out.println("secureRandom=" + (JSONataUtils.SEED_SECURE_RANDOM != null));
+		System.out.println("readTreeMs=" + (parsed - start) / 1000000.0 + " parseMs=" + (compiled - parsed) / 1000000.0
+				+ " firstEvaluationMs=" + (evaluated - compiled) / 1000000.0 + " totalMs="
+				+ (evaluated - start) / 1000000.0);
+	}
+
+	@Test
+	public void testFreshJvm() throws Exception {
+		String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+		Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+				ColdStartTests.class.getName()).redirectErrorStream(true).start();
+		List<String> lines = new ArrayList<String>();
+		try (BufferedReader reader = new BufferedReader(
+				new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+			for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+				lines.add(line);
+			}
+		}
+		assertEquals(lines.toString(), 0, process.waitFor());
+		assertEquals("result=\"COLD 2\"", lines.get(0));
+		// only $uppercase and $string are created
+		assertEquals("functions=2", lines.get(1));
+		assertEquals("secureRandom=false", lines.get(2));
+	}
+
+	@SuppressWarnings("deprecation")
+	@Test
+	public void testDefaultDecimalFormatSymbols() throws Exception {
+		assertSame(Constants.getDefaultDecimalFormatSymbols(), Constants.DEFAULT_DECIMAL_FORMAT_SYMBOLS);
+		assertEquals("e", Constants.DEFAULT_DECIMAL_FORMAT_SYMBOLS.getExponentSeparator());
+	}
+
+	@Test
+	public void testLazyFunctionMap() throws Exception {
+		LazyFunctionMap functions = new LazyFunctionMap(Constants.FUNCTION_UPPERCASE, Constants.FUNCTION_LOWERCASE,
+				Constants.FUNCTION_TRIM);
+		assertEquals(3, functions.size());
+		assertEquals(0, functions.getLoadedCount());
+		assertTrue(functions.containsKey(Constants.FUNCTION_TRIM));
+		assertFalse(functions.containsKey(Constants.FUNCTION_PAD));
+
+		Function uppercase = functions.get(Constants.FUNCTION_UPPERCASE);
+		assertTrue(uppercase instanceof UppercaseFunction);
+		assertSame(uppercase, functions.get(Constants.FUNCTION_UPPERCASE));
+		assertEquals(1, functions.getLoadedCount());
+		assertNull(functions.get(Constants.FUNCTION_PAD));
+
+		// removed functions are not recreated
+		assertTrue(functions.remove(Constants.FUNCTION_LOWERCASE) != null);
+		assertNull(functions.get(Constants.FUNCTION_LOWERCASE));
+		assertFalse(functions.containsKey(Constants.FUNCTION_LOWERCASE));
+		assertEquals(2, functions.size());
+
+		// added functions replace built-in functions
+		Function replacement = new UppercaseFunction();
+		functions.put(Constants.FUNCTION_TRIM, replacement);
+		assertSame(replacement, functions.get(Constants.FUNCTION_TRIM));
+
+		// iterating creates the remaining functions
+		int count = 0;
+		for (Map.Entry<String, Function> entry : functions.entrySet()) {
+			assertTrue(entry.getValue() != null);
+			count++;
+		}
+		assertEquals(2, count);
+		assertEquals(2, functions.getLoadedCount());
+	}
+}
@@ -0,0 +1,182 @@
+/**
+ * (c) Copyright 2018, 2019 IBM Corporation
+ * 1 New Orchard Road, 
+ * Armonk, New York, 10504-1722
+ * United States
+ * +1 914 499 1900
+ * support: Nathaniel Mills wnm3@us.ibm.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.api.jsonata4java.test.expressions;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.api.jsonata4java.Expression;
+import com.api.jsonata4java.expressions.CompiledExpression;
+import com.api.jsonata4java.expressions.Expressions;
+import com.api.jsonata4java.expressions.shaped.Column;
+import com.api.jsonata4java.expressions.shaped.ColumnarArrayNode;
+import com.api.jsonata4java.expressions.shaped.ShapedNodeLoader;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+public class ColumnarTests {
+
+	static final String[] EXPRESSIONS = { "$sum(readings.value)", "$sum(readings.ts)", "$sum(readings.n)",
+			"$average(readings[sensor=\"t1\"].value)", "$max(readings.ts)", "$min(readings.value)",
+			"$max(readings[sensor='t2'].n)", "$min(readings[n > 3].n)", "$count(readings[ok and value > 10].sensor)",
+			"$count(readings.note)", "$sum(readings[sensor='t0' or 't2' = sensor].value)",
+			"$sum(readings[(n >= 2 and n <= 4) or ts = 1600000000003].value)", "$count(readings[note != null])",
+			"$sum(readings[note = null].n)", "$max(readings[sensor='none'].value)", "$sum(readings[n = 1.0].value)",
+			"$max(readings[value < 'x'].value)", "$average(readings.sensor)", "$sum(readings[ts < null].value)",
+			"$count(readings[ok = true].ok)", "$max(feed.readings.value)", "$sum(readings[sensor > 't1'].n)",
+			"readings[value >= 30].ts", "readings.sensor", "readings[ts = 1600000000003]", "readings[sensor='t1'][0]",
+			"readings.$string(value)", "$count(readings)", "mixed.a", "$sum(mixed.a)", "$sum(nested.a.b)",
+			"$sum(few.value)", "$count($distinct(readings.sensor))" };
+
+	static String data() {
+		StringBuilder sb = new StringBuilder("{\"readings\":[");
+		for (int i = 0; i < 40; i++) {
+			sb.append(i == 0 ? "" : ",").append("{\"sensor\":\"t").append(i % 3).append("\",\"value\":")
+					.append(i % 4 == 0 ? Integer.toString(i) : (i + 0.5) + "").append(",\"ts\":")
+					.append(1600000000000L + i).append(",\"n\":").append(i % 7).append(",\"ok\":")
+					.append(i % 2 == 0).append(",\"note\":").append(i % 5 == 0 ? "null" : "\"n" + i + "\"")
+					.append("}");
+		}
+		sb.append("],\"mixed\":[{\"a\":1},{\"a\":2},{\"a\":\"x\"},{\"a\":4}]");
+		sb.append(",\"nested\":[{\"a\":{\"b\":1}},{\"a\":{\"b\":2}}]");
+		sb.append(",\"few\":[{\"value\":1},{\"value\":2}]");
+		sb.append("}");
+		return sb.toString();
+	}
+
+	static ShapedNodeLoader loader() {
+		ShapedNodeLoader loader = new ShapedNodeLoader();
+		loader.setColumnarThreshold(3);
+		return loader;
+	}
+
+	static Object evaluate(Expression expression, JsonNode data) {
+		try {
+			return expression.evaluate(data);
+		} catch (Exception e) {
+			return e.getMessage();
+		}
+	}
+
+	@Test
+	public void testLoadMatchesObjectMapper() throws Exception {
+		String data = data();
+		JsonNode expected = new ObjectMapper().readTree(data);
+		JsonNode loaded = loader().load(data);
+		assertTrue(loaded.get("readings") instanceof ColumnarArrayNode);
+		// members that differ, members with containers and short arrays are
+		// ordinary arrays
+		assertFalse(loaded.get("mixed") instanceof ColumnarArrayNode);
+		assertFalse(loaded.get("nested") instanceof ColumnarArrayNode);
+		assertFalse(loaded.get("few") instanceof ColumnarArrayNode);
+		assertFalse(new ShapedNodeLoader().load(data).get("readings") instanceof ColumnarArrayNode);
+		assertEquals(expected, loaded);
+		assertEquals(loaded, expected);
+		assertEquals(expected.toString(), loaded.toString());
+		assertEquals(expected.hashCode(), loaded.hashCode());
+	}
+
+	@Test
+	public void testColumns() throws Exception {
+		ColumnarArrayNode readings = (ColumnarArrayNode) loader().load(data()).get("readings");
+		assertNotNull(readings.getShape());
+		assertNull(readings.getColumn("missing"));
+		assertEquals(Column.Type.STRING, readings.getColumn("sensor").getType());
+		assertEquals(Column.Type.NUMBER, readings.getColumn("value").getType());
+		assertEquals(Column.Type.BOOLEAN, readings.getColumn("ok").getType());
+		Column value = readings.getColumn("value");
+		assertEquals(40, value.size());
+		assertTrue(value.isIntegral(4));
+		assertFalse(value.isIntegral(5));
+		assertEquals(5.5, value.getDouble(5), 0.0);
+		assertEquals("4", value.get(4).toString());
+		Column note = readings.getColumn("note");
+		assertTrue(note.isNull(0));
+		assertTrue(note.anyNull(null));
+		assertEquals(8, note.select(n -> n.isNull(), null).cardinality());
+		assertEquals(14, readings.getColumn("sensor").select(s -> s.asText().equals("t0"), null).cardinality());
+	}
+
+	@Test
+	public void testEvaluation() throws Exception {
+		String data = data();
+		JsonNode plain = new ObjectMapper().readTree(data);
+		((ObjectNode) plain).set("feed", plain.deepCopy());
+		JsonNode columnar = loader().load(data);
+		((ObjectNode) columnar).set("feed", loader().load(data));
+		for (String expression : EXPRESSIONS) {
+			Expression expr = Expression.jsonata(expression);
+			Object expected = evaluate(expr, plain);
+			assertEquals(expression, expected, evaluate(expr, columnar));
+			expr.setCompileThreshold(0);
+			assertEquals(expression, expected, evaluate(expr, columnar.deepCopy()));
+			JsonNode fresh = loader().load(data);
+			((ObjectNode) fresh).set("feed", loader().load(data));
+			assertEquals(expression, expected, evaluate(expr, fresh));
+			assertEquals(expression, expected, evaluate(expr, fresh));
+		}
+	}
+
+	@Test
+	public void testCompiled() throws Exception {
+		CompiledExpression compiled = CompiledExpression
+				.compile(Expressions.parse("$average(readings[sensor=\"t1\" and value > 3].value)").getTree());
+		assertEquals(0, compiled.getInterpretedNodes());
+		// the predicate is not made of comparisons with literals
+		compiled = CompiledExpression.compile(Expressions.parse("$sum(readings[value > $x].value)").getTree());
+		assertEquals(1, compiled.getInterpretedNodes());
+	}
+
+	@Test
+	public void testChanges() throws Exception {
+		String data = data();
+		Expression sum = Expression.jsonata("$sum(readings[sensor='t1'].value)");
+		sum.setCompileThreshold(0);
+		JsonNode plain = new ObjectMapper().readTree(data);
+		JsonNode columnar = loader().load(data);
+		ColumnarArrayNode readings = (ColumnarArrayNode) columnar.get("readings");
+		// members are kept once read, and changing one drops the columns
+		assertTrue(readings.get(1) == readings.get(1));
+		((ObjectNode) readings.get(1)).put("value", 100);
+		((ObjectNode) plain.get("readings").get(1)).put("value", 100);
+		assertNull(readings.getShape());
+		assertNull(readings.getColumn("value"));
+		assertEquals(plain, columnar);
+		assertEquals(sum.evaluate(plain), sum.evaluate(columnar));
+		// as does changing the array
+		columnar = loader().load(data);
+		readings = (ColumnarArrayNode) columnar.get("readings");
+		readings.remove(1);
+		((ArrayNode) plain.get("readings")).remove(1);
+		assertNull(readings.getShape());
+		assertEquals(39, readings.size());
+		assertEquals(sum.evaluate(plain), sum.evaluate(columnar));
+	}
+}
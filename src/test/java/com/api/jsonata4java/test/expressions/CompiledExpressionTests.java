@@ -0,0 +1,130 @@
+/**
+ * (c) Copyright 2018, 2019 IBM Corporation
+ * 1 New Orchard Road, 
+ * Armonk, New York, 10504-1722
+ * United States
+ * +1 914 499 1900
+ * support: Nathaniel Mills wnm3@us.ibm.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.api.jsonata4java.test.expressions;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.api.jsonata4java.Expression;
+import com.api.jsonata4java.expressions.CompiledExpression;
+import com.api.jsonata4java.expressions.Expressions;
+import com.api.jsonata4java.expressions.ExpressionsVisitor;
+import com.api.jsonata4java.expressions.ParseException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class CompiledExpressionTests {
+
+	static final String INPUT = "{\"a\":{\"b\":[{\"c\":1,\"d\":\"x\"},{\"c\":2.5,\"d\":\"y\"},{\"c\":[3,4]}]},"
+			+ "\"n\":5,\"s\":\"str\",\"t\":true,\"z\":null,\"arr\":[[1],[[2]],[[[3]]]]}";
+
+	static final String[] EXPRESSIONS = { "a.b.c", "a.b.d & '-' & n", "a.b[0].c + n * 2", "n > 3 and t",
+			"n < 3 or z = null", "a.b.c > 1 ? 'big' : 'small'", "-n % 3", "-s", "n + s", "t.x", "n.x", "z.x",
+			"arr.x", "arr", "(a.b).c", "($x := n * 2; $y := $x + 1; $x & $y)", "$unknown + 1", "a.b.($.c * 2)",
+			"a.b[c > 1].d", "$sum(a.b.c) / $count(a.b)", "a.nope.c", "n / 0", "'a' < 'b'",
+			"s = 'str' and n != 4", "1e400", "\"quo\\\"ted\" & s" };
+
+	static String evaluate(Expressions expr, boolean compiled) throws Exception {
+		ExpressionsVisitor eval = new ExpressionsVisitor(new ObjectMapper().readTree(INPUT));
+		try {
+			JsonNode result = compiled ? CompiledExpression.compile(expr.getTree()).evaluate(eval)
+					: eval.visit(expr.getTree());
+			return result == null ? "undefined"
+					: result.getClass().getSimpleName() + " " + new ObjectMapper().writeValueAsString(result);
+		} catch (RuntimeException | StackOverflowError e) {
+			return e.getClass().getName() + ": " + e.getMessage();
+		}
+	}
+
+	@Test
+	public void testMatchesInterpreter() throws Exception {
+		List<String> expressions = new ArrayList<String>();
+		for (String expression : EXPRESSIONS) {
+			expressions.add(expression);
+		}
+		// the deterministic expression suites
+		Collection<?>[] suites = { ExpressionsTests.data(), SingletonArrayHandlingTests.data(),
+				NumericCoercionTests.data(), AbsFunctionTests.data(), BooleanFunctionTests.data(),
+				ContainsFunctionTests.data(), CountFunctionTests.data(), JoinFunctionTests.data(),
+				LengthFunctionTests.data(), NotFunctionTests.data(), NumberFunctionTests.data(),
+				RoundFunctionTests.data(), StringFunctionTests.data(), SubstringFunctionTests.data(),
+				SumFunctionTests.data() };
+		for (Collection<?> suite : suites) {
+			for (Object row : suite) {
+				expressions.add((String) ((Object[]) row)[0]);
+			}
+		}
+		List<String> mismatches = new ArrayList<String>();
+		for (String expression : expressions) {
+			Expressions expr;
+			try {
+				expr = Expressions.parse(expression);
+			} catch (ParseException e) {
+				continue;
+			}
+			String interpreted = evaluate(expr, false);
+			String compiled = evaluate(expr, true);
+			if (interpreted.equals(compiled) == false) {
+				mismatches.add(expression + " interpreted: " + interpreted + " compiled: " + compiled);
+			}
+		}
+		assertEquals(mismatches.toString(), 0, mismatches.size());
+	}
+
+	@Test
+	public void testCompileThreshold() throws Exception {
+		JsonNode input = new ObjectMapper().readTree(INPUT);
+		Expression expr = Expression.jsonata("a.b[0].c + n * 2 > 3 ? a.b.d : 'none'");
+		assertEquals("[\"x\",\"y\"]", expr.evaluate(input).toString());
+		assertFalse(expr.isCompiled());
+		expr.setCompileThreshold(2);
+		expr.evaluate(input);
+		expr.evaluate(input);
+		assertFalse(expr.isCompiled());
+		assertEquals("[\"x\",\"y\"]", expr.evaluate(input).toString());
+		assertTrue(expr.isCompiled());
+		assertEquals("[\"x\",\"y\"]", expr.evaluate(input).toString());
+		expr.setCompileThreshold(-1);
+		expr.evaluate(input);
+		assertFalse(expr.isCompiled());
+	}
+
+	@Test
+	public void testInterpreterFallback() throws Exception {
+		CompiledExpression compiled = CompiledExpression
+				.compile(Expressions.parse("a.b[0].c + n * 2 > 3 ? $uppercase(s) : 'none'").getTree());
+		// the predicate is left to the interpreter, the call of the typed
+		// function $uppercase is compiled with its argument
+		assertEquals(1, compiled.getInterpretedNodes());
+		assertEquals(12, compiled.getCompiledNodes());
+		ExpressionsVisitor eval = new ExpressionsVisitor(new ObjectMapper().readTree(INPUT));
+		assertEquals("\"STR\"", compiled.evaluate(eval).toString());
+	}
+}
@@ -0,0 +1,77 @@
+/**
+ * (c) Copyright 2018, 2019 IBM Corporation
+ * 1 New Orchard Road, 
+ * Armonk, New York, 10504-1722
+ * United States
+ * +1 914 499 1900
+ * support: Nathaniel Mills wnm3@us.ibm.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.api.jsonata4java.test.expressions;
+
+import com.api.jsonata4java.expressions.CompiledExpression;
+import com.api.jsonata4java.expressions.CompiledPath;
+import com.api.jsonata4java.expressions.Expressions;
+import com.api.jsonata4java.expressions.ExpressionsVisitor;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Compares the evaluation of plain paths by the interpreter, by a
+ * {@link CompiledExpression} and as a {@link CompiledPath}, on an event with a
+ * few nested objects and arrays.
+ */
+public class CompiledPathBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		JsonNode event = new ObjectMapper().readTree("{\"payload\":{\"device\":{\"id\":\"d-42\",\"model\":\"x1\"},"
+				+ "\"readings\":[{\"t\":1,\"v\":20.5},{\"t\":2,\"v\":21.5},{\"t\":3,\"v\":22.5}]},"
+				+ "\"meta\":{\"tags\":[\"a\",\"b\",\"c\"],\"source\":{\"region\":\"eu\"}}}");
+		String[] paths = { "payload.device.id", "meta.tags[0]", "payload.readings.v", "payload.readings[1].t",
+				"meta.source.region" };
+		int iterations = 500000;
+		for (int round = 0; round < 5; round++) {
+			for (String path : paths) {
+				Expressions expr = Expressions.parse(path);
+				CompiledExpression compiled = CompiledExpression.compile(expr.getTree());
+				CompiledPath compiledPath = expr.getCompiledPath();
+				int hash = 0;
+
+				long start = System.nanoTime();
+				for (int i = 0; i < iterations; i++) {
+					hash += new ExpressionsVisitor(event).visit(expr.getTree()).hashCode();
+				}
+				long interpreted = System.nanoTime() - start;
+
+				start = System.nanoTime();
+				for (int i = 0; i < iterations; i++) {
+					hash += compiled.evaluate(new ExpressionsVisitor(event)).hashCode();
+				}
+				long compiledTime = System.nanoTime() - start;
+
+				start = System.nanoTime();
+				for (int i = 0; i < iterations; i++) {
+					hash += compiledPath.evaluate(event).hashCode();
+				}
+				long pathTime = System.nanoTime() - start;
+
+				System.out.printf("%-22s interpreted %6.1f ns, compiled %6.1f ns, compiled path %6.1f ns (%d)%n", path,
+						(double) interpreted / iterations, (double) compiledTime / iterations,
+						(double) pathTime / iterations, hash & 1);
+			}
+		}
+	}
+}
@@ -0,0 +1,144 @@
+/**
+ * (c) Copyright 2018, 2019 IBM Corporation
+ * 1 New Orchard Road, 
+ * Armonk, New York, 10504-1722
+ * United States
+ * +1 914 499 1900
+ * support: Nathaniel Mills wnm3@us.ibm.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.api.jsonata4java.test.expressions;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+import com.api.jsonata4java.Expression;
+import com.api.jsonata4java.expressions.CompiledPath;
+import com.api.jsonata4java.expressions.EvaluateException;
+import com.api.jsonata4java.expressions.EvaluateRuntimeException;
+import com.api.jsonata4java.expressions.Expressions;
+import com.api.jsonata4java.expressions.ExpressionsVisitor;
+import com.api.jsonata4java.expressions.shaped.ShapedNodeLoader;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class CompiledPathTests {
+
+	static final String[] PATHS = { "a", "a.b", "a.b.c", "a[0]", "a[1]", "a[-1]", "a[5]", "a.b[0]", "a.b[-1]",
+			"a[0].b", "a[0][0]", "a[0][1]", "a.b[0][0]", "a.b[1].c", "a.b.c[0]", "a.b.c[-2]", "`x y`.z", "n.x",
+			"t.x", "s.x", "a.b[0].c[1]", "nested.v", "nested.v[0]", "nested.v[1]", "nested.v[-1]", "nested.v[0][0]",
+			"nested[1].v", "deep.l1.l2", "deep.l1[0].l2", "deep.l1.l2[0]", "z", "z.y", "a.n", "a.b.n[2]" };
+
+	static final String[] INPUTS = { "{\"a\":{\"b\":{\"c\":[1,2,3]}}}", "{\"a\":[{\"b\":1},{\"b\":[2,3]},{\"b\":[[4]]}]}",
+			"{\"a\":[[1,2],[3],4],\"x y\":{\"z\":\"q\"}}", "{\"a\":[{\"b\":[{\"c\":[1,2]},{\"c\":3}]},{\"b\":{\"c\":[4,5]}}]}",
+			"{\"n\":1,\"t\":true,\"s\":\"str\",\"z\":null}", "{\"nested\":[{\"v\":[1,2]},{\"v\":3},{\"v\":[[4,5]]},{\"w\":6}]}",
+			"{\"deep\":[{\"l1\":[{\"l2\":1},{\"l2\":[2,3]}]},{\"l1\":{\"l2\":4}}]}", "{\"a\":[]}", "{\"a\":[[]]}",
+			"{\"a\":{\"b\":[],\"n\":[1,[2,3],4]}}", "[{\"a\":1}]", "{}", "\"text\"" };
+
+	static Object interpret(String path, JsonNode input) throws Exception {
+		try {
+			return new ExpressionsVisitor(input).visit(Expressions.parse(path).getTree());
+		} catch (EvaluateRuntimeException e) {
+			return e.getMessage();
+		}
+	}
+
+	static Object evaluate(CompiledPath path, JsonNode input) {
+		try {
+			return path.evaluate(input);
+		} catch (EvaluateRuntimeException e) {
+			return e.getMessage();
+		}
+	}
+
+	@Test
+	public void testSameAsInterpreter() throws Exception {
+		ObjectMapper mapper = new ObjectMapper();
+		for (String path : PATHS) {
+			CompiledPath compiled = Expressions.parse(path).getCompiledPath();
+			assertNotNull(path, compiled);
+			for (String input : INPUTS) {
+				for (JsonNode json : new JsonNode[] { mapper.readTree(input), new ShapedNodeLoader().load(input) }) {
+					Object expected = interpret(path, json);
+					Object actual = evaluate(compiled, json);
+					assertEquals(path + " on " + input, expected, actual);
+					if (expected != null) {
+						// selections keep their groups for later indexes
+						assertSame(path + " on " + input, expected.getClass(), actual.getClass());
+					}
+				}
+			}
+			assertNull(compiled.evaluate(null));
+		}
+	}
+
+	@Test
+	public void testColumnarInput() throws Exception {
+		StringBuilder sb = new StringBuilder("{\"rows\":[");
+		for (int i = 0; i < 10; i++) {
+			sb.append(i == 0 ? "" : ",").append("{\"id\":").append(i).append(",\"tags\":[\"t").append(i)
+					.append("\"]}");
+		}
+		String input = sb.append("]}").toString();
+		ShapedNodeLoader loader = new ShapedNodeLoader();
+		loader.setColumnarThreshold(3);
+		JsonNode columnar = loader.load(input);
+		for (String path : new String[] { "rows.id", "rows[3].id", "rows.id[0]", "rows[-1]", "rows.tags",
+				"rows.tags[0]", "rows.missing" }) {
+			assertEquals(path, interpret(path, columnar),
+					evaluate(Expressions.parse(path).getCompiledPath(), columnar));
+		}
+	}
+
+	@Test
+	public void testNotPlainPaths() throws Exception {
+		for (String expression : new String[] { "$.a", "$$.a", "$x.a", "a.b + 1", "a[b]", "a[0.5]", "a[\"b\"]",
+				"a[b=1]", "a.(b)", "(a).b", "a.*", "a.**", "a.b[]", "a.$string()", "\"a\".b", "a[[0]]",
+				"1", "a ~> $string()", "a[-b]" }) {
+			assertNull(expression, Expressions.parse(expression).getCompiledPath());
+		}
+		assertEquals("a.b[0].`c d`", Expressions.parse("a.b[0].`c d`").getCompiledPath().toString());
+		assertEquals(4, Expressions.parse("a.b[0].`c d`").getCompiledPath().getSteps());
+		assertEquals("[a, b, c d]", Expressions.parse("a.b[0].`c d`").getCompiledPath().getFieldNames().toString());
+	}
+
+	@Test
+	public void testExpressionUsesCompiledPath() throws Exception {
+		JsonNode input = new ObjectMapper().readTree("{\"a\":[{\"b\":1},{\"b\":2}],\"t\":true}");
+		Expression expression = Expression.jsonata("a.b[0]");
+		assertEquals("[1,2]", expression.evaluate(input).toString());
+		assertEquals("[1,2]", expression.evaluate(input, 1000L, 100).toString());
+		assertEquals("2", Expressions.parse("a[1].b").evaluate(input).toString());
+		try {
+			Expressions.parse("t.x").evaluate(input);
+			throw new AssertionError("Expected an invalid path entry");
+		} catch (EvaluateException e) {
+			assertEquals(interpret("t.x", input), e.getMessage());
+		}
+		// a bound expression is evaluated (and fails) even when not used
+		expression.assign("x", "$unknown()");
+		try {
+			expression.evaluate(input);
+			throw new AssertionError("Expected the bound expression to fail");
+		} catch (EvaluateRuntimeException e) {
+			assertEquals("Unknown function: $unknown", e.getMessage());
+		}
+	}
+}
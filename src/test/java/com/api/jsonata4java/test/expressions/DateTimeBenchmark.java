@@ -0,0 +1,101 @@
+/**
+ * (c) Copyright 2018, 2019 IBM Corporation
+ * 1 New Orchard Road, 
+ * Armonk, New York, 10504-1722
+ * United States
+ * +1 914 499 1900
+ * support: Nathaniel Mills wnm3@us.ibm.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.api.jsonata4java.test.expressions;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+
+import com.api.jsonata4java.Expression;
+import com.api.jsonata4java.expressions.utils.DateTimeUtils;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Times $toMillis over ISO timestamps (scanned without OffsetDateTime) and
+ * over a picture string (compiled once and cached), and $fromMillis with a
+ * picture and timezone, against the exception driven parse the ISO path used
+ * to rely on, both also timed outside of an evaluation.
+ */
+public class DateTimeBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		Expression iso = Expression.jsonata("$sum($map(rows, function($r){ $toMillis($r.iso) }))");
+		Expression picture = Expression
+				.jsonata("$sum($map(rows, function($r){ $toMillis($r.us, '[M01]/[D01]/[Y0001] [H01]:[m01]:[s01]') }))");
+		Expression format = Expression
+				.jsonata(
+				"$count($map(rows, function($r){ $fromMillis($r.millis, '[FNn], [D1o] [MNn] [Y] [h]:[m01][P] [z]', '-0500') }))");
+		int size = 100000;
+		ObjectNode input = JsonNodeFactory.instance.objectNode();
+		ArrayNode rows = input.putArray("rows");
+		String[] isos = new String[size];
+		for (int i = 0; i < size; i++) {
+			long millis = 1500000000000L + i * 7919000L;
+			OffsetDateTime time = Instant.ofEpochMilli(millis).atOffset(ZoneOffset.ofHours(i % 12));
+			isos[i] = time.toString();
+			rows.addObject().put("millis", millis).put("iso", isos[i]).put("us",
+					String.format("%02d/%02d/%04d %02d:%02d:%02d", time.getMonthValue(), time.getDayOfMonth(),
+							time.getYear(), time.getHour(), time.getMinute(), time.getSecond()));
+		}
+		for (int round = 0; round < 5; round++) {
+			long start = System.nanoTime();
+			JsonNode isoSum = iso.evaluate(input);
+			long isoTime = System.nanoTime() - start;
+
+			start = System.nanoTime();
+			JsonNode pictureSum = picture.evaluate(input);
+			long pictureTime = System.nanoTime() - start;
+
+			start = System.nanoTime();
+			JsonNode formatted = format.evaluate(input);
+			long formatTime = System.nanoTime() - start;
+
+			start = System.nanoTime();
+			long parsed = 0L;
+			for (String timestamp : isos) {
+				try {
+					parsed += Instant.parse(timestamp).toEpochMilli();
+				} catch (DateTimeParseException e) {
+					parsed += OffsetDateTime.parse(timestamp).toInstant().toEpochMilli();
+				}
+			}
+			long exceptionTime = System.nanoTime() - start;
+
+			start = System.nanoTime();
+			long scanned = 0L;
+			for (String timestamp : isos) {
+				scanned += DateTimeUtils.parseIso(timestamp);
+			}
+			long scanTime = System.nanoTime() - start;
+
+			System.out.printf(
+					"%d rows: $toMillis iso %4d ms (%s), picture %4d ms (%s); $fromMillis picture %4d ms (%s); Instant.parse with fallback %4d ms (%d), scanner %4d ms (%d)%n",
+					size, isoTime / 1000000, isoSum, pictureTime / 1000000, pictureSum, formatTime / 1000000,
+					formatted, exceptionTime / 1000000, parsed, scanTime / 1000000, scanned);
+		}
+	}
+}
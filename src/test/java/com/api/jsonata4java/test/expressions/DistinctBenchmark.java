@@ -0,0 +1,79 @@
+/**
+ * (c) Copyright 2018, 2019 IBM Corporation
+ * 1 New Orchard Road, 
+ * Armonk, New York, 10504-1722
+ * United States
+ * +1 914 499 1900
+ * support: Nathaniel Mills wnm3@us.ibm.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.api.jsonata4java.test.expressions;
+
+import com.api.jsonata4java.Expression;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Times $distinct, which finds duplicates in a hash set, against the pairwise
+ * emulation users wrote without it (on strings, as = never finds objects
+ * equal), and times the in operator filtering records by lists of allowed
+ * values of growing sizes, which it looks up in a hash set once a list has
+ * been searched.
+ */
+public class DistinctBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		Expression distinct = Expression.jsonata("$count($distinct(values))");
+		Expression emulated = Expression
+				.jsonata("$count($reduce(values, function($acc, $v){ $v in $acc ? $acc : $append($acc, $v) }, []))");
+		Expression membership = Expression.jsonata("$count(records[sku in $$.allowed])");
+		int[] sizes = { 1000, 5000, 20000 };
+		for (int round = 0; round < 3; round++) {
+			for (int size : sizes) {
+				ObjectNode input = JsonNodeFactory.instance.objectNode();
+				ArrayNode values = input.putArray("values");
+				ArrayNode allowed = input.putArray("allowed");
+				ArrayNode records = input.putArray("records");
+				for (int i = 0; i < size; i++) {
+					values.add("v" + i % (size / 2));
+					allowed.add("sku-" + i * 2);
+				}
+				for (int i = 0; i < 20000; i++) {
+					records.addObject().put("sku", "sku-" + i);
+				}
+
+				long start = System.nanoTime();
+				JsonNode count = distinct.evaluate(input);
+				long distinctTime = System.nanoTime() - start;
+
+				start = System.nanoTime();
+				JsonNode emulatedCount = emulated.evaluate(input);
+				long emulatedTime = System.nanoTime() - start;
+
+				start = System.nanoTime();
+				JsonNode matched = membership.evaluate(input);
+				long membershipTime = System.nanoTime() - start;
+
+				System.out.printf(
+						"%5d values: $distinct %4d ms (%s), emulated %6d ms (%s); 20000 records in %5d allowed %4d ms (%s)%n",
+						size, distinctTime / 1000000, count, emulatedTime / 1000000, emulatedCount, size,
+						membershipTime / 1000000, matched);
+			}
+		}
+	}
+}
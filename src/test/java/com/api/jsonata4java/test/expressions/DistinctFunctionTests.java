@@ -0,0 +1,88 @@
+/**
+ * (c) Copyright 2018, 2019 IBM Corporation
+ * 1 New Orchard Road, 
+ * Armonk, New York, 10504-1722
+ * United States
+ * +1 914 499 1900
+ * support: Nathaniel Mills wnm3@us.ibm.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.api.jsonata4java.test.expressions;
+
+import static com.api.jsonata4java.text.expressions.utils.Utils.test;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+
+import com.api.jsonata4java.expressions.utils.Constants;
+
+/**
+ * $distinct(array)
+ * 
+ * Returns an array containing all the values from the array parameter, but
+ * with any duplicates removed. Values are tested for deep equality.
+ * 
+ * Examples
+ * 
+ * $distinct([1,2,3,3,4,3,5])==[1, 2, 3, 4, 5]
+ */
+@RunWith(Parameterized.class)
+public class DistinctFunctionTests {
+
+	private static final String ERR_MSG_ARG1_BAD_TYPE = String.format(Constants.ERR_MSG_ARG1_BAD_TYPE,
+			Constants.FUNCTION_DISTINCT);
+	private static final String ERR_MSG_ARG2_BAD_TYPE = String.format(Constants.ERR_MSG_ARG2_BAD_TYPE,
+			Constants.FUNCTION_DISTINCT);
+
+	@Parameter(0)
+	public String expression;
+
+	@Parameter(1)
+	public String expectedResultJsonString;
+
+	@Parameter(2)
+	public String expectedRuntimeExceptionMessage;
+
+	@Parameters(name = "{index}: {0} -> {1} ({2})")
+	public static Collection<Object[]> data() {
+		return Arrays.asList(new Object[][] { { "$distinct()", null, ERR_MSG_ARG1_BAD_TYPE }, //
+				{ "$distinct([1], [2])", null, ERR_MSG_ARG2_BAD_TYPE }, //
+				{ "$distinct(a.b.c)", null, null }, //
+				{ "$distinct([])", "[]", null }, //
+				{ "$distinct(\"a\")", "\"a\"", null }, //
+				{ "$distinct([1,2,3,3,4,3,5])", "[1,2,3,4,5]", null }, //
+				{ "$distinct([1, 1.0, -0, 0, 2.5, 2.50])", "[1,0,2.5]", null }, //
+				{ "$distinct([\"a\", \"b\", \"a\", \"A\"])", "[\"a\",\"b\",\"A\"]", null }, //
+				{ "$distinct([true, false, true, null, null])", "[true,false,null]", null }, //
+				{ "$distinct([1, \"1\", true, [1], {\"1\": 1}])", "[1,\"1\",true,[1],{\"1\":1}]", null }, //
+				{ "$distinct([[1, 2], [1, 2.0], [2, 1], [[1, 2]]])", "[[1,2],[2,1],[[1,2]]]", null }, //
+				{ "$distinct([{\"a\": 1, \"b\": [1]}, {\"b\": [1.0], \"a\": 1}, {\"a\": 1}])",
+						"[{\"a\":1,\"b\":[1]},{\"a\":1}]", null }, //
+				{ "$distinct([{\"c\": \"x\"}, {\"c\": \"y\"}, {\"c\": \"x\"}].c)", "[\"x\",\"y\"]", null }, //
+		});
+	}
+
+	@Test
+	public void runTest() throws Exception {
+		test(expression, expectedResultJsonString, expectedRuntimeExceptionMessage, null);
+	}
+}
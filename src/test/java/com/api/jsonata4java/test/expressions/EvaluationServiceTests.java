@@ -0,0 +1,132 @@
+/**
+ * (c) Copyright 2018, 2019 IBM Corporation
+ * 1 New Orchard Road, 
+ * Armonk, New York, 10504-1722
+ * United States
+ * +1 914 499 1900
+ * support: Nathaniel Mills wnm3@us.ibm.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.api.jsonata4java.test.expressions;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.api.jsonata4java.EvaluationService;
+import com.api.jsonata4java.Expression;
+import com.api.jsonata4java.expressions.EvaluateException;
+import com.api.jsonata4java.expressions.EvaluateRuntimeException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class EvaluationServiceTests {
+
+	static final String SLOW_EXPR = "$sum($map([1..100000], function($v){$v * 2}))";
+
+	ObjectMapper mapper = new ObjectMapper();
+
+	@Test
+	public void testEvaluateAsync() throws Exception {
+		Expression expr = Expression.jsonata("$sum(example.value)");
+		JsonNode input = mapper.readTree("{\"example\": [{\"value\": 4}, {\"value\": 7}, {\"value\": 13}]}");
+		assertEquals(24L, expr.evaluateAsync(input).get().asLong());
+
+		CompletableFuture<JsonNode> future = Expression.jsonata("$notafunction()").evaluateAsync(input);
+		try {
+			future.get();
+			fail("Expected the evaluation to fail");
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof EvaluateRuntimeException);
+		}
+	}
+
+	/**
+	 * Keeps 10,000 evaluations in flight at once
+	 */
+	@Test
+	public void testTenThousandInFlight() throws Exception {
+		final int inFlight = 10000;
+		Expression expr = Expression.jsonata("$sum(Order.Product.(Price * Quantity))");
+		JsonNode input = mapper.readTree("{\"Order\":[{\"Product\":[{\"Price\":34.45,\"Quantity\":2},"
+				+ "{\"Price\":21.67,\"Quantity\":1}]},{\"Product\":[{\"Price\":34.45,\"Quantity\":4}]}]}");
+		double expected = expr.evaluate(input).asDouble();
+		try (EvaluationService service = new EvaluationService(Runtime.getRuntime().availableProcessors(), inFlight,
+				true)) {
+			List<CompletableFuture<JsonNode>> futures = new ArrayList<CompletableFuture<JsonNode>>(inFlight);
+			for (int i = 0; i < inFlight; i++) {
+				futures.add(service.submit(expr, input, 60000L));
+			}
+			CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get(120, TimeUnit.SECONDS);
+			for (CompletableFuture<JsonNode> future : futures) {
+				assertEquals(expected, future.get().asDouble(), 0.000001);
+			}
+			assertEquals(inFlight, service.getSubmittedCount());
+			assertEquals(inFlight, service.getCompletedCount());
+			assertEquals(0L, service.getRejectedCount());
+			assertEquals(0L, service.getFailedCount());
+			assertEquals(0, service.getInFlightCount());
+			assertTrue(service.getMaxLatencyNanos() >= service.getAverageLatencyNanos());
+		}
+	}
+
+	@Test
+	public void testQueueBackpressure() throws Exception {
+		Expression expr = Expression.jsonata(SLOW_EXPR);
+		try (EvaluationService service = new EvaluationService(1, 1)) {
+			CompletableFuture<JsonNode> running = service.submit(expr, null);
+			CompletableFuture<JsonNode> queued = service.submit(expr, null);
+			CompletableFuture<JsonNode> rejected = service.submit(expr, null);
+			try {
+				rejected.get();
+				fail("Expected the submission to be rejected");
+			} catch (ExecutionException e) {
+				assertTrue(e.getCause() instanceof RejectedExecutionException);
+			}
+			assertEquals(1L, service.getRejectedCount());
+			running.get();
+			queued.get();
+			assertEquals(2L, service.getCompletedCount());
+		}
+	}
+
+	@Test
+	public void testDeadline() throws Exception {
+		Expression expr = Expression.jsonata(SLOW_EXPR);
+		try (EvaluationService service = new EvaluationService(1, 10)) {
+			CompletableFuture<JsonNode> running = service.submit(expr, null);
+			CompletableFuture<JsonNode> late = service.submit(expr, null, 1L);
+			try {
+				late.get();
+				fail("Expected the evaluation to miss its deadline");
+			} catch (ExecutionException e) {
+				assertTrue(e.getCause() instanceof EvaluateException);
+			}
+			running.get();
+			assertEquals(1L, service.getTimedOutCount());
+			assertEquals(1L, service.getFailedCount());
+		}
+	}
+}
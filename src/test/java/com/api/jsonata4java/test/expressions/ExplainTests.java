@@ -0,0 +1,124 @@
+/**
+ * (c) Copyright 2018, 2019 IBM Corporation
+ * 1 New Orchard Road, 
+ * Armonk, New York, 10504-1722
+ * United States
+ * +1 914 499 1900
+ * support: Nathaniel Mills wnm3@us.ibm.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.api.jsonata4java.test.expressions;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.api.jsonata4java.Expression;
+import com.api.jsonata4java.expressions.ExplainPlan;
+import com.api.jsonata4java.expressions.ExplainPlan.Warning;
+import com.api.jsonata4java.expressions.ExplainPlan.WarningType;
+import com.fasterxml.jackson.databind.JsonNode;
+
+public class ExplainTests {
+
+	Map<String, Long> sizes(long orders) {
+		Map<String, Long> sizes = new HashMap<String, Long>();
+		sizes.put("orders", orders);
+		sizes.put("orders.lines", 5L);
+		return sizes;
+	}
+
+	WarningType warningOf(String expression) throws Exception {
+		List<Warning> warnings = Expression.jsonata(expression).explain(sizes(100L)).getWarnings();
+		assertEquals(expression + " " + warnings, 1, warnings.size());
+		return warnings.get(0).getType();
+	}
+
+	@Test
+	public void testPlan() throws Exception {
+		ExplainPlan plan = Expression.jsonata("$sum(orders.lines.(price * qty))").explain(sizes(100L));
+		assertTrue(plan.getWarnings().isEmpty());
+		assertEquals("function_call", plan.getRoot().getOperator());
+		assertEquals("$sum", plan.getRoot().getDetail());
+		assertEquals(1.0, plan.getRoot().getEstimatedCardinality(), 0.0);
+		ExplainPlan.PlanNode path = plan.getRoot().getChildren().get(0);
+		assertEquals("path", path.getOperator());
+		assertEquals(500.0, path.getEstimatedCardinality(), 0.0);
+		assertEquals(5, path.getColumn());
+		assertTrue(plan.toString(), plan.toString().startsWith("Estimated cost: "));
+		assertTrue(plan.toString(), plan.toString().contains("id lines [1:12] card=500 "));
+		JsonNode json = plan.toJson();
+		assertEquals("$sum", json.get("plan").get("detail").asText());
+		assertEquals(0, json.get("warnings").size());
+	}
+
+	@Test
+	public void testLimit() throws Exception {
+		ExplainPlan.PlanNode filter = Expression.jsonata("orders[total > 10][0]").explain(sizes(100L)).getRoot()
+				.getChildren().get(0);
+		assertEquals("filter limit 2", filter.getDetail());
+		assertEquals(2.0, filter.getEstimatedCardinality(), 0.0);
+		filter = Expression.jsonata("$exists(orders[total > 10]) ? 1 : 0").explain(sizes(100L)).getRoot()
+				.getChildren().get(0).getChildren().get(0);
+		assertEquals("filter limit 2", filter.getDetail());
+		filter = Expression.jsonata("orders[total > 10] ? 1 : 0").explain(sizes(100L)).getRoot().getChildren()
+				.get(0);
+		assertEquals("filter until true", filter.getDetail());
+		assertEquals(1.0, filter.getEstimatedCardinality(), 0.0);
+		filter = Expression.jsonata("($r := orders[total > 10]; $r[0])").explain(sizes(100L)).getRoot()
+				.getChildren().get(0).getChildren().get(0);
+		assertEquals("filter", filter.getDetail());
+	}
+
+	@Test
+	public void testWarnings() throws Exception {
+		assertEquals(WarningType.NESTED_ITERATION, warningOf("orders[$count($$.orders[customer = $$.x]) > 1].id"));
+		assertEquals(WarningType.NESTED_ITERATION,
+				warningOf("($o := orders; $filter($o, function($v){$v.id in $o.ref}))"));
+		assertEquals(WarningType.REDUCE_ACCUMULATION,
+				warningOf("$reduce(orders, function($acc, $o){ $acc & $o.id }, '')"));
+		assertEquals(WarningType.REDUCE_ACCUMULATION,
+				warningOf("$reduce(orders, function($acc, $o){ $append($acc, $o.lines) }, [])"));
+		assertEquals(WarningType.DESCENDANT_AT_ROOT, warningOf("**.price"));
+		assertEquals(WarningType.DESCENDANT_AT_ROOT, warningOf("$$.**.price"));
+		assertEquals(WarningType.UNBOUNDED_RANGE, warningOf("[1..$count(orders)]"));
+
+		String[] safe = { "orders[customer = 'x'].lines[0]", "$map(orders, function($o){$o.lines.price})",
+				"$reduce(orders.total, function($acc, $v){ $acc + $v }, 0)", "orders.**.price", "[1..10]" };
+		for (String expression : safe) {
+			List<Warning> warnings = Expression.jsonata(expression).explain(sizes(100L)).getWarnings();
+			assertTrue(expression + " " + warnings, warnings.isEmpty());
+		}
+	}
+
+	@Test
+	public void testCostGrowth() throws Exception {
+		Expression linear = Expression.jsonata("orders[customer = 'x'].id");
+		Expression quadratic = Expression.jsonata("orders[$count($$.orders[customer = $$.x]) > 1].id");
+		double linearGrowth = linear.explain(sizes(2000L)).getEstimatedCost()
+				/ linear.explain(sizes(1000L)).getEstimatedCost();
+		double quadraticGrowth = quadratic.explain(sizes(2000L)).getEstimatedCost()
+				/ quadratic.explain(sizes(1000L)).getEstimatedCost();
+		assertEquals(2.0, linearGrowth, 0.1);
+		assertEquals(4.0, quadraticGrowth, 0.1);
+		assertTrue(Expression.jsonata("orders.id").explain().getEstimatedCost() > 0.0);
+	}
+}
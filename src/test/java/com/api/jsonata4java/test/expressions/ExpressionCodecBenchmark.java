@@ -0,0 +1,63 @@
+/**
+ * (c) Copyright 2018, 2019 IBM Corporation
+ * 1 New Orchard Road, 
+ * Armonk, New York, 10504-1722
+ * United States
+ * +1 914 499 1900
+ * support: Nathaniel Mills wnm3@us.ibm.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.api.jsonata4java.test.expressions;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.List;
+
+import com.api.jsonata4java.expressions.Expressions;
+
+/**
+ * Times parsing the expressions of the test corpus against reading them back
+ * from a bundle of compiled expression records
+ */
+public class ExpressionCodecBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		List<String> corpus = ExpressionCodecTests.corpus();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		for (String expression : corpus) {
+			Expressions.parse(expression).writeTo(out);
+		}
+		byte[] bundle = out.toByteArray();
+		for (int round = 0; round < 10; round++) {
+			long start = System.nanoTime();
+			for (String expression : corpus) {
+				Expressions.parse(expression);
+			}
+			long parseTime = System.nanoTime() - start;
+
+			start = System.nanoTime();
+			InputStream in = new ByteArrayInputStream(bundle);
+			int read = 0;
+			while (Expressions.readFrom(in) != null) {
+				read++;
+			}
+			long readTime = System.nanoTime() - start;
+			System.out.printf("%d expressions (%d bytes): parse %6d us, read %6d us%n", read, bundle.length,
+					parseTime / 1000, readTime / 1000);
+		}
+	}
+}
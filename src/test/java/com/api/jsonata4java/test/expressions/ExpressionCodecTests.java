@@ -0,0 +1,219 @@
+/**
+ * (c) Copyright 2018, 2019 IBM Corporation
+ * 1 New Orchard Road, 
+ * Armonk, New York, 10504-1722
+ * United States
+ * +1 914 499 1900
+ * support: Nathaniel Mills wnm3@us.ibm.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.api.jsonata4java.test.expressions;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.TerminalNode;
+import org.junit.Test;
+
+import com.api.jsonata4java.Expression;
+import com.api.jsonata4java.expressions.Expressions;
+import com.api.jsonata4java.expressions.ParseException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class ExpressionCodecTests {
+
+	static List<String> corpus() {
+		List<String> expressions = new ArrayList<String>();
+		Collection<?>[] suites = { ExpressionsTests.data(), SingletonArrayHandlingTests.data(),
+				StringFunctionTests.data(), SubstringFunctionTests.data(), MatchFunctionTests.data() };
+		for (Collection<?> suite : suites) {
+			for (Object row : suite) {
+				expressions.add((String) ((Object[]) row)[0]);
+			}
+		}
+		expressions.add("($total := function($o){ $sum($o.(qty * price)) };\n"
+				+ "  orders[status = 'open'].{ 'id': id, 'total': $total(lines), 'who': `customer name` })");
+		List<String> parsed = new ArrayList<String>();
+		for (String expression : expressions) {
+			try {
+				Expressions.parse(expression);
+				parsed.add(expression);
+			} catch (ParseException | RuntimeException e) {
+				// not a valid expression
+			}
+		}
+		return parsed;
+	}
+
+	static void assertSameTree(String path, ParseTree expected, ParseTree actual) throws Exception {
+		assertSame(path, expected.getClass(), actual.getClass());
+		if (expected instanceof TerminalNode) {
+			assertSameToken(path, ((TerminalNode) expected).getSymbol(), ((TerminalNode) actual).getSymbol());
+			return;
+		}
+		ParserRuleContext expectedCtx = (ParserRuleContext) expected;
+		ParserRuleContext actualCtx = (ParserRuleContext) actual;
+		assertSameToken(path + " start", expectedCtx.getStart(), actualCtx.getStart());
+		assertSameToken(path + " stop", expectedCtx.getStop(), actualCtx.getStop());
+		for (Field field : expected.getClass().getFields()) {
+			if (field.getType() == Token.class) {
+				assertSameToken(path + " " + field.getName(), (Token) field.get(expected), (Token) field.get(actual));
+			}
+		}
+		assertEquals(path, expected.getChildCount(), actual.getChildCount());
+		for (int i = 0; i < expected.getChildCount(); i++) {
+			assertSame(path, actualCtx, actual.getChild(i).getParent());
+			assertSameTree(path + "/" + i, expected.getChild(i), actual.getChild(i));
+		}
+	}
+
+	static void assertSameToken(String path, Token expected, Token actual) {
+		if (expected == null) {
+			assertNull(path, actual);
+			return;
+		}
+		assertEquals(path, expected.getType(), actual.getType());
+		assertEquals(path, expected.getText(), actual.getText());
+		assertEquals(path, expected.getStartIndex(), actual.getStartIndex());
+		assertEquals(path, expected.getStopIndex(), actual.getStopIndex());
+		assertEquals(path, expected.getLine(), actual.getLine());
+		assertEquals(path, expected.getCharPositionInLine(), actual.getCharPositionInLine());
+		assertEquals(path, expected.getTokenIndex(), actual.getTokenIndex());
+	}
+
+	@Test
+	public void testRoundTrip() throws Exception {
+		for (String expression : corpus()) {
+			Expressions expr = Expressions.parse(expression);
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			expr.writeTo(out);
+			Expressions read = Expressions.readFrom(new ByteArrayInputStream(out.toByteArray()));
+			assertEquals(expression, read.toString());
+			assertSameTree(expression, expr.getTree(), read.getTree());
+		}
+	}
+
+	@Test
+	public void testBundle() throws Exception {
+		List<String> corpus = corpus();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		for (String expression : corpus) {
+			Expression.jsonata(expression).writeTo(out);
+		}
+		byte[] bundle = out.toByteArray();
+
+		InputStream in = new ByteArrayInputStream(bundle);
+		for (String expression : corpus) {
+			assertEquals(expression, Expression.readFrom(in).getName());
+		}
+		assertNull(Expression.readFrom(in));
+
+		Expression expr = Expression.readFrom(new ByteArrayInputStream(bundle, 0, bundle.length));
+		assertEquals(Expression.jsonata(corpus.get(0)).evaluate(null), expr.evaluate(null));
+		Expression orders = null;
+		in = new ByteArrayInputStream(bundle);
+		for (Expression next = Expression.readFrom(in); next != null; next = Expression.readFrom(in)) {
+			orders = next;
+		}
+		assertEquals("{\"id\":1,\"total\":7,\"who\":\"Ann\"}", orders.evaluate(new ObjectMapper().readTree(
+				"{\"orders\":[{\"id\":1,\"status\":\"open\",\"customer name\":\"Ann\",\"lines\":[{\"qty\":2,\"price\":3},{\"qty\":1,\"price\":1}]},"
+						+ "{\"id\":2,\"status\":\"done\"}]}"))
+				.toString());
+		// source positions survive for profiles
+		assertEquals(2, orders.profile(null).getRoot().getChildren().get(1).getLine());
+
+		// the bundle is a plain sequence of framed records: magic, version,
+		// payload length, payload and the CRC32 of the payload
+		DataInputStream data = new DataInputStream(new ByteArrayInputStream(bundle));
+		int records = 0;
+		while (data.available() > 0) {
+			assertEquals(0x4A344A58, data.readInt());
+			assertEquals(1, data.readByte());
+			byte[] payload = new byte[data.readInt()];
+			data.readFully(payload);
+			CRC32 crc = new CRC32();
+			crc.update(payload, 0, payload.length);
+			assertEquals((int) crc.getValue(), data.readInt());
+			records++;
+		}
+		assertEquals(corpus.size(), records);
+	}
+
+	@Test
+	public void testCorruptedRecords() throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		Expressions.parse("a.b + $sum(c)").writeTo(out);
+		byte[] record = out.toByteArray();
+
+		byte[] corrupted = record.clone();
+		corrupted[corrupted.length / 2] ^= 0x55;
+		assertRejected(corrupted, "Checksum mismatch in compiled expression record");
+
+		byte[] truncated = new byte[record.length - 3];
+		System.arraycopy(record, 0, truncated, 0, truncated.length);
+		assertRejected(truncated, null);
+
+		byte[] version = record.clone();
+		version[4] = 99;
+		assertRejected(version, "Unsupported compiled expression format version 99");
+
+		assertRejected("not a record".getBytes("UTF-8"), "Not a compiled expression record");
+	}
+
+	@Test
+	public void testOtherGrammarVersionIsParsed() throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		Expressions.parse("1 + 2").writeTo(out);
+		byte[] record = out.toByteArray();
+		// the payload starts with the grammar fingerprint
+		record[9] ^= 0x01;
+		CRC32 crc = new CRC32();
+		crc.update(record, 9, record.length - 13);
+		int value = (int) crc.getValue();
+		for (int i = 0; i < 4; i++) {
+			record[record.length - 4 + i] = (byte) (value >>> (24 - 8 * i));
+		}
+		Expressions expr = Expressions.readFrom(new ByteArrayInputStream(record));
+		assertEquals("3", expr.evaluate(null).toString());
+	}
+
+	static void assertRejected(byte[] record, String message) throws Exception {
+		try {
+			Expressions.readFrom(new ByteArrayInputStream(record));
+			fail("Expected the record to be rejected");
+		} catch (IOException e) {
+			if (message != null) {
+				assertEquals(message, e.getMessage());
+			}
+		}
+	}
+}
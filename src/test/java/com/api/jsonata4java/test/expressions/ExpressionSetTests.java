@@ -0,0 +1,108 @@
+/**
+ * (c) Copyright 2018, 2019 IBM Corporation
+ * 1 New Orchard Road, 
+ * Armonk, New York, 10504-1722
+ * United States
+ * +1 914 499 1900
+ * support: Nathaniel Mills wnm3@us.ibm.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.api.jsonata4java.test.expressions;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.api.jsonata4java.Expression;
+import com.api.jsonata4java.ExpressionSet;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class ExpressionSetTests {
+
+	static final String[][] FIELDS = { //
+			{ "name", "payload.device.metadata.name" }, //
+			{ "type", "payload.device.metadata.type" }, //
+			{ "tags", "payload.device.metadata.tags[0]" }, //
+			{ "hot", "payload.readings[value > 30].value" }, //
+			{ "hotCount", "$count(payload.readings[value > 30])" }, //
+			{ "total", "$sum(payload.readings.value)" }, //
+			{ "label", "payload.device.metadata.name & '/' & payload.device.metadata.type" }, //
+			{ "first", "payload.readings[0].value" }, //
+			{ "firstSensor", "payload.readings[0].sensor" }, //
+			{ "sensors", "payload.readings.(sensor & ':' & value)" }, //
+			{ "block", "($x := payload.device.metadata; $x.name)" }, //
+			{ "missing", "payload.device.nothere" }, //
+	};
+
+	static final String INPUT = "{\"payload\":{\"device\":{\"metadata\":{\"name\":\"pump\",\"type\":\"p100\","
+			+ "\"tags\":[\"a\",\"b\"]}},\"readings\":[{\"sensor\":\"t1\",\"value\":25},"
+			+ "{\"sensor\":\"t2\",\"value\":31},{\"sensor\":\"t3\",\"value\":40}]}}";
+
+	ObjectMapper mapper = new ObjectMapper();
+
+	@Test
+	public void testMatchesIndividualEvaluation() throws Exception {
+		ExpressionSet set = new ExpressionSet();
+		for (String[] field : FIELDS) {
+			set.add(field[0], field[1]);
+		}
+		JsonNode input = mapper.readTree(INPUT);
+		Map<String, JsonNode> results = set.evaluate(input);
+		assertEquals(FIELDS.length, results.size());
+		for (String[] field : FIELDS) {
+			JsonNode expected = Expression.jsonata(field[1]).evaluate(input);
+			assertEquals(field[1], expected, results.get(field[0]));
+		}
+		// a second document must not see the first document's shared results
+		JsonNode other = mapper.readTree("{\"payload\":{\"device\":{\"metadata\":{\"name\":\"fan\",\"type\":\"f2\"}}}}");
+		results = set.evaluate(other);
+		assertEquals("fan/f2", results.get("label").asText());
+		assertEquals("fan", results.get("name").asText());
+	}
+
+	@Test
+	public void testSharedSubexpressions() throws Exception {
+		ExpressionSet set = new ExpressionSet();
+		for (String[] field : FIELDS) {
+			set.add(field[0], field[1]);
+		}
+		assertTrue(set.getSharedSubexpressions().contains("payload.device.metadata"));
+		assertTrue(set.getSharedSubexpressions().contains("payload.readings[value>30]"));
+		assertTrue(set.getSharedSubexpressions().contains("payload.readings[0]"));
+		// expressions using variables or function calls are not shared
+		assertFalse(set.getSharedSubexpressions().contains("$x.name"));
+		assertFalse(set.getSharedSubexpressions().contains("payload.device.metadata.name"
+				+ "&'/'&payload.device.metadata.type"));
+	}
+
+	@Test
+	public void testSameTextDifferentStructure() throws Exception {
+		// both have the text x.aandb once whitespace is dropped
+		ExpressionSet set = new ExpressionSet();
+		set.add("logand", "x.a and b");
+		set.add("path", "x.aandb");
+		assertTrue(set.getSharedSubexpressions().isEmpty());
+		JsonNode input = mapper.readTree("{\"x\":{\"a\":true,\"aandb\":\"FIELD\"},\"b\":true}");
+		Map<String, JsonNode> results = set.evaluate(input);
+		assertEquals("true", results.get("logand").toString());
+		assertEquals("\"FIELD\"", results.get("path").toString());
+	}
+}
@@ -60,6 +60,16 @@ public class FromMillisFunctionTests {
 			Constants.FUNCTION_FROM_MILLIS);
 	private static final String ERR_MSG_ARG1_BAD_TYPE = String.format(Constants.ERR_MSG_ARG1_BAD_TYPE,
 			Constants.FUNCTION_FROM_MILLIS);
+	private static final String ERR_MSG_ARG2_BAD_TYPE = String.format(Constants.ERR_MSG_ARG2_BAD_TYPE,
+			Constants.FUNCTION_FROM_MILLIS);
+	private static final String ERR_MSG_ARG3_BAD_TYPE = String.format(Constants.ERR_MSG_ARG3_BAD_TYPE,
+			Constants.FUNCTION_FROM_MILLIS);
+	private static final String ERR_MSG_UNKNOWN_COMPONENT = String
+			.format(Constants.ERR_MSG_PICTURE_UNKNOWN_COMPONENT, "Q", Constants.FUNCTION_FROM_MILLIS);
+	private static final String ERR_MSG_UNCLOSED = String.format(Constants.ERR_MSG_PICTURE_UNCLOSED,
+			Constants.FUNCTION_FROM_MILLIS, "[Y0001");
+	private static final String ERR_MSG_TIMEZONE = String.format(Constants.ERR_MSG_TIMEZONE,
+			Constants.FUNCTION_FROM_MILLIS, "5");
 
 	@Parameter(0)
 	public String expression;
@@ -82,7 +92,24 @@ public class FromMillisFunctionTests {
 				{ "$fromMillis(1512159584136)", "\"2017-12-01T20:19:44.136Z\"", null }, //
 				{ "$fromMillis(1)", "\"1970-01-01T00:00:00.001Z\"", null }, //
 				{ "$fromMillis(-1)", "\"1969-12-31T23:59:59.999Z\"", null }, //
-				{ "$fromMillis(10/3.0)", "\"1970-01-01T00:00:00.003Z\"", null } });
+				{ "$fromMillis(10/3.0)", "\"1970-01-01T00:00:00.003Z\"", null }, //
+				{ "$fromMillis(1510067557121, '[M01]/[D01]/[Y0001] [h#1]:[m01][P]')", "\"11/07/2017 3:12pm\"",
+						null }, //
+				{ "$fromMillis(1510067557121, '[Y0001]-[M01]-[D01]T[H01]:[m01]:[s01].[f001][Z01:01t]')",
+						"\"2017-11-07T15:12:37.121Z\"", null }, //
+				{ "$fromMillis(1510067557121, '[FNn], [D1o] [MNn] [Y]')", "\"Tuesday, 7th November 2017\"", null }, //
+				{ "$fromMillis(1510067557121, '[FN,3-3] [MNn,3-3] [Y01]')", "\"TUE Nov 17\"", null }, //
+				{ "$fromMillis(1510067557121, '[X]-W[W01]-[F1] day [d]')", "\"2017-W45-2 day 311\"", null }, //
+				{ "$fromMillis(1510067557121, '[[[Y0001]]]')", "\"[2017]\"", null }, //
+				{ "$fromMillis(1510067557121, '[H01]:[m01]:[s01] [z]', '-0500')", "\"10:12:37 GMT-05:00\"", null }, //
+				{ "$fromMillis(1510067557121, '[H01]:[m01] [Z0101]', '+0530')", "\"20:42 +0530\"", null }, //
+				{ "$fromMillis(1510067557121, null, '+0100')", "\"2017-11-07T16:12:37.121+01:00\"", null }, //
+				{ "$fromMillis(1510067557121, undefined, '-0000')", "\"2017-11-07T15:12:37.121Z\"", null }, //
+				{ "$fromMillis(1, 2)", null, ERR_MSG_ARG2_BAD_TYPE }, //
+				{ "$fromMillis(1, '[Y]', 2)", null, ERR_MSG_ARG3_BAD_TYPE }, //
+				{ "$fromMillis(1, '[Q]')", null, ERR_MSG_UNKNOWN_COMPONENT }, //
+				{ "$fromMillis(1, '[Y0001')", null, ERR_MSG_UNCLOSED }, //
+				{ "$fromMillis(1, '[Y]', '5')", null, ERR_MSG_TIMEZONE } });
 	}
 
 	@Test
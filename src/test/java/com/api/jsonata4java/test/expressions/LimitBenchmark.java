@@ -0,0 +1,72 @@
+/**
+ * (c) Copyright 2018, 2019 IBM Corporation
+ * 1 New Orchard Road, 
+ * Armonk, New York, 10504-1722
+ * United States
+ * +1 914 499 1900
+ * support: Nathaniel Mills wnm3@us.ibm.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.api.jsonata4java.test.expressions;
+
+import com.api.jsonata4java.Expression;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Times filters over 1M events whose first error is near the start, when
+ * their consumer only needs the first matches (an index, $exists, $count
+ * compared with a literal) against the same filters evaluated in full as the
+ * last expression of a block.
+ */
+public class LimitBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		int size = 1000000;
+		ObjectNode input = JsonNodeFactory.instance.objectNode();
+		ArrayNode events = input.putArray("events");
+		for (int i = 0; i < size; i++) {
+			ObjectNode event = events.addObject();
+			event.put("id", i);
+			event.put("type", i % 1000 == 10 ? "error" : "info");
+			event.put("qty", i % 997);
+		}
+		String[] filters = new String[] { "events[type = \"error\"]", "$filter(events, function($v){$v.qty > 990})" };
+		String[] consumers = new String[] { "%s[0]", "$exists(%s)", "$count(%s) > 2" };
+		for (int round = 0; round < 5; round++) {
+			StringBuilder sb = new StringBuilder();
+			for (String filter : filters) {
+				for (String consumer : consumers) {
+					Expression limited = Expression.jsonata(String.format(consumer, filter));
+					Expression full = Expression.jsonata(String.format(consumer, "(0; " + filter + ")"));
+					long start = System.nanoTime();
+					JsonNode result = limited.evaluate(input);
+					long limitedTime = System.nanoTime() - start;
+
+					start = System.nanoTime();
+					full.evaluate(input);
+					long fullTime = System.nanoTime() - start;
+					sb.append(String.format("%-55s limited %4d ms, full %4d ms (%s)%n",
+							String.format(consumer, filter), limitedTime / 1000000, fullTime / 1000000,
+							result.toString().length() > 20 ? result.toString().substring(0, 20) + "..." : result));
+				}
+			}
+			System.out.print(sb);
+		}
+	}
+}
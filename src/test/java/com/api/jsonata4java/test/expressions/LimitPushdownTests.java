@@ -0,0 +1,168 @@
+/**
+ * (c) Copyright 2018, 2019 IBM Corporation
+ * 1 New Orchard Road, 
+ * Armonk, New York, 10504-1722
+ * United States
+ * +1 914 499 1900
+ * support: Nathaniel Mills wnm3@us.ibm.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.api.jsonata4java.test.expressions;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.util.function.Function;
+
+import org.junit.Test;
+
+import com.api.jsonata4java.Expression;
+import com.api.jsonata4java.expressions.EvaluateRuntimeException;
+import com.api.jsonata4java.expressions.metrics.EvaluationProfile;
+import com.api.jsonata4java.expressions.metrics.EvaluationProfile.NodeProfile;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Filters whose consumer only needs their first values (an index, $exists,
+ * $count compared with a literal or a boolean context) stop evaluating their
+ * predicate early, and must give the same results as unlimited filters
+ */
+public class LimitPushdownTests {
+
+	ObjectMapper mapper = new ObjectMapper();
+
+	JsonNode events(int size, int... errors) {
+		ObjectNode input = JsonNodeFactory.instance.objectNode();
+		ArrayNode events = input.putArray("events");
+		for (int i = 0; i < size; i++) {
+			ObjectNode event = events.addObject();
+			event.put("id", i);
+			event.put("type", "info");
+			event.put("qty", i * 10);
+			event.putArray("tags").add("t" + i);
+		}
+		for (int error : errors) {
+			((ObjectNode) events.get(error)).put("type", "error");
+		}
+		return input;
+	}
+
+	/**
+	 * Compare an expression with the same expression evaluated without limit,
+	 * the filter being hidden from its consumer as the last expression of a block
+	 */
+	void same(String expression, String reference, JsonNode input) throws Exception {
+		assertEquals(expression + " on " + input, evaluate(reference, input), evaluate(expression, input));
+	}
+
+	String evaluate(String expression, JsonNode input) throws Exception {
+		try {
+			return String.valueOf(Expression.jsonata(expression).evaluate(input));
+		} catch (EvaluateRuntimeException e) {
+			return e.getMessage();
+		}
+	}
+
+	void same(String filter, Function<String, String> consumer, JsonNode input) throws Exception {
+		same(consumer.apply(filter), consumer.apply("(0; " + filter + ")"), input);
+	}
+
+	long predicateCount(String expression, JsonNode input) throws Exception {
+		EvaluationProfile profile = Expression.jsonata(expression).profile(input);
+		NodeProfile predicate = find(profile.getRoot(),
+				expression.startsWith("$filter") ? "$v.type = \"error\"" : "type = \"error\"");
+		assertNotNull(expression, predicate);
+		return predicate.getCount();
+	}
+
+	@Test
+	public void testSameResults() throws Exception {
+		String[] filters = new String[] { "events[type = \"error\"]", "events[qty > 30]", "events[qty > 1000]",
+				"events[type = \"error\"][qty > 50]", "$filter(events, function($v){$v.type = \"error\"})",
+				"$filter(events.qty, function($v, $i){$i > 2})", "$filter(events.tags, function($v){$v != \"t3\"})" };
+		JsonNode[] inputs = new JsonNode[] { events(10), events(10, 3), events(10, 3, 7), events(10, 0, 1, 2, 9),
+				events(1, 0), events(0), mapper.readTree("{\"events\":{\"type\":\"error\",\"qty\":100}}") };
+		for (JsonNode input : inputs) {
+			for (String filter : filters) {
+				for (int i = 0; i < 4; i++) {
+					final int index = i;
+					same(filter, f -> f + "[" + index + "]", input);
+				}
+				same(filter, f -> "$exists(" + f + ")", input);
+				same(filter, f -> "$boolean(" + f + ")", input);
+				same(filter, f -> "$not(" + f + ")", input);
+				same(filter, f -> f + " ? \"yes\" : \"no\"", input);
+				same(filter, f -> f + " and true", input);
+				same(filter, f -> "false or " + f, input);
+				for (int n = 0; n < 3; n++) {
+					final int count = n;
+					same(filter, f -> "$count(" + f + ") > " + count, input);
+					same(filter, f -> count + " < $count(" + f + ")", input);
+					same(filter, f -> "$count(" + f + ") = " + count, input);
+					same(filter, f -> "$count(" + f + ") != " + count, input);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testEarlyTermination() throws Exception {
+		JsonNode input = events(1000, 3, 7, 500);
+		assertEquals(1000L, predicateCount("events[type = \"error\"]", input));
+		// an index k stops after k + 1 (and at least 2) matches
+		assertEquals(8L, predicateCount("events[type = \"error\"][0]", input));
+		assertEquals(501L, predicateCount("events[type = \"error\"][2]", input));
+		assertEquals(8L, predicateCount("$exists(events[type = \"error\"])", input));
+		assertEquals(8L, predicateCount("$count(events[type = \"error\"]) > 1", input));
+		assertEquals(501L, predicateCount("$count(events[type = \"error\"]) > 2", input));
+		// boolean contexts stop at the first true value
+		assertEquals(4L, predicateCount("$boolean(events[type = \"error\"])", input));
+		assertEquals(4L, predicateCount("events[type = \"error\"] ? 1 : 0", input));
+		assertEquals(4L, predicateCount("$filter(events, function($v){$v.type = \"error\"}) ? 1 : 0", input));
+		assertEquals(8L, predicateCount("$filter(events, function($v){$v.type = \"error\"})[0]", input));
+		// without a consumer needing only its first values the filter is not limited
+		assertEquals(1000L, predicateCount("($r := events[type = \"error\"]; $r[0])", input));
+		assertEquals(1000L, predicateCount("$sum(events[type = \"error\"].qty)", input));
+		assertEquals("{\"id\":3,\"type\":\"error\",\"qty\":30,\"tags\":[\"t3\"]}",
+				Expression.jsonata("events[type = \"error\"][0]").evaluate(input).toString());
+	}
+
+	@Test
+	public void testNativeFunction() throws Exception {
+		JsonNode input = events(100, 3, 7);
+		Expression expr = Expression.jsonata("$exists(events[type = \"error\"])");
+		expr.registerFunction("exists", "<a:n>", values -> JsonNodeFactory.instance.numberNode(values[0].size()));
+		assertEquals("2", expr.evaluate(input).toString());
+		assertEquals(100L, find(expr.profile(input).getRoot(), "type = \"error\"").getCount());
+	}
+
+	NodeProfile find(NodeProfile node, String source) {
+		if (node.getSource().equals(source)) {
+			return node;
+		}
+		for (NodeProfile child : node.getChildren()) {
+			NodeProfile found = find(child, source);
+			if (found != null) {
+				return found;
+			}
+		}
+		return null;
+	}
+}
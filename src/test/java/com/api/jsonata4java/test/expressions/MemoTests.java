@@ -0,0 +1,130 @@
+/**
+ * (c) Copyright 2018, 2019 IBM Corporation
+ * 1 New Orchard Road, 
+ * Armonk, New York, 10504-1722
+ * United States
+ * +1 914 499 1900
+ * support: Nathaniel Mills wnm3@us.ibm.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.api.jsonata4java.test.expressions;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.api.jsonata4java.Expression;
+import com.api.jsonata4java.expressions.functions.FunctionMemo;
+import com.api.jsonata4java.expressions.functions.FunctionMemo.Statistics;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class MemoTests {
+
+	static final String FIB = "($fib := function($n){ $n < 2 ? $n : $fib($n - 1) + $fib($n - 2) }; $fib(%d))";
+
+	Expression memoized(String expression, FunctionMemo.Scope scope, int maxEntries) throws Exception {
+		Expression expr = Expression.jsonata(expression);
+		expr.setMemoization(scope, maxEntries);
+		return expr;
+	}
+
+	@Test
+	public void testRecursionRestoresVariables() throws Exception {
+		// a recursive call must not change the caller's parameters
+		assertEquals("6765", Expression.jsonata(String.format(FIB, 20)).evaluate(null).toString());
+		assertEquals("[3,1]", Expression
+				.jsonata("($n := 3; $f := function($n){ $n = 0 ? 0 : $f($n - 1) }; $f(5); [$n, ($f(1); 1)])")
+				.evaluate(null).toString());
+	}
+
+	@Test
+	public void testEvaluationScope() throws Exception {
+		Expression expr = memoized(String.format(FIB, 60), FunctionMemo.Scope.EVALUATION, 0);
+		assertEquals("1548008755920", expr.evaluate(null).toString());
+		Statistics stats = expr.getMemoStatistics();
+		assertEquals(61L, stats.getMisses());
+		assertEquals(58L, stats.getHits());
+		assertEquals(0L, stats.getSkipped());
+		// nothing is kept between evaluations
+		expr.evaluate(null);
+		assertEquals(122L, stats.getMisses());
+	}
+
+	@Test
+	public void testExpressionScope() throws Exception {
+		Expression expr = memoized(String.format(FIB, 30), FunctionMemo.Scope.EXPRESSION, 1000);
+		assertEquals("832040", expr.evaluate(null).toString());
+		long misses = expr.getMemoStatistics().getMisses();
+		assertEquals("832040", expr.evaluate(null).toString());
+		assertEquals(misses, expr.getMemoStatistics().getMisses());
+
+		Expression bounded = memoized(String.format(FIB, 30), FunctionMemo.Scope.EXPRESSION, 10);
+		assertEquals("832040", bounded.evaluate(null).toString());
+		assertTrue(bounded.getMemoStatistics().getEvictions() > 0L);
+	}
+
+	@Test
+	public void testFieldOrderInKey() throws Exception {
+		// objects with the same fields in another order are different arguments
+		String[][] cases = { { "$keys($x)", "[[\"a\",\"b\"],[\"b\",\"a\"]]" },
+				{ "$string($x)", "[\"{\\\"a\\\":1,\\\"b\\\":2}\",\"{\\\"b\\\":2,\\\"a\\\":1}\"]" },
+				{ "$x", "[{\"a\":1,\"b\":2},{\"b\":2,\"a\":1}]" } };
+		for (String[] test : cases) {
+			String expression = "($f := function($x){ " + test[0] + " }; [$f({\"a\":1,\"b\":2}), $f({\"b\":2,\"a\":1})])";
+			assertEquals(test[1], Expression.jsonata(expression).evaluate(null).toString());
+			for (FunctionMemo.Scope scope : FunctionMemo.Scope.values()) {
+				assertEquals(scope + " " + test[0], test[1], memoized(expression, scope, 0).evaluate(null).toString());
+			}
+		}
+		// while equal objects in the same order still share a result
+		Expression expr = memoized("($f := function($x){ $keys($x) }; [$f({\"a\":[{\"b\":1}]}), $f({\"a\":[{\"b\":1}]})])",
+				FunctionMemo.Scope.EVALUATION, 0);
+		assertEquals("[[\"a\"],[\"a\"]]", expr.evaluate(null).toString());
+		assertEquals(1L, expr.getMemoStatistics().getHits());
+	}
+
+	@Test
+	public void testOuterVariablesInKey() throws Exception {
+		Expression expr = memoized("($rate := 2; $f := function($x){ $x * $rate }; [$f(1), $f(1), ($rate := 3; $f(1))])",
+				FunctionMemo.Scope.EVALUATION, 0);
+		assertEquals("[2,2,3]", expr.evaluate(null).toString());
+		assertEquals(1L, expr.getMemoStatistics().getHits());
+	}
+
+	@Test
+	public void testImpureFunctionsNotMemoized() throws Exception {
+		String[] impure = { "($f := function($x){ $x + $random() }; [$f(1), $f(1)])",
+				"($g := 0; $f := function($x){ ($g := $x; $x) }; [$f(1), $f(1)])",
+				"($f := function($x){ price * $x }; [$f(1), $f(1)])",
+				"($f := function($x){ $$.price * $x }; [$f(1), $f(1)])",
+				"($now2 := function(){ $millis() }; $f := function($x){ $now2() }; [$f(1), $f(1)])" };
+		for (String expression : impure) {
+			Expression expr = memoized(expression, FunctionMemo.Scope.EVALUATION, 0);
+			expr.evaluate(new ObjectMapper().readTree("{\"price\":2}"));
+			assertEquals(expression, 0L, expr.getMemoStatistics().getHits() + expr.getMemoStatistics().getMisses());
+			assertTrue(expression, expr.getMemoStatistics().getSkipped() >= 2L);
+		}
+	}
+
+	@Test
+	public void testResultsAreCopied() throws Exception {
+		Expression expr = memoized("($f := function($n){ [$n, $n] }; [$append($f(1), $f(1)), $f(1)])",
+				FunctionMemo.Scope.EVALUATION, 0);
+		assertEquals("[[1,1,1,1],[1,1]]", expr.evaluate(null).toString());
+		assertEquals(2L, expr.getMemoStatistics().getHits());
+	}
+}
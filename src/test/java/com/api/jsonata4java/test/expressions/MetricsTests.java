@@ -0,0 +1,120 @@
+/**
+ * (c) Copyright 2018, 2019 IBM Corporation
+ * 1 New Orchard Road, 
+ * Armonk, New York, 10504-1722
+ * United States
+ * +1 914 499 1900
+ * support: Nathaniel Mills wnm3@us.ibm.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.api.jsonata4java.test.expressions;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeNotNull;
+
+import org.junit.Test;
+
+import com.api.jsonata4java.Expression;
+import com.api.jsonata4java.expressions.EvaluateRuntimeException;
+import com.api.jsonata4java.expressions.metrics.InMemoryMetricsRegistry;
+import com.api.jsonata4java.expressions.metrics.InMemoryMetricsRegistry.ExpressionStats;
+import com.api.jsonata4java.expressions.metrics.LatencyHistogram;
+import com.api.jsonata4java.expressions.metrics.Metrics;
+import com.api.jsonata4java.expressions.metrics.MetricsListener;
+import com.api.jsonata4java.expressions.metrics.NoOpMetricsListener;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class MetricsTests {
+
+	ObjectMapper mapper = new ObjectMapper();
+
+	@Test
+	public void testInMemoryRegistry() throws Exception {
+		InMemoryMetricsRegistry registry = new InMemoryMetricsRegistry();
+		Expression expr = Expression.jsonata("$map($sort(items.name), function($v){$uppercase($v)})");
+		expr.setName("tenant-1");
+		expr.setMetricsListener(registry);
+		JsonNode input = mapper.readTree("{\"items\":[{\"name\":\"b\"},{\"name\":\"a\"},{\"name\":\"c\"}]}");
+		for (int i = 0; i < 10; i++) {
+			assertEquals("[\"A\",\"B\",\"C\"]", expr.evaluate(input).toString());
+		}
+		ExpressionStats stats = registry.getExpressionStats("tenant-1");
+		assertNotNull(stats);
+		assertEquals(10L, stats.getEvaluations());
+		assertEquals(0L, stats.getErrors());
+		assertTrue(stats.getNodeVisits() > 10L);
+		assertEquals(10L, stats.getFunctions().get("$sort").getCount());
+		assertEquals(10L, stats.getFunctions().get("$map").getCount());
+		assertEquals(30L, stats.getFunctions().get("$uppercase").getCount());
+		assertTrue(stats.getLatency().getValueAtPercentile(50.0) <= stats.getLatency().getMax());
+
+		Expression bad = Expression.jsonata("$notafunction()");
+		bad.setMetricsListener(registry);
+		try {
+			bad.evaluate(input);
+			fail("Expected an exception");
+		} catch (EvaluateRuntimeException e) {
+			// expected
+		}
+		assertEquals(1L, registry.getExpressionStats("$notafunction()").getErrors());
+		assertTrue(registry.toJson().has("tenant-1"));
+	}
+
+	@Test
+	public void testDefaultListener() throws Exception {
+		assertEquals(NoOpMetricsListener.INSTANCE, Metrics.getDefaultListener());
+		InMemoryMetricsRegistry registry = new InMemoryMetricsRegistry();
+		Metrics.setDefaultListener(registry);
+		try {
+			Expression.jsonata("1 + 2").evaluate(null);
+		} finally {
+			Metrics.setDefaultListener(null);
+		}
+		assertEquals(1L, registry.getExpressionStats("1 + 2").getEvaluations());
+		Expression.jsonata("1 + 2").evaluate(null);
+		assertEquals(1L, registry.getExpressionStats("1 + 2").getEvaluations());
+		assertNull(registry.getExpressionStats("other"));
+	}
+
+	@Test
+	public void testHistogram() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (long i = 1; i <= 1000; i++) {
+			histogram.record(i * 1000L);
+		}
+		assertEquals(1000L, histogram.getCount());
+		assertEquals(1000000L, histogram.getMax());
+		long p50 = histogram.getValueAtPercentile(50.0);
+		assertTrue("p50 " + p50, Math.abs(p50 - 500000L) <= 500000L * 0.04);
+		long p99 = histogram.getValueAtPercentile(99.0);
+		assertTrue("p99 " + p99, Math.abs(p99 - 990000L) <= 990000L * 0.04);
+		assertEquals(500500.0, histogram.getMean(), 0.001);
+	}
+
+	@Test
+	public void testJfrListenerFactory() {
+		MetricsListener listener = Metrics.newJfrListener();
+		// null when built or run without jdk.jfr
+		assumeNotNull(listener);
+		assertFalse(listener.isEnabled());
+	}
+}
@@ -0,0 +1,250 @@
+/**
+ * (c) Copyright 2018, 2019 IBM Corporation
+ * 1 New Orchard Road, 
+ * Armonk, New York, 10504-1722
+ * United States
+ * +1 914 499 1900
+ * support: Nathaniel Mills wnm3@us.ibm.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.api.jsonata4java.test.expressions;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.junit.Test;
+
+import com.api.jsonata4java.BindingEnvironment;
+import com.api.jsonata4java.Expression;
+import com.api.jsonata4java.expressions.EvaluateRuntimeException;
+import com.api.jsonata4java.expressions.Expressions;
+import com.api.jsonata4java.expressions.ExpressionsVisitor;
+import com.api.jsonata4java.expressions.ParseException;
+import com.api.jsonata4java.expressions.functions.FunctionSignature;
+import com.api.jsonata4java.expressions.functions.JavaFunction;
+import com.api.jsonata4java.expressions.functions.UppercaseFunction;
+import com.api.jsonata4java.expressions.generated.MappingExpressionParser.Function_callContext;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.DoubleNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+
+public class NativeFunctionTests {
+
+	static final JavaFunction CONVERT = args -> new DoubleNode(
+			args[0].asDouble() * ("EUR".equals(args[1].asText()) ? 0.5 : 1.0));
+
+	JsonNode json(String text) throws Exception {
+		return new ObjectMapper().readTree(text);
+	}
+
+	@Test
+	public void testSignature() throws Exception {
+		FunctionSignature signature = FunctionSignature.parse("<s-(sf)(sf)n?:s>");
+		assertEquals(4, signature.getParameters().size());
+		assertEquals("sf", signature.getParameters().get(1).getTypes());
+		assertEquals(3, signature.getMinArity());
+		assertEquals(4, signature.getMaxArity());
+		assertTrue(signature.acceptsContext());
+		assertEquals("s", signature.getReturnType());
+
+		signature = FunctionSignature.parse("<af<n:n>?x+>");
+		assertEquals("n:n", signature.getParameters().get(1).getSubtype());
+		assertEquals(2, signature.getMinArity());
+		assertEquals(Integer.MAX_VALUE, signature.getMaxArity());
+		assertNull(signature.getReturnType());
+
+		for (String bad : new String[] { "s:s", "<q:s>", "<(sz):s>", "<a<n:s>" }) {
+			try {
+				FunctionSignature.parse(bad);
+				fail("Expected " + bad + " to be rejected");
+			} catch (ParseException e) {
+				// expected
+			}
+		}
+	}
+
+	@Test
+	public void testCoercion() throws Exception {
+		FunctionSignature signature = FunctionSignature.of("<a<n>s?:n>");
+		assertTrue(signature == FunctionSignature.of("<a<n>s?:n>"));
+		// a single value is passed as an array
+		JsonNode[] args = signature.coerce("$f", new JsonNode[] { new DoubleNode(1) }, false);
+		assertEquals("[1.0]", args[0].toString());
+		assertNull(signature.coerce("$f", new JsonNode[] { null, null }, false)[1]);
+		String[][] bad = { { "[\"x\"]" }, { "[1]", "2" }, { "[1]", "\"s\"", "3" } };
+		String[] messages = { "Argument 1", "Argument 2", "Argument 3" };
+		for (int i = 0; i < bad.length; i++) {
+			JsonNode[] values = new JsonNode[bad[i].length];
+			for (int v = 0; v < values.length; v++) {
+				values[v] = json(bad[i][v]);
+			}
+			try {
+				signature.coerce("$f", values, false);
+				fail("Expected " + bad[i][0] + " to be rejected");
+			} catch (EvaluateRuntimeException e) {
+				assertEquals(messages[i] + " of function $f does not match function signature", e.getMessage());
+			}
+		}
+		Expression expr = Expression.jsonata("$total(price)");
+		expr.registerFunction("total", "<a<n>:n>", values -> {
+			double total = 0;
+			for (JsonNode value : values[0]) {
+				total += value.asDouble();
+			}
+			return new DoubleNode(total);
+		});
+		assertEquals("4.0", expr.evaluate(json("{\"price\":4}")).toString());
+		assertEquals("7.0", expr.evaluate(json("{\"price\":[4,3]}")).toString());
+	}
+
+	@Test
+	public void testCallShapes() throws Exception {
+		List<Function_callContext> calls = new ArrayList<Function_callContext>();
+		ParseTree tree = Expressions.parse("$uppercase(name) & (name ~> $trim()) & a.$length()").getTree();
+		collectCalls(tree, calls);
+		assertEquals(3, calls.size());
+		Map<ParseTree, FunctionSignature.CallShape> shapes = ExpressionsVisitor.compileCallShapes(tree);
+		assertEquals(3, shapes.size());
+		FunctionSignature uppercase = new UppercaseFunction().getFunctionSignature();
+		FunctionSignature.CallShape shape = shapes.get(calls.get(0));
+		assertSame(uppercase, shape.getSignature());
+		assertEquals(1, shape.getArgumentCount());
+		assertFalse(shape.isUseContext());
+		ExpressionsVisitor visitor = new ExpressionsVisitor(null);
+		visitor.setCallShapes(shapes);
+		assertSame(shape, visitor.getCallShape(calls.get(0), uppercase));
+		// a name bound to a function with another signature decides again
+		FunctionSignature other = FunctionSignature.of("<n:n>");
+		assertSame(other, visitor.getCallShape(calls.get(0), other).getSignature());
+		// a chained value is inserted but is not the context
+		shape = shapes.get(calls.get(1));
+		assertEquals(0, shape.getArgumentCount());
+		assertTrue(shape.isUseContext());
+		assertFalse(shape.isFromContext());
+		shape = shapes.get(calls.get(2));
+		assertEquals(0, shape.getArgumentCount());
+		assertTrue(shape.isFromContext());
+	}
+
+	static void collectCalls(ParseTree tree, List<Function_callContext> calls) {
+		if (tree instanceof Function_callContext) {
+			calls.add((Function_callContext) tree);
+		}
+		for (int i = 0; i < tree.getChildCount(); i++) {
+			collectCalls(tree.getChild(i), calls);
+		}
+	}
+
+	@Test
+	public void testBuiltInCallSites() throws Exception {
+		Expression expr = Expression.jsonata("[names.$uppercase(), $map(names, $length), $trim(' a  b ')]");
+		JsonNode input = json("{\"names\":[\"ab\",\"c\"]}");
+		String expected = "[[\"AB\",\"C\"],[2,1],\"a b\"]";
+		assertEquals(expected, expr.evaluate(input).toString());
+		expr.setCompileThreshold(0);
+		assertEquals(expected, expr.evaluate(input).toString());
+		assertTrue(expr.isCompiled());
+		try {
+			Expression.jsonata("names.$abs()").evaluate(input);
+			fail("Expected the context value to be rejected");
+		} catch (EvaluateRuntimeException e) {
+			assertEquals("Context value is not a compatible type with argument 1 of function \"$abs\"",
+					e.getMessage());
+		}
+	}
+
+	@Test
+	public void testExpressionScope() throws Exception {
+		Expression expr = Expression.jsonata("$sum(items.$convert(price, currency))");
+		expr.registerFunction("convert", "<ns:n>", CONVERT);
+		assertEquals("35.0", expr.evaluate(json(
+				"{\"items\":[{\"price\":10,\"currency\":\"EUR\"},{\"price\":30,\"currency\":\"USD\"}]}"))
+				.toString());
+		// not visible to other expressions
+		try {
+			Expression.jsonata("$convert(1, \"EUR\")").evaluate(null);
+			fail("Expected an unknown function");
+		} catch (EvaluateRuntimeException e) {
+			assertEquals("Unknown function: $convert", e.getMessage());
+		}
+	}
+
+	@Test
+	public void testArityCheckedOnRegistration() throws Exception {
+		Expression expr = Expression.jsonata("$convert(1) + $convert(1, \"EUR\", 3)");
+		try {
+			expr.registerFunction("$convert", "<ns:n>", CONVERT);
+			fail("Expected the call with 1 argument to be rejected");
+		} catch (ParseException e) {
+			assertEquals("Function $convert expects 2 arguments but was called with 1 at line 1 column 0",
+					e.getMessage());
+		}
+		// a parameter taken from the context may be left out
+		expr = Expression.jsonata("name.$shout()");
+		expr.registerFunction("shout", "<s-:s>", args -> new TextNode(args[0].asText().toUpperCase() + "!"));
+		assertEquals("\"HI!\"", expr.evaluate(json("{\"name\":\"hi\"}")).toString());
+	}
+
+	@Test
+	public void testEnvironmentScope() throws Exception {
+		AtomicInteger calls = new AtomicInteger();
+		BindingEnvironment env = BindingEnvironment.EMPTY.with("rate", new DoubleNode(2.0))
+				.withFunction("twice", "<n:n>", args -> {
+					calls.incrementAndGet();
+					return new DoubleNode(args[0].asDouble() * 2);
+				});
+		assertNull(BindingEnvironment.EMPTY.getNativeFunction("twice"));
+		Expression expr = Expression.jsonata("$twice(a) * $rate");
+		assertEquals("12", expr.evaluate(json("{\"a\":3}"), env).toString());
+		assertEquals(1, calls.get());
+		try {
+			Expression.jsonata("$twice(1, 2)").evaluate(null, env);
+			fail("Expected the call with 2 arguments to be rejected");
+		} catch (EvaluateRuntimeException e) {
+			assertEquals("Argument 2 of function $twice does not match function signature", e.getMessage());
+		}
+	}
+
+	@Test
+	public void testReplacesBuiltInAndHigherOrder() throws Exception {
+		Expression expr = Expression.jsonata("[$uppercase(\"a\"), $map([1, 2], $inc)]");
+		expr.registerFunction("uppercase", "<s:s>", args -> new TextNode("up:" + args[0].asText()));
+		expr.registerFunction("inc", "<n:n>", args -> new DoubleNode(args[0].asDouble() + 1));
+		assertEquals("[\"up:a\",[2.0,3.0]]", expr.evaluate(null).toString());
+	}
+
+	@Test
+	public void testCompiled() throws Exception {
+		Expression expr = Expression.jsonata("$convert(price, currency) + 1");
+		expr.registerFunction("convert", "<ns:n>", CONVERT);
+		expr.setCompileThreshold(0);
+		JsonNode input = json("{\"price\":8,\"currency\":\"EUR\"}");
+		assertEquals("5", expr.evaluate(input).toString());
+		assertTrue(expr.isCompiled());
+		assertEquals("5", expr.evaluate(input).toString());
+	}
+}
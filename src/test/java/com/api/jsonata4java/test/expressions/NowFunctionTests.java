@@ -77,7 +77,9 @@ public class NowFunctionTests {
             {"$now(10/3.0)", null, ERR_ARG1BADTYPE}, //
             {"$now('1')",    null, ERR_ARG1BADTYPE}, //
             {"$now(a.b.c)",  null, ERR_ARG1BADTYPE}, //
-			{ "$now(null)", null, ERR_ARG1BADTYPE } //
+			{ "$now(null)", null, ERR_ARG1BADTYPE }, //
+			{ "{\"now\": $now(), \"delay\": $sum([1..10000]), \"later\": $now()}.(later = now)", "true", null }, //
+			{ "$toMillis($now()) = $millis()", "true", null } //
             // TODO: {"$now(\"[Y0000]\")", "2019", null}
             // TODO: Need to work out how to test the function since we cannot predict the string that is returned
             // {"$now()",    null, null}
@@ -0,0 +1,115 @@
+/**
+ * (c) Copyright 2018, 2019 IBM Corporation
+ * 1 New Orchard Road, 
+ * Armonk, New York, 10504-1722
+ * United States
+ * +1 914 499 1900
+ * support: Nathaniel Mills wnm3@us.ibm.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.api.jsonata4java.test.expressions;
+
+import java.util.Random;
+
+import com.api.jsonata4java.Expression;
+import com.api.jsonata4java.expressions.Expressions;
+import com.api.jsonata4java.expressions.utils.NumberUtils;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Times $number over 1M mixed integer and decimal strings, and the conversion
+ * of those strings by the single pass scanner against the Long.valueOf then
+ * Double.valueOf conversion by exceptions it replaced. Also times an
+ * arithmetic expression over many literals with their values converted when
+ * it is parsed against converting them each time they are visited.
+ */
+public class NumberBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		int size = 1000000;
+		Random random = new Random(49);
+		ObjectNode input = JsonNodeFactory.instance.objectNode();
+		ArrayNode values = input.putArray("values");
+		String[] strings = new String[size];
+		for (int i = 0; i < size; i++) {
+			switch (i % 4) {
+				case 0:
+					strings[i] = Integer.toString(random.nextInt());
+					break;
+				case 1:
+					strings[i] = String.format("%.2f", random.nextDouble() * 10000);
+					break;
+				case 2:
+					strings[i] = Double.toString(random.nextGaussian());
+					break;
+				default:
+					strings[i] = random.nextInt(100) + "." + random.nextInt(1000) + "e" + (random.nextInt(20) - 10);
+			}
+			values.add(strings[i]);
+		}
+		Expression number = Expression.jsonata("$count($map(values, $number))");
+		StringBuilder sum = new StringBuilder("0");
+		for (int i = 0; i < 200; i++) {
+			sum.append(i % 2 == 0 ? " + " : " - ").append(i).append(".5");
+		}
+		Expressions literals = Expressions.parse("$sum([1..10000].(" + sum + "))");
+		Expressions unconverted = Expressions.parse("$sum([1..10000].(" + sum + "))");
+		unconverted.getLiterals().clear();
+		for (int round = 0; round < 5; round++) {
+			long start = System.nanoTime();
+			JsonNode count = number.evaluate(input);
+			long numberTime = System.nanoTime() - start;
+
+			start = System.nanoTime();
+			double scanned = 0;
+			for (String string : strings) {
+				scanned += NumberUtils.convertNumberToValueNode(string).doubleValue();
+			}
+			long scanTime = System.nanoTime() - start;
+
+			start = System.nanoTime();
+			double converted = 0;
+			for (String string : strings) {
+				converted += convertByExceptions(string);
+			}
+			long exceptionTime = System.nanoTime() - start;
+
+			start = System.nanoTime();
+			JsonNode total = literals.evaluate(null);
+			long literalTime = System.nanoTime() - start;
+
+			start = System.nanoTime();
+			unconverted.evaluate(null);
+			long unconvertedTime = System.nanoTime() - start;
+
+			System.out.printf(
+					"$number over %d strings %5d ms (%s); converting them: scanner %4d ms (%.1f), exceptions %4d ms (%.1f); 2M literals converted at parse %4d ms (%s), when visited %4d ms%n",
+					size, numberTime / 1000000, count, scanTime / 1000000, scanned, exceptionTime / 1000000,
+					converted, literalTime / 1000000, total, unconvertedTime / 1000000);
+		}
+	}
+
+	static double convertByExceptions(String number) {
+		try {
+			return Long.valueOf(number);
+		} catch (NumberFormatException e) {
+			return Double.valueOf(number);
+		}
+	}
+}
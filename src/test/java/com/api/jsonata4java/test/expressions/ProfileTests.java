@@ -0,0 +1,108 @@
+/**
+ * (c) Copyright 2018, 2019 IBM Corporation
+ * 1 New Orchard Road, 
+ * Armonk, New York, 10504-1722
+ * United States
+ * +1 914 499 1900
+ * support: Nathaniel Mills wnm3@us.ibm.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.api.jsonata4java.test.expressions;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.api.jsonata4java.Expression;
+import com.api.jsonata4java.expressions.metrics.EvaluationProfile;
+import com.api.jsonata4java.expressions.metrics.EvaluationProfile.NodeProfile;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class ProfileTests {
+
+	ObjectMapper mapper = new ObjectMapper();
+
+	@Test
+	public void testProfile() throws Exception {
+		Expression expr = Expression.jsonata("$map(items[price > 10],\n  function($v){$v.name & '!'})");
+		JsonNode input = mapper.readTree("{\"items\":[{\"name\":\"a\",\"price\":5},{\"name\":\"b\",\"price\":20},"
+				+ "{\"name\":\"c\",\"price\":30}]}");
+		EvaluationProfile profile = expr.profile(input);
+		assertEquals("[\"b!\",\"c!\"]", profile.getResult().toString());
+
+		NodeProfile root = profile.getRoot();
+		assertNotNull(root);
+		assertEquals("map_function", root.getRule());
+		assertEquals(1L, root.getCount());
+		assertEquals(2L, root.getCardinality());
+		assertEquals(1, root.getLine());
+		assertEquals(0, root.getColumn());
+		assertTrue(root.getInclusiveNanos() >= root.getExclusiveNanos());
+
+		NodeProfile filter = find(root, "array");
+		assertNotNull(filter);
+		assertEquals("items[price > 10]", filter.getSource());
+		assertEquals(1L, filter.getCount());
+		assertEquals(2L, filter.getCardinality());
+		assertEquals(5, filter.getColumn());
+
+		NodeProfile concat = find(root, "concat_op");
+		assertNotNull(concat);
+		assertEquals("$v.name & '!'", concat.getSource());
+		assertEquals(2L, concat.getCount());
+		assertEquals(2L, concat.getCardinality());
+		assertEquals(2, concat.getLine());
+
+		long childNanos = 0L;
+		for (NodeProfile child : root.getChildren()) {
+			childNanos += child.getInclusiveNanos();
+		}
+		assertTrue(root.getInclusiveNanos() >= childNanos);
+
+		JsonNode json = profile.toJson();
+		assertEquals("map_function", json.get("rule").asText());
+		assertTrue(json.get("children").isArray());
+		String text = profile.toString();
+		assertTrue(text, text.startsWith("map_function [1:0] "));
+		assertTrue(text, text.contains("concat_op [2:15] $v.name & '!'  count=2 "));
+	}
+
+	@Test
+	public void testDisabled() throws Exception {
+		Expression expr = Expression.jsonata("a.b");
+		assertEquals("1", expr.evaluate(mapper.readTree("{\"a\":{\"b\":1}}")).toString());
+		EvaluationProfile profile = new EvaluationProfile();
+		assertNull(profile.getRoot());
+		assertEquals("", profile.toString());
+	}
+
+	NodeProfile find(NodeProfile node, String rule) {
+		if (node.getRule().equals(rule)) {
+			return node;
+		}
+		for (NodeProfile child : node.getChildren()) {
+			NodeProfile found = find(child, rule);
+			if (found != null) {
+				return found;
+			}
+		}
+		return null;
+	}
+}
@@ -0,0 +1,112 @@
+/**
+ * (c) Copyright 2018, 2019 IBM Corporation
+ * 1 New Orchard Road, 
+ * Armonk, New York, 10504-1722
+ * United States
+ * +1 914 499 1900
+ * support: Nathaniel Mills wnm3@us.ibm.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.api.jsonata4java.test.expressions;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.api.jsonata4java.Expression;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Compares the heap used by an export expression when its result is built and
+ * then written, and when it is written as it is produced. The heap in use
+ * (after a collection) is sampled half way through the output. The optional
+ * argument is the number of records (default 200000).
+ */
+public class ResultWriterBenchmark {
+
+	/**
+	 * Discards the output, sampling the heap in use once half of it was written
+	 */
+	static class SamplingStream extends OutputStream {
+		final long _sampleAt;
+		long _size = 0L;
+		long _sample = -1L;
+
+		SamplingStream(long sampleAt) {
+			_sampleAt = sampleAt;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			count(1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			count(len);
+		}
+
+		void count(int len) {
+			_size += len;
+			if (_sample < 0L && _size >= _sampleAt) {
+				_sample = usedHeap();
+			}
+		}
+	}
+
+	static long usedHeap() {
+		System.gc();
+		Runtime runtime = Runtime.getRuntime();
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	public static void main(String[] args) throws Exception {
+		int records = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+		StringBuilder sb = new StringBuilder("{\"records\":[");
+		for (int i = 0; i < records; i++) {
+			sb.append(i == 0 ? "" : ",").append("{\"id\":").append(i).append(",\"name\":\"record ").append(i)
+					.append("\",\"qty\":").append(i % 10).append(",\"price\":").append(i % 100).append(".5}");
+		}
+		JsonNode input = new ObjectMapper().readTree(sb.append("]}").toString());
+		sb = null;
+		Expression expression = Expression.jsonata(
+				"$map(records, function($r){ {\"id\": $r.id, \"label\": \"#\" & $r.name, \"total\": $r.qty * $r.price} })");
+		ObjectMapper mapper = new ObjectMapper();
+
+		for (int round = 0; round < 3; round++) {
+			long baseline = usedHeap();
+			long start = System.nanoTime();
+			JsonNode result = expression.evaluate(input);
+			// the result is held while it is written
+			long builtHeap = usedHeap() - baseline;
+			SamplingStream built = new SamplingStream(Long.MAX_VALUE);
+			mapper.writeValue(built, result);
+			long builtTime = System.nanoTime() - start;
+			result = null;
+
+			baseline = usedHeap();
+			SamplingStream streamed = new SamplingStream(built._size / 2);
+			start = System.nanoTime();
+			expression.evaluate(input, streamed);
+			long streamedTime = System.nanoTime() - start;
+			long streamedHeap = streamed._sample - baseline;
+
+			System.out.printf("%d records, %d MB of JSON: built then written %d ms holding %d MB,"
+					+ " streamed %d ms holding %d MB%n", records, built._size >> 20, builtTime / 1000000,
+					builtHeap >> 20, (streamedTime) / 1000000, Math.max(0L, streamedHeap) >> 20);
+		}
+	}
+}
@@ -0,0 +1,115 @@
+/**
+ * (c) Copyright 2018, 2019 IBM Corporation
+ * 1 New Orchard Road, 
+ * Armonk, New York, 10504-1722
+ * United States
+ * +1 914 499 1900
+ * support: Nathaniel Mills wnm3@us.ibm.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.api.jsonata4java.test.expressions;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+
+import org.junit.Test;
+
+import com.api.jsonata4java.Expression;
+import com.api.jsonata4java.expressions.EvaluateRuntimeException;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+
+public class ResultWriterTests {
+
+	static final String INPUT = "{\"records\":[{\"id\":1,\"tags\":[\"a\",\"b\"],\"v\":[[1,2]]},{\"id\":2,\"tags\":\"c\"},"
+			+ "{\"id\":3,\"tags\":[\"d\"]},{\"x\":4}],\"one\":[{\"id\":1}],\"none\":[],\"obj\":{\"id\":5},\"n\":[1,[2,[3]]]}";
+
+	static final String[] EXPRESSIONS = { "$map(records, function($r){ {\"key\": $r.id} })",
+			"$map(records, function($r, $i){ $r.id + $i })", "$map(none, function($r){ $r })",
+			"$map(records.id, $string)", "($f := function($r){ $r.id * 10 }; $map(records, $f))",
+			"$map(records, function($r){ $r.missing })", "records.id", "records.tags", "records.v", "one.id",
+			"none.id", "records.missing", "obj.id", "records.{\"id\": id, \"n\": $count(tags)}",
+			"records[tags = \"c\"].id", "n", "[1, records.id, [2, 3], missing, 4..6, one.id]", "[]", "[missing..3]",
+			"[records.id, [records.tags, none.id]]", "($x := 2; [$x, records.id])", "(records.id)",
+			"missing", "records.id ~> $map(function($v){ $v * 2 })", "$sum(records.id)", "\"text\"" };
+
+	static JsonNode input() throws Exception {
+		return new ObjectMapper().readTree(INPUT);
+	}
+
+	@Test
+	public void testSameAsEvaluate() throws Exception {
+		JsonNode input = input();
+		for (String text : EXPRESSIONS) {
+			Expression expression = Expression.jsonata(text);
+			JsonNode expected = expression.evaluate(input);
+			StringWriter writer = new StringWriter();
+			JsonGenerator generator = new JsonFactory().createGenerator(writer);
+			boolean written = expression.evaluate(input, generator);
+			generator.close();
+			assertEquals(text, expected != null, written);
+			assertEquals(text, expected == null ? "" : expected.toString(), writer.toString());
+
+			ByteArrayOutputStream output = new ByteArrayOutputStream();
+			assertEquals(text, expected != null, expression.evaluate(input, output));
+			assertEquals(text, expected == null ? "" : expected.toString(), output.toString("UTF-8"));
+		}
+	}
+
+	@Test
+	public void testWrittenAsProduced() throws Exception {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		JsonGenerator generator = new ObjectMapper().getFactory().createGenerator(output);
+		Expression expression = Expression
+				.jsonata("$map(records, function($r){ {\"id\": $r.id, \"before\": $written()} })");
+		// the number of bytes of the result written when the function is called
+		expression.registerFunction("$written", "<:n>",
+				args -> JsonNodeFactory.instance.numberNode(output.size() + generator.getOutputBuffered()));
+		assertTrue(expression.evaluate(input(), generator));
+		JsonNode result = new ObjectMapper().readTree(output.toByteArray());
+		assertEquals(4, result.size());
+		// the opening bracket only, then each member as it was produced
+		assertEquals(1, result.get(0).get("before").asInt());
+		for (int i = 1; i < result.size(); i++) {
+			assertTrue(result.toString(), result.get(i).get("before").asInt() > result.get(i - 1).get("before").asInt());
+		}
+	}
+
+	@Test
+	public void testUndefinedAndErrors() throws Exception {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		assertFalse(Expression.jsonata("records.missing").evaluate(input(), output));
+		assertEquals(0, output.size());
+		try {
+			Expression.jsonata("$map(records, function($r){ $r.id.x & true.y })").evaluate(input(), output);
+			throw new AssertionError("Expected the evaluation to fail");
+		} catch (EvaluateRuntimeException e) {
+			// the same error as when the result is built
+			try {
+				Expression.jsonata("$map(records, function($r){ $r.id.x & true.y })").evaluate(input());
+			} catch (EvaluateRuntimeException e2) {
+				assertEquals(e2.getMessage(), e.getMessage());
+			}
+		}
+	}
+}
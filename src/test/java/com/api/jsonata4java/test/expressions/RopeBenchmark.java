@@ -0,0 +1,74 @@
+/**
+ * (c) Copyright 2018, 2019 IBM Corporation
+ * 1 New Orchard Road, 
+ * Armonk, New York, 10504-1722
+ * United States
+ * +1 914 499 1900
+ * support: Nathaniel Mills wnm3@us.ibm.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.api.jsonata4java.test.expressions;
+
+import com.api.jsonata4java.Expression;
+import com.api.jsonata4java.expressions.utils.RopeTextNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Times the accumulation of lines by concatenation in a $reduce, which appends
+ * to a {@link RopeTextNode}, against the same loop forced to copy its
+ * accumulator to a String at every step (as every concatenation did before),
+ * and against a $join of the lines, for growing numbers of lines. The
+ * accumulation should grow linearly like the $join, the copying loop
+ * quadratically.
+ */
+public class RopeBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		Expression appended = Expression
+				.jsonata("$reduce(lines, function($acc, $l){ $acc & $l.text & \"\\n\" }, \"\")");
+		Expression copied = Expression
+				.jsonata("$reduce(lines, function($acc, $l){ $string($acc & $l.text & \"\\n\") }, \"\")");
+		Expression joined = Expression.jsonata("$join(lines.text, \"\\n\")");
+		int[] sizes = { 10000, 20000, 50000 };
+		for (int round = 0; round < 2; round++) {
+			for (int size : sizes) {
+				ArrayNode lines = JsonNodeFactory.instance.arrayNode();
+				for (int i = 0; i < size; i++) {
+					lines.addObject().put("text", "log line " + i + " status=ok latency=" + (i % 97) + "ms");
+				}
+				ObjectNode input = JsonNodeFactory.instance.objectNode();
+				input.set("lines", lines);
+
+				long start = System.nanoTime();
+				int length = appended.evaluate(input).textValue().length();
+				long appendedTime = System.nanoTime() - start;
+
+				start = System.nanoTime();
+				length += copied.evaluate(input).textValue().length();
+				long copiedTime = System.nanoTime() - start;
+
+				start = System.nanoTime();
+				length += joined.evaluate(input).textValue().length();
+				long joinedTime = System.nanoTime() - start;
+
+				System.out.printf("%6d lines: appended %6d ms, copied %6d ms, $join %4d ms (%d chars)%n", size,
+						appendedTime / 1000000, copiedTime / 1000000, joinedTime / 1000000, length / 3);
+			}
+		}
+	}
+}
@@ -0,0 +1,109 @@
+/**
+ * (c) Copyright 2018, 2019 IBM Corporation
+ * 1 New Orchard Road, 
+ * Armonk, New York, 10504-1722
+ * United States
+ * +1 914 499 1900
+ * support: Nathaniel Mills wnm3@us.ibm.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.api.jsonata4java.test.expressions;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Iterator;
+
+import org.junit.Test;
+
+import com.api.jsonata4java.Expression;
+import com.api.jsonata4java.expressions.utils.RopeTextNode;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+
+public class RopeTextNodeTests {
+
+	@Test
+	public void testAppend() {
+		RopeTextNode ab = RopeTextNode.concat("a", "b");
+		RopeTextNode abc = ab.append("c");
+		// appending to a rope that no longer ends its builder copies it
+		RopeTextNode abd = ab.append("d");
+		RopeTextNode abcabd = abc.append(abd);
+		assertEquals("ab", ab.textValue());
+		assertEquals("abc", abc.textValue());
+		assertEquals("abd", abd.textValue());
+		assertEquals("abcabd", abcabd.asText());
+		assertEquals(6, abcabd.length());
+		assertTrue(abcabd.isTextual());
+		assertTrue(abc.equals(new TextNode("abc")));
+		assertEquals(new TextNode("abc").hashCode(), abc.hashCode());
+		assertEquals("\"abc\"", abc.toString());
+		JsonNode flat = RopeTextNode.flatten(abc);
+		assertTrue(flat instanceof TextNode);
+		assertEquals(new TextNode("abc"), flat);
+		assertEquals(abc.textValue(), RopeTextNode.wrap(new StringBuilder("abc")).textValue());
+	}
+
+	@Test
+	public void testReduceConcatenation() throws Exception {
+		ArrayNode lines = JsonNodeFactory.instance.arrayNode();
+		StringBuilder expected = new StringBuilder();
+		for (int i = 0; i < 20000; i++) {
+			lines.addObject().put("text", "line " + i);
+			expected.append("line ").append(i).append('\n');
+		}
+		ObjectNode input = JsonNodeFactory.instance.objectNode();
+		input.set("lines", lines);
+		JsonNode result = Expression.jsonata("$reduce(lines, function($acc, $l){ $acc & $l.text & \"\\n\" }, \"\")")
+				.evaluate(input);
+		assertTrue(result instanceof TextNode);
+		assertEquals(expected.toString(), result.textValue());
+	}
+
+	@Test
+	public void testNotInResults() throws Exception {
+		JsonNode input = new ObjectMapper().readTree("{\"words\":[\"a\",\"b\",\"c\"]}");
+		String[][] tests = { { "$reduce(words, function($acc, $w){ $acc & $w })", "\"abc\"" },
+				{ "$reduce(words, function($acc, $w){ $acc & $w }) = \"abc\"", "true" },
+				{ "{\"all\": $reduce(words, function($acc, $w){ $acc & \",\" & $w })}", "{\"all\":\"a,b,c\"}" },
+				{ "[$reduce(words, function($acc, $w){ $w = \"b\" ? $acc : $acc & $w })]", "[\"ac\"]" },
+				{ "$map(words, function($w){ $w & $w })", "[\"aa\",\"bb\",\"cc\"]" },
+				{ "$map(words, function($w){ $join([$w, $w], \"-\") })", "[\"a-a\",\"b-b\",\"c-c\"]" },
+				{ "$join(words, \"-\") & \"!\"", "\"a-b-c!\"" },
+				{ "$uppercase($reduce(words, function($acc, $w){ $acc & $w }))", "\"ABC\"" },
+				{ "$string(\"a\" & \"b\")", "\"ab\"" },
+				{ "($f := function($w){ $w & \"?\" }; [$f(\"a\") & $f(\"b\"), $f(\"c\")])", "[\"a?b?\",\"c?\"]" },
+				{ "$reduce(words, function($acc, $w){ $acc & $w }, \"\\\"x\\\"\")", "\"\\\"x\\\"abc\"" } };
+		for (String[] test : tests) {
+			JsonNode result = Expression.jsonata(test[0]).evaluate(input);
+			assertEquals(test[0], test[1], result.toString());
+			assertNoRopes(test[0], result);
+		}
+	}
+
+	static void assertNoRopes(String text, JsonNode node) {
+		assertFalse(text, node instanceof RopeTextNode);
+		for (Iterator<JsonNode> it = node.elements(); it.hasNext();) {
+			assertNoRopes(text, it.next());
+		}
+	}
+}
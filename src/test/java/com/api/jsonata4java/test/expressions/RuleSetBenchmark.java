@@ -0,0 +1,80 @@
+/**
+ * (c) Copyright 2018, 2019 IBM Corporation
+ * 1 New Orchard Road, 
+ * Armonk, New York, 10504-1722
+ * United States
+ * +1 914 499 1900
+ * support: Nathaniel Mills wnm3@us.ibm.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.api.jsonata4java.test.expressions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.api.jsonata4java.Expression;
+import com.api.jsonata4java.RuleSet;
+import com.api.jsonata4java.expressions.utils.BooleanUtils;
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Times matching 200 events against 5000 random rules with the RuleSet index
+ * against evaluating every rule on its own
+ */
+public class RuleSetBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		Random random = new Random(29);
+		RuleSet rules = new RuleSet();
+		List<Expression> expressions = new ArrayList<Expression>();
+		for (int i = 0; i < 5000; i++) {
+			String rule = RuleSetTests.randomRule(random);
+			rules.add("rule" + i, rule);
+			expressions.add(Expression.jsonata(rule));
+		}
+		JsonNode[] events = new JsonNode[200];
+		for (int i = 0; i < events.length; i++) {
+			events[i] = RuleSetTests.randomEvent(random);
+		}
+		for (int round = 0; round < 5; round++) {
+			long start = System.nanoTime();
+			long matched = 0;
+			for (JsonNode event : events) {
+				matched += rules.match(event).size();
+			}
+			long indexedTime = System.nanoTime() - start;
+
+			start = System.nanoTime();
+			long evaluated = 0;
+			for (JsonNode event : events) {
+				for (Expression expression : expressions) {
+					try {
+						if (BooleanUtils.convertJsonNodeToBoolean(expression.evaluate(event))) {
+							evaluated++;
+						}
+					} catch (Exception e) {
+						// errors do not match
+					}
+				}
+			}
+			long sequentialTime = System.nanoTime() - start;
+			System.out.printf("%d of %d rules indexed, %d events: indexed %5d ms (%d matches), each rule %5d ms (%d matches)%n",
+					rules.getIndexedRuleCount(), rules.size(), events.length, indexedTime / 1000000, matched,
+					sequentialTime / 1000000, evaluated);
+		}
+	}
+}
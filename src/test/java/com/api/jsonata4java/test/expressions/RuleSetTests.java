@@ -0,0 +1,172 @@
+/**
+ * (c) Copyright 2018, 2019 IBM Corporation
+ * 1 New Orchard Road, 
+ * Armonk, New York, 10504-1722
+ * United States
+ * +1 914 499 1900
+ * support: Nathaniel Mills wnm3@us.ibm.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.api.jsonata4java.test.expressions;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.api.jsonata4java.Expression;
+import com.api.jsonata4java.RuleSet;
+import com.api.jsonata4java.expressions.utils.BooleanUtils;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class RuleSetTests {
+
+	static final String[] TYPES = { "alarm", "event", "metric", "log" };
+	static final String[] SITES = { "a", "b", "c", "d", "e" };
+
+	ObjectMapper mapper = new ObjectMapper();
+
+	@Test
+	public void testMatch() throws Exception {
+		RuleSet rules = new RuleSet();
+		rules.add("r1", "type = \"alarm\" and severity >= 3 and site in [\"a\",\"b\"]");
+		rules.add("r2", "type = \"alarm\" and severity < 3");
+		rules.add("r3", "\"event\" = type");
+		rules.add("r4", "severity > 1 and severity <= 4");
+		rules.add("r5", "$contains(message, \"disk\")");
+		rules.add("r6", "(site in [\"c\"]) and (2 < severity) and $count(tags) > 1");
+		rules.add("r7", "type = \"alarm\" or type = \"event\"");
+		assertEquals(5, rules.getIndexedRuleCount());
+
+		assertEquals(set("r1", "r4", "r7"), rules.match(mapper.readTree(
+				"{\"type\":\"alarm\",\"severity\":3,\"site\":\"a\",\"message\":\"cpu\"}")));
+		assertEquals(set("r2", "r4", "r5", "r7"), rules.match(mapper.readTree(
+				"{\"type\":\"alarm\",\"severity\":2,\"site\":\"c\",\"message\":\"disk full\"}")));
+		assertEquals(set("r3", "r6", "r7"), rules.match(mapper.readTree(
+				"{\"type\":\"event\",\"severity\":5.5,\"site\":\"c\",\"tags\":[1,2]}")));
+		assertEquals(set(), rules.match(mapper.readTree("{}")));
+		// values the index can not compare are evaluated in full
+		assertEquals(set("r4"), rules.match(mapper.readTree("{\"type\":[\"alarm\",\"x\"],\"severity\":4}")));
+	}
+
+	/**
+	 * Compares the indexed matching with evaluating every rule on its own
+	 */
+	@Test
+	public void testMatchesSequentialEvaluation() throws Exception {
+		Random random = new Random(26);
+		Map<String, Expression> expressions = new LinkedHashMap<String, Expression>();
+		RuleSet rules = new RuleSet();
+		for (int i = 0; i < 500; i++) {
+			String rule = randomRule(random);
+			expressions.put("rule" + i, Expression.jsonata(rule));
+			rules.add("rule" + i, rule);
+		}
+		for (int i = 0; i < 300; i++) {
+			JsonNode event = randomEvent(random);
+			Set<String> expected = new LinkedHashSet<String>();
+			for (Map.Entry<String, Expression> entry : expressions.entrySet()) {
+				try {
+					if (BooleanUtils.convertJsonNodeToBoolean(entry.getValue().evaluate(event))) {
+						expected.add(entry.getKey());
+					}
+				} catch (Exception e) {
+					// errors do not match
+				}
+			}
+			assertEquals(event.toString(), expected, rules.match(event));
+		}
+	}
+
+	static String randomRule(Random random) {
+		StringBuilder sb = new StringBuilder();
+		switch (random.nextInt(6)) {
+		case 0:
+			sb.append("type = \"").append(TYPES[random.nextInt(TYPES.length)]).append("\"");
+			break;
+		case 1:
+			sb.append("site in [\"").append(SITES[random.nextInt(SITES.length)]).append("\",\"")
+					.append(SITES[random.nextInt(SITES.length)]).append("\"]");
+			break;
+		case 2:
+			sb.append("severity >= ").append(random.nextInt(6));
+			break;
+		case 3:
+			sb.append(random.nextInt(6)).append(" > severity");
+			break;
+		case 4:
+			sb.append("code = ").append(random.nextInt(4)).append(random.nextBoolean() ? ".5" : "");
+			break;
+		default:
+			sb.append("$count(tags) > ").append(random.nextInt(3));
+			break;
+		}
+		if (random.nextBoolean()) {
+			sb.append(" and severity < ").append(random.nextInt(8));
+		}
+		if (random.nextBoolean()) {
+			sb.append(" and type != \"").append(TYPES[random.nextInt(TYPES.length)]).append("\"");
+		}
+		return sb.toString();
+	}
+
+	static JsonNode randomEvent(Random random) throws Exception {
+		StringBuilder sb = new StringBuilder("{");
+		if (random.nextInt(10) > 0) {
+			sb.append("\"type\":\"").append(TYPES[random.nextInt(TYPES.length)]).append("\",");
+		}
+		if (random.nextInt(10) > 0) {
+			sb.append("\"site\":\"").append(SITES[random.nextInt(SITES.length)]).append("\",");
+		}
+		switch (random.nextInt(5)) {
+		case 0:
+			sb.append("\"severity\":\"").append(random.nextInt(6)).append("\",");
+			break;
+		case 1:
+			sb.append("\"severity\":").append(random.nextInt(6)).append(".5,");
+			break;
+		case 2:
+			break;
+		default:
+			sb.append("\"severity\":").append(random.nextInt(6)).append(",");
+			break;
+		}
+		switch (random.nextInt(4)) {
+		case 0:
+			sb.append("\"code\":\"").append(random.nextInt(4)).append(".5\",");
+			break;
+		case 1:
+			sb.append("\"code\":").append(random.nextInt(4)).append(".5,");
+			break;
+		default:
+			sb.append("\"code\":").append(random.nextInt(4)).append(",");
+			break;
+		}
+		sb.append("\"tags\":[1,2]}");
+		return new ObjectMapper().readTree(sb.toString());
+	}
+
+	static Set<String> set(String... ids) {
+		return new LinkedHashSet<String>(Arrays.asList(ids));
+	}
+}
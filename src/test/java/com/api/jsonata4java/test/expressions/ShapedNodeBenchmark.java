@@ -0,0 +1,129 @@
+/**
+ * (c) Copyright 2018, 2019 IBM Corporation
+ * 1 New Orchard Road, 
+ * Armonk, New York, 10504-1722
+ * United States
+ * +1 914 499 1900
+ * support: Nathaniel Mills wnm3@us.ibm.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.api.jsonata4java.test.expressions;
+
+import com.api.jsonata4java.Expression;
+import com.api.jsonata4java.expressions.shaped.FieldAccessor;
+import com.api.jsonata4java.expressions.shaped.ShapedNodeLoader;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Compares the heap footprint and field access speed of documents read by an
+ * ObjectMapper (ObjectNodes) and by a {@link ShapedNodeLoader}. Run with e.g.
+ * -Xmx2g; the optional argument is the number of records (default 200000).
+ */
+public class ShapedNodeBenchmark {
+
+	static final int FIELDS = 30;
+
+	public static void main(String[] args) throws Exception {
+		int records = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+		String json = document(records);
+		System.out.println("Document: " + records + " records of " + FIELDS + " fields, " + json.length() / 1024
+				+ " KB of JSON");
+
+		long before = usedHeap();
+		JsonNode plain = new ObjectMapper().readTree(json);
+		long plainHeap = usedHeap() - before;
+		before = usedHeap();
+		JsonNode shaped = new ShapedNodeLoader().load(json);
+		long shapedHeap = usedHeap() - before;
+		System.out.printf("Heap: ObjectNode %d KB, shaped %d KB (%.1fx smaller)%n", plainHeap / 1024,
+				shapedHeap / 1024, (double) plainHeap / shapedHeap);
+
+		JsonNode plainRecords = plain.get("records");
+		JsonNode shapedRecords = shaped.get("records");
+		FieldAccessor accessor = new FieldAccessor("f27");
+		for (int round = 0; round < 3; round++) {
+			long start = System.nanoTime();
+			long sum = 0;
+			for (JsonNode record : plainRecords) {
+				sum += record.get("f27").asLong();
+			}
+			long plainNanos = System.nanoTime() - start;
+			start = System.nanoTime();
+			for (JsonNode record : shapedRecords) {
+				sum -= accessor.get(record).asLong();
+			}
+			long shapedNanos = System.nanoTime() - start;
+			System.out.printf("Field access: ObjectNode.get %.1f ns, shaped inline cache %.1f ns (check %d)%n",
+					(double) plainNanos / records, (double) shapedNanos / records, sum);
+		}
+
+		Expression expr = Expression.jsonata("$sum(records[f3 > 10].f27)");
+		expr.setCompileThreshold(0);
+		for (int round = 0; round < 3; round++) {
+			long start = System.nanoTime();
+			JsonNode plainResult = expr.evaluate(plain);
+			long plainNanos = System.nanoTime() - start;
+			start = System.nanoTime();
+			JsonNode shapedResult = expr.evaluate(shaped);
+			long shapedNanos = System.nanoTime() - start;
+			System.out.printf("Evaluation: ObjectNode %.1f ms, shaped %.1f ms (%s, %s)%n", plainNanos / 1e6,
+					shapedNanos / 1e6, plainResult, shapedResult);
+		}
+		// keep both documents reachable until measured
+		System.out.println(plain.size() + shaped.size());
+	}
+
+	static String document(int records) {
+		StringBuilder sb = new StringBuilder("{\"records\":[");
+		for (int r = 0; r < records; r++) {
+			sb.append(r == 0 ? "{" : ",{");
+			for (int f = 0; f < FIELDS; f++) {
+				if (f > 0) {
+					sb.append(',');
+				}
+				sb.append("\"f").append(f).append("\":");
+				switch (f % 5) {
+				case 0:
+					sb.append('"').append("status").append(r % 4).append('"');
+					break;
+				case 1:
+					sb.append(r % 2 == 0);
+					break;
+				case 2:
+					sb.append((r * 31 + f) % 1000).append('.').append(r % 100);
+					break;
+				case 3:
+					sb.append((r + f) % 50);
+					break;
+				default:
+					sb.append(r * 7L + f);
+				}
+			}
+			sb.append('}');
+		}
+		return sb.append("]}").toString();
+	}
+
+	static long usedHeap() throws InterruptedException {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 4; i++) {
+			System.gc();
+			Thread.sleep(50);
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}
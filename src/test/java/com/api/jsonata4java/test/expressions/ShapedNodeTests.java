@@ -0,0 +1,130 @@
+/**
+ * (c) Copyright 2018, 2019 IBM Corporation
+ * 1 New Orchard Road, 
+ * Armonk, New York, 10504-1722
+ * United States
+ * +1 914 499 1900
+ * support: Nathaniel Mills wnm3@us.ibm.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.api.jsonata4java.test.expressions;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.api.jsonata4java.Expression;
+import com.api.jsonata4java.expressions.shaped.FieldAccessor;
+import com.api.jsonata4java.expressions.shaped.ShapedNodeLoader;
+import com.api.jsonata4java.expressions.shaped.ShapedObjectNode;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+
+public class ShapedNodeTests {
+
+	static final String ORDERS = "{\"orders\":["
+			+ "{\"id\":1,\"customer\":\"Ann\",\"total\":12.5,\"paid\":true,\"items\":[{\"sku\":\"a\",\"qty\":2}]},"
+			+ "{\"id\":2,\"customer\":\"Bob\",\"total\":7,\"paid\":false,\"items\":[{\"sku\":\"b\",\"qty\":1},{\"sku\":\"a\",\"qty\":3}]},"
+			+ "{\"id\":3,\"customer\":\"Cy\",\"total\":null,\"paid\":true,\"items\":[],\"note\":\"late\"},"
+			+ "{\"customer\":\"Di\",\"id\":4,\"total\":99999999999,\"paid\":true,\"items\":[{\"sku\":\"c\",\"qty\":1}]}],"
+			+ "\"big\":123456789012345678901234567890,\"dup\":1,\"dup\":2,\"text\":\"\\u00e9t\\u00e9\",\"empty\":{}}";
+
+	static final String[] EXPRESSIONS = { "orders.customer", "$sum(orders.items.qty)", "orders[paid].id",
+			"orders.items[sku='a'].qty", "orders[id > 1].{\"who\": customer, \"n\": $count(items)}",
+			"$count(orders.note)", "orders[id < 3].(total * 2)", "dup", "big", "text & '!'", "empty", "$keys(orders[0])",
+			"orders[0].items[0].sku = 'a' ? 'yes' : 'no'" };
+
+	@Test
+	public void testLoadMatchesObjectMapper() throws Exception {
+		JsonNode expected = new ObjectMapper().readTree(ORDERS);
+		JsonNode loaded = new ShapedNodeLoader().load(ORDERS);
+		assertTrue(loaded instanceof ShapedObjectNode);
+		assertEquals(expected, loaded);
+		assertEquals(loaded, expected);
+		assertEquals(expected.toString(), loaded.toString());
+		assertEquals(expected.hashCode(), loaded.hashCode());
+	}
+
+	@Test
+	public void testSharedShapes() throws Exception {
+		ShapedNodeLoader loader = new ShapedNodeLoader();
+		JsonNode orders = loader.load(ORDERS).get("orders");
+		ShapedObjectNode first = (ShapedObjectNode) orders.get(0);
+		assertSame(first.getShape(), ((ShapedObjectNode) orders.get(1)).getShape());
+		// different fields, or the same fields in a different order, give
+		// different shapes
+		assertTrue(first.getShape() != ((ShapedObjectNode) orders.get(2)).getShape());
+		assertTrue(first.getShape() != ((ShapedObjectNode) orders.get(3)).getShape());
+		int shapes = loader.getShapeCount();
+		loader.load(ORDERS);
+		assertEquals(shapes, loader.getShapeCount());
+		// short strings are shared
+		assertSame(orders.get(0).get("items").get(0).get("sku"), orders.get(1).get("items").get(1).get("sku"));
+	}
+
+	@Test
+	public void testEvaluation() throws Exception {
+		JsonNode plain = new ObjectMapper().readTree(ORDERS);
+		JsonNode shaped = new ShapedNodeLoader().load(ORDERS);
+		for (String expression : EXPRESSIONS) {
+			Expression expr = Expression.jsonata(expression);
+			JsonNode expected = expr.evaluate(plain);
+			assertEquals(expression, expected, expr.evaluate(shaped));
+			expr.setCompileThreshold(0);
+			assertEquals(expression, expected, expr.evaluate(shaped));
+			assertEquals(expression, expected, expr.evaluate(shaped));
+		}
+	}
+
+	@Test
+	public void testFieldAccessor() throws Exception {
+		JsonNode orders = new ShapedNodeLoader().load(ORDERS).get("orders");
+		FieldAccessor id = new FieldAccessor("id");
+		FieldAccessor note = new FieldAccessor("note");
+		for (int pass = 0; pass < 2; pass++) {
+			for (int i = 0; i < orders.size(); i++) {
+				assertEquals(i + 1, id.get(orders.get(i)).intValue());
+				assertEquals(i == 2 ? "late" : null, note.get(orders.get(i)) == null ? null : note.get(orders.get(i)).asText());
+			}
+		}
+		assertEquals(1, id.get(new ObjectMapper().readTree("{\"id\":1}")).intValue());
+		assertNull(id.get(TextNode.valueOf("id")));
+	}
+
+	@Test
+	public void testChanges() throws Exception {
+		ObjectNode order = (ObjectNode) new ShapedNodeLoader().load(ORDERS).get("orders").get(0);
+		ShapedObjectNode shaped = (ShapedObjectNode) order;
+		assertNotNull(shaped.getShape());
+		// replacing a value keeps the shape
+		order.put("customer", "Eve");
+		assertNotNull(shaped.getShape());
+		assertEquals("Eve", new FieldAccessor("customer").get(order).asText());
+		// adding or removing a field does not
+		order.put("note", "new");
+		order.remove("paid");
+		assertNull(shaped.getShape());
+		assertEquals("{\"id\":1,\"customer\":\"Eve\",\"total\":12.5,\"items\":[{\"sku\":\"a\",\"qty\":2}],\"note\":\"new\"}",
+				order.toString());
+		assertEquals("new", new FieldAccessor("note").get(order).asText());
+	}
+}
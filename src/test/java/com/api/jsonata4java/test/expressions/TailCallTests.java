@@ -0,0 +1,90 @@
+/**
+ * (c) Copyright 2018, 2019 IBM Corporation
+ * 1 New Orchard Road, 
+ * Armonk, New York, 10504-1722
+ * United States
+ * +1 914 499 1900
+ * support: Nathaniel Mills wnm3@us.ibm.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.api.jsonata4java.test.expressions;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import com.api.jsonata4java.Expression;
+
+public class TailCallTests {
+
+	String evaluate(String expression) throws Exception {
+		return Expression.jsonata(expression).evaluate(null).toString();
+	}
+
+	@Test
+	public void testTailRecursion() throws Exception {
+		assertEquals("500000500000",
+				evaluate("($loop := function($i, $acc){ $i > 0 ? $loop($i - 1, $acc + $i) : $acc }; $loop(1000000, 0))"));
+		// the last expression of a block is in tail position
+		assertEquals("\"done\"",
+				evaluate("($f := function($n){ ($m := $n - 1; $m < 0 ? 'done' : $f($m)) }; $f(1000000))"));
+	}
+
+	@Test
+	public void testMutualRecursion() throws Exception {
+		assertEquals("false", evaluate("($even := function($n){ $n = 0 ? true : $odd($n - 1) }; "
+				+ "$odd := function($n){ $n = 0 ? false : $even($n - 1) }; $even(1000001))"));
+	}
+
+	@Test
+	public void testNonTailCalls() throws Exception {
+		assertEquals("3628800", evaluate("($fact := function($n){ $n <= 1 ? 1 : $n * $fact($n - 1) }; $fact(10))"));
+		assertEquals("[8,16,24]", evaluate(
+				"$map([1..3], function($v){ ($g := function($x, $k){ $k = 0 ? $x : $g($x * 2, $k - 1) }; $g($v, 3)) })"));
+	}
+
+	@Test
+	public void testLargeResults() throws Exception {
+		// products beyond the range of a long stay doubles
+		assertEquals("7.257415615307994E306",
+				evaluate("($fact := function($n){ $n <= 1 ? 1 : $n * $fact($n - 1) }; $fact(170))"));
+		assertEquals("7.257415615308004E306", evaluate("($fact := function($n){ ($iter := function($n, $acc){ "
+				+ "$n <= 1 ? $acc : $iter($n - 1, $n * $acc) }; $iter($n, 1)) }; $fact(170))"));
+	}
+
+	@Test
+	public void testMissingArguments() throws Exception {
+		// variables without a value are undefined rather than inherited from the caller
+		String range = "($range := function($start, $end, $step){ ($step := ($step ? $step : 1); "
+				+ "$start + $step > $end ? $start : $append($start, $range($start + $step, $end, $step))) }; ";
+		assertEquals("[0,1,2,3,4,5]", evaluate(range + "$range(0, 5))"));
+		assertEquals("[0,2,4]", evaluate(range + "$range(0, 5, 2))"));
+	}
+
+	@Test
+	public void testArgumentsEvaluatedBeforeBinding() throws Exception {
+		assertEquals("[2,1]", evaluate("($swap := function($a, $b, $n){ $n = 0 ? [$a, $b] : $swap($b, $a, $n - 1) }; "
+				+ "$swap(1, 2, 3))"));
+	}
+
+	@Test
+	public void testDepthLimit() throws Exception {
+		// tail calls do not grow the call depth checked by the timebox
+		Expression expr = Expression.jsonata(
+				"($loop := function($i){ $i > 0 ? $loop($i - 1) : 'end' }; $loop(100000))");
+		assertEquals("\"end\"", expr.evaluate(null, 60000L, 100).toString());
+	}
+}
@@ -58,6 +58,10 @@ public class ToMillisFunctionTests {
 			Constants.FUNCTION_TO_MILLIS);
 	private static final String ERR_MSG_TO_MILLIS_ISO_8601_FORMAT_FOO = String
 			.format(Constants.ERR_MSG_TO_MILLIS_ISO_8601_FORMAT, "foo");
+	private static final String ERR_MSG_ARG2_BAD_TYPE = String.format(Constants.ERR_MSG_ARG2_BAD_TYPE,
+			Constants.FUNCTION_TO_MILLIS);
+	private static final String ERR_MSG_TO_MILLIS_PICTURE = String.format(Constants.ERR_MSG_TO_MILLIS_PICTURE,
+			"[Y0001]-[M01]-[D01]", "2018-01-22x");
 
 	@Parameter(0)
 	public String expression;
@@ -85,7 +89,20 @@ public class ToMillisFunctionTests {
 				{ "$toMillis('2018-01-22T10:02:09.240+01:00')", "1516611729240", null }, //
 				{ "$toMillis('2018-01-22T10:02:09.240-01:00')", "1516618929240", null }, //
 				{ "$toMillis('2018-01-22T10:02:09.240+10:00')", "1516579329240", null }, //
-				{ "$toMillis('2018-01-22T10:02:09.240-10:00')", "1516651329240", null } });
+				{ "$toMillis('2018-01-22T10:02:09.240-10:00')", "1516651329240", null }, //
+				{ "$toMillis('2018-01-22T10:02Z')", "1516615320000", null }, //
+				{ "$toMillis('2018-01-22T10:02:09.2Z')", "1516615329200", null }, //
+				{ "$toMillis('2018-01-22T10:02:09.240567+01:00')", "1516611729240", null }, //
+				{ "$toMillis('2018-02-30T10:02:09.240Z')", null, ERR_MSG_TO_MILLIS_ISO_8601_FORMAT_FOO }, //
+				{ "$toMillis('2018-01-22', '[Y0001]-[M01]-[D01]')", "1516579200000", null }, //
+				{ "$toMillis('20180122', '[Y0001][M01][D01]')", "1516579200000", null }, //
+				{ "$toMillis('01/22/2018 10:02', '[M01]/[D01]/[Y0001] [H01]:[m01]')", "1516615320000", null }, //
+				{ "$toMillis('Monday, 22nd January 2018 10:02am', '[FNn], [D1o] [MNn] [Y] [h]:[m01][P]')",
+						"1516615320000", null }, //
+				{ "$toMillis('2018-01-22T10:02:09.240+01:00', '[Y0001]-[M01]-[D01]T[H01]:[m01]:[s01].[f001][Z01:01t]')",
+						"1516611729240", null }, //
+				{ "$toMillis('2018-01-22x', '[Y0001]-[M01]-[D01]')", null, ERR_MSG_TO_MILLIS_PICTURE }, //
+				{ "$toMillis('2018', 1)", null, ERR_MSG_ARG2_BAD_TYPE } });
 	}
 
 	@Test
@@ -0,0 +1,93 @@
+/**
+ * (c) Copyright 2018, 2019 IBM Corporation
+ * 1 New Orchard Road, 
+ * Armonk, New York, 10504-1722
+ * United States
+ * +1 914 499 1900
+ * support: Nathaniel Mills wnm3@us.ibm.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.api.jsonata4java.test.expressions;
+
+import java.lang.management.ManagementFactory;
+
+import com.api.jsonata4java.Expression;
+import com.api.jsonata4java.expressions.utils.JsonMergeUtils;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Compares the memory allocated by an update of one record of a large document
+ * made by a transform (which copies only the path to the record) with that of
+ * a deepCopy of the document followed by the same change, and of a
+ * non-mutating merge with that of a mutating merge into a deep copy. The
+ * optional argument is the number of records (default 20000, about 5 MB of
+ * JSON).
+ */
+public class TransformBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		int records = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+		StringBuilder sb = new StringBuilder("{\"customers\":[");
+		for (int i = 0; i < records; i++) {
+			sb.append(i == 0 ? "" : ",").append("{\"id\":").append(i).append(",\"name\":\"customer ").append(i)
+					.append("\",\"address\":{\"street\":\"").append(i).append(" Main Street\",\"city\":\"Springfield\"}")
+					.append(",\"orders\":[{\"sku\":\"a").append(i % 100).append("\",\"qty\":").append(i % 7)
+					.append("},{\"sku\":\"b\",\"qty\":1}],\"status\":\"active\"}");
+		}
+		sb.append("],\"updated\":\"2019-01-01\"}");
+		String json = sb.toString();
+		JsonNode document = new ObjectMapper().readTree(json);
+		System.out.println("Document: " + records + " records, " + json.length() / 1024 + " KB of JSON");
+
+		Expression transform = Expression.jsonata("|customers[id=" + records / 2 + "]|{\"status\": \"closed\"}|");
+		Expression indexed = Expression.jsonata("|customers[" + records / 2 + "]|{\"status\": \"closed\"}|");
+		JsonNode patch = new ObjectMapper().readTree("{\"updated\":\"2019-02-01\",\"audit\":{\"by\":\"batch\"}}");
+		for (int round = 0; round < 5; round++) {
+			long before = allocated();
+			JsonNode copy = document.deepCopy();
+			long deepCopy = allocated() - before;
+
+			before = allocated();
+			JsonNode transformed = transform.evaluate(document);
+			long transformBytes = allocated() - before;
+
+			before = allocated();
+			indexed.evaluate(document);
+			long indexedBytes = allocated() - before;
+
+			before = allocated();
+			JsonMergeUtils.merge(document.deepCopy(), patch);
+			long merge = allocated() - before;
+
+			before = allocated();
+			JsonMergeUtils.mergeCopy(document, patch);
+			long mergeCopy = allocated() - before;
+
+			System.out.printf("deepCopy %d KB, transform by predicate %d KB, by index %d KB; "
+					+ "merge into deepCopy %d KB, mergeCopy %d KB%n", deepCopy / 1024, transformBytes / 1024,
+					indexedBytes / 1024, merge / 1024, mergeCopy / 1024);
+			if (copy.equals(transformed)) {
+				throw new IllegalStateException("The transform changed nothing");
+			}
+		}
+	}
+
+	static long allocated() {
+		return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+				.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+}
@@ -0,0 +1,163 @@
+/**
+ * (c) Copyright 2018, 2019 IBM Corporation
+ * 1 New Orchard Road, 
+ * Armonk, New York, 10504-1722
+ * United States
+ * +1 914 499 1900
+ * support: Nathaniel Mills wnm3@us.ibm.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.api.jsonata4java.test.expressions;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import com.api.jsonata4java.Expression;
+import com.api.jsonata4java.expressions.EvaluateRuntimeException;
+import com.api.jsonata4java.expressions.shaped.ShapedNodeLoader;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class TransformTests {
+
+	static final String ACCOUNT = "{\"Account\":{\"Name\":\"Firefly\",\"Order\":["
+			+ "{\"OrderID\":\"1\",\"Product\":[{\"Name\":\"Hat\",\"Price\":34.45,\"Quantity\":2},{\"Name\":\"Bag\",\"Price\":20,\"Quantity\":1}]},"
+			+ "{\"OrderID\":\"2\",\"Product\":[{\"Name\":\"Hat\",\"Price\":34.45,\"Quantity\":4}]}]},"
+			+ "\"Archive\":{\"Order\":[{\"OrderID\":\"0\"}]}}";
+
+	static JsonNode read(String json) throws Exception {
+		return new ObjectMapper().readTree(json);
+	}
+
+	@Test
+	public void testUpdate() throws Exception {
+		JsonNode input = read(ACCOUNT);
+		JsonNode result = Expression.jsonata("|Account.Order.Product|{\"Price\": Price * 2, \"Sale\": true}|")
+				.evaluate(input);
+		assertEquals("[68.9,40,68.9]", Expression.jsonata("Account.Order.Product.Price").evaluate(result).toString());
+		assertEquals("[true,true,true]", Expression.jsonata("Account.Order.Product.Sale").evaluate(result).toString());
+		// the input is not changed
+		assertEquals(read(ACCOUNT), input);
+		// untouched subtrees are shared, the spine to the changes is copied
+		assertSame(input.get("Archive"), result.get("Archive"));
+		assertSame(input.get("Account").get("Name"), result.get("Account").get("Name"));
+		assertTrue(input.get("Account") != result.get("Account"));
+		assertTrue(input.get("Account").get("Order").get(0) != result.get("Account").get("Order").get(0));
+	}
+
+	@Test
+	public void testDelete() throws Exception {
+		JsonNode input = read(ACCOUNT);
+		assertEquals(
+				"{\"Name\":\"Firefly\",\"Order\":[{\"Product\":[{\"Name\":\"Hat\",\"Price\":34.45,\"Quantity\":2},"
+						+ "{\"Name\":\"Bag\",\"Price\":20,\"Quantity\":1}],\"Count\":2},"
+						+ "{\"Product\":[{\"Name\":\"Hat\",\"Price\":34.45,\"Quantity\":4}],\"Count\":1}]}",
+				Expression.jsonata("Account ~> |Order|{\"Count\": $count(Product)}, [\"OrderID\"]|").evaluate(input)
+						.toString());
+		JsonNode result = Expression.jsonata("|Account.Order.Product|{}, \"Quantity\"|").evaluate(input);
+		assertEquals("[\"Hat\",\"Bag\",\"Hat\"]",
+				Expression.jsonata("Account.Order.Product.Name").evaluate(result).toString());
+		assertEquals(null, Expression.jsonata("Account.Order.Product.Quantity").evaluate(result));
+		assertEquals(read(ACCOUNT), input);
+	}
+
+	@Test
+	public void testNoChanges() throws Exception {
+		JsonNode input = read(ACCOUNT);
+		// nothing selected or nothing changed: the input itself
+		assertSame(input, Expression.jsonata("|Nothing|{\"a\": 1}|").evaluate(input));
+		assertSame(input, Expression.jsonata("|Account|{}, \"Missing\"|").evaluate(input));
+		assertEquals(null, Expression.jsonata("Nothing ~> |a|{\"b\": 1}|").evaluate(input));
+	}
+
+	@Test
+	public void testNestedMatches() throws Exception {
+		JsonNode input = read(ACCOUNT);
+		JsonNode result = Expression.jsonata("|**|{\"seen\": true}|").evaluate(input);
+		assertEquals(read(ACCOUNT), input);
+		assertEquals("[true,true,true]", Expression.jsonata("Account.Order.Product.seen").evaluate(result).toString());
+		assertEquals("[true,true]", Expression.jsonata("Account.Order.seen").evaluate(result).toString());
+		// an update replacing an object selected later leaves the replacement
+		result = Expression.jsonata("|Account.Order|{\"Product\": \"none\"}|").evaluate(input);
+		assertEquals("[\"none\",\"none\"]", Expression.jsonata("Account.Order.Product").evaluate(result).toString());
+	}
+
+	@Test
+	public void testDescendantMatches() throws Exception {
+		String json = "{\"a\":{\"P\":[{\"x\":1},{\"x\":2}]},\"b\":{\"c\":{\"P\":[{\"y\":1}],\"d\":[[{\"P\":{\"w\":3}}]]}}}";
+		JsonNode input = read(json);
+		// matches in arrays at any depth are all updated
+		assertEquals("{\"a\":{\"P\":[{\"x\":1,\"z\":1},{\"x\":2,\"z\":1}]},"
+				+ "\"b\":{\"c\":{\"P\":[{\"y\":1,\"z\":1}],\"d\":[[{\"P\":{\"w\":3,\"z\":1}}]]}}}",
+				Expression.jsonata("| **.P | {\"z\":1} |").evaluate(input).toString());
+		assertEquals("{\"a\":{\"x\":{\"k\":1}},\"b\":[{\"x\":{\"k\":1}}]}", Expression
+				.jsonata("| *.x | {\"k\":1} |").evaluate(read("{\"a\":{\"x\":{}},\"b\":[{\"x\":{}}]}")).toString());
+		assertEquals(read(json), input);
+	}
+
+	@Test
+	public void testContextMatches() throws Exception {
+		String json = "{\"arr\":[{\"k\":1},{\"k\":2}],\"a\":[{\"b\":1},[{\"b\":2}]]}";
+		JsonNode input = read(json);
+		// $ in the pattern is the value being transformed
+		Expression expr = Expression.jsonata("arr ~> |$[k>1]|{\"k\":k+10}|");
+		assertEquals("[{\"k\":1},{\"k\":12}]", expr.evaluate(input).toString());
+		// and the expression can be evaluated again
+		assertEquals("[{\"k\":13},{\"k\":1}]", expr.evaluate(read("{\"arr\":[{\"k\":3},{\"k\":1}]}")).toString());
+		assertEquals("[{\"k\":11},{\"k\":12}]",
+				Expression.jsonata("arr ~> |$[[0,1]]|{\"k\":k+10}|").evaluate(input).toString());
+		assertEquals("{\"arr\":[{\"k\":1},{\"k\":2}],\"a\":[{\"b\":1,\"c\":0},[{\"b\":2,\"c\":0}]]}",
+				Expression.jsonata("| $.a | {\"c\":0} |").evaluate(input).toString());
+		assertEquals(read(json), input);
+	}
+
+	@Test
+	public void testColumnarInput() throws Exception {
+		String json = "{\"readings\":[{\"sensor\":\"t1\",\"value\":1},{\"sensor\":\"t2\",\"value\":2},{\"sensor\":\"t1\",\"value\":3}]}";
+		ShapedNodeLoader loader = new ShapedNodeLoader();
+		loader.setColumnarThreshold(2);
+		JsonNode input = loader.load(json);
+		Expression expr = Expression.jsonata("|readings[sensor='t1']|{\"value\": value * 10}|");
+		JsonNode result = expr.evaluate(input);
+		assertEquals(expr.evaluate(read(json)), result);
+		assertEquals(read(json), input);
+		assertEquals("[10,2,30]", Expression.jsonata("readings.value").evaluate(result).toString());
+	}
+
+	@Test
+	public void testErrors() throws Exception {
+		JsonNode input = read(ACCOUNT);
+		try {
+			Expression.jsonata("|Account|5|").evaluate(input);
+			fail("Expected an exception");
+		} catch (EvaluateRuntimeException e) {
+			assertEquals("The insert/update clause of the transform expression must evaluate to an object: 5",
+					e.getMessage());
+		}
+		try {
+			Expression.jsonata("|Account|{}, [\"a\", 1]|").evaluate(input);
+			fail("Expected an exception");
+		} catch (EvaluateRuntimeException e) {
+			assertEquals(
+					"The delete clause of the transform expression must evaluate to a string or array of strings: [\"a\",1]",
+					e.getMessage());
+		}
+	}
+}
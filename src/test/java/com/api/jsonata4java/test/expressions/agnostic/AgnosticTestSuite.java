@@ -77,7 +77,6 @@ public class AgnosticTestSuite extends ParentRunner<TestGroup>{
 			"context",
 			"closures",
 			"sorting", 				// we don't support the order-by operator (^) yet
-			"tail-recursion", 		// tail-recursion requires function definition support, which we don't have yet
 			"function-applications",
 			"partial-application",
 			"transforms",
@@ -205,7 +204,9 @@ public class AgnosticTestSuite extends ParentRunner<TestGroup>{
 				try {
 					Expressions e = Expressions.parse(testCase.getExpr());
 					
-					JsonNode actualResult = e.evaluate(testCase.getDataset());
+					JsonNode actualResult = testCase.timelimit > 0L
+							? e.evaluate(testCase.getDataset(), testCase.timelimit, testCase.depth)
+							: e.evaluate(testCase.getDataset());
 					
 					if(actualResult != null){
 						actualResult = Utils.ensureAllIntegralsAreLongs(actualResult);
@@ -327,6 +328,8 @@ public class AgnosticTestSuite extends ParentRunner<TestGroup>{
 		private boolean undefinedResult;
 		
 		private boolean expectParseOrEvaluateException;
+		private long timelimit;
+		private int depth;
 		private TestGroup group;
 		
 		public TestCase(TestGroup group, String caseName, JsonNode caseJson) {
@@ -388,14 +391,17 @@ public class AgnosticTestSuite extends ParentRunner<TestGroup>{
 			// for now, we just take this to mean "expect a ParseException or an EvaluateException"
 			expectParseOrEvaluateException = o.has("code");
 			
-			// TODO: depth: 
+			// depth: 
 			// If the depth of evaluation should be limited, this specifies the depth.
+			this.depth = o.has("depth") ? o.get("depth").asInt() : Integer.MAX_VALUE;
 			
 			// TODO: bindings:
 			//  Any variable bindings to be applied when evaluating the expression.
 			
-			// TODO: timelimit: 
+			// timelimit: 
 			//  If a timelimit should be imposed on the test, this specifies the timelimit in milliseconds.
+			//  Expressions recursing forever (e.g. in the tail-recursion group) rely on it to stop.
+			this.timelimit = o.has("timelimit") ? o.get("timelimit").asLong() : 0L;
 			
 			// TODO: token:
 			// If the code field is present, an optional token field may also be present indicating which token token the exception should be associated with.
@@ -0,0 +1,83 @@
+/**
+ * (c) Copyright 2018, 2019 IBM Corporation
+ * 1 New Orchard Road, 
+ * Armonk, New York, 10504-1722
+ * United States
+ * +1 914 499 1900
+ * support: Nathaniel Mills wnm3@us.ibm.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.api.jsonata4java.test.expressions.path;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.api.jsonata4java.expressions.path.PathExpression;
+import com.api.jsonata4java.expressions.path.PathSet;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+
+/**
+ * Compares writing the fields of output documents one PathExpression at a time
+ * with writing them all with a PathSet. The output documents are built from
+ * an empty object, with the containers they need created beforehand for the
+ * one at a time writes (which can not create arrays). The optional argument is
+ * the number of fields per document (default 300).
+ */
+public class PathSetBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		int fields = args.length > 0 ? Integer.parseInt(args[0]) : 300;
+		List<PathExpression> paths = new ArrayList<PathExpression>();
+		List<JsonNode> values = new ArrayList<JsonNode>();
+		for (int i = 0; i < fields; i++) {
+			String path = "order.section" + (i % 5) + ".group" + (i / 5 % 6) + ".line" + (i % 3) + ".field" + i;
+			paths.add(PathExpression.parse(i % 10 == 0 ? path + "[0]" : path));
+			values.add(JsonNodeFactory.instance.numberNode(i));
+		}
+		PathSet set = PathSet.compile(paths);
+		// the skeleton of the output, with the arrays the paths index into
+		JsonNode skeleton = set.set(JsonNodeFactory.instance.objectNode(), null, values);
+
+		int documents = 20000;
+		for (int round = 0; round < 5; round++) {
+			long start = System.nanoTime();
+			for (int d = 0; d < documents; d++) {
+				JsonNode output = skeleton.deepCopy();
+				for (int i = 0; i < fields; i++) {
+					paths.get(i).set(output, null, values.get(i));
+				}
+			}
+			long each = System.nanoTime() - start;
+
+			start = System.nanoTime();
+			for (int d = 0; d < documents; d++) {
+				skeleton.deepCopy();
+			}
+			long copy = System.nanoTime() - start;
+
+			start = System.nanoTime();
+			for (int d = 0; d < documents; d++) {
+				set.set(JsonNodeFactory.instance.objectNode(), null, values);
+			}
+			long bulk = System.nanoTime() - start;
+
+			System.out.printf("%d fields: one at a time %.1f us (plus %.1f us to copy the skeleton), path set %.1f us"
+					+ " per document%n", fields, (each - copy) / 1000.0 / documents, copy / 1000.0 / documents,
+					bulk / 1000.0 / documents);
+		}
+	}
+}
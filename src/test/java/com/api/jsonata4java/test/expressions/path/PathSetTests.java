@@ -0,0 +1,224 @@
+/**
+ * (c) Copyright 2018, 2019 IBM Corporation
+ * 1 New Orchard Road, 
+ * Armonk, New York, 10504-1722
+ * United States
+ * +1 914 499 1900
+ * support: Nathaniel Mills wnm3@us.ibm.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.api.jsonata4java.test.expressions.path;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.api.jsonata4java.expressions.EvaluateRuntimeException;
+import com.api.jsonata4java.expressions.path.PathExpression;
+import com.api.jsonata4java.expressions.path.PathExpressionVisitor;
+import com.api.jsonata4java.expressions.path.PathSet;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+public class PathSetTests {
+
+	static ObjectMapper mapper = new ObjectMapper();
+
+	static JsonNode json(String text) throws Exception {
+		return mapper.readTree(text);
+	}
+
+	static List<JsonNode> values(String... texts) throws Exception {
+		List<JsonNode> values = new ArrayList<JsonNode>();
+		for (String text : texts) {
+			values.add(json(text));
+		}
+		return values;
+	}
+
+	/**
+	 * Set the values one path at a time, as the set should behave
+	 */
+	static JsonNode setEach(List<PathExpression> paths, JsonNode json, List<JsonNode> values) {
+		for (int i = 0; i < paths.size(); i++) {
+			paths.get(i).set(json, null, values.get(i));
+		}
+		return json;
+	}
+
+	static void assertSameAsSetEach(String json, String[] exprs, String[] values) throws Exception {
+		PathSet set = PathSet.parse(exprs);
+		JsonNode expected = setEach(set.getPaths(), json(json), values(values));
+		Assert.assertEquals(expected, set.set(json(json), null, values(values)));
+	}
+
+	@Test
+	public void testSetExisting() throws Exception {
+		String json = "{\"a\":{\"b\":{\"c\":0,\"d\":[0,1,{\"e\":2}]},\"x\":{\"y\":3}},\"z\":[[4,5],[6]]}";
+		assertSameAsSetEach(json, new String[] { "a.b.c", "a.b.d[0]", "a.x.y", "a.b.d[2].e", "z[1][0]", "`a`.b.f" },
+				new String[] { "10", "11", "\"12\"", "{\"f\":13}", "[14]", "true" });
+		JsonNode result = PathSet.parse("a.b.c", "a.b.d[1]").set(json(json), null, values("1", "2"));
+		Assert.assertEquals(json("{\"a\":{\"b\":{\"c\":1,\"d\":[0,2,{\"e\":2}]},\"x\":{\"y\":3}},\"z\":[[4,5],[6]]}"),
+				result);
+	}
+
+	@Test
+	public void testCreateContainers() throws Exception {
+		PathSet set = PathSet.parse("a.b.c", "a.b.d[1]", "a.x.y", "a.b.d[3].z", "a.e[0][1]", "f");
+		JsonNode result = set.set(json("{}"), null, values("1", "2", "3", "4", "5", "6"));
+		Assert.assertEquals(json("{\"a\":{\"b\":{\"c\":1,\"d\":[null,2,null,{\"z\":4}]},\"x\":{\"y\":3},"
+				+ "\"e\":[[null,5]]},\"f\":6}"), result);
+		// fields are created in the order of the paths that first reach them
+		Assert.assertEquals("{\"a\":{\"b\":{\"c\":1,\"d\":[null,2,null,{\"z\":4}]},\"x\":{\"y\":3},"
+				+ "\"e\":[[null,5]]},\"f\":6}", result.toString());
+		// the same set applies to any number of documents
+		Assert.assertEquals(result, set.set(json("{}"), null, values("1", "2", "3", "4", "5", "6")));
+		// existing arrays are not extended
+		try {
+			set.set(json("{\"a\":{\"b\":{\"d\":[0]}}}"), null, values("1", "2", "3", "4", "5", "6"));
+			Assert.fail("Expected out of bounds");
+		} catch (EvaluateRuntimeException e) {
+			Assert.assertEquals(PathExpressionVisitor.ERR_ARR_INDEX_OUT_OF_BOUNDS("d", 1), e.getMessage());
+		}
+	}
+
+	@Test
+	public void testOverlappingPaths() throws Exception {
+		String json = "{\"a\":{\"b\":0,\"c\":0}}";
+		assertSameAsSetEach(json, new String[] { "a", "a.b" }, new String[] { "{\"x\":1}", "2" });
+		assertSameAsSetEach(json, new String[] { "a.b", "a" }, new String[] { "2", "{\"x\":1}" });
+		assertSameAsSetEach(json, new String[] { "a.b", "a", "a.c" }, new String[] { "2", "{\"x\":1}", "3" });
+		assertSameAsSetEach(json, new String[] { "a.b", "a.b", "a.c" }, new String[] { "1", "2", "3" });
+		assertSameAsSetEach("{\"a\":[[0],[1]]}", new String[] { "a[1]", "a[1][0]", "a[0][0]" },
+				new String[] { "[5,6]", "7", "8" });
+		JsonNode result = PathSet.parse("a.b", "a", "a.c").set(json(json), null, values("2", "{\"x\":1}", "3"));
+		Assert.assertEquals(json("{\"a\":{\"x\":1,\"c\":3}}"), result);
+	}
+
+	@Test
+	public void testErrors() throws Exception {
+		String[][] cases = new String[][] {
+				// expression, input json
+				{ "a.b", "{\"a\":0}" }, //
+				{ "a[0]", "{\"a\":0}" }, //
+				{ "a[0][0]", "{\"a\":[0]}" }, //
+				{ "b[1]", "{\"b\":[0]}" }, //
+				{ "a[1][2]", "{\"a\":[[0],[0,0]]}" }, //
+				{ "a[1][1].b[0][1].c", "{\"a\":[[], [[], {\"b\":[[{\"c\":0}]]}]]}" }, //
+				{ "a", "[0]" } };
+		for (String[] test : cases) {
+			String expected = null;
+			try {
+				PathExpression.parse(test[0]).set(json(test[1]), null, json("1"));
+			} catch (EvaluateRuntimeException e) {
+				expected = e.getMessage();
+			}
+			Assert.assertNotNull(test[0], expected);
+			try {
+				PathSet.parse(test[0], "x").set(json(test[1]), null, values("1", "1"));
+				Assert.fail("Expected " + expected);
+			} catch (EvaluateRuntimeException e) {
+				Assert.assertEquals(expected, e.getMessage());
+			}
+		}
+		try {
+			PathSet.parse("a", "b").set(json("{}"), null, values("1"));
+			Assert.fail("Expected the number of values to be checked");
+		} catch (IllegalArgumentException e) {
+			Assert.assertEquals("Expected 2 values to assign but received 1", e.getMessage());
+		}
+	}
+
+	@Test
+	public void testNullDocument() throws Exception {
+		String expected = null;
+		try {
+			PathExpression.parse("a.b").set(null, null, json("1"));
+		} catch (EvaluateRuntimeException e) {
+			expected = e.getMessage();
+		}
+		Assert.assertEquals("Unexpected null pointer", expected);
+		try {
+			PathSet.parse("a.b", "c").set(null, null, values("1", "2"));
+			Assert.fail("Expected " + expected);
+		} catch (EvaluateRuntimeException e) {
+			Assert.assertEquals(expected, e.getMessage());
+		}
+	}
+
+	/**
+	 * Random documents and random selections of their paths, including
+	 * duplicates and paths that are prefixes of others, set with a set and one
+	 * at a time
+	 */
+	@Test
+	public void testRandomPaths() throws Exception {
+		Random random = new Random(43);
+		for (int round = 0; round < 200; round++) {
+			List<String> available = new ArrayList<String>();
+			JsonNode doc = randomObject(random, "", 3, available);
+			List<PathExpression> paths = new ArrayList<PathExpression>();
+			List<JsonNode> values = new ArrayList<JsonNode>();
+			List<JsonNode> copies = new ArrayList<JsonNode>();
+			int count = 1 + random.nextInt(available.size() * 2);
+			for (int i = 0; i < count; i++) {
+				PathExpression path = PathExpression.parse(available.get(random.nextInt(available.size())));
+				// containers are replaced by copies, so later paths can go through them
+				JsonNode value = path.get(doc, null);
+				value = value.isContainerNode() ? value.deepCopy() : JsonNodeFactory.instance.numberNode(i);
+				paths.add(path);
+				values.add(value);
+				copies.add(value.deepCopy());
+			}
+			JsonNode expected = setEach(paths, doc.deepCopy(), copies);
+			Assert.assertEquals(paths.toString(), expected, PathSet.compile(paths).set(doc.deepCopy(), null, values));
+		}
+	}
+
+	static ObjectNode randomObject(Random random, String prefix, int depth, List<String> paths) {
+		ObjectNode object = JsonNodeFactory.instance.objectNode();
+		int fields = 1 + random.nextInt(3);
+		for (int i = 0; i < fields; i++) {
+			String path = prefix + Arrays.asList("a", "b", "c", "`d e`").get(i);
+			paths.add(path);
+			object.set(i == 3 ? "d e" : path.substring(prefix.length()), randomValue(random, path, depth - 1, paths));
+		}
+		return object;
+	}
+
+	static JsonNode randomValue(Random random, String path, int depth, List<String> paths) {
+		int kind = depth <= 0 ? 0 : random.nextInt(3);
+		if (kind == 1) {
+			return randomObject(random, path + ".", depth, paths);
+		} else if (kind == 2) {
+			ArrayNode array = JsonNodeFactory.instance.arrayNode();
+			int size = 1 + random.nextInt(3);
+			for (int i = 0; i < size; i++) {
+				paths.add(path + "[" + i + "]");
+				array.add(randomValue(random, path + "[" + i + "]", depth - 1, paths));
+			}
+			return array;
+		}
+		return JsonNodeFactory.instance.numberNode(random.nextInt(100));
+	}
+}
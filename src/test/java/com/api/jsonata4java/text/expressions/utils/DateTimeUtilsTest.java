@@ -0,0 +1,81 @@
+/**
+ * (c) Copyright 2018, 2019 IBM Corporation
+ * 1 New Orchard Road, 
+ * Armonk, New York, 10504-1722
+ * United States
+ * +1 914 499 1900
+ * support: Nathaniel Mills wnm3@us.ibm.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.api.jsonata4java.text.expressions.utils;
+
+import static org.junit.Assert.assertEquals;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.api.jsonata4java.expressions.utils.DateTimeUtils;
+
+public class DateTimeUtilsTest {
+
+	@Test
+	public void testParseIsoMatchesOffsetDateTime() {
+		Random random = new Random(48);
+		String[] offsets = { "Z", "+01:00", "-10:00", "+05:30", "-00:45", "+18:00" };
+		for (int i = 0; i < 10000; i++) {
+			long millis = (long) (random.nextDouble() * 253402300799000L);
+			ZoneOffset offset = ZoneOffset.of(offsets[i % offsets.length]);
+			String timestamp = OffsetDateTime.ofInstant(Instant.ofEpochMilli(millis), offset).toString();
+			long expected = OffsetDateTime.parse(timestamp).toInstant().toEpochMilli();
+			assertEquals(timestamp, expected, DateTimeUtils.parseIso(timestamp));
+		}
+	}
+
+	@Test
+	public void testParseIsoRejectsWithoutThrowing() {
+		String[] rejected = { "", "foo", "2018-01-22", "2018-01-22T10:02:09", "2018-01-22 10:02:09Z",
+				"2018-13-22T10:02:09Z", "2018-02-29T10:02:09Z", "2018-01-22T24:00:00Z", "2018-01-22T10:60Z",
+				"2018-01-22T10:02:09.Z", "2018-01-22T10:02:09.1234567890Z", "2018-01-22T10:02:09+19:00",
+				"2018-01-22T10:02:09+0100", "2018-01-22T10:02:09ZZ", "+2018-01-22T10:02:09Z" };
+		for (String timestamp : rejected) {
+			assertEquals(timestamp, DateTimeUtils.NOT_PARSED, DateTimeUtils.parseIso(timestamp));
+		}
+		assertEquals(951782400000L, DateTimeUtils.parseIso("2000-02-29T00:00Z"));
+	}
+
+	@Test
+	public void testFormatAndParseRoundTrip() {
+		String picture = "[Y0001]-[M01]-[D01] [H01]:[m01]:[s01].[f001] [Z0101]";
+		Random random = new Random(48);
+		for (int i = 0; i < 1000; i++) {
+			long millis = (long) (random.nextDouble() * 4102444800000L);
+			ZoneOffset offset = ZoneOffset.ofHoursMinutes(i % 13, (i % 2) * 30);
+			String formatted = DateTimeUtils.format(millis, picture, offset, "$fromMillis");
+			assertEquals(formatted, millis, DateTimeUtils.parse(formatted, picture, "$toMillis"));
+		}
+	}
+
+	@Test
+	public void testTimezone() {
+		assertEquals(ZoneOffset.ofHoursMinutes(-5, -30), DateTimeUtils.parseTimezone("-0530", "$fromMillis"));
+		assertEquals(ZoneOffset.ofHours(1), DateTimeUtils.parseTimezone("0100", "$fromMillis"));
+		assertEquals(ZoneOffset.UTC, DateTimeUtils.parseTimezone("+0000", "$fromMillis"));
+	}
+}
@@ -0,0 +1,164 @@
+/**
+ * (c) Copyright 2018, 2019 IBM Corporation
+ * 1 New Orchard Road, 
+ * Armonk, New York, 10504-1722
+ * United States
+ * +1 914 499 1900
+ * support: Nathaniel Mills wnm3@us.ibm.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.api.jsonata4java.text.expressions.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.api.jsonata4java.Expression;
+import com.api.jsonata4java.expressions.utils.JsonHashUtils;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.DoubleNode;
+import com.fasterxml.jackson.databind.node.IntNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.LongNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+public class JsonHashUtilsTest {
+
+	static ObjectMapper OM = new ObjectMapper();
+
+	static void assertDeepEqual(String left, String right, boolean equal) throws Exception {
+		JsonNode x = OM.readTree(left);
+		JsonNode y = OM.readTree(right);
+		assertEquals(left + " = " + right, equal, JsonHashUtils.deepEquals(x, y));
+		assertEquals(right + " = " + left, equal, JsonHashUtils.deepEquals(y, x));
+		assertEquals(left + " = " + right, equal, new JsonHashUtils.Key(x).equals(new JsonHashUtils.Key(y)));
+		if (equal) {
+			assertEquals(left + " = " + right, JsonHashUtils.hash(x), JsonHashUtils.hash(y));
+		}
+	}
+
+	@Test
+	public void testDeepEquals() throws Exception {
+		assertDeepEqual("1", "1.0", true);
+		assertDeepEqual("0", "-0.0", true);
+		assertDeepEqual("1", "2", false);
+		assertDeepEqual("\"1\"", "1", false);
+		assertDeepEqual("true", "true", true);
+		assertDeepEqual("true", "false", false);
+		assertDeepEqual("null", "null", true);
+		assertDeepEqual("null", "false", false);
+		assertDeepEqual("[1, [2, \"a\"]]", "[1.0, [2, \"a\"]]", true);
+		assertDeepEqual("[1, 2]", "[2, 1]", false);
+		assertDeepEqual("[1]", "[1, 1]", false);
+		assertDeepEqual("{\"a\": 1, \"b\": {\"c\": [true]}}", "{\"b\": {\"c\": [true]}, \"a\": 1.0}", true);
+		assertDeepEqual("{\"a\": 1}", "{\"a\": 1, \"b\": 1}", false);
+		assertDeepEqual("{\"a\": 1}", "{\"b\": 1}", false);
+		assertDeepEqual("{\"a\": null}", "{}", false);
+		assertDeepEqual("[]", "{}", false);
+		assertTrue(JsonHashUtils.deepEquals(null, null));
+		assertFalse(JsonHashUtils.deepEquals(null, IntNode.valueOf(1)));
+		assertTrue(JsonHashUtils.deepEquals(IntNode.valueOf(3), LongNode.valueOf(3L)));
+		assertTrue(JsonHashUtils.deepEquals(IntNode.valueOf(3), DoubleNode.valueOf(3.0d)));
+	}
+
+	@Test
+	public void testScalarKeys() throws Exception {
+		assertTrue(JsonHashUtils.isScalarKey(OM.readTree("\"a\"")));
+		assertTrue(JsonHashUtils.isScalarKey(OM.readTree("1.5")));
+		assertTrue(JsonHashUtils.isScalarKey(LongNode.valueOf(1L << 53)));
+		assertFalse(JsonHashUtils.isScalarKey(LongNode.valueOf((1L << 53) + 1)));
+		assertFalse(JsonHashUtils.isScalarKey(OM.readTree("[1]")));
+		assertFalse(JsonHashUtils.isScalarKey(OM.readTree("{}")));
+	}
+
+	@Test
+	public void testMembership() throws Exception {
+		// the in operator finds members of large arrays searched more than once in
+		// a hash set, which must agree with comparing each member (as it does for an
+		// array searched once)
+		ArrayNode allowed = JsonNodeFactory.instance.arrayNode();
+		ArrayNode items = JsonNodeFactory.instance.arrayNode();
+		for (int i = 0; i < 100; i++) {
+			if (i % 3 == 0) {
+				allowed.add(i);
+			} else if (i % 3 == 1) {
+				allowed.add("s" + i);
+			}
+			items.add(i);
+			items.add(i + 0.0d);
+			items.add("s" + i);
+			items.add(i + 0.5d);
+		}
+		allowed.add(JsonNodeFactory.instance.arrayNode().add(1000));
+		allowed.add(JsonNodeFactory.instance.objectNode().put("n", 1001));
+		allowed.add(true);
+		allowed.addNull();
+		items.add(1000);
+		items.add(true);
+		items.add(false);
+		items.addNull();
+		items.add(JsonNodeFactory.instance.objectNode().put("n", 1001));
+		assertMembership(allowed, items);
+		assertEquals(Boolean.TRUE, Boolean.valueOf(allowed.size() >= 16));
+
+		// integers beyond 2^53 are compared to the members one by one
+		items.add((1L << 53) + 1);
+		items.add((1L << 53) + 2);
+		assertMembership(allowed, items);
+		allowed.add((1L << 53) + 1);
+		assertMembership(allowed, items);
+		// as are arrays with floating point members
+		allowed.add(2.5d);
+		assertMembership(allowed, items);
+	}
+
+	@Test
+	public void testTemporaryArrays() throws Exception {
+		// arrays built again for each value filtered are not kept for indexing,
+		// so memory does not grow with the number of values times the array size
+		ObjectNode input = JsonNodeFactory.instance.objectNode();
+		ArrayNode events = input.putArray("events");
+		for (int i = 0; i < 20000; i++) {
+			events.addObject().put("v", i % 3000);
+		}
+		assertEquals("14000", Expression.jsonata("$count(events[v in [0..1999]])").evaluate(input).toString());
+		assertEquals("14000", Expression.jsonata("($allowed := [0..1999]; $count(events[v in $allowed]))")
+				.evaluate(input).toString());
+		assertEquals("200", Expression
+				.jsonata("$count(events[[0..1999]][v in $map([0..199], function($x){ $x * 10 })])")
+				.evaluate(input).toString());
+	}
+
+	static void assertMembership(ArrayNode allowed, ArrayNode items) throws Exception {
+		ObjectNode input = JsonNodeFactory.instance.objectNode();
+		input.set("allowed", allowed);
+		ArrayNode wrapped = input.putArray("items");
+		ArrayNode expected = JsonNodeFactory.instance.arrayNode();
+		Expression single = Expression.jsonata("n in allowed");
+		for (JsonNode item : items) {
+			wrapped.addObject().set("n", item);
+			ObjectNode one = JsonNodeFactory.instance.objectNode();
+			one.set("n", item);
+			one.set("allowed", allowed);
+			expected.add(single.evaluate(one));
+		}
+		assertEquals(expected, Expression.jsonata("items.(n in $$.allowed)").evaluate(input));
+	}
+}
@@ -80,6 +80,17 @@ public class JsonMergeUtilsTest {
 		Assert.assertEquals(expected, actual);
 	
 	}
+
+	@Test
+	public void testCopyCase() throws Exception {
+		final JsonNode xCopy = x == null ? null : x.deepCopy();
+		final JsonNode yCopy = y == null ? null : y.deepCopy();
+		final JsonNode actual = JsonMergeUtils.mergeCopy(xCopy, yCopy);
+		Assert.assertEquals(expected, actual);
+		// neither argument is changed
+		Assert.assertEquals(x, xCopy);
+		Assert.assertEquals(y, yCopy);
+	}
 	
 //	public static JsonNode merge(String x, String y) throws JsonProcessingException, IOException {
 //		return merge(, OM.readTree(y));
@@ -0,0 +1,110 @@
+/**
+ * (c) Copyright 2018, 2019 IBM Corporation
+ * 1 New Orchard Road, 
+ * Armonk, New York, 10504-1722
+ * United States
+ * +1 914 499 1900
+ * support: Nathaniel Mills wnm3@us.ibm.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.api.jsonata4java.text.expressions.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.Map;
+import java.util.Random;
+
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.junit.Test;
+
+import com.api.jsonata4java.expressions.EvaluateRuntimeException;
+import com.api.jsonata4java.expressions.Expressions;
+import com.api.jsonata4java.expressions.utils.Constants;
+import com.api.jsonata4java.expressions.utils.NumberUtils;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.DoubleNode;
+import com.fasterxml.jackson.databind.node.LongNode;
+import com.fasterxml.jackson.databind.node.ValueNode;
+
+public class NumberUtilsTest {
+
+	/**
+	 * The conversion by exceptions the scanner replaces
+	 */
+	static ValueNode convertByExceptions(String number) {
+		try {
+			return new LongNode(Long.valueOf(number));
+		} catch (NumberFormatException e) {
+			try {
+				double value = Double.valueOf(number);
+				if (Double.isInfinite(value) || Double.isNaN(value)) {
+					throw new EvaluateRuntimeException(String.format(Constants.ERR_MSG_NUMBER_OUT_OF_RANGE, number));
+				}
+				return new DoubleNode(value);
+			} catch (NumberFormatException e2) {
+				throw new EvaluateRuntimeException(
+						String.format(Constants.ERR_MSG_UNABLE_TO_CAST_VALUE_TO_NUMBER, number));
+			}
+		}
+	}
+
+	static String outcome(String number, boolean scanned) {
+		try {
+			ValueNode value = scanned ? NumberUtils.convertNumberToValueNode(number) : convertByExceptions(number);
+			return value.getClass().getSimpleName() + " " + value;
+		} catch (EvaluateRuntimeException e) {
+			return e.getMessage();
+		}
+	}
+
+	@Test
+	public void testSameResultsAsConversionByExceptions() {
+		String[] numbers = { "0", "-0", "+7", "007", "42", "-42", "9223372036854775807", "-9223372036854775808",
+				"9223372036854775808", "-9223372036854775809", "123456789012345678901234567890", "1.5", "-1.5", ".5",
+				"5.", "1e3", "1E-3", "1.5e+3", "-.5e2", "1e400", "-1e400", "1e-400", "", "-", "+", ".", "e5", "1e",
+				"1e+", "1.2.3", "1-2", "--1", "abc", "12abc", " 12", "12 ", "1d", "1f", "NaN", "Infinity",
+				"-Infinity", "0x10", "0x1p3", "١٢", "1,000", "1_000" };
+		for (String number : numbers) {
+			assertEquals(number, outcome(number, false), outcome(number, true));
+		}
+		Random random = new Random(49);
+		String alphabet = "0123456789.-+eE ";
+		for (int i = 0; i < 100000; i++) {
+			StringBuilder number = new StringBuilder();
+			for (int length = random.nextInt(8); length >= 0; length--) {
+				number.append(alphabet.charAt(random.nextInt(alphabet.length())));
+			}
+			assertEquals(number.toString(), outcome(number.toString(), false), outcome(number.toString(), true));
+		}
+	}
+
+	@Test
+	public void testLiteralsConvertedOnce() throws Exception {
+		Expressions expression = Expressions.parse("[1, 2.5, 3][0]");
+		Map<ParseTree, JsonNode> literals = expression.getLiterals();
+		assertNotNull(literals);
+		assertEquals(4, literals.size());
+		JsonNode first = expression.evaluate(null);
+		assertEquals(new LongNode(1), first);
+		assertSame(first, expression.evaluate(null));
+		assertEquals(null, Expressions.parse("a.b").getLiterals());
+		// out of range literals are left to fail when evaluated
+		assertEquals(1, Expressions.parse("false ? 1e400 : 1").getLiterals().size());
+		assertEquals(new LongNode(1), Expressions.parse("false ? 1e400 : 1").evaluate(null));
+	}
+}